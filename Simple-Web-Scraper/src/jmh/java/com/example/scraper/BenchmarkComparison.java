@@ -0,0 +1,98 @@
+package com.example.scraper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Compares two JMH JSON result files and fails when a benchmark got slower than a threshold.
+ * Benchmarks are matched by name and parameters; those in only one file are listed and skipped.
+ * A change counts as a regression only if it exceeds both the threshold and the two runs' combined
+ * score error, so noisy benchmarks do not fail the comparison on their own.
+ * <p>
+ * Usage: {@code BenchmarkComparison <baseline.json> <current.json> [threshold]}, where the threshold
+ * is a fraction (default 0.10, i.e. 10% slower). Exits with status 1 if anything regressed.
+ */
+public final class BenchmarkComparison {
+    
+    private static final double DEFAULT_THRESHOLD = 0.10;
+    
+    private BenchmarkComparison() {
+    }
+    
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: BenchmarkComparison <baseline.json> <current.json> [threshold]");
+            System.exit(2);
+        }
+        File baselineFile = new File(args[0]);
+        if (!baselineFile.isFile()) {
+            System.err.println("No baseline at " + baselineFile + "; save a jmh-result.json there first");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_THRESHOLD;
+        
+        Map<String, JsonNode> baseline = readResults(baselineFile);
+        Map<String, JsonNode> current = readResults(new File(args[1]));
+        int regressions = 0;
+        
+        for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+            JsonNode before = baseline.get(entry.getKey());
+            if (before == null) {
+                System.out.printf("  new        %s%n", entry.getKey());
+                continue;
+            }
+            JsonNode after = entry.getValue();
+            double oldScore = before.path("primaryMetric").path("score").asDouble();
+            double newScore = after.path("primaryMetric").path("score").asDouble();
+            double error = finite(before.path("primaryMetric").path("scoreError").asDouble())
+                    + finite(after.path("primaryMetric").path("scoreError").asDouble());
+            
+            // Throughput is better when higher; every other mode measures time
+            boolean higherIsBetter = "thrpt".equals(after.path("mode").asText());
+            double worse = higherIsBetter ? oldScore - newScore : newScore - oldScore;
+            double change = oldScore != 0 ? worse / oldScore : 0;
+            boolean regressed = change > threshold && worse > error;
+            if (regressed) {
+                regressions++;
+            }
+            System.out.printf("  %-10s %s: %.3f -> %.3f %s (%+.1f%%)%n", regressed ? "REGRESSED" : "ok",
+                    entry.getKey(), oldScore, newScore, after.path("primaryMetric").path("scoreUnit").asText(),
+                    (higherIsBetter ? -change : change) * 100);
+        }
+        for (String key : baseline.keySet()) {
+            if (!current.containsKey(key)) {
+                System.out.printf("  missing    %s%n", key);
+            }
+        }
+        
+        if (regressions > 0) {
+            System.out.printf("%d benchmark(s) regressed by more than %.0f%%%n", regressions, threshold * 100);
+            System.exit(1);
+        }
+        System.out.println("No regressions");
+    }
+    
+    private static Map<String, JsonNode> readResults(File file) throws IOException {
+        Map<String, JsonNode> results = new LinkedHashMap<>();
+        for (JsonNode result : new ObjectMapper().readTree(file)) {
+            StringBuilder key = new StringBuilder(result.path("benchmark").asText());
+            Iterator<Map.Entry<String, JsonNode>> params = result.path("params").fields();
+            while (params.hasNext()) {
+                Map.Entry<String, JsonNode> param = params.next();
+                key.append(' ').append(param.getKey()).append('=').append(param.getValue().asText());
+            }
+            results.put(key.toString(), result);
+        }
+        return results;
+    }
+    
+    private static double finite(double value) {
+        return Double.isFinite(value) ? value : 0;
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.scraper.cli;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.example.scraper.StubHttpServer;
+import com.example.scraper.model.DataSelectors;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * End-to-end {@link WebScraper#scrapeUrls} against an in-process HTTP server: robots.txt check,
+ * rate limiter, fetch, parse stage and record delivery for a batch of listing pages on one host.
+ * Politeness delays are off and nothing is cached on disk, so the score is the scraper's own
+ * overhead on a fast local network rather than time spent waiting. robots.txt is fetched once,
+ * during warmup. Per-URL INFO logging is turned off so the console does not dominate the score.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(jvmArgsAppend = "-Dorg.slf4j.simpleLogger.defaultLogLevel=warn")
+public class WebScraperBenchmark {
+    
+    @Param({"200"})
+    public int pageCount;
+    
+    @Param({"20"})
+    public int productsPerPage;
+    
+    @Param({"8"})
+    public int concurrency;
+    
+    private StubHttpServer server;
+    private WebScraper scraper;
+    private List<String> urls;
+    
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        server = StubHttpServer.start()
+                .serve("/robots.txt", "text/plain", "User-agent: *\nDisallow: /admin\n")
+                .serveAll("/catalog/", "text/html; charset=utf-8", this::listingPage);
+        
+        ScraperConfig config = new ScraperConfig();
+        config.setDelayMs(0);
+        config.setAdaptiveDelay(false);
+        config.setCacheDir(null);
+        config.setConcurrency(concurrency);
+        config.setMaxConcurrentPerDomain(concurrency);
+        
+        DataSelectors selectors = new DataSelectors();
+        selectors.setContainerSelector("article, .item, .product, .post");
+        selectors.setTitleSelector("h1, h2, h3, .title, .name");
+        selectors.setDescriptionSelector("p, .description, .summary");
+        selectors.setUrlSelector("a");
+        selectors.setPriceSelector(".price, .cost");
+        selectors.setImageSelector("img");
+        scraper = new WebScraper(config, selectors);
+        
+        urls = new ArrayList<>();
+        for (int i = 0; i < pageCount; i++) {
+            urls.add(server.url("/catalog/" + i));
+        }
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        scraper.close();
+        server.close();
+    }
+    
+    @Benchmark
+    public long scrapeUrls() throws InterruptedException {
+        AtomicLong records = new AtomicLong();
+        scraper.scrapeUrls(urls, true, page -> records.addAndGet(page.size()));
+        if (records.get() != (long) pageCount * productsPerPage) {
+            throw new IllegalStateException("Expected " + pageCount * productsPerPage + " records, got " + records);
+        }
+        return records.get();
+    }
+    
+    private String listingPage(String path) {
+        String page = path.substring("/catalog/".length());
+        StringBuilder html = new StringBuilder("<html><head><title>Catalog page ").append(page)
+                .append("</title></head><body><main>");
+        for (int i = 0; i < productsPerPage; i++) {
+            html.append("<div class=\"product\"><a href=\"/products/").append(page).append('-').append(i).append("\">")
+                .append("<img src=\"/images/").append(i).append(".jpg\"></a>")
+                .append("<h3 class=\"name\">Product ").append(page).append('-').append(i).append("</h3>")
+                .append("<p class=\"description\">Description of product ").append(i).append(".</p>")
+                .append("<span class=\"price\">$").append(10 + i).append(".99</span></div>");
+        }
+        return html.append("</main></body></html>").toString();
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.scraper.core.frontier;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares the seen-URL sets against a plain {@code HashSet<String>}: filling a set with URLs
+ * (half of them duplicates, as in a real crawl) and looking URLs up in a filled set.
+ * "hashset" stores raw URL strings; "hashset-canonical" canonicalizes them first, which isolates the
+ * cost of canonicalization that the fingerprint sets also pay.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class SeenUrlSetBenchmark {
+    
+    @Param({"hashset", "hashset-canonical", "exact", "exact-offheap", "bloom"})
+    public String implementation;
+    
+    @Param({"100000"})
+    public int urlCount;
+    
+    private String[] urls;
+    private Set<String> filledHashSet;
+    private UrlDeduplicator filledDeduplicator;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        urls = new String[urlCount * 2];
+        for (int i = 0; i < urlCount; i++) {
+            String url = "https://shop" + (i % 50) + ".example.com/catalog/category-" + (i % 400)
+                    + "/products/item-" + i + "?sort=price&page=" + (i % 20);
+            urls[2 * i] = url;
+            urls[2 * i + 1] = i % 2 == 0 ? url + "#reviews" : url.replace("https://shop", "HTTPS://SHOP");
+        }
+        
+        if (implementation.startsWith("hashset")) {
+            filledHashSet = new HashSet<>();
+            for (String url : urls) {
+                filledHashSet.add(toKey(url));
+            }
+        } else {
+            filledDeduplicator = newDeduplicator();
+            for (String url : urls) {
+                filledDeduplicator.markSeen(url);
+            }
+        }
+    }
+    
+    @TearDown(Level.Trial)
+    public void reportMemory() {
+        if (filledDeduplicator != null) {
+            System.out.printf("%n%s: %d URLs seen, %d KB allocated%n", implementation,
+                    filledDeduplicator.getSeenCount(), filledDeduplicator.getAllocatedBytes() >> 10);
+        }
+    }
+    
+    @Benchmark
+    public long insert() {
+        if (implementation.startsWith("hashset")) {
+            Set<String> set = new HashSet<>();
+            for (String url : urls) {
+                set.add(toKey(url));
+            }
+            return set.size();
+        }
+        
+        UrlDeduplicator deduplicator = newDeduplicator();
+        for (String url : urls) {
+            deduplicator.markSeen(url);
+        }
+        return deduplicator.getSeenCount();
+    }
+    
+    @Benchmark
+    public void lookup(Blackhole blackhole) {
+        boolean hashSet = implementation.startsWith("hashset");
+        for (String url : urls) {
+            blackhole.consume(hashSet ? filledHashSet.contains(toKey(url)) : filledDeduplicator.isSeen(url));
+        }
+    }
+    
+    private String toKey(String url) {
+        return implementation.equals("hashset-canonical") ? UrlCanonicalizer.canonicalize(url) : url;
+    }
+    
+    private UrlDeduplicator newDeduplicator() {
+        switch (implementation) {
+            case "exact":
+                return UrlDeduplicator.create(DedupMode.EXACT, 0.001, 256, false);
+            case "exact-offheap":
+                return UrlDeduplicator.create(DedupMode.EXACT, 0.001, 256, true);
+            case "bloom":
+                return UrlDeduplicator.create(DedupMode.BLOOM, 0.001, 256, false);
+            default:
+                throw new IllegalArgumentException("Unknown implementation: " + implementation);
+        }
+    }
+}
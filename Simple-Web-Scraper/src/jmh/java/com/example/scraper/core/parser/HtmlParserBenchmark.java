@@ -0,0 +1,105 @@
+package com.example.scraper.core.parser;
+
+import java.util.concurrent.TimeUnit;
+
+import com.example.scraper.model.DataSelectors;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Field extraction from a product-listing page with several hundred containers, using the CLI's
+ * default selectors. "strings" looks every field up with {@code selectFirst(String)}, as extraction
+ * did before selector plans; "plan" uses a precompiled {@link SelectorPlan}. The extract benchmarks
+ * run on an already parsed document to isolate selector cost. {@link #parsePage()} includes jsoup's
+ * HTML parse as seen by the crawler; there "strings" passes the {@link DataSelectors}, which compiles
+ * a plan for every page.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class HtmlParserBenchmark {
+    
+    @Param({"strings", "plan"})
+    public String extraction;
+    
+    @Param({"600"})
+    public int containerCount;
+    
+    private String html;
+    private Document document;
+    private DataSelectors selectors;
+    private SelectorPlan plan;
+    private HtmlParser parser;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        StringBuilder page = new StringBuilder("<html><head><title>Catalog</title></head><body>")
+                .append("<header><nav><ul>");
+        for (int i = 0; i < 40; i++) {
+            page.append("<li><a href=\"/category/").append(i).append("\">Category ").append(i).append("</a></li>");
+        }
+        page.append("</ul></nav></header><main><section class=\"listing\">");
+        for (int i = 0; i < containerCount; i++) {
+            page.append("<div class=\"product\" data-id=\"").append(i).append("\">")
+                .append("<div class=\"media\"><a href=\"/products/").append(i).append("\">")
+                .append("<img src=\"https://img.example-cdn.com/products/").append(i).append(".jpg\" alt=\"\"></a></div>")
+                .append("<div class=\"details\"><span class=\"badge\">New</span>")
+                .append("<h3 class=\"name\">Wireless Headphones Model ").append(i).append("</h3>")
+                .append("<ul class=\"specs\"><li>Bluetooth 5.3</li><li>30h battery</li><li>USB-C</li></ul>")
+                .append("<p class=\"description\">Noise-cancelling over-ear headphones, colour variant ")
+                .append(i % 40).append(".</p></div>")
+                .append("<div class=\"buy\"><span class=\"price\">$").append(19 + i % 30).append(".99</span>")
+                .append("<button>Add to cart</button></div></div>");
+        }
+        page.append("</section></main><footer><p>Footer</p></footer></body></html>");
+        html = page.toString();
+        
+        selectors = new DataSelectors();
+        selectors.setContainerSelector("article, .item, .product, .post");
+        selectors.setTitleSelector("h1, h2, h3, .title, .name");
+        selectors.setDescriptionSelector("p, .description, .summary");
+        selectors.setUrlSelector("a");
+        selectors.setPriceSelector(".price, .cost");
+        selectors.setImageSelector("img");
+        plan = SelectorPlan.compile(selectors);
+        parser = new HtmlParser();
+        document = Jsoup.parse(html, "https://shop.example.com/catalog");
+    }
+    
+    @Benchmark
+    public void extract(Blackhole blackhole) {
+        if (extraction.equals("plan")) {
+            for (Element container : plan.findContainers(document)) {
+                blackhole.consume(plan.findFields(container));
+            }
+            plan.releaseMatchState(document);
+        } else {
+            for (Element container : document.select(selectors.getContainerSelector())) {
+                blackhole.consume(container.selectFirst(selectors.getTitleSelector()));
+                blackhole.consume(container.selectFirst(selectors.getDescriptionSelector()));
+                blackhole.consume(container.selectFirst(selectors.getUrlSelector()));
+                blackhole.consume(container.selectFirst(selectors.getPriceSelector()));
+                blackhole.consume(container.selectFirst(selectors.getImageSelector()));
+            }
+        }
+    }
+    
+    @Benchmark
+    public ParsedPage parsePage() {
+        if (extraction.equals("plan")) {
+            return parser.parsePage(html, "https://shop.example.com/catalog", plan, true);
+        }
+        return parser.parsePage(html, "https://shop.example.com/catalog", selectors, true);
+    }
+}
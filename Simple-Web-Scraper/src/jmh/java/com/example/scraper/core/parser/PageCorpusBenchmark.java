@@ -0,0 +1,84 @@
+package com.example.scraper.core.parser;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import com.example.scraper.model.DataSelectors;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Parsing and extraction over a corpus of recorded pages with the CLI's default selectors. The
+ * corpus is every .html file in a directory, by default the test fixtures; point it at pages saved
+ * from a real site with {@code -Djmh.args="-p corpus=/path/to/pages"} to measure that site's shape.
+ * {@link #parseHtml} is the public API, which compiles the selectors for every page;
+ * {@link #parsePage} is what the crawler does, with a cached plan and link extraction.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class PageCorpusBenchmark {
+    
+    @Param({"src/test/resources/fixtures"})
+    public String corpus;
+    
+    private final List<String> pages = new ArrayList<>();
+    private final List<String> urls = new ArrayList<>();
+    private DataSelectors selectors;
+    private SelectorPlan plan;
+    private HtmlParser parser;
+    
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        try (Stream<Path> files = Files.list(Paths.get(corpus))) {
+            for (Path file : (Iterable<Path>) files.sorted()::iterator) {
+                if (file.getFileName().toString().endsWith(".html")) {
+                    pages.add(Files.readString(file, StandardCharsets.UTF_8));
+                    urls.add("https://corpus.example.com/" + file.getFileName());
+                }
+            }
+        }
+        if (pages.isEmpty()) {
+            throw new IllegalStateException("No .html files in " + corpus);
+        }
+        
+        selectors = new DataSelectors();
+        selectors.setContainerSelector("article, .item, .product, .post");
+        selectors.setTitleSelector("h1, h2, h3, .title, .name");
+        selectors.setDescriptionSelector("p, .description, .summary");
+        selectors.setUrlSelector("a");
+        selectors.setPriceSelector(".price, .cost");
+        selectors.setImageSelector("img");
+        plan = SelectorPlan.compile(selectors);
+        parser = new HtmlParser();
+    }
+    
+    @Benchmark
+    public void parseHtml(Blackhole blackhole) {
+        for (int i = 0; i < pages.size(); i++) {
+            blackhole.consume(parser.parseHtml(pages.get(i), urls.get(i), selectors));
+        }
+    }
+    
+    @Benchmark
+    public void parsePage(Blackhole blackhole) {
+        for (int i = 0; i < pages.size(); i++) {
+            blackhole.consume(parser.parsePage(pages.get(i), urls.get(i), plan, true));
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.scraper.core.persistence;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.example.scraper.model.ScrapedData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Write throughput and file size of the output formats for a product-listing-like data set, where
+ * titles, prices and image hosts repeat. File sizes are printed after each trial.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class OutputFormatBenchmark {
+    
+    @Param({"csv", "jsonl", "jsonl-gzip", "jsonl-zstd", "parquet", "parquet-zstd"})
+    public String format;
+    
+    @Param({"100000"})
+    public int recordCount;
+    
+    private List<ScrapedData> records;
+    private Path directory;
+    private long lastFileBytes;
+    
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("output-benchmark");
+        records = new ArrayList<>(recordCount);
+        for (int i = 0; i < recordCount; i++) {
+            ScrapedData data = new ScrapedData("Wireless Headphones Model " + (i % 250),
+                    "Noise-cancelling over-ear headphones, colour variant " + (i % 40) + ", item " + i,
+                    "https://shop.example.com/products/" + i);
+            data.setPrice("$" + (19 + i % 30) + ".99");
+            data.setImageUrl("https://img" + (i % 4) + ".example-cdn.com/products/" + (i % 500) + ".jpg");
+            records.add(data);
+        }
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        System.out.printf("%n%s: %d KB for %d records%n", format, lastFileBytes >> 10, recordCount);
+        try (var files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+    
+    @Benchmark
+    public long write() throws IOException {
+        WriterOptions options = new WriterOptions();
+        options.setMaxFileBytes(0);
+        String path = directory.resolve("out").toString();
+        File file;
+        
+        switch (format) {
+            case "parquet":
+            case "parquet-zstd":
+                options.setCompression(format.endsWith("zstd") ? OutputCompression.ZSTD : OutputCompression.NONE);
+                ParquetWriter parquet = new ParquetWriter(path + ".parquet", options);
+                parquet.writeData(records);
+                parquet.close();
+                file = parquet.getCurrentFile();
+                break;
+            case "csv":
+                CSVWriter csv = new CSVWriter(path + ".csv", false, options);
+                csv.writeData(records);
+                csv.close();
+                file = csv.getCurrentFile();
+                break;
+            default:
+                if (format.endsWith("gzip")) {
+                    options.setCompression(OutputCompression.GZIP);
+                } else if (format.endsWith("zstd")) {
+                    options.setCompression(OutputCompression.ZSTD);
+                }
+                JSONLWriter jsonl = new JSONLWriter(path + ".jsonl", false, options);
+                jsonl.writeData(records);
+                jsonl.close();
+                file = jsonl.getCurrentFile();
+                break;
+        }
+        
+        lastFileBytes = file.length();
+        return lastFileBytes;
+    }
+}
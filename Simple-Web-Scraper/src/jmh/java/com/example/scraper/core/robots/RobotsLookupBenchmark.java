@@ -0,0 +1,71 @@
+package com.example.scraper.core.robots;
+
+import java.net.http.HttpClient;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * {@link RobotsTxtCompliance#isUrlAllowed} for URLs spread over many origins whose robots.txt is
+ * already cached, which is the per-URL cost the crawler pays once a site has been seen: origin
+ * extraction, the cache lookup and rule matching. No request is sent; the cache is filled with fresh
+ * entries up front and their rules are parsed during warmup.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class RobotsLookupBenchmark {
+    
+    private static final String ROBOTS_TXT = "User-agent: *\n"
+            + "Disallow: /cart\n"
+            + "Disallow: /checkout/\n"
+            + "Disallow: /*?sessionid=\n"
+            + "Allow: /search/help\n"
+            + "Disallow: /search\n"
+            + "Crawl-delay: 2\n"
+            + "\n"
+            + "User-agent: BadBot\n"
+            + "Disallow: /\n";
+    
+    @Param({"1000"})
+    public int originCount;
+    
+    private String[] urls;
+    private RobotsTxtCompliance compliance;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        RobotsCache cache = new RobotsCache(originCount);
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < originCount; i++) {
+            cache.put("https://shop" + i + ".example.com", new RobotsCache.Entry(ROBOTS_TXT, now, now + 86_400_000L));
+        }
+        compliance = new RobotsTxtCompliance(HttpClient.newHttpClient(), cache);
+        
+        String[] paths = {"/catalog/category-7/products/item-42", "/cart", "/search?q=headphones",
+            "/search/help", "/products/item-9?sessionid=abc", "/checkout/step-2", "/"};
+        urls = new String[originCount * paths.length];
+        for (int i = 0; i < urls.length; i++) {
+            urls[i] = "https://shop" + (i % originCount) + ".example.com" + paths[i % paths.length];
+        }
+    }
+    
+    @Benchmark
+    public int isUrlAllowed() {
+        int allowed = 0;
+        for (String url : urls) {
+            if (compliance.isUrlAllowed(url)) {
+                allowed++;
+            }
+        }
+        return allowed;
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.scraper.cli;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import com.example.scraper.core.parser.SelectorProfiles;
+import com.example.scraper.model.DataSelectors;
+import com.example.scraper.model.ExtractionSchema;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Job settings read from a JSON file such as scraper-config.json: start URLs, politeness settings,
+ * the default selectors and site-specific selector profiles.
+ * <pre>
+ * {
+ *   "startUrls": ["https://shop.example.com/"],
+ *   "rateLimitMs": 2000,
+ *   "userAgent": "MyBot/1.0",
+ *   "respectRobots": true,
+ *   "selectors": {"container": "article", "title": "h2", "url": "a"},
+ *   "profiles": [
+ *     {"name": "shop", "hosts": ["shop.example.com"], "urlPattern": "/products/",
+ *      "selectors": {"container": "div.product-card", "title": ".product-title"}},
+ *     {"name": "blog", "hosts": ["*.blog.example.com"], "schema": {"container_selector": "...", "fields": []}}
+ *   ]
+ * }
+ * </pre>
+ * A profile's selectors override the default selectors one by one; a profile can instead give a
+ * full extraction schema with the same fields as the default one. Every key is optional.
+ */
+public class ConfigFile {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ConfigFile.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    
+    private final File file;
+    private final JsonNode root;
+    
+    private ConfigFile(File file, JsonNode root) {
+        this.file = file;
+        this.root = root;
+    }
+    
+    /**
+     * Reads a config file.
+     * 
+     * @param file The JSON file
+     * @return the parsed file
+     * @throws IOException if the file cannot be read or is not a JSON object
+     */
+    public static ConfigFile load(File file) throws IOException {
+        JsonNode root = objectMapper.readTree(file);
+        if (root == null || !root.isObject()) {
+            throw new IOException("Config file " + file + " must contain a JSON object");
+        }
+        return new ConfigFile(file, root);
+    }
+    
+    /**
+     * Copies the file's job settings into a configuration. Command-line options applied afterwards
+     * take precedence.
+     * 
+     * @param config The configuration to update
+     * @throws IOException if a setting has the wrong type or value
+     */
+    public void applyTo(ScraperConfig config) throws IOException {
+        for (JsonNode url : root.path("startUrls")) {
+            config.addUrl(url.asText());
+        }
+        if (root.has("rateLimitMs")) {
+            long delayMs = root.get("rateLimitMs").asLong(-1);
+            if (delayMs < 0) {
+                throw new IOException("rateLimitMs in " + file + " must be a non-negative number");
+            }
+            config.setDelayMs(delayMs);
+        }
+        if (root.hasNonNull("userAgent")) {
+            config.setUserAgent(root.get("userAgent").asText());
+        }
+        if (root.has("respectRobots")) {
+            config.setRespectRobots(root.get("respectRobots").asBoolean(true));
+        }
+        config.setConfigFile(file.getPath());
+    }
+    
+    /**
+     * Builds the default selectors: the given defaults with any selectors set in the file.
+     * 
+     * @param defaults Built-in selectors
+     * @return merged selectors
+     */
+    public DataSelectors createDataSelectors(DataSelectors defaults) {
+        return mergeSelectors(defaults, root.path("selectors"));
+    }
+    
+    /**
+     * Builds the selector profiles declared in the file around a default schema, compiling each
+     * profile's selectors once.
+     * 
+     * @param defaultSchema Schema for pages no profile matches
+     * @param defaultSelectors Selectors that profile selectors override, from
+     *                         {@link #createDataSelectors}
+     * @return compiled profiles
+     * @throws IOException if a profile is invalid
+     */
+    public SelectorProfiles createSelectorProfiles(ExtractionSchema defaultSchema, DataSelectors defaultSelectors)
+            throws IOException {
+        List<SelectorProfiles.Profile> profiles = new ArrayList<>();
+        for (JsonNode node : root.path("profiles")) {
+            String name = node.path("name").asText("profile " + (profiles.size() + 1));
+            try {
+                List<String> hosts = new ArrayList<>();
+                for (JsonNode host : node.path("hosts")) {
+                    hosts.add(host.asText());
+                }
+                Pattern urlPattern = node.hasNonNull("urlPattern")
+                        ? Pattern.compile(node.get("urlPattern").asText())
+                        : null;
+                ExtractionSchema schema = node.has("schema")
+                        ? objectMapper.treeToValue(node.get("schema"), ExtractionSchema.class)
+                        : ExtractionSchema.fromSelectors(mergeSelectors(defaultSelectors, node.path("selectors")));
+                profiles.add(new SelectorProfiles.Profile(name, hosts, urlPattern, schema));
+            } catch (JsonProcessingException | IllegalArgumentException e) {
+                throw new IOException("Invalid selector profile '" + name + "' in " + file + ": " + e.getMessage(), e);
+            }
+        }
+        
+        try {
+            SelectorProfiles selectorProfiles = new SelectorProfiles(defaultSchema, profiles);
+            if (!profiles.isEmpty()) {
+                logger.info("Loaded {} selector profiles from {}", profiles.size(), file);
+            }
+            return selectorProfiles;
+        } catch (IllegalArgumentException e) {
+            throw new IOException(e.getMessage() + " (" + file + ")", e);
+        }
+    }
+    
+    private static DataSelectors mergeSelectors(DataSelectors base, JsonNode selectors) {
+        DataSelectors merged = new DataSelectors();
+        merged.setContainerSelector(selectors.path("container").asText(base.getContainerSelector()));
+        merged.setTitleSelector(selectors.path("title").asText(base.getTitleSelector()));
+        merged.setDescriptionSelector(selectors.path("description").asText(base.getDescriptionSelector()));
+        merged.setUrlSelector(selectors.path("url").asText(base.getUrlSelector()));
+        merged.setPriceSelector(selectors.path("price").asText(base.getPriceSelector()));
+        merged.setImageSelector(selectors.path("image").asText(base.getImageSelector()));
+        return merged;
+    }
+}
@@ -2,6 +2,9 @@ package com.example.scraper.cli;
 
 import com.example.scraper.core.persistence.CSVWriter;
 import com.example.scraper.core.persistence.JSONLWriter;
+import com.example.scraper.core.persistence.ParquetWriter;
+import com.example.scraper.core.persistence.WriterPosition;
+import com.example.scraper.core.pipeline.RecordSink;
 import com.example.scraper.model.ScrapedData;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -11,21 +14,30 @@ import java.util.List;
 /**
  * Wrapper class for output writers to provide a unified interface.
  */
-public class OutputWriter {
+public class OutputWriter implements RecordSink {
     
     private static final Logger logger = LoggerFactory.getLogger(OutputWriter.class);
     
     private final CSVWriter csvWriter;
     private final JSONLWriter jsonlWriter;
+    private final ParquetWriter parquetWriter;
     
     public OutputWriter(CSVWriter csvWriter) {
         this.csvWriter = csvWriter;
         this.jsonlWriter = null;
+        this.parquetWriter = null;
     }
     
     public OutputWriter(JSONLWriter jsonlWriter) {
         this.csvWriter = null;
         this.jsonlWriter = jsonlWriter;
+        this.parquetWriter = null;
+    }
+    
+    public OutputWriter(ParquetWriter parquetWriter) {
+        this.csvWriter = null;
+        this.jsonlWriter = null;
+        this.parquetWriter = parquetWriter;
     }
     
     /**
@@ -38,9 +50,21 @@ public class OutputWriter {
             csvWriter.writeData(dataList);
         } else if (jsonlWriter != null) {
             jsonlWriter.writeData(dataList);
+        } else if (parquetWriter != null) {
+            parquetWriter.writeData(dataList);
         }
     }
     
+    /**
+     * Writes the records from one page.
+     * 
+     * @param records Records from a single page
+     */
+    @Override
+    public void accept(List<ScrapedData> records) {
+        writeData(records);
+    }
+    
     /**
      * Writes a single scraped data record.
      * 
@@ -51,7 +75,60 @@ public class OutputWriter {
             csvWriter.writeData(data);
         } else if (jsonlWriter != null) {
             jsonlWriter.writeData(data);
+        } else if (parquetWriter != null) {
+            parquetWriter.writeData(data);
+        }
+    }
+    
+    /**
+     * Gets the bytes written to the output files so far.
+     * 
+     * @return bytes written
+     */
+    public long getBytesWritten() {
+        if (csvWriter != null) {
+            return csvWriter.getBytesWritten();
+        } else if (jsonlWriter != null) {
+            return jsonlWriter.getBytesWritten();
+        } else if (parquetWriter != null) {
+            return parquetWriter.getBytesWritten();
+        }
+        return 0;
+    }
+    
+    /**
+     * Flushes buffered records to the output file. Parquet rows are written a row group at a time
+     * and stay buffered until the group is full.
+     */
+    public void flush() {
+        if (csvWriter != null) {
+            csvWriter.flush();
+        } else if (jsonlWriter != null) {
+            jsonlWriter.flush();
+        }
+    }
+    
+    /**
+     * Checks whether a later run can resume this output from a position. Parquet files end in a
+     * footer, so they cannot be cut back to a byte offset and appended to.
+     * 
+     * @return true for CSV and JSON Lines output
+     */
+    public boolean isResumable() {
+        return parquetWriter == null;
+    }
+    
+    /**
+     * Gets the position after the records written so far, which a later run can resume from.
+     * 
+     * @return output position
+     * @throws IllegalStateException if the output is not resumable
+     */
+    public WriterPosition getPosition() {
+        if (!isResumable()) {
+            throw new IllegalStateException("Parquet output has no resumable position");
         }
+        return csvWriter != null ? csvWriter.getPosition() : jsonlWriter.getPosition();
     }
     
     /**
@@ -62,6 +139,8 @@ public class OutputWriter {
             csvWriter.close();
         } else if (jsonlWriter != null) {
             jsonlWriter.close();
+        } else if (parquetWriter != null) {
+            parquetWriter.close();
         }
     }
 }
@@ -0,0 +1,141 @@
+package com.example.scraper.cli;
+
+import java.util.function.IntConsumer;
+
+import com.example.scraper.core.checkpoint.CrawlCheckpoint;
+import com.example.scraper.core.dedup.NearDuplicateDetector;
+import com.example.scraper.core.parser.SelectorProfiles;
+
+/**
+ * Settings of one scrape or crawl run on a {@link WebScraper}. Runs with different options can
+ * share one scraper, and with it the HTTP connections, rate limits and robots.txt cache; by default
+ * a run uses the scraper's own selectors and configuration.
+ */
+public class ScrapeOptions {
+    
+    private static final IntConsumer NO_LISTENER = records -> { };
+    
+    private SelectorProfiles selectorProfiles;
+    private boolean respectRobots = true;
+    
+    // Minimum delay between requests to the same domain
+    private long delayMs = ScraperConfig.DEFAULT_DELAY_MS;
+    
+    // Most pages a crawl fetches
+    private int maxPages = Integer.MAX_VALUE;
+    
+    // Called with the number of records after each page is done, including pages that failed
+    private IntConsumer pageListener = NO_LISTENER;
+    
+    // Records finished pages so a later run can resume; null keeps no checkpoint
+    private CrawlCheckpoint checkpoint;
+    
+    // Pages seen so far, for skipping near-duplicates; null extracts every page
+    private NearDuplicateDetector nearDuplicates;
+    
+    /**
+     * Creates options that take the robots.txt, delay, page limit and near-duplicate settings from a
+     * configuration. Each call gets its own near-duplicate index.
+     * 
+     * @param config Scraper configuration
+     * @param selectorProfiles Compiled selectors for the run
+     * @return options
+     */
+    public static ScrapeOptions from(ScraperConfig config, SelectorProfiles selectorProfiles) {
+        ScrapeOptions options = new ScrapeOptions();
+        options.setSelectorProfiles(selectorProfiles);
+        options.setRespectRobots(config.isRespectRobots());
+        options.setDelayMs(config.getDelayMs());
+        options.setMaxPages(config.getMaxPages());
+        if (config.isSkipNearDuplicates()) {
+            options.setNearDuplicates(new NearDuplicateDetector(config.getNearDuplicateBits(),
+                                                                NearDuplicateDetector.DEFAULT_MAX_PAGES));
+        }
+        return options;
+    }
+    
+    /**
+     * Gets the selectors the run extracts records with.
+     * 
+     * @return compiled selectors, or null to use the scraper's own
+     */
+    public SelectorProfiles getSelectorProfiles() {
+        return selectorProfiles;
+    }
+    
+    public void setSelectorProfiles(SelectorProfiles selectorProfiles) {
+        this.selectorProfiles = selectorProfiles;
+    }
+    
+    public boolean isRespectRobots() {
+        return respectRobots;
+    }
+    
+    public void setRespectRobots(boolean respectRobots) {
+        this.respectRobots = respectRobots;
+    }
+    
+    public long getDelayMs() {
+        return delayMs;
+    }
+    
+    public void setDelayMs(long delayMs) {
+        this.delayMs = delayMs;
+    }
+    
+    public int getMaxPages() {
+        return maxPages;
+    }
+    
+    public void setMaxPages(int maxPages) {
+        this.maxPages = maxPages;
+    }
+    
+    public IntConsumer getPageListener() {
+        return pageListener;
+    }
+    
+    public void setPageListener(IntConsumer pageListener) {
+        this.pageListener = pageListener != null ? pageListener : NO_LISTENER;
+    }
+    
+    /**
+     * Gets the checkpoint the run records its progress in. A run on a resumed checkpoint skips the
+     * pages it lists as done and, when crawling, continues from its frontier instead of the seeds.
+     * 
+     * @return checkpoint, or null if none is kept
+     */
+    public CrawlCheckpoint getCheckpoint() {
+        return checkpoint;
+    }
+    
+    public void setCheckpoint(CrawlCheckpoint checkpoint) {
+        this.checkpoint = checkpoint;
+    }
+    
+    /**
+     * Gets the index of the run's pages that near-duplicate pages are checked against. A page whose
+     * text nearly matches an earlier one yields no records and no links.
+     * 
+     * @return near-duplicate detector, or null to extract every page
+     */
+    public NearDuplicateDetector getNearDuplicates() {
+        return nearDuplicates;
+    }
+    
+    public void setNearDuplicates(NearDuplicateDetector nearDuplicates) {
+        this.nearDuplicates = nearDuplicates;
+    }
+    
+    @Override
+    public String toString() {
+        return "ScrapeOptions{" +
+                "selectorProfiles=" + selectorProfiles +
+                ", respectRobots=" + respectRobots +
+                ", delayMs=" + delayMs +
+                ", maxPages=" + maxPages +
+                ", checkpoint=" + checkpoint +
+                ", nearDuplicates=" + nearDuplicates +
+                '}';
+    }
+}
@@ -1,13 +1,36 @@
 package com.example.scraper.cli;
 
-import java.util.ArrayList;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.List;
-import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 
+import com.example.scraper.core.cache.NotModifiedPolicy;
+import com.example.scraper.core.checkpoint.CrawlCheckpoint;
+import com.example.scraper.core.dedup.DedupRecordSink;
+import com.example.scraper.core.dedup.NearDuplicateDetector;
+import com.example.scraper.core.exec.ExecutionMode;
+import com.example.scraper.core.exec.ScrapeExecutors;
+import com.example.scraper.core.frontier.DedupMode;
+import com.example.scraper.core.http.DomainRateLimiter;
+import com.example.scraper.core.metrics.MetricsRegistry;
+import com.example.scraper.core.metrics.MetricsServer;
+import com.example.scraper.core.parser.SelectorProfiles;
+import com.example.scraper.core.persistence.AbstractRecordWriter;
 import com.example.scraper.core.persistence.CSVWriter;
 import com.example.scraper.core.persistence.JSONLWriter;
+import com.example.scraper.core.persistence.OutputCompression;
+import com.example.scraper.core.persistence.ParquetWriter;
+import com.example.scraper.core.persistence.WriterOptions;
+import com.example.scraper.core.persistence.WriterPosition;
+import com.example.scraper.core.pipeline.QueuedRecordSink;
+import com.example.scraper.core.pipeline.RecordSink;
 import com.example.scraper.model.DataSelectors;
-import com.example.scraper.model.ScrapedData;
+import com.example.scraper.model.ExtractionSchema;
+import com.example.scraper.server.JobServer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -20,7 +43,8 @@ public class ScraperCli {
     
     public static void main(String[] args) {
         try {
-            ScraperConfig config = parseArguments(args);
+            ConfigFile configFile = loadConfigFile(args);
+            ScraperConfig config = parseArguments(args, configFile);
             if (config == null) {
                 printUsage();
                 System.exit(1);
@@ -28,39 +52,97 @@ public class ScraperCli {
             
             logger.info("Starting web scraper with configuration: {}", config);
             
-            // Create data selectors
-            DataSelectors selectors = createDataSelectors(config);
+            // Compile the default selectors and any site-specific profiles once for the whole run
+            DataSelectors selectors = createDataSelectors(configFile);
+            SelectorProfiles selectorProfiles = createSelectorProfiles(config, configFile, selectors);
+            
+            if (config.getServerPort() >= 0) {
+                runServer(config, selectorProfiles, selectors);
+                return;
+            }
             
             // Create scraper
-            WebScraper scraper = new WebScraper(config.getUserAgent(), selectors);
+            WebScraper scraper = new WebScraper(config, selectorProfiles);
+            
+            // Load the checkpoint first: a resumed run continues its output where the checkpoint ends
+            CrawlCheckpoint checkpoint = config.getCheckpointDir() != null
+                    ? CrawlCheckpoint.open(Path.of(config.getCheckpointDir()), config.isResume(),
+                                           position -> AbstractRecordWriter.reaches(config.getOutputFile(), position))
+                    : null;
             
             // Create output writer
-            OutputWriter outputWriter = createOutputWriter(config);
+            OutputWriter outputWriter = createOutputWriter(config, selectorProfiles.getDefaultSchema(),
+                    checkpoint != null ? checkpoint.getOutputPosition() : null);
+            
+            // Stream records to the output as pages complete
+            QueuedRecordSink sink = new QueuedRecordSink(outputWriter, config.getOutputQueuePages());
+            // Duplicates are dropped before they take up room in the output queue
+            DedupRecordSink dedupSink = config.isDedupRecords()
+                    ? new DedupRecordSink(sink, config.getRecordDedupMemoryMb())
+                    : null;
+            RecordSink recordSink = dedupSink != null ? dedupSink : sink;
+            ScrapeOptions options = ScrapeOptions.from(config, selectorProfiles);
+            if (checkpoint != null) {
+                if (!outputWriter.isResumable()) {
+                    throw new IllegalStateException("--checkpoint requires csv or jsonl output");
+                }
+                if (dedupSink != null) {
+                    // A resumed run drops duplicates of the records its earlier runs wrote
+                    checkpoint.restoreRecordFingerprints(dedupSink::markWritten);
+                    dedupSink.setFingerprintListener(checkpoint::recordFingerprint);
+                }
+                checkpoint.start(() -> {
+                    sink.awaitWritten();
+                    outputWriter.flush();
+                    return outputWriter.getPosition();
+                }, config.getCheckpointIntervalMs());
+                options.setCheckpoint(checkpoint);
+            }
+            MetricsRegistry metrics = scraper.getMetrics();
+            metrics.counter("scraper_output_records_total", "Records written", sink::getRecordsWritten);
+            metrics.counter("scraper_output_bytes_total", "Bytes written to output files", outputWriter::getBytesWritten);
+            metrics.gauge("scraper_output_queue_depth", "Pages waiting for the output writer", sink::getQueueDepth);
+            registerDedupMetrics(metrics, dedupSink, options.getNearDuplicates());
+            MetricsServer metricsServer = config.getMetricsPort() >= 0
+                    ? MetricsServer.start(metrics, config.getMetricsPort())
+                    : null;
             
-            try {
-                // Scrape URLs
-                List<ScrapedData> allData = new ArrayList<>();
+            // The scraper logs the run summary when it is closed, after the output is complete
+            try (scraper) {
+                List<String> urls = config.getUrls();
+                if (!config.isCrawl() && urls.size() > config.getMaxPages()) {
+                    urls = urls.subList(0, config.getMaxPages());
+                }
                 
-                if (config.getUrls().size() == 1) {
-                    // Single URL
-                    List<ScrapedData> data = scraper.scrapeUrl(config.getUrls().get(0), config.isRespectRobots());
-                    allData.addAll(data);
-                } else {
-                    // Multiple URLs
-                    CompletableFuture<List<ScrapedData>> future = scraper.scrapeUrlsAsync(config.getUrls(), config.isRespectRobots());
-                    allData = future.get();
+                try {
+                    if (config.isCrawl()) {
+                        // Follow links from the seed URLs
+                        scraper.crawl(urls, options, recordSink);
+                    } else {
+                        scraper.scrapeUrls(urls, options, recordSink);
+                    }
+                } finally {
+                    try {
+                        // The last checkpoint is taken while the output is still open
+                        if (checkpoint != null) {
+                            checkpoint.close();
+                        }
+                        sink.close();
+                    } finally {
+                        outputWriter.close();
+                    }
                 }
                 
-                // Write output
-                if (!allData.isEmpty()) {
-                    outputWriter.writeData(allData);
-                    logger.info("Successfully scraped {} records", allData.size());
+                if (sink.getRecordsWritten() > 0) {
+                    logger.info("Successfully scraped {} records", sink.getRecordsWritten());
                 } else {
                     logger.warn("No data was scraped");
                 }
                 
             } finally {
-                outputWriter.close();
+                if (metricsServer != null) {
+                    metricsServer.close();
+                }
             }
             
         } catch (Exception e) {
@@ -69,14 +151,67 @@ public class ScraperCli {
         }
     }
     
+    /**
+     * Runs the job server until the process is stopped, keeping one scraper warm for every job.
+     * 
+     * @param config Scraper configuration, also the defaults for jobs
+     * @param selectorProfiles Selectors for jobs that give none
+     * @param selectors Selectors that a job's selectors are merged over
+     * @throws IOException if a port cannot be bound
+     * @throws InterruptedException if interrupted while serving
+     */
+    private static void runServer(ScraperConfig config, SelectorProfiles selectorProfiles, DataSelectors selectors)
+            throws IOException, InterruptedException {
+        WebScraper scraper = new WebScraper(config, selectorProfiles);
+        JobServer jobServer = JobServer.start(scraper, config, selectors);
+        MetricsServer metricsServer = config.getMetricsPort() >= 0
+                ? MetricsServer.start(scraper.getMetrics(), config.getMetricsPort())
+                : null;
+        
+        CountDownLatch stopped = new CountDownLatch(1);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            logger.info("Stopping job server");
+            jobServer.close();
+            if (metricsServer != null) {
+                metricsServer.close();
+            }
+            // Saves the robots.txt cache and logs the summary of every job run
+            scraper.close();
+            stopped.countDown();
+        }, "job-server-shutdown"));
+        stopped.await();
+    }
+    
+    /**
+     * Reads the file named by --config, if any, before the other arguments are parsed.
+     * 
+     * @param args Command-line arguments
+     * @return the config file, or null if none was given
+     * @throws IOException if the file cannot be read
+     */
+    private static ConfigFile loadConfigFile(String[] args) throws IOException {
+        for (int i = 0; i + 1 < args.length; i++) {
+            if (args[i].equals("--config")) {
+                return ConfigFile.load(new File(args[i + 1]));
+            }
+        }
+        return null;
+    }
+    
     /**
      * Parses command-line arguments.
      * 
      * @param args Command-line arguments
+     * @param configFile Settings the arguments start from, or null
      * @return ScraperConfig or null if parsing failed
+     * @throws IOException if a setting in the config file is invalid
      */
-    private static ScraperConfig parseArguments(String[] args) {
+    private static ScraperConfig parseArguments(String[] args, ConfigFile configFile) throws IOException {
         ScraperConfig config = new ScraperConfig();
+        if (configFile != null) {
+            // Command-line options override the file
+            configFile.applyTo(config);
+        }
         
         for (int i = 0; i < args.length; i++) {
             String arg = args[i];
@@ -117,13 +252,32 @@ public class ScraperCli {
                 case "--format":
                     if (i + 1 < args.length) {
                         String format = args[++i].toLowerCase();
-                        if (!format.equals("csv") && !format.equals("jsonl")) {
-                            logger.error("--format must be 'csv' or 'jsonl'");
+                        if (!format.equals("csv") && !format.equals("jsonl") && !format.equals("parquet")) {
+                            logger.error("--format must be 'csv', 'jsonl' or 'parquet'");
                             return null;
                         }
                         config.setOutputFormat(format);
                     } else {
-                        logger.error("--format requires 'csv' or 'jsonl' argument");
+                        logger.error("--format requires 'csv', 'jsonl' or 'parquet' argument");
+                        return null;
+                    }
+                    break;
+                    
+                case "--config":
+                    if (i + 1 < args.length) {
+                        // Already loaded by loadConfigFile
+                        i++;
+                    } else {
+                        logger.error("--config requires a JSON file argument");
+                        return null;
+                    }
+                    break;
+                    
+                case "--schema":
+                    if (i + 1 < args.length) {
+                        config.setSchemaFile(args[++i]);
+                    } else {
+                        logger.error("--schema requires a JSON file argument");
                         return null;
                     }
                     break;
@@ -142,6 +296,14 @@ public class ScraperCli {
                     }
                     break;
                     
+                case "--adaptive-delay":
+                    config.setAdaptiveDelay(true);
+                    break;
+                    
+                case "--fixed-delay":
+                    config.setAdaptiveDelay(false);
+                    break;
+                    
                 case "--user-agent":
                     if (i + 1 < args.length) {
                         config.setUserAgent(args[++i]);
@@ -159,58 +321,942 @@ public class ScraperCli {
                     config.setRespectRobots(false);
                     break;
                     
-                case "--help":
-                case "-h":
-                    return null; // Will trigger usage display
+                case "--cache-dir":
+                    if (i + 1 < args.length) {
+                        config.setCacheDir(args[++i]);
+                    } else {
+                        logger.error("--cache-dir requires a directory argument");
+                        return null;
+                    }
+                    break;
                     
-                default:
-                    logger.error("Unknown argument: {}", arg);
-                    return null;
-            }
-        }
-        
-        // Validate required arguments
-        if (config.getUrls().isEmpty()) {
-            logger.error("At least one --url argument is required");
-            return null;
-        }
-        
-        return config;
-    }
-    
-    /**
-     * Creates data selectors based on configuration.
-     * 
-     * @param config Scraper configuration
-     * @return DataSelectors object
-     */
-    private static DataSelectors createDataSelectors(ScraperConfig config) {
-        // Default selectors - these would typically come from a config file
-        DataSelectors selectors = new DataSelectors();
-        selectors.setContainerSelector("article, .item, .product, .post");
-        selectors.setTitleSelector("h1, h2, h3, .title, .name");
-        selectors.setDescriptionSelector("p, .description, .summary");
-        selectors.setUrlSelector("a");
-        selectors.setPriceSelector(".price, .cost");
-        selectors.setImageSelector("img");
-        
-        return selectors;
-    }
-    
-    /**
-     * Creates the appropriate output writer based on configuration.
-     * 
-     * @param config Scraper configuration
-     * @return OutputWriter instance
-     */
-    private static OutputWriter createOutputWriter(ScraperConfig config) {
-        String outputFile = config.getOutputFile();
-        String format = config.getOutputFormat();
-        
-        if (format.equals("csv")) {
-            return new OutputWriter(new CSVWriter(outputFile));
-        } else {
-            return new OutputWriter(new JSONLWriter(outputFile));
+                case "--no-persistent-cache":
+                    config.setCacheDir(null);
+                    break;
+                    
+                case "--robots-cache-size":
+                    if (i + 1 < args.length) {
+                        try {
+                            int size = Integer.parseInt(args[++i]);
+                            if (size < 1) {
+                                logger.error("--robots-cache-size must be at least 1");
+                                return null;
+                            }
+                            config.setRobotsCacheSize(size);
+                        } catch (NumberFormatException e) {
+                            logger.error("--robots-cache-size requires a valid number");
+                            return null;
+                        }
+                    } else {
+                        logger.error("--robots-cache-size requires a number argument");
+                        return null;
+                    }
+                    break;
+                    
+                case "--http-cache":
+                    config.setHttpCache(true);
+                    break;
+                    
+                case "--http-cache-mb":
+                    if (i + 1 < args.length) {
+                        try {
+                            int sizeMb = Integer.parseInt(args[++i]);
+                            if (sizeMb < 1) {
+                                logger.error("--http-cache-mb must be at least 1");
+                                return null;
+                            }
+                            config.setHttpCacheMb(sizeMb);
+                        } catch (NumberFormatException e) {
+                            logger.error("--http-cache-mb requires a valid number");
+                            return null;
+                        }
+                    } else {
+                        logger.error("--http-cache-mb requires a number argument");
+                        return null;
+                    }
+                    break;
+                    
+                case "--not-modified":
+                    if (i + 1 < args.length) {
+                        try {
+                            config.setNotModifiedPolicy(NotModifiedPolicy.parse(args[++i]));
+                        } catch (IllegalArgumentException e) {
+                            logger.error("--not-modified must be 'reemit' or 'skip'");
+                            return null;
+                        }
+                    } else {
+                        logger.error("--not-modified requires 'reemit' or 'skip' argument");
+                        return null;
+                    }
+                    break;
+                    
+                case "--streaming":
+                    config.setStreamingFetch(true);
+                    break;
+                    
+                case "--no-streaming":
+                    config.setStreamingFetch(false);
+                    break;
+                    
+                case "--max-body-bytes":
+                    if (i + 1 < args.length) {
+                        try {
+                            long maxBodyBytes = Long.parseLong(args[++i]);
+                            if (maxBodyBytes < 1) {
+                                logger.error("--max-body-bytes must be at least 1");
+                                return null;
+                            }
+                            config.setMaxBodyBytes(maxBodyBytes);
+                        } catch (NumberFormatException e) {
+                            logger.error("--max-body-bytes requires a valid number");
+                            return null;
+                        }
+                    } else {
+                        logger.error("--max-body-bytes requires a number argument");
+                        return null;
+                    }
+                    break;
+                    
+                case "--http-threads":
+                    if (i + 1 < args.length) {
+                        try {
+                            config.setHttpThreads(Integer.parseInt(args[++i]));
+                        } catch (NumberFormatException e) {
+                            logger.error("--http-threads requires a valid number");
+                            return null;
+                        }
+                        if (config.getHttpThreads() < 1) {
+                            logger.error("--http-threads must be at least 1");
+                            return null;
+                        }
+                    } else {
+                        logger.error("--http-threads requires a number argument");
+                        return null;
+                    }
+                    break;
+                    
+                case "--keep-alive-seconds":
+                    if (i + 1 < args.length) {
+                        try {
+                            config.setKeepAliveSeconds(Integer.parseInt(args[++i]));
+                        } catch (NumberFormatException e) {
+                            logger.error("--keep-alive-seconds requires a valid number");
+                            return null;
+                        }
+                        if (config.getKeepAliveSeconds() < 1) {
+                            logger.error("--keep-alive-seconds must be at least 1");
+                            return null;
+                        }
+                    } else {
+                        logger.error("--keep-alive-seconds requires a number argument");
+                        return null;
+                    }
+                    break;
+                    
+                case "--connection-pool-size":
+                    if (i + 1 < args.length) {
+                        try {
+                            config.setConnectionPoolSize(Integer.parseInt(args[++i]));
+                        } catch (NumberFormatException e) {
+                            logger.error("--connection-pool-size requires a valid number");
+                            return null;
+                        }
+                        if (config.getConnectionPoolSize() < 1) {
+                            logger.error("--connection-pool-size must be at least 1");
+                            return null;
+                        }
+                    } else {
+                        logger.error("--connection-pool-size requires a number argument");
+                        return null;
+                    }
+                    break;
+                    
+                case "--http2-max-streams":
+                    if (i + 1 < args.length) {
+                        try {
+                            config.setHttp2MaxStreams(Integer.parseInt(args[++i]));
+                        } catch (NumberFormatException e) {
+                            logger.error("--http2-max-streams requires a valid number");
+                            return null;
+                        }
+                        if (config.getHttp2MaxStreams() < 1) {
+                            logger.error("--http2-max-streams must be at least 1");
+                            return null;
+                        }
+                    } else {
+                        logger.error("--http2-max-streams requires a number argument");
+                        return null;
+                    }
+                    break;
+                    
+                case "--http1-host":
+                    if (i + 1 < args.length) {
+                        config.addHttp1Host(args[++i]);
+                    } else {
+                        logger.error("--http1-host requires a host argument");
+                        return null;
+                    }
+                    break;
+                    
+                case "--no-http2":
+                    config.setHttp2(false);
+                    break;
+                    
+                case "--max-retries":
+                    if (i + 1 < args.length) {
+                        try {
+                            int value = Integer.parseInt(args[++i]);
+                            if (value < 0) {
+                                logger.error("--max-retries must not be negative");
+                                return null;
+                            }
+                            config.setMaxRetries(value);
+                        } catch (NumberFormatException e) {
+                            logger.error("--max-retries requires a valid number");
+                            return null;
+                        }
+                    } else {
+                        logger.error("--max-retries requires a number argument");
+                        return null;
+                    }
+                    break;
+                    
+                case "--retry-base-delay-ms":
+                    if (i + 1 < args.length) {
+                        try {
+                            long value = Long.parseLong(args[++i]);
+                            if (value < 1) {
+                                logger.error("--retry-base-delay-ms must be at least 1");
+                                return null;
+                            }
+                            config.setRetryBaseDelayMs(value);
+                        } catch (NumberFormatException e) {
+                            logger.error("--retry-base-delay-ms requires a valid number");
+                            return null;
+                        }
+                    } else {
+                        logger.error("--retry-base-delay-ms requires a number argument");
+                        return null;
+                    }
+                    break;
+                    
+                case "--retry-max-delay-ms":
+                    if (i + 1 < args.length) {
+                        try {
+                            long value = Long.parseLong(args[++i]);
+                            if (value < 1) {
+                                logger.error("--retry-max-delay-ms must be at least 1");
+                                return null;
+                            }
+                            config.setRetryMaxDelayMs(value);
+                        } catch (NumberFormatException e) {
+                            logger.error("--retry-max-delay-ms requires a valid number");
+                            return null;
+                        }
+                    } else {
+                        logger.error("--retry-max-delay-ms requires a number argument");
+                        return null;
+                    }
+                    break;
+                    
+                case "--retry-budget":
+                    if (i + 1 < args.length) {
+                        try {
+                            double value = Double.parseDouble(args[++i]);
+                            if (value < 0) {
+                                logger.error("--retry-budget must not be negative");
+                                return null;
+                            }
+                            config.setRetryBudget(value);
+                        } catch (NumberFormatException e) {
+                            logger.error("--retry-budget requires a valid number");
+                            return null;
+                        }
+                    } else {
+                        logger.error("--retry-budget requires a number argument");
+                        return null;
+                    }
+                    break;
+                    
+                case "--breaker-failure-rate":
+                    if (i + 1 < args.length) {
+                        try {
+                            double value = Double.parseDouble(args[++i]);
+                            if (value <= 0 || value > 1) {
+                                logger.error("--breaker-failure-rate must be greater than 0 and at most 1");
+                                return null;
+                            }
+                            config.setBreakerFailureRate(value);
+                        } catch (NumberFormatException e) {
+                            logger.error("--breaker-failure-rate requires a valid number");
+                            return null;
+                        }
+                    } else {
+                        logger.error("--breaker-failure-rate requires a number argument");
+                        return null;
+                    }
+                    break;
+                    
+                case "--breaker-open-ms":
+                    if (i + 1 < args.length) {
+                        try {
+                            long value = Long.parseLong(args[++i]);
+                            if (value < 0) {
+                                logger.error("--breaker-open-ms must not be negative");
+                                return null;
+                            }
+                            config.setBreakerOpenMs(value);
+                        } catch (NumberFormatException e) {
+                            logger.error("--breaker-open-ms requires a valid number");
+                            return null;
+                        }
+                    } else {
+                        logger.error("--breaker-open-ms requires a number argument");
+                        return null;
+                    }
+                    break;
+                    
+                case "--max-concurrent-per-domain":
+                    if (i + 1 < args.length) {
+                        try {
+                            config.setMaxConcurrentPerDomain(Integer.parseInt(args[++i]));
+                        } catch (NumberFormatException e) {
+                            logger.error("--max-concurrent-per-domain requires a valid number");
+                            return null;
+                        }
+                        if (config.getMaxConcurrentPerDomain() < 1) {
+                            logger.error("--max-concurrent-per-domain must be at least 1");
+                            return null;
+                        }
+                    } else {
+                        logger.error("--max-concurrent-per-domain requires a number argument");
+                        return null;
+                    }
+                    break;
+                    
+                case "--domain-limit":
+                    if (i + 1 < args.length) {
+                        String[] spec = args[++i].split("=", 2);
+                        if (spec.length != 2 || spec[0].isBlank()) {
+                            logger.error("--domain-limit requires <host>=<delayMs>[:<maxConcurrent>]");
+                            return null;
+                        }
+                        try {
+                            config.addDomainLimits(spec[0].trim(), DomainRateLimiter.DomainLimits.parse(spec[1]));
+                        } catch (NumberFormatException e) {
+                            logger.error("--domain-limit requires <host>=<delayMs>[:<maxConcurrent>]");
+                            return null;
+                        }
+                    } else {
+                        logger.error("--domain-limit requires <host>=<delayMs>[:<maxConcurrent>]");
+                        return null;
+                    }
+                    break;
+                    
+                case "--executor":
+                    if (i + 1 < args.length) {
+                        try {
+                            config.setExecutionMode(ExecutionMode.parse(args[++i]));
+                        } catch (IllegalArgumentException e) {
+                            logger.error("--executor must be 'platform' or 'virtual'");
+                            return null;
+                        }
+                        if (config.getExecutionMode() == ExecutionMode.VIRTUAL
+                                && !ScrapeExecutors.isVirtualThreadsSupported()) {
+                            logger.error("--executor virtual requires Java 21 or newer");
+                            return null;
+                        }
+                    } else {
+                        logger.error("--executor requires 'platform' or 'virtual' argument");
+                        return null;
+                    }
+                    break;
+                    
+                case "--concurrency":
+                    if (i + 1 < args.length) {
+                        try {
+                            config.setConcurrency(Integer.parseInt(args[++i]));
+                        } catch (NumberFormatException e) {
+                            logger.error("--concurrency requires a valid number");
+                            return null;
+                        }
+                        if (config.getConcurrency() < 1) {
+                            logger.error("--concurrency must be at least 1");
+                            return null;
+                        }
+                    } else {
+                        logger.error("--concurrency requires a number argument");
+                        return null;
+                    }
+                    break;
+                    
+                case "--parse-threads":
+                    if (i + 1 < args.length) {
+                        try {
+                            config.setParseThreads(Integer.parseInt(args[++i]));
+                        } catch (NumberFormatException e) {
+                            logger.error("--parse-threads requires a valid number");
+                            return null;
+                        }
+                        if (config.getParseThreads() < 1) {
+                            logger.error("--parse-threads must be at least 1");
+                            return null;
+                        }
+                    } else {
+                        logger.error("--parse-threads requires a number argument");
+                        return null;
+                    }
+                    break;
+                    
+                case "--parse-queue":
+                    if (i + 1 < args.length) {
+                        try {
+                            config.setParseQueueSize(Integer.parseInt(args[++i]));
+                        } catch (NumberFormatException e) {
+                            logger.error("--parse-queue requires a valid number");
+                            return null;
+                        }
+                        if (config.getParseQueueSize() < 1) {
+                            logger.error("--parse-queue must be at least 1");
+                            return null;
+                        }
+                    } else {
+                        logger.error("--parse-queue requires a number argument");
+                        return null;
+                    }
+                    break;
+                    
+                case "--parse-queue-mb":
+                    if (i + 1 < args.length) {
+                        try {
+                            config.setParseQueueMb(Integer.parseInt(args[++i]));
+                        } catch (NumberFormatException e) {
+                            logger.error("--parse-queue-mb requires a valid number");
+                            return null;
+                        }
+                        if (config.getParseQueueMb() < 1 || config.getParseQueueMb() > 2047) {
+                            logger.error("--parse-queue-mb must be between 1 and 2047");
+                            return null;
+                        }
+                    } else {
+                        logger.error("--parse-queue-mb requires a number argument");
+                        return null;
+                    }
+                    break;
+                    
+                case "--metrics-port":
+                    if (i + 1 < args.length) {
+                        try {
+                            config.setMetricsPort(Integer.parseInt(args[++i]));
+                        } catch (NumberFormatException e) {
+                            logger.error("--metrics-port requires a valid port number");
+                            return null;
+                        }
+                        if (config.getMetricsPort() < 0 || config.getMetricsPort() > 65535) {
+                            logger.error("--metrics-port must be between 0 and 65535");
+                            return null;
+                        }
+                    } else {
+                        logger.error("--metrics-port requires a port number argument");
+                        return null;
+                    }
+                    break;
+                    
+                case "--serve":
+                    if (i + 1 < args.length) {
+                        try {
+                            config.setServerPort(Integer.parseInt(args[++i]));
+                        } catch (NumberFormatException e) {
+                            logger.error("--serve requires a valid port number");
+                            return null;
+                        }
+                        if (config.getServerPort() < 0 || config.getServerPort() > 65535) {
+                            logger.error("--serve must be between 0 and 65535");
+                            return null;
+                        }
+                    } else {
+                        logger.error("--serve requires a port number argument");
+                        return null;
+                    }
+                    break;
+                    
+                case "--jobs-dir":
+                    if (i + 1 < args.length) {
+                        config.setJobsDir(args[++i]);
+                    } else {
+                        logger.error("--jobs-dir requires a directory argument");
+                        return null;
+                    }
+                    break;
+                    
+                case "--max-jobs":
+                    if (i + 1 < args.length) {
+                        try {
+                            int maxJobs = Integer.parseInt(args[++i]);
+                            if (maxJobs < 1) {
+                                logger.error("--max-jobs must be at least 1");
+                                return null;
+                            }
+                            config.setMaxJobs(maxJobs);
+                        } catch (NumberFormatException e) {
+                            logger.error("--max-jobs requires a valid number");
+                            return null;
+                        }
+                    } else {
+                        logger.error("--max-jobs requires a number argument");
+                        return null;
+                    }
+                    break;
+                    
+                case "--max-finished-jobs":
+                    if (i + 1 < args.length) {
+                        try {
+                            int maxFinishedJobs = Integer.parseInt(args[++i]);
+                            if (maxFinishedJobs < 1) {
+                                logger.error("--max-finished-jobs must be at least 1");
+                                return null;
+                            }
+                            config.setMaxFinishedJobs(maxFinishedJobs);
+                        } catch (NumberFormatException e) {
+                            logger.error("--max-finished-jobs requires a valid number");
+                            return null;
+                        }
+                    } else {
+                        logger.error("--max-finished-jobs requires a number argument");
+                        return null;
+                    }
+                    break;
+                    
+                case "--web-root":
+                    if (i + 1 < args.length) {
+                        config.setWebRoot(args[++i]);
+                    } else {
+                        logger.error("--web-root requires a directory argument");
+                        return null;
+                    }
+                    break;
+                    
+                case "--crawl":
+                    config.setCrawl(true);
+                    break;
+                    
+                case "--max-depth":
+                    if (i + 1 < args.length) {
+                        try {
+                            config.setMaxDepth(Integer.parseInt(args[++i]));
+                        } catch (NumberFormatException e) {
+                            logger.error("--max-depth requires a valid number");
+                            return null;
+                        }
+                    } else {
+                        logger.error("--max-depth requires a number argument");
+                        return null;
+                    }
+                    break;
+                    
+                case "--allow-offsite":
+                    config.setSameHostOnly(false);
+                    break;
+                    
+                case "--include":
+                case "--exclude":
+                    if (i + 1 < args.length) {
+                        String regex = args[++i];
+                        try {
+                            Pattern.compile(regex);
+                        } catch (PatternSyntaxException e) {
+                            logger.error("{} requires a valid regular expression: {}", arg, e.getDescription());
+                            return null;
+                        }
+                        if (arg.equals("--include")) {
+                            config.setIncludePattern(regex);
+                        } else {
+                            config.setExcludePattern(regex);
+                        }
+                    } else {
+                        logger.error("{} requires a regular expression argument", arg);
+                        return null;
+                    }
+                    break;
+                    
+                case "--output-queue-pages":
+                    if (i + 1 < args.length) {
+                        try {
+                            int pages = Integer.parseInt(args[++i]);
+                            if (pages < 1) {
+                                logger.error("--output-queue-pages must be at least 1");
+                                return null;
+                            }
+                            config.setOutputQueuePages(pages);
+                        } catch (NumberFormatException e) {
+                            logger.error("--output-queue-pages requires a valid number");
+                            return null;
+                        }
+                    } else {
+                        logger.error("--output-queue-pages requires a number argument");
+                        return null;
+                    }
+                    break;
+                    
+                case "--flush-records":
+                    if (i + 1 < args.length) {
+                        try {
+                            int records = Integer.parseInt(args[++i]);
+                            if (records < 1) {
+                                logger.error("--flush-records must be at least 1");
+                                return null;
+                            }
+                            config.setFlushRecords(records);
+                        } catch (NumberFormatException e) {
+                            logger.error("--flush-records requires a valid number");
+                            return null;
+                        }
+                    } else {
+                        logger.error("--flush-records requires a number argument");
+                        return null;
+                    }
+                    break;
+                    
+                case "--flush-interval-ms":
+                    if (i + 1 < args.length) {
+                        try {
+                            config.setFlushIntervalMs(Long.parseLong(args[++i]));
+                        } catch (NumberFormatException e) {
+                            logger.error("--flush-interval-ms requires a valid number");
+                            return null;
+                        }
+                    } else {
+                        logger.error("--flush-interval-ms requires a number argument");
+                        return null;
+                    }
+                    break;
+                    
+                case "--compress":
+                    if (i + 1 < args.length) {
+                        try {
+                            config.setCompression(OutputCompression.parse(args[++i]));
+                        } catch (IllegalArgumentException e) {
+                            logger.error("--compress must be 'none', 'gzip' or 'zstd'");
+                            return null;
+                        }
+                    } else {
+                        logger.error("--compress requires 'none', 'gzip' or 'zstd' argument");
+                        return null;
+                    }
+                    break;
+                    
+                case "--rotate-bytes":
+                case "--rotate-compressed-bytes":
+                    if (i + 1 < args.length) {
+                        try {
+                            long bytes = Long.parseLong(args[++i]);
+                            if (arg.equals("--rotate-bytes")) {
+                                config.setRotateBytes(bytes);
+                            } else {
+                                config.setRotateCompressedBytes(bytes);
+                            }
+                        } catch (NumberFormatException e) {
+                            logger.error("{} requires a valid number", arg);
+                            return null;
+                        }
+                    } else {
+                        logger.error("{} requires a number argument", arg);
+                        return null;
+                    }
+                    break;
+                    
+                case "--row-group-rows":
+                    if (i + 1 < args.length) {
+                        try {
+                            int rows = Integer.parseInt(args[++i]);
+                            if (rows < 1) {
+                                logger.error("--row-group-rows must be at least 1");
+                                return null;
+                            }
+                            config.setRowGroupRows(rows);
+                        } catch (NumberFormatException e) {
+                            logger.error("--row-group-rows requires a valid number");
+                            return null;
+                        }
+                    } else {
+                        logger.error("--row-group-rows requires a number argument");
+                        return null;
+                    }
+                    break;
+                    
+                case "--dedup":
+                    if (i + 1 < args.length) {
+                        try {
+                            config.setDedupMode(DedupMode.parse(args[++i]));
+                        } catch (IllegalArgumentException e) {
+                            logger.error("--dedup must be 'exact' or 'bloom'");
+                            return null;
+                        }
+                    } else {
+                        logger.error("--dedup requires 'exact' or 'bloom' argument");
+                        return null;
+                    }
+                    break;
+                    
+                case "--dedup-fpp":
+                    if (i + 1 < args.length) {
+                        try {
+                            double fpp = Double.parseDouble(args[++i]);
+                            if (fpp <= 0 || fpp >= 1) {
+                                logger.error("--dedup-fpp must be between 0 and 1");
+                                return null;
+                            }
+                            config.setDedupFalsePositiveRate(fpp);
+                        } catch (NumberFormatException e) {
+                            logger.error("--dedup-fpp requires a valid number");
+                            return null;
+                        }
+                    } else {
+                        logger.error("--dedup-fpp requires a number argument");
+                        return null;
+                    }
+                    break;
+                    
+                case "--dedup-memory-mb":
+                    if (i + 1 < args.length) {
+                        try {
+                            int memoryMb = Integer.parseInt(args[++i]);
+                            if (memoryMb < 1) {
+                                logger.error("--dedup-memory-mb must be at least 1");
+                                return null;
+                            }
+                            config.setDedupMemoryMb(memoryMb);
+                        } catch (NumberFormatException e) {
+                            logger.error("--dedup-memory-mb requires a valid number");
+                            return null;
+                        }
+                    } else {
+                        logger.error("--dedup-memory-mb requires a number argument");
+                        return null;
+                    }
+                    break;
+                    
+                case "--dedup-off-heap":
+                    config.setDedupOffHeap(true);
+                    break;
+                    
+                case "--dedup-records":
+                    config.setDedupRecords(true);
+                    break;
+                    
+                case "--dedup-records-memory-mb":
+                    if (i + 1 < args.length) {
+                        try {
+                            int memoryMb = Integer.parseInt(args[++i]);
+                            if (memoryMb < 1) {
+                                logger.error("--dedup-records-memory-mb must be at least 1");
+                                return null;
+                            }
+                            config.setRecordDedupMemoryMb(memoryMb);
+                        } catch (NumberFormatException e) {
+                            logger.error("--dedup-records-memory-mb requires a valid number");
+                            return null;
+                        }
+                    } else {
+                        logger.error("--dedup-records-memory-mb requires a number argument");
+                        return null;
+                    }
+                    break;
+                    
+                case "--skip-near-duplicates":
+                    config.setSkipNearDuplicates(true);
+                    break;
+                    
+                case "--near-duplicate-bits":
+                    if (i + 1 < args.length) {
+                        try {
+                            int bits = Integer.parseInt(args[++i]);
+                            if (bits < 0 || bits > NearDuplicateDetector.MAX_DISTANCE_LIMIT) {
+                                logger.error("--near-duplicate-bits must be between 0 and {}",
+                                             NearDuplicateDetector.MAX_DISTANCE_LIMIT);
+                                return null;
+                            }
+                            config.setNearDuplicateBits(bits);
+                        } catch (NumberFormatException e) {
+                            logger.error("--near-duplicate-bits requires a valid number");
+                            return null;
+                        }
+                    } else {
+                        logger.error("--near-duplicate-bits requires a number argument");
+                        return null;
+                    }
+                    break;
+                    
+                case "--checkpoint":
+                    if (i + 1 < args.length) {
+                        config.setCheckpointDir(args[++i]);
+                    } else {
+                        logger.error("--checkpoint requires a directory argument");
+                        return null;
+                    }
+                    break;
+                    
+                case "--checkpoint-interval-ms":
+                    if (i + 1 < args.length) {
+                        try {
+                            long intervalMs = Long.parseLong(args[++i]);
+                            if (intervalMs < 1) {
+                                logger.error("--checkpoint-interval-ms must be at least 1");
+                                return null;
+                            }
+                            config.setCheckpointIntervalMs(intervalMs);
+                        } catch (NumberFormatException e) {
+                            logger.error("--checkpoint-interval-ms requires a valid number");
+                            return null;
+                        }
+                    } else {
+                        logger.error("--checkpoint-interval-ms requires a number argument");
+                        return null;
+                    }
+                    break;
+                    
+                case "--resume":
+                    config.setResume(true);
+                    break;
+                    
+                case "--help":
+                case "-h":
+                    return null; // Will trigger usage display
+                    
+                default:
+                    logger.error("Unknown argument: {}", arg);
+                    return null;
+            }
+        }
+        
+        // Validate required arguments; the job server takes its URLs from requests
+        if (config.getUrls().isEmpty() && config.getServerPort() < 0) {
+            logger.error("At least one --url argument, or startUrls in the --config file, is required");
+            return null;
+        }
+        if (config.isHttpCache() && config.getCacheDir() == null) {
+            logger.error("--http-cache cannot be combined with --no-persistent-cache");
+            return null;
+        }
+        if (config.isResume() && config.getCheckpointDir() == null) {
+            logger.error("--resume requires --checkpoint");
+            return null;
+        }
+        // Resuming cuts the output back to a byte offset, which needs plain CSV or JSON Lines
+        if (config.getCheckpointDir() != null
+                && (config.getOutputFormat().equals("parquet") || config.getCompression() != OutputCompression.NONE)) {
+            logger.error("--checkpoint requires uncompressed csv or jsonl output");
+            return null;
+        }
+        
+        return config;
+    }
+    
+    /**
+     * Creates the compiled selectors for the run. The default schema is the --schema file if given,
+     * otherwise the default selectors; the config file's profiles are compiled around it.
+     * 
+     * @param config Scraper configuration
+     * @param configFile The --config file, or null
+     * @param selectors Default selectors, from {@link #createDataSelectors(ConfigFile)}
+     * @return selector profiles
+     * @throws IOException if the schema or a profile is invalid
+     */
+    private static SelectorProfiles createSelectorProfiles(ScraperConfig config, ConfigFile configFile,
+                                                           DataSelectors selectors) throws IOException {
+        ExtractionSchema schema;
+        if (config.getSchemaFile() != null) {
+            schema = ExtractionSchema.load(new File(config.getSchemaFile()));
+            logger.info("Loaded {} fields from {}", schema.size(), config.getSchemaFile());
+        } else {
+            schema = ExtractionSchema.fromSelectors(selectors);
+        }
+        
+        return configFile != null
+                ? configFile.createSelectorProfiles(schema, selectors)
+                : SelectorProfiles.of(schema);
+    }
+    
+    /**
+     * Creates the default selectors: the built-in ones with any overrides from the config file.
+     * 
+     * @param configFile The --config file, or null
+     * @return DataSelectors object
+     */
+    private static DataSelectors createDataSelectors(ConfigFile configFile) {
+        DataSelectors selectors = createDataSelectors();
+        return configFile != null ? configFile.createDataSelectors(selectors) : selectors;
+    }
+    
+    /**
+     * Creates the built-in data selectors, used where neither --schema nor --config sets any.
+     * 
+     * @return DataSelectors object
+     */
+    private static DataSelectors createDataSelectors() {
+        DataSelectors selectors = new DataSelectors();
+        selectors.setContainerSelector("article, .item, .product, .post");
+        selectors.setTitleSelector("h1, h2, h3, .title, .name");
+        selectors.setDescriptionSelector("p, .description, .summary");
+        selectors.setUrlSelector("a");
+        selectors.setPriceSelector(".price, .cost");
+        selectors.setImageSelector("img");
+        
+        return selectors;
+    }
+    
+    /**
+     * Creates the appropriate output writer based on configuration.
+     * 
+     * @param config Scraper configuration
+     * @param schema Fields of the records written
+     * @param resumePosition Position to continue the output from, or null to start a new output
+     * @return OutputWriter instance
+     */
+    private static OutputWriter createOutputWriter(ScraperConfig config, ExtractionSchema schema,
+                                                   WriterPosition resumePosition) {
+        String outputFile = config.getOutputFile();
+        String format = config.getOutputFormat();
+        
+        WriterOptions options = new WriterOptions();
+        options.setFlushRecords(config.getFlushRecords());
+        options.setFlushIntervalMs(config.getFlushIntervalMs());
+        options.setCompression(config.getCompression());
+        options.setMaxFileBytes(config.getRotateBytes());
+        options.setMaxCompressedFileBytes(config.getRotateCompressedBytes());
+        options.setRowGroupRows(config.getRowGroupRows());
+        options.setSchema(schema);
+        options.setResumePosition(resumePosition);
+        
+        if (format.equals("csv")) {
+            return new OutputWriter(new CSVWriter(outputFile, false, options));
+        } else if (format.equals("parquet")) {
+            return new OutputWriter(new ParquetWriter(outputFile, options));
+        } else {
+            return new OutputWriter(new JSONLWriter(outputFile, false, options));
+        }
+    }
+    
+    /**
+     * Registers the counts and ratios of duplicate records and near-duplicate pages, so they appear in
+     * the run summary and on the metrics endpoint.
+     * 
+     * @param metrics The scraper's metrics
+     * @param dedupSink The record deduplicator, or null if records are not deduplicated
+     * @param nearDuplicates The near-duplicate page index, or null if pages are not checked
+     */
+    private static void registerDedupMetrics(MetricsRegistry metrics, DedupRecordSink dedupSink,
+                                             NearDuplicateDetector nearDuplicates) {
+        if (dedupSink != null) {
+            metrics.counter("scraper_records_duplicate_total", "Duplicate records dropped", dedupSink::getDuplicateCount);
+            metrics.gauge("scraper_records_duplicate_ratio", "Share of records that were duplicates",
+                          dedupSink::getDuplicateRatio);
+        }
+        if (nearDuplicates != null) {
+            metrics.counter("scraper_pages_near_duplicate_total", "Near-duplicate pages skipped",
+                            nearDuplicates::getNearDuplicateCount);
+            metrics.gauge("scraper_pages_near_duplicate_ratio", "Share of pages that were near-duplicates",
+                          nearDuplicates::getNearDuplicateRatio);
         }
     }
     
@@ -223,21 +1269,90 @@ public class ScraperCli {
         System.out.println("Usage: java -jar scraper.jar [options]");
         System.out.println();
         System.out.println("Required options:");
-        System.out.println("  --url <url>              URL to scrape (can be specified multiple times)");
+        System.out.println("  --url <url>              URL to scrape (can be specified multiple times; not needed with --serve)");
         System.out.println();
         System.out.println("Optional options:");
         System.out.println("  --max-pages <number>      Maximum number of pages to scrape (default: unlimited)");
+        System.out.println("  --crawl                  Follow links from the --url seeds");
+        System.out.println("  --max-depth <number>     Maximum link depth when crawling (default: 3)");
+        System.out.println("  --allow-offsite          Follow links to hosts other than the seeds' hosts");
+        System.out.println("  --include <regex>        Only follow links matching this pattern");
+        System.out.println("  --exclude <regex>        Never follow links matching this pattern");
+        System.out.println("  --dedup <mode>           Seen-URL set: exact or bloom (default: exact)");
+        System.out.println("  --dedup-fpp <rate>       Bloom filter false-positive rate (default: 0.001)");
+        System.out.println("  --dedup-memory-mb <mb>   Memory budget for the seen-URL set (default: 256)");
+        System.out.println("  --dedup-off-heap         Keep the seen-URL set in off-heap memory");
+        System.out.println("  --dedup-records          Drop records identical to one already written");
+        System.out.println("  --dedup-records-memory-mb <mb> Memory budget for record fingerprints (default: 64)");
+        System.out.println("  --skip-near-duplicates   Skip pages whose text nearly matches an earlier page (SimHash)");
+        System.out.println("  --near-duplicate-bits <n> SimHash bits a near-duplicate may differ in, 0-7 (default: 3)");
+        System.out.println("  --checkpoint <dir>       Record progress in this directory so the run can be resumed (csv or jsonl output)");
+        System.out.println("  --checkpoint-interval-ms <ms> Time between checkpoints (default: 10000)");
+        System.out.println("  --resume                 Continue from the --checkpoint instead of starting over");
         System.out.println("  --output <file>          Output file path (default: output.csv)");
-        System.out.println("  --format <format>        Output format: csv or jsonl (default: csv)");
-        System.out.println("  --delay-ms <milliseconds> Minimum delay between requests (default: 1000)");
+        System.out.println("  --format <format>        Output format: csv, jsonl or parquet (default: csv)");
+        System.out.println("  --config <file>          JSON job file with start URLs, selectors and per-site selector profiles; other options override it");
+        System.out.println("  --schema <file>          JSON extraction schema with the container selector and fields (default: built-in selectors)");
+        System.out.println("  --output-queue-pages <n> Pages buffered for the output writer before scraping slows down (default: 256)");
+        System.out.println("  --compress <codec>       Output compression: none, gzip or zstd (default: none)");
+        System.out.println("  --row-group-rows <n>     Rows per Parquet row group (default: 100000)");
+        System.out.println("  --rotate-bytes <bytes>   Start a new output file after this many uncompressed bytes; 0 disables (default: 10485760)");
+        System.out.println("  --rotate-compressed-bytes <bytes> Start a new output file after this many bytes on disk (default: off)");
+        System.out.println("  --flush-records <n>      Flush output after this many records (default: 1000)");
+        System.out.println("  --flush-interval-ms <ms> Flush buffered output at least this often; 0 disables (default: 1000)");
+        System.out.println("  --delay-ms <milliseconds> Minimum delay between requests to a host (default: 250)");
+        System.out.println("  --adaptive-delay         Adjust each host's delay to its response times and errors (default: true)");
+        System.out.println("  --fixed-delay            Always wait the larger of --delay-ms and the robots.txt Crawl-delay");
         System.out.println("  --user-agent <string>     Custom User-Agent string");
         System.out.println("  --respect-robots         Respect robots.txt rules (default: true)");
         System.out.println("  --no-respect-robots      Ignore robots.txt rules");
+        System.out.println("  --cache-dir <dir>        Directory for caches kept between runs (default: .scraper-cache)");
+        System.out.println("  --no-persistent-cache    Keep caches in memory only");
+        System.out.println("  --robots-cache-size <n>  Maximum number of cached robots.txt files (default: 10000)");
+        System.out.println("  --http-cache             Revalidate previously fetched pages with conditional requests");
+        System.out.println("  --http-cache-mb <mb>     Maximum size of the HTTP cache (default: 256)");
+        System.out.println("  --not-modified <policy>  Output for unchanged pages: reemit or skip (default: reemit)");
+        System.out.println("  --max-concurrent-per-domain <n>  Concurrent requests per domain (default: 2)");
+        System.out.println("  --domain-limit <host>=<ms>[:<n>] Per-domain delay and concurrency override (repeatable)");
+        System.out.println("  --executor <mode>        Thread model: platform or virtual (Java 21+) (default: platform)");
+        System.out.println("  --concurrency <n>        Maximum concurrently running scrape tasks (default: 64)");
+        System.out.println("  --parse-threads <n>      Threads parsing fetched pages (default: number of CPUs)");
+        System.out.println("  --parse-queue <n>        Fetched pages waiting for a parse thread (default: 64)");
+        System.out.println("  --parse-queue-mb <mb>    Memory for streamed bodies waiting for a parse thread (default: 64)");
+        System.out.println("  --metrics-port <port>    Serve Prometheus metrics at http://localhost:<port>/metrics during the run");
+        System.out.println("  --serve <port>           Run a job server for the web frontend at http://localhost:<port>/api instead of one job");
+        System.out.println("  --jobs-dir <dir>         Directory for the job server's output files (default: scraper-jobs)");
+        System.out.println("  --max-jobs <n>           Jobs the server runs at once; others wait in a queue (default: 4)");
+        System.out.println("  --max-finished-jobs <n>  Finished jobs the server remembers before forgetting the oldest (default: 100)");
+        System.out.println("  --web-root <dir>         Serve the web frontend from this directory, e.g. web/frontend");
+        System.out.println("  --streaming              Read response bodies into byte chunks on the fetch threads and parse them without a String (default: true)");
+        System.out.println("  --no-streaming           Buffer each response body as a String before parsing");
+        System.out.println("  --max-body-bytes <bytes> Maximum response body size to read (default: 10485760)");
+        System.out.println("  --http-threads <n>       Threads used by the HTTP client (default: number of CPUs, at least 4)");
+        System.out.println("  --keep-alive-seconds <s> Idle time before a pooled connection is closed (default: JDK default)");
+        System.out.println("  --connection-pool-size <n> Maximum idle HTTP/1.1 connections kept open (default: unlimited)");
+        System.out.println("  --http2-max-streams <n>  Maximum concurrent streams per HTTP/2 connection (default: JDK default)");
+        System.out.println("  --http1-host <host>      Always use HTTP/1.1 for a host (repeatable)");
+        System.out.println("  --no-http2               Use HTTP/1.1 for all hosts");
+        System.out.println("  --max-retries <n>        Retries per URL after 429, 5xx or connection errors (default: 3)");
+        System.out.println("  --retry-base-delay-ms <ms> Shortest wait before a retry (default: 500)");
+        System.out.println("  --retry-max-delay-ms <ms> Longest wait before a retry (default: 30000)");
+        System.out.println("  --retry-budget <ratio>   Retries allowed per request across the crawl (default: 0.2)");
+        System.out.println("  --breaker-failure-rate <rate> Share of failed requests that stops requests to a host (default: 0.5)");
+        System.out.println("  --breaker-open-ms <ms>   How long requests to a failing host are stopped before a probe (default: 30000)");
         System.out.println("  --help, -h               Show this help message");
         System.out.println();
         System.out.println("Examples:");
         System.out.println("  java -jar scraper.jar --url https://example.com --output data.csv");
         System.out.println("  java -jar scraper.jar --url https://site1.com --url https://site2.com --format jsonl");
         System.out.println("  java -jar scraper.jar --url https://example.com --delay-ms 2000 --no-respect-robots");
+        System.out.println("  java -jar scraper.jar --url https://site1.com --url https://site2.com --executor virtual");
+        System.out.println("  java -jar scraper.jar --url https://example.com/catalog --crawl --max-pages 500 --max-depth 2");
+        System.out.println("  java -jar scraper.jar --url https://example.com/ --format jsonl --output out.jsonl --compress zstd --rotate-compressed-bytes 104857600");
+        System.out.println("  java -jar scraper.jar --url https://example.com/ --crawl --max-pages 10000000 --dedup bloom --dedup-memory-mb 64");
+        System.out.println("  java -jar scraper.jar --url https://example.com/catalog --crawl --http-cache --not-modified skip");
+        System.out.println("  java -jar scraper.jar --url https://example.com/ --crawl --format jsonl --output out.jsonl --checkpoint crawl-state --resume");
+        System.out.println("  java -jar scraper.jar --url https://example.com/ --crawl --dedup-records --skip-near-duplicates");
+        System.out.println("  java -jar scraper.jar --serve 8080 --web-root web/frontend");
     }
 }
@@ -1,20 +1,106 @@
 package com.example.scraper.cli;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import com.example.scraper.core.cache.HttpCache;
+import com.example.scraper.core.cache.NotModifiedPolicy;
+import com.example.scraper.core.checkpoint.CrawlCheckpoint;
+import com.example.scraper.core.dedup.DedupRecordSink;
+import com.example.scraper.core.dedup.NearDuplicateDetector;
+import com.example.scraper.core.exec.ExecutionMode;
+import com.example.scraper.core.exec.ScrapeExecutors;
+import com.example.scraper.core.frontier.DedupMode;
+import com.example.scraper.core.frontier.UrlDeduplicator;
+import com.example.scraper.core.http.DomainRateLimiter;
+import com.example.scraper.core.http.RetryPolicy;
+import com.example.scraper.core.http.TransportOptions;
+import com.example.scraper.core.persistence.OutputCompression;
+import com.example.scraper.core.persistence.WriterOptions;
+import com.example.scraper.core.pipeline.ParseStage;
+import com.example.scraper.core.pipeline.QueuedRecordSink;
+import com.example.scraper.core.robots.RobotsCache;
+import com.example.scraper.server.JobScheduler;
 
 /**
  * Configuration class for the web scraper CLI.
  */
 public class ScraperConfig {
     
+    public static final String DEFAULT_CACHE_DIR = ".scraper-cache";
+    public static final long DEFAULT_DELAY_MS = 250;
+    public static final String DEFAULT_JOBS_DIR = "scraper-jobs";
+    
     private final List<String> urls = new ArrayList<>();
     private int maxPages = Integer.MAX_VALUE;
     private String outputFile = "output.csv";
     private String outputFormat = "csv";
-    private long delayMs = 1000;
+    private String schemaFile;
+    private String configFile;
+    private int outputQueuePages = QueuedRecordSink.DEFAULT_CAPACITY;
+    private int flushRecords = WriterOptions.DEFAULT_FLUSH_RECORDS;
+    private long flushIntervalMs = WriterOptions.DEFAULT_FLUSH_INTERVAL_MS;
+    private OutputCompression compression = OutputCompression.NONE;
+    private long rotateBytes = WriterOptions.DEFAULT_MAX_FILE_BYTES;
+    private long rotateCompressedBytes = 0;
+    private int rowGroupRows = WriterOptions.DEFAULT_ROW_GROUP_ROWS;
+    private long delayMs = DEFAULT_DELAY_MS;
+    private boolean adaptiveDelay = true;
     private String userAgent = "SimpleWebScraper/1.0 (+https://github.com/example/simple-web-scraper)";
     private boolean respectRobots = true;
+    private String cacheDir = DEFAULT_CACHE_DIR;
+    private int robotsCacheSize = RobotsCache.DEFAULT_MAX_ENTRIES;
+    private boolean httpCache = false;
+    private int httpCacheMb = HttpCache.DEFAULT_MAX_SIZE_MB;
+    private NotModifiedPolicy notModifiedPolicy = NotModifiedPolicy.REEMIT;
+    private boolean streamingFetch = true;
+    private long maxBodyBytes = 10 * 1024 * 1024;
+    private int httpThreads = TransportOptions.DEFAULT_THREADS;
+    private boolean http2 = true;
+    private final Set<String> http1Hosts = new LinkedHashSet<>();
+    private int keepAliveSeconds = 0;
+    private int connectionPoolSize = 0;
+    private int http2MaxStreams = 0;
+    private int maxRetries = RetryPolicy.DEFAULT_MAX_RETRIES;
+    private long retryBaseDelayMs = RetryPolicy.DEFAULT_BASE_DELAY_MS;
+    private long retryMaxDelayMs = RetryPolicy.DEFAULT_MAX_DELAY_MS;
+    private double retryBudget = RetryPolicy.DEFAULT_BUDGET_RATIO;
+    private double breakerFailureRate = RetryPolicy.DEFAULT_BREAKER_FAILURE_RATE;
+    private long breakerOpenMs = RetryPolicy.DEFAULT_BREAKER_OPEN_MS;
+    private int maxConcurrentPerDomain = DomainRateLimiter.DEFAULT_MAX_CONCURRENT_PER_DOMAIN;
+    private final Map<String, DomainRateLimiter.DomainLimits> domainLimits = new LinkedHashMap<>();
+    private ExecutionMode executionMode = ExecutionMode.PLATFORM;
+    private int concurrency = ScrapeExecutors.DEFAULT_CONCURRENCY;
+    private int parseThreads = ParseStage.DEFAULT_THREADS;
+    private int parseQueueSize = ParseStage.DEFAULT_QUEUE_CAPACITY;
+    private int parseQueueMb = (int) (ParseStage.DEFAULT_QUEUE_BYTES >> 20);
+    private int metricsPort = -1;
+    private int serverPort = -1;
+    private String jobsDir = DEFAULT_JOBS_DIR;
+    private int maxJobs = JobScheduler.DEFAULT_MAX_RUNNING_JOBS;
+    private int maxFinishedJobs = JobScheduler.DEFAULT_MAX_FINISHED_JOBS;
+    private String webRoot;
+    private boolean crawl = false;
+    private int maxDepth = 3;
+    private boolean sameHostOnly = true;
+    private String includePattern;
+    private String excludePattern;
+    private DedupMode dedupMode = DedupMode.EXACT;
+    private double dedupFalsePositiveRate = UrlDeduplicator.DEFAULT_FALSE_POSITIVE_RATE;
+    private int dedupMemoryMb = UrlDeduplicator.DEFAULT_MEMORY_BUDGET_MB;
+    private boolean dedupOffHeap = false;
+    private String checkpointDir;
+    private long checkpointIntervalMs = CrawlCheckpoint.DEFAULT_INTERVAL_MS;
+    private boolean resume = false;
+    private boolean dedupRecords = false;
+    private int recordDedupMemoryMb = DedupRecordSink.DEFAULT_MEMORY_BUDGET_MB;
+    private boolean skipNearDuplicates = false;
+    private int nearDuplicateBits = NearDuplicateDetector.DEFAULT_MAX_DISTANCE;
     
     // Getters and setters
     public List<String> getUrls() {
@@ -49,6 +135,78 @@ public class ScraperConfig {
         this.outputFormat = outputFormat;
     }
     
+    public String getSchemaFile() {
+        return schemaFile;
+    }
+    
+    public void setSchemaFile(String schemaFile) {
+        this.schemaFile = schemaFile;
+    }
+    
+    public String getConfigFile() {
+        return configFile;
+    }
+    
+    public void setConfigFile(String configFile) {
+        this.configFile = configFile;
+    }
+    
+    public int getOutputQueuePages() {
+        return outputQueuePages;
+    }
+    
+    public void setOutputQueuePages(int outputQueuePages) {
+        this.outputQueuePages = outputQueuePages;
+    }
+    
+    public int getFlushRecords() {
+        return flushRecords;
+    }
+    
+    public void setFlushRecords(int flushRecords) {
+        this.flushRecords = flushRecords;
+    }
+    
+    public long getFlushIntervalMs() {
+        return flushIntervalMs;
+    }
+    
+    public void setFlushIntervalMs(long flushIntervalMs) {
+        this.flushIntervalMs = flushIntervalMs;
+    }
+    
+    public OutputCompression getCompression() {
+        return compression;
+    }
+    
+    public void setCompression(OutputCompression compression) {
+        this.compression = compression;
+    }
+    
+    public long getRotateBytes() {
+        return rotateBytes;
+    }
+    
+    public void setRotateBytes(long rotateBytes) {
+        this.rotateBytes = rotateBytes;
+    }
+    
+    public long getRotateCompressedBytes() {
+        return rotateCompressedBytes;
+    }
+    
+    public void setRotateCompressedBytes(long rotateCompressedBytes) {
+        this.rotateCompressedBytes = rotateCompressedBytes;
+    }
+    
+    public int getRowGroupRows() {
+        return rowGroupRows;
+    }
+    
+    public void setRowGroupRows(int rowGroupRows) {
+        this.rowGroupRows = rowGroupRows;
+    }
+    
     public long getDelayMs() {
         return delayMs;
     }
@@ -57,6 +215,14 @@ public class ScraperConfig {
         this.delayMs = delayMs;
     }
     
+    public boolean isAdaptiveDelay() {
+        return adaptiveDelay;
+    }
+    
+    public void setAdaptiveDelay(boolean adaptiveDelay) {
+        this.adaptiveDelay = adaptiveDelay;
+    }
+    
     public String getUserAgent() {
         return userAgent;
     }
@@ -73,6 +239,440 @@ public class ScraperConfig {
         this.respectRobots = respectRobots;
     }
     
+    /**
+     * Gets the directory where caches are kept between runs.
+     * 
+     * @return cache directory, or null if caches are not persisted
+     */
+    public String getCacheDir() {
+        return cacheDir;
+    }
+    
+    public void setCacheDir(String cacheDir) {
+        this.cacheDir = cacheDir;
+    }
+    
+    public int getRobotsCacheSize() {
+        return robotsCacheSize;
+    }
+    
+    public void setRobotsCacheSize(int robotsCacheSize) {
+        this.robotsCacheSize = robotsCacheSize;
+    }
+    
+    public boolean isHttpCache() {
+        return httpCache;
+    }
+    
+    public void setHttpCache(boolean httpCache) {
+        this.httpCache = httpCache;
+    }
+    
+    public int getHttpCacheMb() {
+        return httpCacheMb;
+    }
+    
+    public void setHttpCacheMb(int httpCacheMb) {
+        this.httpCacheMb = httpCacheMb;
+    }
+    
+    public NotModifiedPolicy getNotModifiedPolicy() {
+        return notModifiedPolicy;
+    }
+    
+    public void setNotModifiedPolicy(NotModifiedPolicy notModifiedPolicy) {
+        this.notModifiedPolicy = notModifiedPolicy;
+    }
+    
+    public boolean isStreamingFetch() {
+        return streamingFetch;
+    }
+    
+    public void setStreamingFetch(boolean streamingFetch) {
+        this.streamingFetch = streamingFetch;
+    }
+    
+    public long getMaxBodyBytes() {
+        return maxBodyBytes;
+    }
+    
+    public void setMaxBodyBytes(long maxBodyBytes) {
+        this.maxBodyBytes = maxBodyBytes;
+    }
+    
+    public int getHttpThreads() {
+        return httpThreads;
+    }
+    
+    public void setHttpThreads(int httpThreads) {
+        this.httpThreads = httpThreads;
+    }
+    
+    public boolean isHttp2() {
+        return http2;
+    }
+    
+    public void setHttp2(boolean http2) {
+        this.http2 = http2;
+    }
+    
+    public Set<String> getHttp1Hosts() {
+        return http1Hosts;
+    }
+    
+    public void addHttp1Host(String host) {
+        this.http1Hosts.add(host.toLowerCase(Locale.ROOT));
+    }
+    
+    public int getKeepAliveSeconds() {
+        return keepAliveSeconds;
+    }
+    
+    public void setKeepAliveSeconds(int keepAliveSeconds) {
+        this.keepAliveSeconds = keepAliveSeconds;
+    }
+    
+    public int getConnectionPoolSize() {
+        return connectionPoolSize;
+    }
+    
+    public void setConnectionPoolSize(int connectionPoolSize) {
+        this.connectionPoolSize = connectionPoolSize;
+    }
+    
+    public int getHttp2MaxStreams() {
+        return http2MaxStreams;
+    }
+    
+    public void setHttp2MaxStreams(int http2MaxStreams) {
+        this.http2MaxStreams = http2MaxStreams;
+    }
+    
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+    
+    public void setMaxRetries(int maxRetries) {
+        this.maxRetries = maxRetries;
+    }
+    
+    public long getRetryBaseDelayMs() {
+        return retryBaseDelayMs;
+    }
+    
+    public void setRetryBaseDelayMs(long retryBaseDelayMs) {
+        this.retryBaseDelayMs = retryBaseDelayMs;
+    }
+    
+    public long getRetryMaxDelayMs() {
+        return retryMaxDelayMs;
+    }
+    
+    public void setRetryMaxDelayMs(long retryMaxDelayMs) {
+        this.retryMaxDelayMs = retryMaxDelayMs;
+    }
+    
+    public double getRetryBudget() {
+        return retryBudget;
+    }
+    
+    public void setRetryBudget(double retryBudget) {
+        this.retryBudget = retryBudget;
+    }
+    
+    public double getBreakerFailureRate() {
+        return breakerFailureRate;
+    }
+    
+    public void setBreakerFailureRate(double breakerFailureRate) {
+        this.breakerFailureRate = breakerFailureRate;
+    }
+    
+    public long getBreakerOpenMs() {
+        return breakerOpenMs;
+    }
+    
+    public void setBreakerOpenMs(long breakerOpenMs) {
+        this.breakerOpenMs = breakerOpenMs;
+    }
+    
+    public int getMaxConcurrentPerDomain() {
+        return maxConcurrentPerDomain;
+    }
+    
+    public void setMaxConcurrentPerDomain(int maxConcurrentPerDomain) {
+        this.maxConcurrentPerDomain = maxConcurrentPerDomain;
+    }
+    
+    public Map<String, DomainRateLimiter.DomainLimits> getDomainLimits() {
+        return domainLimits;
+    }
+    
+    public void addDomainLimits(String domain, DomainRateLimiter.DomainLimits limits) {
+        this.domainLimits.put(domain, limits);
+    }
+    
+    public ExecutionMode getExecutionMode() {
+        return executionMode;
+    }
+    
+    public void setExecutionMode(ExecutionMode executionMode) {
+        this.executionMode = executionMode;
+    }
+    
+    public int getConcurrency() {
+        return concurrency;
+    }
+    
+    public void setConcurrency(int concurrency) {
+        this.concurrency = concurrency;
+    }
+    
+    public int getParseThreads() {
+        return parseThreads;
+    }
+    
+    public void setParseThreads(int parseThreads) {
+        this.parseThreads = parseThreads;
+    }
+    
+    public int getParseQueueSize() {
+        return parseQueueSize;
+    }
+    
+    public void setParseQueueSize(int parseQueueSize) {
+        this.parseQueueSize = parseQueueSize;
+    }
+    
+    /**
+     * Gets the memory budget for streamed response bodies waiting for a parse thread.
+     * 
+     * @return budget in megabytes
+     */
+    public int getParseQueueMb() {
+        return parseQueueMb;
+    }
+    
+    public void setParseQueueMb(int parseQueueMb) {
+        this.parseQueueMb = parseQueueMb;
+    }
+    
+    /**
+     * Gets the local port that serves Prometheus metrics during the run.
+     * 
+     * @return port, 0 for any free port, or -1 if metrics are not served
+     */
+    public int getMetricsPort() {
+        return metricsPort;
+    }
+    
+    public void setMetricsPort(int metricsPort) {
+        this.metricsPort = metricsPort;
+    }
+    
+    /**
+     * Gets the local port of the job server.
+     * 
+     * @return port, 0 for any free port, or -1 to run the --url job once and exit
+     */
+    public int getServerPort() {
+        return serverPort;
+    }
+    
+    public void setServerPort(int serverPort) {
+        this.serverPort = serverPort;
+    }
+    
+    public String getJobsDir() {
+        return jobsDir;
+    }
+    
+    public void setJobsDir(String jobsDir) {
+        this.jobsDir = jobsDir;
+    }
+    
+    public int getMaxJobs() {
+        return maxJobs;
+    }
+    
+    public void setMaxJobs(int maxJobs) {
+        this.maxJobs = maxJobs;
+    }
+    
+    public int getMaxFinishedJobs() {
+        return maxFinishedJobs;
+    }
+    
+    public void setMaxFinishedJobs(int maxFinishedJobs) {
+        this.maxFinishedJobs = maxFinishedJobs;
+    }
+    
+    /**
+     * Gets the directory of web frontend files the job server serves.
+     * 
+     * @return directory, or null if the server only answers /api
+     */
+    public String getWebRoot() {
+        return webRoot;
+    }
+    
+    public void setWebRoot(String webRoot) {
+        this.webRoot = webRoot;
+    }
+    
+    public boolean isCrawl() {
+        return crawl;
+    }
+    
+    public void setCrawl(boolean crawl) {
+        this.crawl = crawl;
+    }
+    
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+    
+    public void setMaxDepth(int maxDepth) {
+        this.maxDepth = maxDepth;
+    }
+    
+    public boolean isSameHostOnly() {
+        return sameHostOnly;
+    }
+    
+    public void setSameHostOnly(boolean sameHostOnly) {
+        this.sameHostOnly = sameHostOnly;
+    }
+    
+    public String getIncludePattern() {
+        return includePattern;
+    }
+    
+    public void setIncludePattern(String includePattern) {
+        this.includePattern = includePattern;
+    }
+    
+    public String getExcludePattern() {
+        return excludePattern;
+    }
+    
+    public void setExcludePattern(String excludePattern) {
+        this.excludePattern = excludePattern;
+    }
+    
+    public DedupMode getDedupMode() {
+        return dedupMode;
+    }
+    
+    public void setDedupMode(DedupMode dedupMode) {
+        this.dedupMode = dedupMode;
+    }
+    
+    public double getDedupFalsePositiveRate() {
+        return dedupFalsePositiveRate;
+    }
+    
+    public void setDedupFalsePositiveRate(double dedupFalsePositiveRate) {
+        this.dedupFalsePositiveRate = dedupFalsePositiveRate;
+    }
+    
+    public int getDedupMemoryMb() {
+        return dedupMemoryMb;
+    }
+    
+    public void setDedupMemoryMb(int dedupMemoryMb) {
+        this.dedupMemoryMb = dedupMemoryMb;
+    }
+    
+    public boolean isDedupOffHeap() {
+        return dedupOffHeap;
+    }
+    
+    public void setDedupOffHeap(boolean dedupOffHeap) {
+        this.dedupOffHeap = dedupOffHeap;
+    }
+    
+    /**
+     * Gets the directory the run records its progress in, so that it can be resumed.
+     * 
+     * @return checkpoint directory, or null to keep no checkpoint
+     */
+    public String getCheckpointDir() {
+        return checkpointDir;
+    }
+    
+    public void setCheckpointDir(String checkpointDir) {
+        this.checkpointDir = checkpointDir;
+    }
+    
+    public long getCheckpointIntervalMs() {
+        return checkpointIntervalMs;
+    }
+    
+    public void setCheckpointIntervalMs(long checkpointIntervalMs) {
+        this.checkpointIntervalMs = checkpointIntervalMs;
+    }
+    
+    /**
+     * Checks whether the run continues from its checkpoint instead of starting over.
+     * 
+     * @return true to resume
+     */
+    public boolean isResume() {
+        return resume;
+    }
+    
+    public void setResume(boolean resume) {
+        this.resume = resume;
+    }
+    
+    /**
+     * Checks whether records identical to one already written are dropped.
+     * 
+     * @return true to drop duplicate records
+     */
+    public boolean isDedupRecords() {
+        return dedupRecords;
+    }
+    
+    public void setDedupRecords(boolean dedupRecords) {
+        this.dedupRecords = dedupRecords;
+    }
+    
+    public int getRecordDedupMemoryMb() {
+        return recordDedupMemoryMb;
+    }
+    
+    public void setRecordDedupMemoryMb(int recordDedupMemoryMb) {
+        this.recordDedupMemoryMb = recordDedupMemoryMb;
+    }
+    
+    /**
+     * Checks whether pages whose text nearly matches an earlier page's are skipped.
+     * 
+     * @return true to skip near-duplicate pages
+     */
+    public boolean isSkipNearDuplicates() {
+        return skipNearDuplicates;
+    }
+    
+    public void setSkipNearDuplicates(boolean skipNearDuplicates) {
+        this.skipNearDuplicates = skipNearDuplicates;
+    }
+    
+    /**
+     * Gets the most bits in which the SimHash of a near-duplicate page may differ.
+     * 
+     * @return Hamming distance
+     */
+    public int getNearDuplicateBits() {
+        return nearDuplicateBits;
+    }
+    
+    public void setNearDuplicateBits(int nearDuplicateBits) {
+        this.nearDuplicateBits = nearDuplicateBits;
+    }
+    
     @Override
     public String toString() {
         return "ScraperConfig{" +
@@ -80,9 +680,67 @@ public class ScraperConfig {
                 ", maxPages=" + maxPages +
                 ", outputFile='" + outputFile + '\'' +
                 ", outputFormat='" + outputFormat + '\'' +
+                ", schemaFile='" + schemaFile + '\'' +
+                ", configFile='" + configFile + '\'' +
+                ", outputQueuePages=" + outputQueuePages +
+                ", flushRecords=" + flushRecords +
+                ", flushIntervalMs=" + flushIntervalMs +
+                ", compression=" + compression +
+                ", rotateBytes=" + rotateBytes +
+                ", rotateCompressedBytes=" + rotateCompressedBytes +
+                ", rowGroupRows=" + rowGroupRows +
                 ", delayMs=" + delayMs +
+                ", adaptiveDelay=" + adaptiveDelay +
                 ", userAgent='" + userAgent + '\'' +
                 ", respectRobots=" + respectRobots +
+                ", cacheDir='" + cacheDir + '\'' +
+                ", robotsCacheSize=" + robotsCacheSize +
+                ", httpCache=" + httpCache +
+                ", httpCacheMb=" + httpCacheMb +
+                ", notModifiedPolicy=" + notModifiedPolicy +
+                ", streamingFetch=" + streamingFetch +
+                ", maxBodyBytes=" + maxBodyBytes +
+                ", httpThreads=" + httpThreads +
+                ", http2=" + http2 +
+                ", http1Hosts=" + http1Hosts +
+                ", keepAliveSeconds=" + keepAliveSeconds +
+                ", connectionPoolSize=" + connectionPoolSize +
+                ", http2MaxStreams=" + http2MaxStreams +
+                ", maxRetries=" + maxRetries +
+                ", retryBaseDelayMs=" + retryBaseDelayMs +
+                ", retryMaxDelayMs=" + retryMaxDelayMs +
+                ", retryBudget=" + retryBudget +
+                ", breakerFailureRate=" + breakerFailureRate +
+                ", breakerOpenMs=" + breakerOpenMs +
+                ", maxConcurrentPerDomain=" + maxConcurrentPerDomain +
+                ", domainLimits=" + domainLimits +
+                ", executionMode=" + executionMode +
+                ", concurrency=" + concurrency +
+                ", parseThreads=" + parseThreads +
+                ", parseQueueSize=" + parseQueueSize +
+                ", parseQueueMb=" + parseQueueMb +
+                ", metricsPort=" + metricsPort +
+                ", serverPort=" + serverPort +
+                ", jobsDir='" + jobsDir + '\'' +
+                ", maxJobs=" + maxJobs +
+                ", maxFinishedJobs=" + maxFinishedJobs +
+                ", webRoot='" + webRoot + '\'' +
+                ", crawl=" + crawl +
+                ", maxDepth=" + maxDepth +
+                ", sameHostOnly=" + sameHostOnly +
+                ", includePattern='" + includePattern + '\'' +
+                ", excludePattern='" + excludePattern + '\'' +
+                ", dedupMode=" + dedupMode +
+                ", dedupFalsePositiveRate=" + dedupFalsePositiveRate +
+                ", dedupMemoryMb=" + dedupMemoryMb +
+                ", dedupOffHeap=" + dedupOffHeap +
+                ", checkpointDir='" + checkpointDir + '\'' +
+                ", checkpointIntervalMs=" + checkpointIntervalMs +
+                ", resume=" + resume +
+                ", dedupRecords=" + dedupRecords +
+                ", recordDedupMemoryMb=" + recordDedupMemoryMb +
+                ", skipNearDuplicates=" + skipNearDuplicates +
+                ", nearDuplicateBits=" + nearDuplicateBits +
                 '}';
     }
 }
@@ -1,15 +1,54 @@
 package com.example.scraper.cli;
 
-import java.net.http.HttpClient;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.http.HttpResponse;
+import java.nio.file.Path;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Pattern;
 
+import com.example.scraper.core.cache.CachedPage;
+import com.example.scraper.core.cache.HttpCache;
+import com.example.scraper.core.cache.NotModifiedPolicy;
+import com.example.scraper.core.checkpoint.CrawlCheckpoint;
+import com.example.scraper.core.dedup.NearDuplicateDetector;
+import com.example.scraper.core.exec.ScrapeExecutors;
+import com.example.scraper.core.frontier.CrawlFrontier;
+import com.example.scraper.core.frontier.CrawlScope;
+import com.example.scraper.core.frontier.FrontierEntry;
+import com.example.scraper.core.frontier.UrlDeduplicator;
+import com.example.scraper.core.http.AdaptiveDelayController;
+import com.example.scraper.core.http.BoundedInputStream;
+import com.example.scraper.core.http.CircuitOpenException;
+import com.example.scraper.core.http.DomainRateLimiter;
 import com.example.scraper.core.http.HttpFetcher;
+import com.example.scraper.core.http.HttpTransport;
+import com.example.scraper.core.http.RetryPolicy;
+import com.example.scraper.core.http.TransportOptions;
+import com.example.scraper.core.metrics.MetricsRegistry;
 import com.example.scraper.core.parser.HtmlParser;
+import com.example.scraper.core.parser.ParsedPage;
+import com.example.scraper.core.parser.SelectorProfiles;
+import com.example.scraper.core.pipeline.BufferedBody;
+import com.example.scraper.core.pipeline.ParseStage;
+import com.example.scraper.core.pipeline.RecordSink;
+import com.example.scraper.core.robots.RobotsCache;
 import com.example.scraper.core.robots.RobotsTxtCompliance;
 import com.example.scraper.model.DataSelectors;
+import com.example.scraper.model.ExtractionSchema;
 import com.example.scraper.model.ScrapedData;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -17,27 +56,115 @@ import org.slf4j.LoggerFactory;
 /**
  * Main scraper class that orchestrates the web scraping process.
  */
-public class WebScraper {
+public class WebScraper implements AutoCloseable {
     
     private static final Logger logger = LoggerFactory.getLogger(WebScraper.class);
     
     private final HttpFetcher httpFetcher;
     private final HtmlParser htmlParser;
+    private final ParseStage parseStage;
     private final RobotsTxtCompliance robotsCompliance;
-    private final DataSelectors selectors;
+    private final SelectorProfiles selectorProfiles;
+    private final ScraperConfig config;
+    private final ExecutorService executor;
+    private final DomainRateLimiter rateLimiter;
+    private final HttpCache httpCache;
+    private final HttpTransport transport;
+    private final Semaphore pageSlots;
+    private final MetricsRegistry metrics = new MetricsRegistry();
+    private final AtomicLong recordsExtracted = new AtomicLong();
     
     public WebScraper(String userAgent, DataSelectors selectors) {
-        this.selectors = selectors;
+        this(createConfig(userAgent), selectors);
+    }
+    
+    public WebScraper(ScraperConfig config, DataSelectors selectors) {
+        this(config, ExtractionSchema.fromSelectors(selectors));
+    }
+    
+    /**
+     * Creates a scraper that extracts the fields of a schema.
+     * 
+     * @param config Scraper settings
+     * @param schema Container selector and fields to extract
+     */
+    public WebScraper(ScraperConfig config, ExtractionSchema schema) {
+        this(config, SelectorProfiles.of(schema));
+    }
+    
+    /**
+     * Creates a scraper that picks each page's selectors from site-specific profiles.
+     * 
+     * @param config Scraper settings
+     * @param selectorProfiles Compiled selectors per site, and the default schema for other pages
+     */
+    public WebScraper(ScraperConfig config, SelectorProfiles selectorProfiles) {
+        this.selectorProfiles = selectorProfiles;
+        this.config = config;
+        this.executor = ScrapeExecutors.create(config.getExecutionMode(), config.getConcurrency());
+        
+        this.transport = new HttpTransport(createTransportOptions(config));
         
-        HttpClient httpClient = HttpClient.newBuilder()
-                .connectTimeout(Duration.ofSeconds(10))
-                .followRedirects(HttpClient.Redirect.NORMAL)
-                .version(HttpClient.Version.HTTP_2)
-                .build();
+        this.rateLimiter = new DomainRateLimiter(config.getMaxConcurrentPerDomain());
+        config.getDomainLimits().forEach(rateLimiter::setDomainLimits);
         
-        this.httpFetcher = new HttpFetcher(userAgent, Duration.ofSeconds(30));
+        this.httpFetcher = new HttpFetcher(config.getUserAgent(), Duration.ofSeconds(30),
+                                           config.getMaxBodyBytes(), rateLimiter, executor, transport,
+                                           new AdaptiveDelayController(config.isAdaptiveDelay(),
+                                                                       AdaptiveDelayController.INITIAL_DELAY_MS),
+                                           createRetryPolicy(config));
         this.htmlParser = new HtmlParser();
-        this.robotsCompliance = new RobotsTxtCompliance(httpClient);
+        this.parseStage = new ParseStage(config.getParseThreads(), config.getParseQueueSize(),
+                                         (long) config.getParseQueueMb() * 1024 * 1024);
+        // Fair, so concurrent runs take turns for page slots instead of the busiest one winning
+        this.pageSlots = new Semaphore(getMaxPagesInFlight(), true);
+        
+        Path robotsCacheFile = config.getCacheDir() != null
+                ? Path.of(config.getCacheDir(), RobotsCache.FILE_NAME)
+                : null;
+        this.robotsCompliance = new RobotsTxtCompliance(transport,
+                new RobotsCache(config.getRobotsCacheSize(), robotsCacheFile));
+        this.httpCache = config.isHttpCache()
+                ? new HttpCache(Path.of(config.getCacheDir(), HttpCache.DIRECTORY_NAME),
+                                config.getHttpCacheMb() * 1024L * 1024L, selectorProfiles.getDefaultSchema())
+                : null;
+        registerMetrics();
+    }
+    
+    /**
+     * Registers the counters, queue depths and latency histograms of the scraper's components.
+     */
+    private void registerMetrics() {
+        metrics.counter("scraper_requests_total", "Requests", () -> httpFetcher.getRetryBudget().getRequestCount());
+        metrics.counter("scraper_retries_total", "Retries", () -> httpFetcher.getRetryBudget().getRetryCount());
+        metrics.counter("scraper_retries_denied_total", "Retries denied by the retry budget",
+                () -> httpFetcher.getRetryBudget().getDeniedCount());
+        metrics.counter("scraper_response_bytes_total", "Response bytes on the wire",
+                () -> httpFetcher.getTransferStats().getWireBytes());
+        metrics.counter("scraper_response_decoded_bytes_total", "Response bytes after decoding",
+                () -> httpFetcher.getTransferStats().getDecodedBytes());
+        metrics.counter("scraper_pages_parsed_total", "Pages parsed", parseStage::getCompletedCount);
+        metrics.counter("scraper_records_total", "Records extracted", recordsExtracted::get);
+        metrics.counter("scraper_robots_cache_hits_total", "robots.txt lookups answered from the cache",
+                robotsCompliance::getCacheHitCount);
+        metrics.counter("scraper_robots_cache_misses_total", "robots.txt lookups that waited for a fetch",
+                robotsCompliance::getCacheMissCount);
+        if (httpCache != null) {
+            metrics.counter("scraper_http_cache_hits_total", "Pages not modified since cached", httpCache::getHitCount);
+            metrics.counter("scraper_http_cache_misses_total", "Pages downloaded in full", httpCache::getMissCount);
+        }
+        metrics.gauge("scraper_requests_active", "Requests in progress", rateLimiter::getActiveCount);
+        metrics.gauge("scraper_requests_queued", "Requests waiting for the rate limiter", rateLimiter::getQueuedCount);
+        metrics.gauge("scraper_parse_queue_depth", "Pages waiting for a parse thread", parseStage::getQueueDepth);
+        metrics.gauge("scraper_parse_queue_bytes", "Bytes of response bodies waiting for a parse thread",
+                      parseStage::getQueuedBytes);
+        metrics.histograms("scraper_rate_limit_wait_seconds", "Rate limiter wait per request", "host",
+                httpFetcher.getTimings().getRateLimitWait());
+        metrics.histograms("scraper_fetch_headers_seconds", "Time to response headers (DNS, connect, TLS, server)",
+                "host", httpFetcher.getTimings().getTimeToHeaders());
+        metrics.histograms("scraper_fetch_body_seconds", "Time from headers to the end of the body", "host",
+                httpFetcher.getTimings().getBodyTime());
+        metrics.histogram("scraper_parse_seconds", "Parse time per page", parseStage.getParseTimes());
     }
     
     /**
@@ -48,34 +175,269 @@ public class WebScraper {
      * @return List of scraped data
      */
     public List<ScrapedData> scrapeUrl(String url, boolean respectRobots) {
-        try {
-            // Check robots.txt compliance
-            if (respectRobots && !robotsCompliance.isUrlAllowed(url)) {
+        return scrapeUrlAsync(url, respectRobots).join();
+    }
+    
+    /**
+     * Scrapes a single URL asynchronously.
+     * Waiting for the domain's rate limit does not hold a thread; the fetch is scheduled once a slot opens.
+     * 
+     * @param url The URL to scrape
+     * @param respectRobots Whether to respect robots.txt rules
+     * @return CompletableFuture containing the scraped data, empty if the URL could not be scraped
+     */
+    public CompletableFuture<List<ScrapedData>> scrapeUrlAsync(String url, boolean respectRobots) {
+        return scrapeUrlAsync(url, defaultOptions(respectRobots));
+    }
+    
+    /**
+     * Scrapes a single URL asynchronously with the selectors and politeness settings of a run.
+     * 
+     * @param url The URL to scrape
+     * @param options Selectors, robots.txt and delay settings
+     * @return CompletableFuture containing the scraped data, empty if the URL could not be scraped
+     */
+    public CompletableFuture<List<ScrapedData>> scrapeUrlAsync(String url, ScrapeOptions options) {
+        return scrapePageAsync(url, options, profilesFor(options), false).thenApply(ParsedPage::getRecords);
+    }
+    
+    /**
+     * Scrapes a single page asynchronously, optionally collecting its links.
+     * 
+     * @param url The URL to scrape
+     * @param options Robots.txt and delay settings, and the listener told when the page is done
+     * @param profiles Compiled selectors for the page
+     * @param extractLinks Whether to collect the page's links
+     * @return CompletableFuture containing the parsed page, empty if the URL was skipped and failed
+     *         if it could not be fetched
+     */
+    private CompletableFuture<ParsedPage> scrapePageAsync(String url, ScrapeOptions options,
+                                                          SelectorProfiles profiles, boolean extractLinks) {
+        return getCrawlDelayAsync(url, options)
+                .thenCompose(crawlDelay -> crawlDelay < 0
+                        ? CompletableFuture.completedFuture(ParsedPage.empty())
+                        : fetchAndParse(url, crawlDelay, profiles, extractLinks, options.getNearDuplicates()))
+                .thenApply(page -> {
+                    recordsExtracted.addAndGet(page.getRecords().size());
+                    return page;
+                })
+                .exceptionally(e -> {
+                    if (e.getCause() instanceof CircuitOpenException) {
+                        logger.warn("Skipped URL {}: {}", url, e.getCause().getMessage());
+                    } else {
+                        logger.error("Error scraping URL {}: {}", url, e.getMessage());
+                    }
+                    return ParsedPage.failed();
+                })
+                .thenApply(page -> {
+                    options.getPageListener().accept(page.getRecords().size());
+                    return page;
+                });
+    }
+    
+    /**
+     * Checks robots.txt compliance and determines the minimum crawl delay for a URL: the larger of
+     * the robots.txt Crawl-delay and the run's delay.
+     * No thread waits while robots.txt is fetched; URLs on the same host share one request.
+     * 
+     * @param url The URL to check
+     * @param options Whether to respect robots.txt rules, and the delay
+     * @return CompletableFuture with the crawl delay in milliseconds, or -1 if the URL must not be fetched
+     */
+    private CompletableFuture<Long> getCrawlDelayAsync(String url, ScrapeOptions options) {
+        if (!options.isRespectRobots()) {
+            return CompletableFuture.completedFuture(options.getDelayMs());
+        }
+        
+        return robotsCompliance.isUrlAllowedAsync(url).thenCompose(allowed -> {
+            if (!allowed) {
                 logger.warn("URL not allowed by robots.txt: {}", url);
-                return List.of();
+                return CompletableFuture.completedFuture(-1L);
             }
-            
-            // Get crawl delay
-            long crawlDelay = respectRobots ? robotsCompliance.getCrawlDelay(url) : 1000;
-            
-            // Fetch the page
-            logger.info("Fetching URL: {}", url);
-            HttpResponse<String> response = httpFetcher.fetch(url, crawlDelay);
-            
-            if (response.statusCode() >= 200 && response.statusCode() < 300) {
+            return robotsCompliance.getCrawlDelayAsync(url, 0)
+                    .thenApply(crawlDelay -> Math.max(crawlDelay, options.getDelayMs()));
+        });
+    }
+    
+    /**
+     * Fetches a page and hands it to the parse stage once its body has been read, so the fetch
+     * thread goes back to waiting on the network while a CPU-bound parse thread does the parsing.
+     * The parser never reads from the network: a streamed body is decoded and read into memory on
+     * the fetch thread, and the parse thread reads it back from there.
+     * Error responses are answered on the fetch thread without taking a parse slot.
+     * With the HTTP cache enabled, a cached page is revalidated with a conditional request, and a
+     * 304 Not Modified response is answered from the cache without parsing. The cache holds records
+     * extracted with the scraper's own selectors, so runs with other selectors bypass it.
+     * 
+     * @param url The URL to scrape
+     * @param crawlDelay Minimum delay between requests to the same domain
+     * @param profiles Compiled selectors for the page
+     * @param extractLinks Whether to collect the page's links
+     * @param nearDuplicates Pages seen so far in the run, or null to extract every page
+     * @return CompletableFuture containing the parsed page
+     */
+    private CompletableFuture<ParsedPage> fetchAndParse(String url, long crawlDelay, SelectorProfiles profiles,
+                                                        boolean extractLinks, NearDuplicateDetector nearDuplicates) {
+        logger.debug("Fetching URL: {}", url);
+        HttpCache cache = profiles == selectorProfiles ? httpCache : null;
+        CachedPage cached = cache != null ? cache.get(url) : null;
+        if (cached != null && extractLinks && !cached.hasLinks()) {
+            // The cached copy cannot supply the links this crawl needs
+            cached = null;
+        }
+        Map<String, String> headers = cached != null ? cached.getConditionalHeaders() : Map.of();
+        CachedPage revalidated = cached;
+        
+        if (config.isStreamingFetch()) {
+            return httpFetcher.fetchStreamAsync(url, crawlDelay, headers).thenComposeAsync(response -> {
+                if (response.statusCode() == 304) {
+                    return CompletableFuture.completedFuture(notModified(url, revalidated, response));
+                } else if (response.statusCode() < 200 || response.statusCode() >= 300) {
+                    discardBody(response);
+                    return CompletableFuture.completedFuture(httpError(url, response.statusCode()));
+                }
+                BufferedBody body = readBody(url, response);
+                return parseStage.submit(body, input -> cacheIfValidated(cache, url, response,
+                        parseBody(url, response, input, profiles, extractLinks, nearDuplicates), extractLinks));
+            }, executor);
+        }
+        
+        return httpFetcher.fetchAsync(url, crawlDelay, headers).thenCompose(response -> {
+            if (response.statusCode() == 304) {
+                return CompletableFuture.completedFuture(notModified(url, revalidated, response));
+            } else if (response.statusCode() >= 200 && response.statusCode() < 300) {
                 // Parse the HTML content
-                List<ScrapedData> data = htmlParser.parseHtml(response.body(), url, selectors);
-                logger.info("Extracted {} records from URL: {}", data.size(), url);
-                return data;
+                return parseStage.submit(() -> {
+                    String pageUrl = response.uri().toString();
+                    ParsedPage page = htmlParser.parsePage(response.body(), pageUrl,
+                                                           profiles.planFor(pageUrl), extractLinks, nearDuplicates);
+                    logger.debug("Extracted {} records from URL: {}", page.getRecords().size(), url);
+                    return cacheIfValidated(cache, url, response, page, extractLinks);
+                });
             } else {
-                logger.warn("HTTP error {} for URL: {}", response.statusCode(), url);
-                return List.of();
+                return CompletableFuture.completedFuture(httpError(url, response.statusCode()));
             }
-            
-        } catch (Exception e) {
-            logger.error("Error scraping URL {}: {}", url, e.getMessage());
-            return List.of();
+        });
+    }
+    
+    /**
+     * Answers an error response: as a failure if the status was worth retrying, since the page may be
+     * there next time, or as an empty page otherwise.
+     * 
+     * @param url The URL that was fetched
+     * @param statusCode The response status
+     * @return failed or empty page
+     */
+    private ParsedPage httpError(String url, int statusCode) {
+        logger.warn("HTTP error {} for URL: {}", statusCode, url);
+        return httpFetcher.getRetryPolicy().isRetryable(statusCode) ? ParsedPage.failed() : ParsedPage.empty();
+    }
+    
+    /**
+     * Answers a 304 Not Modified response from the cached copy of the page.
+     * 
+     * @param url The URL that was fetched
+     * @param cached The cached page whose validators were sent
+     * @param response The 304 response
+     * @return cached records and links, or only the links when unchanged pages are skipped
+     */
+    private ParsedPage notModified(String url, CachedPage cached, HttpResponse<?> response) {
+        discardBody(response);
+        if (cached == null) {
+            logger.warn("Unexpected 304 Not Modified for uncached URL: {}", url);
+            return ParsedPage.empty();
         }
+        
+        httpCache.recordHit();
+        ParsedPage page = cached.getPage();
+        if (config.getNotModifiedPolicy() == NotModifiedPolicy.SKIP) {
+            logger.debug("Not modified, skipping URL: {}", url);
+            return new ParsedPage(List.of(), page.getLinks());
+        }
+        logger.debug("Not modified, re-emitting {} cached records for URL: {}", page.getRecords().size(), url);
+        return page;
+    }
+    
+    /**
+     * Stores a freshly parsed page in the HTTP cache if the response can be revalidated later. A
+     * near-duplicate is not stored: it was only skipped because of the pages seen before it in this
+     * run, and a later run answering it from the cache would lose its records.
+     * 
+     * @param cache The HTTP cache, or null if the page is not cached
+     * @param url The URL that was fetched
+     * @param response The full response
+     * @param page What was parsed from it
+     * @param extractLinks Whether the page's links were collected
+     * @return the page
+     */
+    private static ParsedPage cacheIfValidated(HttpCache cache, String url, HttpResponse<?> response,
+                                               ParsedPage page, boolean extractLinks) {
+        if (cache == null || response.statusCode() < 200 || response.statusCode() >= 300) {
+            return page;
+        }
+        
+        cache.recordMiss();
+        boolean noStore = response.headers().firstValue("Cache-Control")
+                .map(value -> value.toLowerCase(Locale.ROOT).contains("no-store"))
+                .orElse(false);
+        if (!noStore && !page.isNearDuplicate()) {
+            cache.put(url, response.headers().firstValue("ETag").orElse(null),
+                          response.headers().firstValue("Last-Modified").orElse(null), page, extractLinks);
+        }
+        return page;
+    }
+    
+    private static void discardBody(HttpResponse<?> response) {
+        if (response.body() instanceof InputStream) {
+            try {
+                ((InputStream) response.body()).close();
+            } catch (IOException e) {
+                logger.debug("Error closing response body: {}", e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * Reads a streamed response body on the fetch thread, decoded and capped at the maximum body
+     * size, so the parse stage never waits on the network. The body is held in chunks rather than
+     * one array, and the parse stage bounds the bytes of bodies waiting for it.
+     * 
+     * @param url The URL that was fetched
+     * @param response The response with a streaming body
+     * @return the decoded body
+     */
+    private BufferedBody readBody(String url, HttpResponse<InputStream> response) {
+        InputStream body = response.body();
+        try {
+            BufferedBody buffered = BufferedBody.read(body);
+            if (body instanceof BoundedInputStream && ((BoundedInputStream) body).isTruncated()) {
+                logger.warn("Response body for URL {} exceeded {} bytes and was truncated",
+                           url, httpFetcher.getMaxBodyBytes());
+            }
+            return buffered;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read response body for URL: " + url, e);
+        }
+    }
+    
+    /**
+     * Parses a response body read by {@link #readBody} without materializing it as a String.
+     * 
+     * @param url The URL that was fetched
+     * @param response The response the body came from
+     * @param body The decoded body
+     * @param profiles Compiled selectors for the page
+     * @param extractLinks Whether to collect the page's links
+     * @param nearDuplicates Pages seen so far in the run, or null to extract every page
+     * @return parsed page
+     */
+    private ParsedPage parseBody(String url, HttpResponse<?> response, InputStream body, SelectorProfiles profiles,
+                                 boolean extractLinks, NearDuplicateDetector nearDuplicates) {
+        String pageUrl = response.uri().toString();
+        ParsedPage page = htmlParser.parsePage(body, HttpFetcher.getCharset(response),
+                                               pageUrl, profiles.planFor(pageUrl), extractLinks, nearDuplicates);
+        logger.debug("Extracted {} records from URL: {}", page.getRecords().size(), url);
+        return page;
     }
     
     /**
@@ -87,7 +449,7 @@ public class WebScraper {
      */
     public CompletableFuture<List<ScrapedData>> scrapeUrlsAsync(List<String> urls, boolean respectRobots) {
         List<CompletableFuture<List<ScrapedData>>> futures = urls.stream()
-                .map(url -> CompletableFuture.supplyAsync(() -> scrapeUrl(url, respectRobots)))
+                .map(url -> scrapeUrlAsync(url, respectRobots))
                 .toList();
         
         return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
@@ -97,6 +459,313 @@ public class WebScraper {
                         .toList());
     }
     
+    /**
+     * Scrapes a list of URLs, handing each page's records to a sink as soon as the page is done.
+     * At most the configured concurrency of pages are fetching, plus those the parse stage holds,
+     * so memory use does not grow with the number of URLs, and a sink that blocks slows the scrape
+     * down instead of buffering.
+     * 
+     * @param urls List of URLs to scrape
+     * @param respectRobots Whether to respect robots.txt rules
+     * @param sink Destination for the records
+     * @throws InterruptedException if interrupted while waiting for pages
+     * @throws RuntimeException if the sink fails
+     */
+    public void scrapeUrls(List<String> urls, boolean respectRobots, RecordSink sink) throws InterruptedException {
+        scrapeUrls(urls, defaultOptions(respectRobots), sink);
+    }
+    
+    /**
+     * Scrapes a list of URLs with the selectors and politeness settings of a run. Runs on other
+     * threads share the scraper's page slots and take turns for them, so a long run does not hold
+     * back a short one started after it.
+     * 
+     * @param urls List of URLs to scrape; with a resumed checkpoint, those it lists as done are skipped
+     * @param options Selectors, robots.txt and delay settings, and the checkpoint
+     * @param sink Destination for the records
+     * @throws InterruptedException if interrupted while waiting for pages; pages already in flight
+     *                              still finish and are handed to the sink
+     * @throws RuntimeException if the sink fails
+     * @see #scrapeUrls(List, boolean, RecordSink)
+     */
+    public void scrapeUrls(List<String> urls, ScrapeOptions options, RecordSink sink) throws InterruptedException {
+        SelectorProfiles profiles = profilesFor(options);
+        CrawlCheckpoint checkpoint = options.getCheckpoint();
+        UrlDeduplicator doneUrls = restoreDoneUrls(checkpoint);
+        Phaser pending = new Phaser(1);
+        AtomicReference<Throwable> sinkFailure = new AtomicReference<>();
+        int skipped = 0;
+        
+        for (String url : urls) {
+            if (doneUrls != null && doneUrls.isSeen(url)) {
+                skipped++;
+                continue;
+            }
+            pageSlots.acquire();
+            if (sinkFailure.get() != null) {
+                pageSlots.release();
+                break;
+            }
+            pending.register();
+            scrapePageAsync(url, options, profiles, false)
+                    .whenComplete((page, error) -> {
+                        if (checkpoint != null) {
+                            checkpoint.beginPage();
+                        }
+                        try {
+                            if (page != null) {
+                                deliver(sink, page.getRecords(), sinkFailure);
+                            }
+                        } finally {
+                            if (checkpoint != null && page != null && !page.isFailed()) {
+                                checkpoint.endPage(url, List.of(), 0);
+                            } else if (checkpoint != null) {
+                                checkpoint.abandonPage();
+                            }
+                            pageSlots.release();
+                            pending.arriveAndDeregister();
+                        }
+                    });
+        }
+        if (skipped > 0) {
+            logger.info("Skipped {} URLs done before the checkpoint", skipped);
+        }
+        
+        // Wait for the pages still in flight
+        pending.awaitAdvanceInterruptibly(pending.arrive());
+        throwIfSinkFailed(sinkFailure);
+    }
+    
+    /**
+     * Crawls outward from seed URLs by following links, up to the configured page and depth limits.
+     * Links are kept in a per-host frontier; at most the configured concurrency of pages are in flight,
+     * and each host is limited to its per-domain concurrency so one slow host never stalls the others.
+     * 
+     * @param seedUrls URLs to start crawling from
+     * @param respectRobots Whether to respect robots.txt rules
+     * @return List of all scraped data
+     * @throws InterruptedException if interrupted while waiting for pages
+     */
+    public List<ScrapedData> crawl(List<String> seedUrls, boolean respectRobots) throws InterruptedException {
+        Queue<ScrapedData> results = new ConcurrentLinkedQueue<>();
+        crawl(seedUrls, respectRobots, results::addAll);
+        return new ArrayList<>(results);
+    }
+    
+    /**
+     * Crawls outward from seed URLs, handing each page's records to a sink as soon as the page is done.
+     * 
+     * @param seedUrls URLs to start crawling from
+     * @param respectRobots Whether to respect robots.txt rules
+     * @param sink Destination for the records
+     * @throws InterruptedException if interrupted while waiting for pages
+     * @throws RuntimeException if the sink fails
+     * @see #crawl(List, boolean)
+     */
+    public void crawl(List<String> seedUrls, boolean respectRobots, RecordSink sink) throws InterruptedException {
+        crawl(seedUrls, defaultOptions(respectRobots), sink);
+    }
+    
+    /**
+     * Crawls outward from seed URLs with the selectors, politeness settings and page limit of a run,
+     * sharing page slots with runs on other threads as {@link #scrapeUrls(List, ScrapeOptions, RecordSink)} does.
+     * 
+     * @param seedUrls URLs to start crawling from; a resumed checkpoint's frontier replaces them
+     * @param options Selectors, robots.txt, delay and page limit settings, and the checkpoint
+     * @param sink Destination for the records
+     * @throws InterruptedException if interrupted while waiting for pages
+     * @throws RuntimeException if the sink fails
+     */
+    public void crawl(List<String> seedUrls, ScrapeOptions options, RecordSink sink) throws InterruptedException {
+        SelectorProfiles profiles = profilesFor(options);
+        CrawlCheckpoint checkpoint = options.getCheckpoint();
+        CrawlFrontier frontier = createFrontier(seedUrls, checkpoint);
+        AtomicReference<Throwable> sinkFailure = new AtomicReference<>();
+        int maxDepth = config.getMaxDepth();
+        // Pages done by the runs a checkpoint resumes count towards the limit
+        long pagesBefore = checkpoint != null ? checkpoint.getPagesDone() : 0;
+        int dispatched = 0;
+        
+        while (pagesBefore + dispatched < options.getMaxPages() && sinkFailure.get() == null) {
+            pageSlots.acquire();
+            FrontierEntry entry;
+            try {
+                entry = frontier.take();
+            } catch (InterruptedException e) {
+                pageSlots.release();
+                throw e;
+            }
+            if (entry == null) {
+                pageSlots.release();
+                break;
+            }
+            
+            dispatched++;
+            scrapePageAsync(entry.getUrl(), options, profiles, entry.getDepth() < maxDepth)
+                    .whenComplete((page, error) -> {
+                        List<String> queuedLinks = checkpoint != null ? new ArrayList<>() : null;
+                        if (checkpoint != null) {
+                            checkpoint.beginPage();
+                        }
+                        try {
+                            if (page != null) {
+                                for (String link : page.getLinks()) {
+                                    if (frontier.offer(link, entry.getDepth() + 1) && queuedLinks != null) {
+                                        queuedLinks.add(link);
+                                    }
+                                }
+                                deliver(sink, page.getRecords(), sinkFailure);
+                            }
+                        } finally {
+                            if (checkpoint != null && page != null && !page.isFailed()) {
+                                checkpoint.endPage(entry.getUrl(), queuedLinks, entry.getDepth() + 1);
+                            } else if (checkpoint != null) {
+                                // Left waiting in the checkpoint, so a resumed crawl fetches it again
+                                checkpoint.abandonPage();
+                            }
+                            frontier.complete(entry);
+                            pageSlots.release();
+                        }
+                    });
+        }
+        
+        frontier.awaitIdle();
+        logger.info("Crawl finished: {} pages fetched, {} URLs seen, {} still queued ({} KB seen-URL set)",
+                   dispatched, frontier.getSeenCount(), frontier.getQueuedCount(), frontier.getSeenSetBytes() >> 10);
+        throwIfSinkFailed(sinkFailure);
+    }
+    
+    private ScrapeOptions defaultOptions(boolean respectRobots) {
+        ScrapeOptions options = ScrapeOptions.from(config, selectorProfiles);
+        options.setRespectRobots(respectRobots);
+        return options;
+    }
+    
+    private SelectorProfiles profilesFor(ScrapeOptions options) {
+        return options.getSelectorProfiles() != null ? options.getSelectorProfiles() : selectorProfiles;
+    }
+    
+    /**
+     * Gets how many pages may be in flight at once: enough to keep every fetch slot busy while the
+     * parse stage holds a page on each of its threads and a full queue.
+     * 
+     * @return page limit shared by all scrapeUrls and crawl runs
+     */
+    private int getMaxPagesInFlight() {
+        return config.getConcurrency() + parseStage.getThreads() + parseStage.getQueueCapacity();
+    }
+    
+    /**
+     * Hands a page's records to the sink, remembering the first failure so the caller can stop.
+     * 
+     * @param sink Destination for the records
+     * @param records Records from one page
+     * @param sinkFailure Holder for the first sink failure
+     */
+    private static void deliver(RecordSink sink, List<ScrapedData> records, AtomicReference<Throwable> sinkFailure) {
+        if (records.isEmpty() || sinkFailure.get() != null) {
+            return;
+        }
+        try {
+            sink.accept(records);
+        } catch (RuntimeException e) {
+            sinkFailure.compareAndSet(null, e);
+        }
+    }
+    
+    private static void throwIfSinkFailed(AtomicReference<Throwable> sinkFailure) {
+        Throwable error = sinkFailure.get();
+        if (error != null) {
+            throw new RuntimeException("Failed to write scraped records", error);
+        }
+    }
+    
+    /**
+     * Loads the URLs a resumed checkpoint lists as done, for a scrape of a URL list to skip.
+     * 
+     * @param checkpoint The run's checkpoint, or null
+     * @return done URLs, or null if there is no resumed checkpoint
+     */
+    private static UrlDeduplicator restoreDoneUrls(CrawlCheckpoint checkpoint) {
+        if (checkpoint == null || !checkpoint.isResumed()) {
+            return null;
+        }
+        UrlDeduplicator doneUrls = UrlDeduplicator.createDefault();
+        checkpoint.restoreSeenUrls(doneUrls);
+        return doneUrls;
+    }
+    
+    /**
+     * Creates a frontier scoped by the configuration, seeded with the given URLs or, with a resumed
+     * checkpoint, holding the URLs it had seen and queued.
+     * 
+     * @param seedUrls URLs to start crawling from
+     * @param checkpoint The run's checkpoint, or null
+     * @return crawl frontier
+     */
+    private CrawlFrontier createFrontier(List<String> seedUrls, CrawlCheckpoint checkpoint) {
+        Pattern include = config.getIncludePattern() != null ? Pattern.compile(config.getIncludePattern()) : null;
+        Pattern exclude = config.getExcludePattern() != null ? Pattern.compile(config.getExcludePattern()) : null;
+        CrawlScope scope = config.isSameHostOnly()
+                ? CrawlScope.sameHost(seedUrls, include, exclude)
+                : new CrawlScope(null, include, exclude);
+        
+        UrlDeduplicator deduplicator = UrlDeduplicator.create(config.getDedupMode(),
+                config.getDedupFalsePositiveRate(), config.getDedupMemoryMb(), config.isDedupOffHeap());
+        CrawlFrontier frontier = new CrawlFrontier(scope, config.getMaxDepth(), config.getMaxConcurrentPerDomain(),
+                deduplicator);
+        if (checkpoint != null && checkpoint.isResumed()) {
+            checkpoint.restoreSeenUrls(deduplicator);
+            checkpoint.restorePendingUrls(frontier);
+            logger.info("Resuming crawl with {} URLs queued and {} seen", frontier.getQueuedCount(),
+                       frontier.getSeenCount());
+            return frontier;
+        }
+        
+        for (String url : seedUrls) {
+            if (!frontier.addSeed(url)) {
+                logger.warn("Skipping invalid or duplicate seed URL: {}", url);
+            } else if (checkpoint != null) {
+                checkpoint.seeded(url);
+            }
+        }
+        return frontier;
+    }
+    
+    /**
+     * Creates a default configuration with the given User-Agent.
+     * 
+     * @param userAgent User-Agent string
+     * @return scraper configuration
+     */
+    private static ScraperConfig createConfig(String userAgent) {
+        ScraperConfig config = new ScraperConfig();
+        config.setUserAgent(userAgent);
+        return config;
+    }
+    
+    private static RetryPolicy createRetryPolicy(ScraperConfig config) {
+        RetryPolicy policy = new RetryPolicy();
+        policy.setMaxRetries(config.getMaxRetries());
+        policy.setBaseDelayMs(config.getRetryBaseDelayMs());
+        policy.setMaxDelayMs(config.getRetryMaxDelayMs());
+        policy.setBudgetRatio(config.getRetryBudget());
+        policy.setBreakerFailureRate(config.getBreakerFailureRate());
+        policy.setBreakerOpenMs(config.getBreakerOpenMs());
+        return policy;
+    }
+    
+    private static TransportOptions createTransportOptions(ScraperConfig config) {
+        TransportOptions options = new TransportOptions();
+        options.setThreads(config.getHttpThreads());
+        options.setHttp2(config.isHttp2());
+        config.getHttp1Hosts().forEach(options::addHttp1Host);
+        options.setKeepAliveSeconds(config.getKeepAliveSeconds());
+        options.setConnectionPoolSize(config.getConnectionPoolSize());
+        options.setMaxHttp2Streams(config.getHttp2MaxStreams());
+        return options;
+    }
+    
     /**
      * Gets the User-Agent string used by this scraper.
      * 
@@ -114,4 +783,53 @@ public class WebScraper {
     public Duration getTimeout() {
         return httpFetcher.getTimeout();
     }
+    
+    /**
+     * Gets the selectors runs use unless their options give others.
+     * 
+     * @return compiled selectors
+     */
+    public SelectorProfiles getSelectorProfiles() {
+        return selectorProfiles;
+    }
+    
+    /**
+     * Gets the robots.txt checker, whose cache is shared by every run on this scraper.
+     * 
+     * @return robots.txt compliance checker
+     */
+    public RobotsTxtCompliance getRobotsCompliance() {
+        return robotsCompliance;
+    }
+    
+    /**
+     * Gets the scraper's metrics. Callers may register their own, such as output counters, to have
+     * them served and included in the run summary.
+     * 
+     * @return metrics registry
+     */
+    public MetricsRegistry getMetrics() {
+        return metrics;
+    }
+    
+    /**
+     * Shuts down the worker threads and rate limiter timer owned by this scraper, saves the
+     * robots.txt cache and logs the run summary, transfer, parse stage and HTTP cache counters.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        parseStage.close();
+        rateLimiter.close();
+        robotsCompliance.close();
+        transport.close();
+        logger.info(metrics.formatSummary());
+        logger.info("Transfer: {}", httpFetcher.getTransferStats());
+        logger.info("Parse stage: {}", parseStage);
+        if (httpCache != null) {
+            logger.info("HTTP cache: {} not modified, {} downloaded, {} pages ({} bytes) cached, {} evicted",
+                       httpCache.getHitCount(), httpCache.getMissCount(), httpCache.getEntryCount(),
+                       httpCache.getTotalBytes(), httpCache.getEvictionCount());
+        }
+    }
 }
@@ -0,0 +1,80 @@
+package com.example.scraper.core.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.example.scraper.core.parser.ParsedPage;
+
+/**
+ * A page stored in the {@link HttpCache}: the validators from its last full response and what was
+ * parsed from it.
+ */
+public final class CachedPage {
+    
+    private final String url;
+    private final String etag;
+    private final String lastModified;
+    private final long storedAtMillis;
+    private final ParsedPage page;
+    private final boolean hasLinks;
+    
+    public CachedPage(String url, String etag, String lastModified, long storedAtMillis,
+                      ParsedPage page, boolean hasLinks) {
+        this.url = url;
+        this.etag = etag;
+        this.lastModified = lastModified;
+        this.storedAtMillis = storedAtMillis;
+        this.page = page;
+        this.hasLinks = hasLinks;
+    }
+    
+    /**
+     * Gets the canonical URL the page is cached under.
+     * 
+     * @return canonical URL
+     */
+    public String getUrl() {
+        return url;
+    }
+    
+    public String getEtag() {
+        return etag;
+    }
+    
+    public String getLastModified() {
+        return lastModified;
+    }
+    
+    public long getStoredAtMillis() {
+        return storedAtMillis;
+    }
+    
+    public ParsedPage getPage() {
+        return page;
+    }
+    
+    /**
+     * Checks whether the page's links were extracted when it was cached.
+     * 
+     * @return true if {@link ParsedPage#getLinks()} is complete
+     */
+    public boolean hasLinks() {
+        return hasLinks;
+    }
+    
+    /**
+     * Gets the request headers that ask the server to answer 304 if the page has not changed.
+     * 
+     * @return If-None-Match and/or If-Modified-Since headers
+     */
+    public Map<String, String> getConditionalHeaders() {
+        Map<String, String> headers = new LinkedHashMap<>();
+        if (etag != null) {
+            headers.put("If-None-Match", etag);
+        }
+        if (lastModified != null) {
+            headers.put("If-Modified-Since", lastModified);
+        }
+        return headers;
+    }
+}
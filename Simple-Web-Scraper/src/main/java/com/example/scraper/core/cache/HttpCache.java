@@ -0,0 +1,349 @@
+package com.example.scraper.core.cache;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import com.example.scraper.core.frontier.UrlCanonicalizer;
+import com.example.scraper.core.frontier.UrlFingerprint;
+import com.example.scraper.core.parser.ParsedPage;
+import com.example.scraper.model.ExtractionSchema;
+import com.example.scraper.model.FieldSpec;
+import com.example.scraper.model.ScrapedData;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * On-disk cache of fetched pages for conditional re-crawls. Each page is stored in its own JSON file,
+ * named by the fingerprint of its canonical URL, with the ETag and Last-Modified validators of its
+ * last full response and the records and links parsed from it. When a server confirms with 304 Not
+ * Modified that a page is unchanged, the page does not have to be downloaded or parsed again.
+ * Records are stored as value arrays under the field names of the cache's {@link ExtractionSchema};
+ * pages cached with other fields are treated as not cached.
+ * <p>
+ * The total size of the files is bounded; the least recently used pages are deleted first. Recency
+ * survives restarts through the files' modification times.
+ */
+public class HttpCache {
+    
+    private static final Logger logger = LoggerFactory.getLogger(HttpCache.class);
+    private static final TypeReference<List<String>> LINK_LIST = new TypeReference<>() { };
+    
+    public static final String DIRECTORY_NAME = "http";
+    public static final int DEFAULT_MAX_SIZE_MB = 256;
+    
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    
+    private final Path directory;
+    private final long maxBytes;
+    private final ExtractionSchema schema;
+    
+    // File name to file size, in access order
+    private final LinkedHashMap<String, Long> index;
+    private long totalBytes = 0;
+    
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    
+    /**
+     * Opens a cache directory for records of the default schema.
+     * 
+     * @param directory Directory the pages are stored in
+     * @param maxBytes Maximum total size of the stored pages
+     */
+    public HttpCache(Path directory, long maxBytes) {
+        this(directory, maxBytes, ExtractionSchema.DEFAULT);
+    }
+    
+    /**
+     * Opens a cache directory, creating it if needed, and indexes the pages already in it.
+     * 
+     * @param directory Directory the pages are stored in
+     * @param maxBytes Maximum total size of the stored pages
+     * @param schema Fields of the cached records
+     */
+    public HttpCache(Path directory, long maxBytes, ExtractionSchema schema) {
+        if (maxBytes < 1) {
+            throw new IllegalArgumentException("Cache size must be positive");
+        }
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        this.schema = schema;
+        this.index = new LinkedHashMap<>(16, 0.75f, true);
+        
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to create HTTP cache directory: " + directory, e);
+        }
+        loadIndex();
+    }
+    
+    /**
+     * Looks up the cached copy of a page.
+     * 
+     * @param url The page URL; it is canonicalized before the lookup
+     * @return cached page, or null if the page is not cached
+     */
+    public CachedPage get(String url) {
+        String canonical = UrlCanonicalizer.canonicalize(url);
+        if (canonical == null) {
+            return null;
+        }
+        
+        String name = fileName(canonical);
+        synchronized (this) {
+            if (index.get(name) == null) {
+                return null;
+            }
+        }
+        
+        Path file = directory.resolve(name);
+        try {
+            JsonNode root = objectMapper.readTree(file.toFile());
+            if (!canonical.equals(root.path("url").asText())) {
+                // A different URL with the same fingerprint
+                return null;
+            }
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            
+            boolean hasLinks = root.hasNonNull("links");
+            List<ScrapedData> records = readRecords(root);
+            List<String> links = hasLinks ? objectMapper.convertValue(root.path("links"), LINK_LIST) : List.of();
+            return new CachedPage(canonical, textOrNull(root, "etag"), textOrNull(root, "lastModified"),
+                                  root.path("storedAt").asLong(), new ParsedPage(records, links), hasLinks);
+        } catch (IOException | IllegalArgumentException e) {
+            logger.debug("Dropping unreadable HTTP cache entry {}: {}", file, e.getMessage());
+            remove(name);
+            return null;
+        }
+    }
+    
+    /**
+     * Stores a page that was fetched in full. Pages without an ETag or Last-Modified header are not
+     * stored, since they could never be revalidated.
+     * 
+     * @param url The page URL
+     * @param etag The response's ETag header, or null
+     * @param lastModified The response's Last-Modified header, or null
+     * @param page What was parsed from the response
+     * @param hasLinks Whether the page's links were extracted
+     * @return true if the page was stored
+     */
+    public boolean put(String url, String etag, String lastModified, ParsedPage page, boolean hasLinks) {
+        String canonical = UrlCanonicalizer.canonicalize(url);
+        if (canonical == null || (etag == null && lastModified == null)) {
+            return false;
+        }
+        
+        ObjectNode root = objectMapper.createObjectNode();
+        root.put("url", canonical);
+        root.put("etag", etag);
+        root.put("lastModified", lastModified);
+        root.put("storedAt", System.currentTimeMillis());
+        ArrayNode fields = root.putArray("fields");
+        for (int i = 0; i < schema.size(); i++) {
+            fields.add(schema.getName(i));
+        }
+        ArrayNode records = root.putArray("records");
+        for (ScrapedData record : page.getRecords()) {
+            ArrayNode values = records.addArray();
+            for (int i = 0; i < schema.size(); i++) {
+                values.addPOJO(record.get(i));
+            }
+        }
+        if (hasLinks) {
+            root.set("links", objectMapper.valueToTree(page.getLinks()));
+        }
+        
+        String name = fileName(canonical);
+        Path file = directory.resolve(name);
+        try {
+            Path temp = Files.createTempFile(directory, name, ".tmp");
+            try {
+                objectMapper.writeValue(temp.toFile(), root);
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+            
+            long size = Files.size(file);
+            synchronized (this) {
+                Long previous = index.put(name, size);
+                totalBytes += size - (previous != null ? previous : 0);
+                evictIfNeeded();
+            }
+            return true;
+        } catch (IOException e) {
+            logger.warn("Failed to store {} in the HTTP cache: {}", url, e.getMessage());
+            return false;
+        }
+    }
+    
+    /**
+     * Reads the records of a cache file, checking that they were stored with the cache's fields.
+     * 
+     * @throws IllegalArgumentException if the file has other fields, e.g. after a schema change
+     */
+    private List<ScrapedData> readRecords(JsonNode root) {
+        JsonNode fields = root.path("fields");
+        if (fields.size() != schema.size()) {
+            throw new IllegalArgumentException("stored with different fields");
+        }
+        for (int i = 0; i < schema.size(); i++) {
+            if (!schema.getName(i).equals(fields.get(i).asText())) {
+                throw new IllegalArgumentException("stored with different fields");
+            }
+        }
+        
+        List<ScrapedData> records = new ArrayList<>(root.path("records").size());
+        for (JsonNode values : root.path("records")) {
+            ScrapedData record = new ScrapedData(schema);
+            for (int i = 0; i < schema.size(); i++) {
+                JsonNode value = values.path(i);
+                if (!value.isNull() && !value.isMissingNode()) {
+                    record.set(i, readValue(schema.getType(i), value));
+                }
+            }
+            records.add(record);
+        }
+        return records;
+    }
+    
+    /**
+     * Converts a stored value back to the Java type of its field, e.g. Long for a small integer
+     * that Jackson would read as an int.
+     */
+    private static Object readValue(FieldSpec.Type type, JsonNode value) {
+        switch (type) {
+            case INTEGER:
+                return value.asLong();
+            case NUMBER:
+                return value.asDouble();
+            case BOOLEAN:
+                return value.asBoolean();
+            default:
+                return value.asText();
+        }
+    }
+    
+    /**
+     * Counts a request the server answered with 304 Not Modified.
+     */
+    public void recordHit() {
+        hits.incrementAndGet();
+    }
+    
+    /**
+     * Counts a request that had to download the page.
+     */
+    public void recordMiss() {
+        misses.incrementAndGet();
+    }
+    
+    public long getHitCount() {
+        return hits.get();
+    }
+    
+    public long getMissCount() {
+        return misses.get();
+    }
+    
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+    
+    public synchronized int getEntryCount() {
+        return index.size();
+    }
+    
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+    
+    private void loadIndex() {
+        List<Path> files = new ArrayList<>();
+        try (Stream<Path> stream = Files.list(directory)) {
+            stream.filter(path -> path.getFileName().toString().endsWith(".json")).forEach(files::add);
+        } catch (IOException e) {
+            logger.warn("Failed to read HTTP cache directory {}: {}", directory, e.getMessage());
+            return;
+        }
+        
+        // Oldest first, so the most recently used pages end up last in access order
+        files.sort(Comparator.comparing(HttpCache::lastModified));
+        synchronized (this) {
+            for (Path file : files) {
+                try {
+                    long size = Files.size(file);
+                    index.put(file.getFileName().toString(), size);
+                    totalBytes += size;
+                } catch (IOException e) {
+                    logger.debug("Skipping HTTP cache entry {}: {}", file, e.getMessage());
+                }
+            }
+            evictIfNeeded();
+        }
+        logger.debug("Indexed {} pages ({} bytes) in HTTP cache {}", index.size(), totalBytes, directory);
+    }
+    
+    private void evictIfNeeded() {
+        Iterator<Map.Entry<String, Long>> eldest = index.entrySet().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<String, Long> entry = eldest.next();
+            eldest.remove();
+            totalBytes -= entry.getValue();
+            evictions.incrementAndGet();
+            deleteQuietly(directory.resolve(entry.getKey()));
+        }
+    }
+    
+    private synchronized void remove(String name) {
+        Long size = index.remove(name);
+        if (size != null) {
+            totalBytes -= size;
+        }
+        deleteQuietly(directory.resolve(name));
+    }
+    
+    private static String fileName(String canonicalUrl) {
+        return String.format("%016x.json", UrlFingerprint.of(canonicalUrl));
+    }
+    
+    private static String textOrNull(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+    
+    private static FileTime lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+    
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.debug("Failed to delete HTTP cache entry {}: {}", file, e.getMessage());
+        }
+    }
+}
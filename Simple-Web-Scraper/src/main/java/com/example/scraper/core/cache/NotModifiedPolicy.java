@@ -0,0 +1,30 @@
+package com.example.scraper.core.cache;
+
+import java.util.Locale;
+
+/**
+ * What to output for a page whose server answers 304 Not Modified.
+ */
+public enum NotModifiedPolicy {
+    
+    /**
+     * Output the records cached from the last full fetch, so every run's output is complete.
+     */
+    REEMIT,
+    
+    /**
+     * Output nothing for the page, so each run only contains pages that changed.
+     */
+    SKIP;
+    
+    /**
+     * Parses a policy name as given on the command line.
+     * 
+     * @param value "reemit" or "skip" (case-insensitive)
+     * @return matching policy
+     * @throws IllegalArgumentException if the value is not a known policy
+     */
+    public static NotModifiedPolicy parse(String value) {
+        return valueOf(value.trim().toUpperCase(Locale.ROOT));
+    }
+}
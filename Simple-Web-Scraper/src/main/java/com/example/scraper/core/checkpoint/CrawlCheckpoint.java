@@ -0,0 +1,716 @@
+package com.example.scraper.core.checkpoint;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongConsumer;
+import java.util.function.Predicate;
+import java.util.zip.CRC32;
+
+import com.example.scraper.core.frontier.CrawlFrontier;
+import com.example.scraper.core.frontier.UrlDeduplicator;
+import com.example.scraper.core.persistence.WriterPosition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Progress of a scrape or crawl kept on disk, so that a run that dies can be resumed without
+ * fetching its finished pages again or writing their records twice.
+ * <p>
+ * The checkpoint is a directory with a snapshot and an append-only log. Finished pages are reported
+ * with the links they added to the frontier, and at a fixed interval the reports are appended to the
+ * log as one checksummed batch, with the output position after their records. Page completions wait
+ * while a batch is taken, so a batch never holds a page whose records are not in the output yet.
+ * Pages that failed are not reported, so a resumed run fetches them again. With record
+ * deduplication, the fingerprints of the records a page's completion wrote go in the same batch, so a
+ * resumed run still drops duplicates of records written before it.
+ * Once the log has grown as large as the snapshot it is folded into a new snapshot: the 64-bit
+ * fingerprints of all URLs seen and records kept, the URLs still waiting with their depth, and the
+ * output position.
+ * Each batch costs only the pages finished since the last one, and the log stays bounded.
+ * <p>
+ * A resumed run cuts its output back to the last position, deleting the records of pages that
+ * finished after it, and fetches those pages again. A batch that was only partly written when the
+ * run died is ignored, as are batches whose output position is no longer on disk.
+ */
+public class CrawlCheckpoint implements AutoCloseable {
+    
+    private static final Logger logger = LoggerFactory.getLogger(CrawlCheckpoint.class);
+    
+    public static final long DEFAULT_INTERVAL_MS = 10_000;
+    
+    private static final String SNAPSHOT_FILE = "snapshot.bin";
+    private static final String LOG_FILE = "checkpoint.log";
+    private static final int SNAPSHOT_MAGIC = 0x53435032; // "SCP2"
+    private static final int MAX_BATCH_BYTES = 1 << 30;
+    private static final long MIN_COMPACT_BYTES = 1 << 20;
+    
+    private final Path directory;
+    private final Path snapshotFile;
+    private final Path logFile;
+    private final ReentrantReadWriteLock pageLock = new ReentrantReadWriteLock();
+    
+    // Reports since the last batch, guarded by this
+    private final ByteArrayOutputStream queuedBytes = new ByteArrayOutputStream();
+    private final DataOutputStream queued = new DataOutputStream(queuedBytes);
+    private final ByteArrayOutputStream doneBytes = new ByteArrayOutputStream();
+    private final DataOutputStream done = new DataOutputStream(doneBytes);
+    private final ByteArrayOutputStream recordBytes = new ByteArrayOutputStream();
+    private final DataOutputStream records = new DataOutputStream(recordBytes);
+    private int queuedCount = 0;
+    private int doneCount = 0;
+    private int recordCount = 0;
+    private int pageCount = 0;
+    
+    // State as of the last batch, guarded by this
+    private long sequence = 0;
+    private WriterPosition position;
+    private long pagesDone = 0;
+    private long seenCount = 0;
+    private long pendingCount = 0;
+    private long snapshotBytes = 0;
+    
+    private boolean resumed = false;
+    private FileChannel log;
+    private Callable<WriterPosition> output;
+    private ScheduledExecutorService committer;
+    private volatile boolean closed = false;
+    private volatile boolean failed = false;
+    
+    private CrawlCheckpoint(Path directory) {
+        this.directory = directory;
+        this.snapshotFile = directory.resolve(SNAPSHOT_FILE);
+        this.logFile = directory.resolve(LOG_FILE);
+    }
+    
+    /**
+     * Opens a checkpoint directory, loading its state to resume from or discarding it.
+     * 
+     * @param directory Checkpoint directory, created if missing
+     * @param resume true to continue from the checkpoint, false to start a new one
+     * @param outputReaches Whether the output on disk still reaches a position; batches after the
+     *                      first that fails this are ignored
+     * @return the checkpoint
+     * @throws IOException if the checkpoint cannot be read or written
+     */
+    public static CrawlCheckpoint open(Path directory, boolean resume, Predicate<WriterPosition> outputReaches)
+            throws IOException {
+        CrawlCheckpoint checkpoint = new CrawlCheckpoint(directory);
+        Files.createDirectories(directory);
+        boolean exists = Files.exists(checkpoint.snapshotFile) || Files.exists(checkpoint.logFile);
+        
+        if (resume && exists) {
+            // Replay the log once, so the run starts from a snapshot and an empty log
+            checkpoint.compact(outputReaches);
+            checkpoint.resumed = checkpoint.position != null;
+            logger.info("Resuming from checkpoint {}: {} pages done, {} URLs seen, {} waiting", directory,
+                       checkpoint.pagesDone, checkpoint.seenCount, checkpoint.pendingCount);
+        } else {
+            if (resume) {
+                logger.warn("No checkpoint in {}; starting from the beginning", directory);
+            } else if (exists) {
+                logger.info("Discarding the previous checkpoint in {}", directory);
+            }
+            Files.deleteIfExists(checkpoint.snapshotFile);
+            Files.deleteIfExists(checkpoint.logFile);
+        }
+        
+        checkpoint.log = FileChannel.open(checkpoint.logFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        return checkpoint;
+    }
+    
+    /**
+     * Starts writing a batch at a fixed interval.
+     * 
+     * @param output Waits until the records handed to the output are written, flushes them and
+     *               returns the output position; called while page completions wait
+     * @param intervalMs Time between batches
+     */
+    public synchronized void start(Callable<WriterPosition> output, long intervalMs) {
+        if (committer != null) {
+            throw new IllegalStateException("Checkpoint already started");
+        }
+        this.output = output;
+        this.committer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "checkpoint-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        committer.scheduleWithFixedDelay(this::commitQuietly, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * Checks whether the checkpoint holds progress to resume from.
+     * 
+     * @return true if a batch was written before the checkpoint was opened
+     */
+    public synchronized boolean isResumed() {
+        return resumed;
+    }
+    
+    /**
+     * Gets the output position the last batch recorded, which a resumed run continues writing from.
+     * 
+     * @return output position, or null if there is nothing to resume
+     */
+    public synchronized WriterPosition getOutputPosition() {
+        return position;
+    }
+    
+    /**
+     * Gets the number of pages recorded as done, in this run and the runs it resumes.
+     * 
+     * @return page count
+     */
+    public synchronized long getPagesDone() {
+        return pagesDone;
+    }
+    
+    /**
+     * Marks the fingerprints of the URLs seen before the checkpoint was opened as seen: all URLs
+     * queued by a crawl, or the URLs done by a scrape of a URL list.
+     * 
+     * @param deduplicator Seen-URL set to fill
+     * @throws UncheckedIOException if the snapshot cannot be read
+     */
+    public void restoreSeenUrls(UrlDeduplicator deduplicator) {
+        if (!Files.exists(snapshotFile)) {
+            return;
+        }
+        try (DataInputStream in = openSnapshot()) {
+            readHeader(in, null);
+            long pending = in.readLong();
+            for (long i = 0; i < pending; i++) {
+                readString(in);
+                in.readInt();
+            }
+            long seen = in.readLong();
+            for (long i = 0; i < seen; i++) {
+                deduplicator.markSeen(in.readLong());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read checkpoint " + snapshotFile, e);
+        }
+    }
+    
+    /**
+     * Queues the URLs that were waiting or in progress when the checkpoint was opened.
+     * 
+     * @param frontier Frontier to queue them in
+     * @throws UncheckedIOException if the snapshot cannot be read
+     */
+    public void restorePendingUrls(CrawlFrontier frontier) {
+        if (!Files.exists(snapshotFile)) {
+            return;
+        }
+        try (DataInputStream in = openSnapshot()) {
+            readHeader(in, null);
+            long pending = in.readLong();
+            for (long i = 0; i < pending; i++) {
+                String url = readString(in);
+                frontier.requeue(url, in.readInt());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read checkpoint " + snapshotFile, e);
+        }
+    }
+    
+    /**
+     * Hands over the fingerprints of the records that record deduplication kept before the
+     * checkpoint was opened.
+     * 
+     * @param seen Receives each fingerprint
+     * @throws UncheckedIOException if the snapshot cannot be read
+     */
+    public void restoreRecordFingerprints(LongConsumer seen) {
+        if (!Files.exists(snapshotFile)) {
+            return;
+        }
+        try (DataInputStream in = openSnapshot()) {
+            readHeader(in, null);
+            long pending = in.readLong();
+            for (long i = 0; i < pending; i++) {
+                readString(in);
+                in.readInt();
+            }
+            in.skipNBytes(in.readLong() * Long.BYTES);
+            long count = in.readLong();
+            for (long i = 0; i < count; i++) {
+                seen.accept(in.readLong());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read checkpoint " + snapshotFile, e);
+        }
+    }
+    
+    /**
+     * Records a seed URL queued by a new crawl.
+     * 
+     * @param url The seed URL
+     */
+    public synchronized void seeded(String url) {
+        writeQueued(url, 0);
+    }
+    
+    /**
+     * Marks the start of a page's completion. Until {@link #endPage} is called, no batch is taken,
+     * so everything the completion hands to the output is written before the page is recorded.
+     */
+    public void beginPage() {
+        pageLock.readLock().lock();
+    }
+    
+    /**
+     * Records a page as done, with the links it added to the frontier, and ends its completion.
+     * Pages that end after the checkpoint is closed are not recorded.
+     * 
+     * @param url URL of the page
+     * @param queuedLinks Links from the page that were queued
+     * @param linkDepth Depth of the links
+     */
+    public void endPage(String url, List<String> queuedLinks, int linkDepth) {
+        try {
+            if (!closed) {
+                recordPage(url, queuedLinks, linkDepth);
+            }
+        } finally {
+            pageLock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Ends the completion of a page that failed without recording it, so a resumed run fetches it
+     * again: a crawl keeps it waiting, and a scrape of a URL list does not skip it.
+     */
+    public void abandonPage() {
+        pageLock.readLock().unlock();
+    }
+    
+    /**
+     * Records the fingerprint of a record that record deduplication kept, during the completion of
+     * the page that wrote it.
+     * 
+     * @param fingerprint The record's fingerprint
+     */
+    public synchronized void recordFingerprint(long fingerprint) {
+        if (closed) {
+            return;
+        }
+        try {
+            records.writeLong(fingerprint);
+            recordCount++;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    private synchronized void recordPage(String url, List<String> queuedLinks, int linkDepth) {
+        for (String link : queuedLinks) {
+            writeQueued(link, linkDepth);
+        }
+        long fingerprint = UrlDeduplicator.fingerprint(url);
+        try {
+            if (fingerprint != 0) {
+                done.writeLong(fingerprint);
+                doneCount++;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        pageCount++;
+    }
+    
+    private void writeQueued(String url, int depth) {
+        try {
+            writeString(queued, url);
+            queued.writeInt(depth);
+            queuedCount++;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    private void commitQuietly() {
+        if (failed) {
+            return;
+        }
+        try {
+            commit();
+        } catch (Exception e) {
+            failed = true;
+            logger.error("Checkpoint failed; no more checkpoints are written to {}: {}", directory, e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Writes the reports since the last batch as a batch, and folds the log into the snapshot once
+     * it is large enough.
+     * 
+     * @throws Exception if the output cannot be flushed or the checkpoint cannot be written
+     */
+    private void commit() throws Exception {
+        byte[] payload;
+        int pages;
+        WriterPosition outputPosition;
+        pageLock.writeLock().lock();
+        try {
+            synchronized (this) {
+                if (pageCount == 0 && queuedCount == 0) {
+                    return;
+                }
+            }
+            outputPosition = output.call();
+            synchronized (this) {
+                pages = pageCount;
+                payload = encodeBatch(sequence + 1, outputPosition);
+                queuedBytes.reset();
+                doneBytes.reset();
+                recordBytes.reset();
+                queuedCount = 0;
+                doneCount = 0;
+                recordCount = 0;
+                pageCount = 0;
+            }
+        } finally {
+            pageLock.writeLock().unlock();
+        }
+        
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        ByteBuffer frame = ByteBuffer.allocate(Integer.BYTES + Long.BYTES + payload.length);
+        frame.putInt(payload.length).putLong(crc.getValue()).put(payload).flip();
+        while (frame.hasRemaining()) {
+            log.write(frame);
+        }
+        log.force(false);
+        synchronized (this) {
+            sequence++;
+            position = outputPosition;
+            pagesDone += pages;
+        }
+        
+        if (log.size() > Math.max(MIN_COMPACT_BYTES, snapshotBytes)) {
+            compact(reached -> true);
+        }
+    }
+    
+    private byte[] encodeBatch(long batchSequence, WriterPosition outputPosition) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(28 + queuedBytes.size() + doneBytes.size()
+                + recordBytes.size());
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeLong(batchSequence);
+        writePosition(out, outputPosition);
+        out.writeInt(pageCount);
+        out.writeInt(queuedCount);
+        queuedBytes.writeTo(out);
+        out.writeInt(doneCount);
+        doneBytes.writeTo(out);
+        out.writeInt(recordCount);
+        recordBytes.writeTo(out);
+        out.flush();
+        return bytes.toByteArray();
+    }
+    
+    /**
+     * Folds the log into a new snapshot and empties the log. Runs on the checkpoint thread, or in
+     * {@link #open} before it starts.
+     * 
+     * @param outputReaches Whether the output still reaches a batch's position
+     * @throws IOException if the checkpoint cannot be read or written
+     */
+    private void compact(Predicate<WriterPosition> outputReaches) throws IOException {
+        SnapshotHeader header = new SnapshotHeader();
+        Map<Long, PendingUrl> pending = new LinkedHashMap<>();
+        long[] newSeen = new long[1024];
+        int newSeenCount = 0;
+        long[] newRecords = new long[1024];
+        int newRecordCount = 0;
+        int batches = 0;
+        Path tempFile = directory.resolve(SNAPSHOT_FILE + ".tmp");
+        
+        try (DataInputStream snapshot = Files.exists(snapshotFile) ? openSnapshot() : null) {
+            long oldSeen = 0;
+            if (snapshot != null) {
+                readHeader(snapshot, header);
+                long count = snapshot.readLong();
+                for (long i = 0; i < count; i++) {
+                    String url = readString(snapshot);
+                    pending.put(UrlDeduplicator.fingerprint(url), new PendingUrl(url, snapshot.readInt()));
+                }
+                oldSeen = snapshot.readLong();
+            }
+            long snapshotSequence = header.sequence;
+            
+            if (Files.exists(logFile)) {
+                try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(logFile)))) {
+                    DataInputStream batch;
+                    while ((batch = readBatch(in)) != null) {
+                        long batchSequence = batch.readLong();
+                        WriterPosition batchPosition = readPosition(batch);
+                        if (batchSequence <= snapshotSequence) {
+                            // Already in the snapshot; the log was not emptied after the last compaction
+                            continue;
+                        }
+                        if (!outputReaches.test(batchPosition)) {
+                            logger.warn("Output ends before {}; resuming from the checkpoint before it", batchPosition);
+                            break;
+                        }
+                        
+                        int pages = batch.readInt();
+                        // Links queued in a batch are applied before its finished pages, which may include them
+                        int queuedUrls = batch.readInt();
+                        for (int i = 0; i < queuedUrls; i++) {
+                            String url = readString(batch);
+                            int depth = batch.readInt();
+                            long fingerprint = UrlDeduplicator.fingerprint(url);
+                            if (fingerprint != 0 && pending.putIfAbsent(fingerprint, new PendingUrl(url, depth)) == null) {
+                                if (newSeenCount == newSeen.length) {
+                                    newSeen = Arrays.copyOf(newSeen, newSeenCount * 2);
+                                }
+                                newSeen[newSeenCount++] = fingerprint;
+                            }
+                        }
+                        int doneUrls = batch.readInt();
+                        for (int i = 0; i < doneUrls; i++) {
+                            long fingerprint = batch.readLong();
+                            // A scrape of a URL list never queues its URLs; they become seen when done
+                            if (pending.remove(fingerprint) == null) {
+                                if (newSeenCount == newSeen.length) {
+                                    newSeen = Arrays.copyOf(newSeen, newSeenCount * 2);
+                                }
+                                newSeen[newSeenCount++] = fingerprint;
+                            }
+                        }
+                        int recordFingerprints = batch.readInt();
+                        for (int i = 0; i < recordFingerprints; i++) {
+                            if (newRecordCount == newRecords.length) {
+                                newRecords = Arrays.copyOf(newRecords, newRecordCount * 2);
+                            }
+                            newRecords[newRecordCount++] = batch.readLong();
+                        }
+                        
+                        header.sequence = batchSequence;
+                        header.position = batchPosition;
+                        header.pagesDone += pages;
+                        batches++;
+                    }
+                }
+            }
+            
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+                out.writeInt(SNAPSHOT_MAGIC);
+                out.writeLong(header.sequence);
+                out.writeBoolean(header.position != null);
+                writePosition(out, header.position != null ? header.position : WriterPosition.START);
+                out.writeLong(header.pagesDone);
+                out.writeLong(pending.size());
+                for (PendingUrl url : pending.values()) {
+                    writeString(out, url.url);
+                    out.writeInt(url.depth);
+                }
+                out.writeLong(oldSeen + newSeenCount);
+                for (long i = 0; i < oldSeen; i++) {
+                    out.writeLong(snapshot.readLong());
+                }
+                for (int i = 0; i < newSeenCount; i++) {
+                    out.writeLong(newSeen[i]);
+                }
+                long oldRecords = snapshot != null ? snapshot.readLong() : 0;
+                out.writeLong(oldRecords + newRecordCount);
+                for (long i = 0; i < oldRecords; i++) {
+                    out.writeLong(snapshot.readLong());
+                }
+                for (int i = 0; i < newRecordCount; i++) {
+                    out.writeLong(newRecords[i]);
+                }
+            }
+            try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            
+            synchronized (this) {
+                sequence = header.sequence;
+                position = header.position;
+                pagesDone = header.pagesDone;
+                pendingCount = pending.size();
+                seenCount = oldSeen + newSeenCount;
+            }
+        }
+        
+        Files.move(tempFile, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        if (log != null) {
+            log.truncate(0);
+            log.force(true);
+        } else {
+            Files.deleteIfExists(logFile);
+        }
+        snapshotBytes = Files.size(snapshotFile);
+        logger.debug("Compacted {} checkpoint batches into a {} KB snapshot", batches, snapshotBytes >> 10);
+    }
+    
+    /**
+     * Reads the next batch from the log.
+     * 
+     * @param in The log
+     * @return the batch's payload, or null at the end of the log or at a batch that was not fully written
+     * @throws IOException if the log cannot be read
+     */
+    private DataInputStream readBatch(DataInputStream in) throws IOException {
+        byte[] payload;
+        long checksum;
+        try {
+            int length = in.readInt();
+            checksum = in.readLong();
+            if (length < 0 || length > MAX_BATCH_BYTES) {
+                logger.warn("Ignoring the end of checkpoint log {}: invalid batch length {}", logFile, length);
+                return null;
+            }
+            payload = new byte[length];
+            in.readFully(payload);
+        } catch (EOFException e) {
+            return null;
+        }
+        
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        if (crc.getValue() != checksum) {
+            logger.warn("Ignoring the end of checkpoint log {}: batch checksum mismatch", logFile);
+            return null;
+        }
+        return new DataInputStream(new ByteArrayInputStream(payload));
+    }
+    
+    private DataInputStream openSnapshot() throws IOException {
+        return new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotFile)));
+    }
+    
+    /**
+     * Reads a snapshot's header, leaving the stream at its pending URLs.
+     * 
+     * @param in The snapshot
+     * @param header Header to fill, or null to skip it
+     * @throws IOException if the snapshot cannot be read or is not a snapshot
+     */
+    private void readHeader(DataInputStream in, SnapshotHeader header) throws IOException {
+        if (in.readInt() != SNAPSHOT_MAGIC) {
+            throw new IOException("Not a checkpoint snapshot: " + snapshotFile);
+        }
+        long snapshotSequence = in.readLong();
+        boolean hasPosition = in.readBoolean();
+        WriterPosition snapshotPosition = readPosition(in);
+        long snapshotPages = in.readLong();
+        if (header != null) {
+            header.sequence = snapshotSequence;
+            header.position = hasPosition ? snapshotPosition : null;
+            header.pagesDone = snapshotPages;
+        }
+    }
+    
+    private static void writePosition(DataOutputStream out, WriterPosition position) throws IOException {
+        out.writeInt(position.getFileIndex());
+        out.writeLong(position.getBytes());
+    }
+    
+    private static WriterPosition readPosition(DataInputStream in) throws IOException {
+        int fileIndex = in.readInt();
+        return new WriterPosition(fileIndex, in.readLong());
+    }
+    
+    // Length-prefixed UTF-8; writeUTF is limited to 64 KB
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+    
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+    
+    /**
+     * Writes a last batch with the pages finished so far and stops taking batches. Pages that end
+     * afterwards are not recorded, so their records, if written, are cut off by a resumed run.
+     * Call this before closing the output.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        if (committer != null) {
+            committer.shutdown();
+            try {
+                committer.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            commitQuietly();
+        }
+        
+        pageLock.writeLock().lock();
+        try {
+            closed = true;
+        } finally {
+            pageLock.writeLock().unlock();
+        }
+        try {
+            log.close();
+        } catch (IOException e) {
+            logger.warn("Error closing checkpoint log: {}", e.getMessage());
+        }
+        if (!failed) {
+            logger.info("Checkpoint saved to {}: {} pages done", directory, getPagesDone());
+        }
+    }
+    
+    @Override
+    public String toString() {
+        return "CrawlCheckpoint{" +
+                "directory=" + directory +
+                ", pagesDone=" + getPagesDone() +
+                '}';
+    }
+    
+    private static final class SnapshotHeader {
+    
+        private long sequence = 0;
+        private WriterPosition position;
+        private long pagesDone = 0;
+    }
+    
+    private static final class PendingUrl {
+    
+        private final String url;
+        private final int depth;
+        
+        private PendingUrl(String url, int depth) {
+            this.url = url;
+            this.depth = depth;
+        }
+    }
+}
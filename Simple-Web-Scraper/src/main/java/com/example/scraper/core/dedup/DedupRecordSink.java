@@ -0,0 +1,139 @@
+package com.example.scraper.core.dedup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongConsumer;
+
+import com.example.scraper.core.frontier.LongHashSet;
+import com.example.scraper.core.pipeline.RecordSink;
+import com.example.scraper.model.ScrapedData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Drops records that were already written, such as the same listing repeated across paginated pages
+ * or mirror URLs, before handing the rest to a downstream sink.
+ * <p>
+ * Each record is reduced to a 64-bit {@link RecordFingerprint} kept in a {@link LongHashSet}, about
+ * 16 bytes per distinct record. The set stays within its memory budget: once it holds as many
+ * fingerprints as fit, new records are still checked against it but no longer remembered, so later
+ * duplicates of them are written again instead of memory growing without bound.
+ */
+public class DedupRecordSink implements RecordSink {
+    
+    private static final Logger logger = LoggerFactory.getLogger(DedupRecordSink.class);
+    public static final int DEFAULT_MEMORY_BUDGET_MB = 64;
+    
+    // LongHashSet fills up to 0.9 of its largest table without growing past the budget
+    private static final double FILL_LIMIT = 0.85;
+    
+    private final RecordSink downstream;
+    private final LongHashSet fingerprints;
+    private final long maxFingerprints;
+    private long recordsChecked = 0;
+    private long duplicates = 0;
+    private boolean fullWarningLogged = false;
+    private LongConsumer fingerprintListener = fingerprint -> { };
+    
+    /**
+     * Creates a deduplicating sink.
+     * 
+     * @param downstream Sink that receives the records not seen before
+     * @param memoryBudgetMb Memory the fingerprint set may use
+     */
+    public DedupRecordSink(RecordSink downstream, int memoryBudgetMb) {
+        if (memoryBudgetMb < 1) {
+            throw new IllegalArgumentException("Memory budget must be at least 1 MB");
+        }
+        long budgetBytes = memoryBudgetMb * 1024L * 1024L;
+        this.downstream = downstream;
+        this.fingerprints = new LongHashSet(1 << 16, budgetBytes, false);
+        this.maxFingerprints = (long) (Long.highestOneBit(budgetBytes / Long.BYTES) * FILL_LIMIT);
+    }
+    
+    /**
+     * Passes on the records of a page that were not seen before, on this page or an earlier one.
+     * 
+     * @param records Records from a single page
+     */
+    @Override
+    public void accept(List<ScrapedData> records) {
+        if (records.isEmpty()) {
+            return;
+        }
+        List<ScrapedData> unique = filter(records);
+        if (!unique.isEmpty()) {
+            downstream.accept(unique);
+        }
+    }
+    
+    private synchronized List<ScrapedData> filter(List<ScrapedData> records) {
+        List<ScrapedData> unique = new ArrayList<>(records.size());
+        for (ScrapedData record : records) {
+            recordsChecked++;
+            long fingerprint = RecordFingerprint.of(record);
+            if (fingerprints.contains(fingerprint)) {
+                duplicates++;
+                continue;
+            }
+            if (fingerprints.size() < maxFingerprints) {
+                fingerprints.add(fingerprint);
+                fingerprintListener.accept(fingerprint);
+            } else if (!fullWarningLogged) {
+                logger.warn("Record fingerprint set is full ({} records); later duplicates of new records "
+                        + "will be written", fingerprints.size());
+                fullWarningLogged = true;
+            }
+            unique.add(record);
+        }
+        return unique;
+    }
+    
+    /**
+     * Remembers a record written by an earlier run, so that its duplicates are dropped.
+     * 
+     * @param fingerprint The record's fingerprint
+     */
+    public synchronized void markWritten(long fingerprint) {
+        if (fingerprints.size() < maxFingerprints) {
+            fingerprints.add(fingerprint);
+        }
+    }
+    
+    /**
+     * Sets a listener told the fingerprint of each record the sink starts remembering, before the
+     * record is handed on. A checkpoint uses it to restore the set when the run is resumed.
+     * 
+     * @param listener Receives each remembered fingerprint
+     */
+    public synchronized void setFingerprintListener(LongConsumer listener) {
+        this.fingerprintListener = listener;
+    }
+    
+    /**
+     * Gets the number of records checked for duplicates.
+     * 
+     * @return records checked
+     */
+    public synchronized long getRecordsChecked() {
+        return recordsChecked;
+    }
+    
+    /**
+     * Gets the number of records dropped as duplicates.
+     * 
+     * @return duplicate records
+     */
+    public synchronized long getDuplicateCount() {
+        return duplicates;
+    }
+    
+    /**
+     * Gets the share of checked records that were duplicates.
+     * 
+     * @return ratio between 0 and 1, or 0 if no records were checked
+     */
+    public synchronized double getDuplicateRatio() {
+        return recordsChecked > 0 ? (double) duplicates / recordsChecked : 0;
+    }
+}
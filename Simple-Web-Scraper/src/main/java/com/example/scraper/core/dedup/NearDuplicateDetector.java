@@ -0,0 +1,186 @@
+package com.example.scraper.core.dedup;
+
+import java.util.Arrays;
+
+import com.example.scraper.core.frontier.UrlFingerprint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Finds pages whose text is nearly the same as a page seen before, by the {@link SimHash} of the text.
+ * Two pages are near-duplicates when their hashes differ in at most {@code maxDistance} bits.
+ * <p>
+ * Comparing a hash with every earlier one would make each check slower as the crawl grows. Instead the
+ * 64 bits are split into {@code maxDistance + 1} blocks: hashes that differ in at most that many bits
+ * must agree exactly on at least one block, so only hashes filed under the same value of some block
+ * are compared. Each remembered page costs 8 bytes for its hash and 8 per block for the index, and at
+ * most {@code maxPages} pages are remembered; later pages are still checked against them.
+ */
+public class NearDuplicateDetector {
+    
+    private static final Logger logger = LoggerFactory.getLogger(NearDuplicateDetector.class);
+    public static final int DEFAULT_MAX_DISTANCE = 3;
+    public static final int MAX_DISTANCE_LIMIT = 7;
+    public static final int DEFAULT_MAX_PAGES = 1_000_000;
+    
+    private static final int INITIAL_CAPACITY = 1024;
+    
+    private final int maxDistance;
+    private final int maxPages;
+    private final int[] blockShifts;
+    private final long[] blockMasks;
+    private long[] hashes = new long[INITIAL_CAPACITY];
+    // Per block: bucket -> first entry + 1, and entry -> next entry in the same bucket + 1; 0 ends a chain
+    private final int[][] heads;
+    private final int[][] next;
+    private int size = 0;
+    private long pagesChecked = 0;
+    private long nearDuplicates = 0;
+    private boolean fullWarningLogged = false;
+    
+    /**
+     * Creates a detector.
+     * 
+     * @param maxDistance Most bits in which a near-duplicate's hash may differ, from 0 to 7
+     * @param maxPages Most pages to remember
+     */
+    public NearDuplicateDetector(int maxDistance, int maxPages) {
+        if (maxDistance < 0 || maxDistance > MAX_DISTANCE_LIMIT) {
+            throw new IllegalArgumentException("Distance must be between 0 and " + MAX_DISTANCE_LIMIT);
+        }
+        if (maxPages < 1) {
+            throw new IllegalArgumentException("Page limit must be at least 1");
+        }
+        this.maxDistance = maxDistance;
+        this.maxPages = maxPages;
+        
+        int blocks = maxDistance + 1;
+        this.blockShifts = new int[blocks];
+        this.blockMasks = new long[blocks];
+        int shift = 0;
+        for (int b = 0; b < blocks; b++) {
+            int width = Long.SIZE / blocks + (b < Long.SIZE % blocks ? 1 : 0);
+            blockShifts[b] = shift;
+            blockMasks[b] = width == Long.SIZE ? -1L : (1L << width) - 1;
+            shift += width;
+        }
+        this.heads = new int[blocks][INITIAL_CAPACITY];
+        this.next = new int[blocks][INITIAL_CAPACITY];
+    }
+    
+    /**
+     * Creates a detector with the default distance of 3 bits, which for 64-bit hashes separates
+     * near-duplicate web pages from merely similar ones.
+     * 
+     * @return detector
+     */
+    public static NearDuplicateDetector createDefault() {
+        return new NearDuplicateDetector(DEFAULT_MAX_DISTANCE, DEFAULT_MAX_PAGES);
+    }
+    
+    /**
+     * Checks whether a page's text nearly matches a page checked before, and remembers it if not.
+     * Texts of fewer than three words are never near-duplicates and are not counted.
+     * 
+     * @param text The page text
+     * @return true if the page is a near-duplicate and can be skipped
+     */
+    public boolean isNearDuplicate(String text) {
+        long hash = SimHash.of(text);
+        return hash != 0 && checkAndAdd(hash);
+    }
+    
+    /**
+     * Checks a page by its SimHash, and remembers it if it is not a near-duplicate.
+     * 
+     * @param hash The page's SimHash
+     * @return true if a remembered hash differs from it in at most {@code maxDistance} bits
+     */
+    synchronized boolean checkAndAdd(long hash) {
+        pagesChecked++;
+        for (int b = 0; b < blockShifts.length; b++) {
+            for (int entry = heads[b][bucket(b, hash)]; entry != 0; entry = next[b][entry - 1]) {
+                if (SimHash.distance(hashes[entry - 1], hash) <= maxDistance) {
+                    nearDuplicates++;
+                    return true;
+                }
+            }
+        }
+        
+        if (size >= maxPages) {
+            if (!fullWarningLogged) {
+                logger.warn("Near-duplicate index is full ({} pages); later pages are checked but not remembered",
+                            size);
+                fullWarningLogged = true;
+            }
+            return false;
+        }
+        if (size == hashes.length) {
+            grow();
+        }
+        hashes[size] = hash;
+        link(size);
+        size++;
+        return false;
+    }
+    
+    private int bucket(int block, long hash) {
+        long value = (hash >>> blockShifts[block]) & blockMasks[block];
+        return (int) (UrlFingerprint.fmix64(value) & (heads[block].length - 1));
+    }
+    
+    private void link(int entry) {
+        for (int b = 0; b < blockShifts.length; b++) {
+            int bucket = bucket(b, hashes[entry]);
+            next[b][entry] = heads[b][bucket];
+            heads[b][bucket] = entry + 1;
+        }
+    }
+    
+    private void grow() {
+        int capacity = hashes.length * 2;
+        hashes = Arrays.copyOf(hashes, capacity);
+        for (int b = 0; b < blockShifts.length; b++) {
+            heads[b] = new int[capacity];
+            next[b] = new int[capacity];
+        }
+        for (int entry = 0; entry < size; entry++) {
+            link(entry);
+        }
+    }
+    
+    /**
+     * Gets the number of pages checked, not counting those too short to hash.
+     * 
+     * @return pages checked
+     */
+    public synchronized long getPagesChecked() {
+        return pagesChecked;
+    }
+    
+    /**
+     * Gets the number of pages found to be near-duplicates.
+     * 
+     * @return near-duplicate pages
+     */
+    public synchronized long getNearDuplicateCount() {
+        return nearDuplicates;
+    }
+    
+    /**
+     * Gets the share of checked pages that were near-duplicates.
+     * 
+     * @return ratio between 0 and 1, or 0 if no pages were checked
+     */
+    public synchronized double getNearDuplicateRatio() {
+        return pagesChecked > 0 ? (double) nearDuplicates / pagesChecked : 0;
+    }
+    
+    @Override
+    public String toString() {
+        return "NearDuplicateDetector{" +
+                "maxDistance=" + maxDistance +
+                ", maxPages=" + maxPages +
+                '}';
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.scraper.core.dedup;
+
+import com.example.scraper.core.frontier.UrlFingerprint;
+import com.example.scraper.model.ExtractionSchema;
+import com.example.scraper.model.ScrapedData;
+
+/**
+ * 64-bit fingerprints of scraped records, computed over every field's name, type and value with the
+ * same MurmurHash3 as URL fingerprints. Two records have the same fingerprint when their fields are
+ * equal, as {@link ScrapedData#equals} defines it.
+ */
+public final class RecordFingerprint {
+    
+    private static final char FIELD_SEPARATOR = '\u001f';
+    private static final char NULL_VALUE = '\u0000';
+    
+    private RecordFingerprint() {
+        // Utility class
+    }
+    
+    /**
+     * Computes the fingerprint of a record.
+     * 
+     * @param record The record to fingerprint
+     * @return 64-bit fingerprint
+     */
+    public static long of(ScrapedData record) {
+        ExtractionSchema schema = record.getSchema();
+        StringBuilder text = new StringBuilder(128);
+        for (int i = 0; i < schema.size(); i++) {
+            text.append(schema.getName(i)).append('=');
+            Object value = record.get(i);
+            if (value == null) {
+                text.append(NULL_VALUE);
+            } else {
+                // The type tag keeps the string "1" apart from the number 1
+                text.append(value.getClass().getSimpleName().charAt(0)).append(value);
+            }
+            text.append(FIELD_SEPARATOR);
+        }
+        return UrlFingerprint.of(text.toString());
+    }
+}
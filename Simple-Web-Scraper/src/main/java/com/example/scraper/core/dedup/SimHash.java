@@ -0,0 +1,92 @@
+package com.example.scraper.core.dedup;
+
+import com.example.scraper.core.frontier.UrlFingerprint;
+
+/**
+ * 64-bit SimHash of a text (Charikar): each run of three consecutive words is hashed, and each bit of
+ * the result is set when more of the hashes have it set than not. Texts that share most of their
+ * word runs get hashes that differ in few bits, so near-duplicate pages can be found by Hamming
+ * distance. Words are runs of letters and digits compared without case, so markup whitespace and
+ * punctuation do not matter.
+ */
+public final class SimHash {
+    
+    static final int SHINGLE_WORDS = 3;
+    
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    
+    private SimHash() {
+        // Utility class
+    }
+    
+    /**
+     * Computes the SimHash of a text.
+     * 
+     * @param text The text to hash
+     * @return 64-bit SimHash, or 0 if the text has fewer than three words
+     */
+    public static long of(String text) {
+        int[] votes = new int[Long.SIZE];
+        long[] window = new long[SHINGLE_WORDS];
+        int words = 0;
+        long word = FNV_OFFSET;
+        boolean inWord = false;
+        
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                word = (word ^ Character.toLowerCase(c)) * FNV_PRIME;
+                inWord = true;
+                continue;
+            }
+            if (!inWord) {
+                continue;
+            }
+            window[words % SHINGLE_WORDS] = word;
+            words++;
+            word = FNV_OFFSET;
+            inWord = false;
+            if (words >= SHINGLE_WORDS) {
+                vote(votes, shingle(window, words));
+            }
+        }
+        
+        if (words < SHINGLE_WORDS) {
+            return 0;
+        }
+        long hash = 0;
+        for (int bit = 0; bit < Long.SIZE; bit++) {
+            if (votes[bit] > 0) {
+                hash |= 1L << bit;
+            }
+        }
+        return hash;
+    }
+    
+    /**
+     * Counts the bits in which two hashes differ.
+     * 
+     * @param a First hash
+     * @param b Second hash
+     * @return Hamming distance between 0 and 64
+     */
+    public static int distance(long a, long b) {
+        return Long.bitCount(a ^ b);
+    }
+    
+    private static long shingle(long[] window, int words) {
+        // Combine the last three words in order, oldest first
+        long hash = 0;
+        for (int i = 0; i < SHINGLE_WORDS; i++) {
+            hash = hash * 31 + window[(words + i) % SHINGLE_WORDS];
+        }
+        return UrlFingerprint.fmix64(hash);
+    }
+    
+    private static void vote(int[] votes, long hash) {
+        for (int bit = 0; bit < Long.SIZE; bit++) {
+            votes[bit] += ((hash >>> bit) & 1) != 0 ? 1 : -1;
+        }
+    }
+}
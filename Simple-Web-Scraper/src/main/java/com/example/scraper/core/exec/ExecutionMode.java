@@ -0,0 +1,26 @@
+package com.example.scraper.core.exec;
+
+import java.util.Locale;
+
+/**
+ * Thread model used to run blocking scrape work such as HTTP requests, robots.txt lookups and parsing.
+ */
+public enum ExecutionMode {
+    
+    /** Fixed pool of platform threads, one thread per concurrent task. */
+    PLATFORM,
+    
+    /** One virtual thread per task (requires Java 21), with a global concurrency limit. */
+    VIRTUAL;
+    
+    /**
+     * Parses an execution mode name, ignoring case.
+     * 
+     * @param name The mode name ("platform" or "virtual")
+     * @return the execution mode
+     * @throws IllegalArgumentException if the name is not a known mode
+     */
+    public static ExecutionMode parse(String name) {
+        return valueOf(name.trim().toUpperCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,220 @@
+package com.example.scraper.core.exec;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Creates the executors that run blocking scrape work.
+ */
+public final class ScrapeExecutors {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ScrapeExecutors.class);
+    public static final int DEFAULT_CONCURRENCY = 64;
+    
+    private ScrapeExecutors() {
+        // Utility class
+    }
+    
+    /**
+     * Creates an executor for the given mode with a bounded number of concurrently running tasks.
+     * 
+     * @param mode Platform thread pool or virtual threads
+     * @param maxConcurrency Maximum number of tasks running at once
+     * @return executor service; the caller is responsible for shutting it down
+     * @throws IllegalStateException if virtual threads are requested on a JVM older than Java 21
+     */
+    public static ExecutorService create(ExecutionMode mode, int maxConcurrency) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("Concurrency must be at least 1");
+        }
+        
+        if (mode == ExecutionMode.VIRTUAL) {
+            logger.debug("Using virtual threads with a concurrency limit of {}", maxConcurrency);
+            return new BoundedExecutorService(newVirtualThreadPerTaskExecutor(), maxConcurrency);
+        }
+        
+        logger.debug("Using a pool of {} platform threads", maxConcurrency);
+        return Executors.newFixedThreadPool(maxConcurrency, new DaemonThreadFactory("scraper-worker"));
+    }
+    
+    /**
+     * Checks whether the running JVM supports virtual threads.
+     * 
+     * @return true if virtual threads are available
+     */
+    public static boolean isVirtualThreadsSupported() {
+        return Runtime.version().feature() >= 21;
+    }
+    
+    /**
+     * Looks up {@code Executors.newVirtualThreadPerTaskExecutor()} at runtime so the project still
+     * compiles for Java 17.
+     * 
+     * @return virtual-thread-per-task executor
+     */
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        if (!isVirtualThreadsSupported()) {
+            throw new IllegalStateException("Virtual threads require Java 21 or newer (running "
+                    + Runtime.version() + ")");
+        }
+        
+        try {
+            MethodHandle factory = MethodHandles.publicLookup().findStatic(Executors.class,
+                    "newVirtualThreadPerTaskExecutor", MethodType.methodType(ExecutorService.class));
+            return (ExecutorService) factory.invoke();
+        } catch (Throwable e) {
+            throw new IllegalStateException("Failed to create virtual thread executor", e);
+        }
+    }
+    
+    /**
+     * Executor that starts every task immediately on the delegate but lets only a fixed number run
+     * their body at once. Tasks over the limit wait on a semaphore, which only parks a virtual thread.
+     * A task never runs without a permit: those still waiting when {@link #shutdownNow} is called are
+     * returned from it, or cancelled if they are futures.
+     */
+    static final class BoundedExecutorService extends AbstractExecutorService {
+    
+        private final ExecutorService delegate;
+        private final Semaphore permits;
+        private final Set<PermitTask> waiting = ConcurrentHashMap.newKeySet();
+        private volatile boolean stopping = false;
+        
+        BoundedExecutorService(ExecutorService delegate, int maxConcurrency) {
+            this.delegate = delegate;
+            this.permits = new Semaphore(maxConcurrency, true);
+        }
+        
+        @Override
+        public void execute(Runnable command) {
+            PermitTask task = new PermitTask(command);
+            waiting.add(task);
+            try {
+                delegate.execute(task);
+            } catch (RejectedExecutionException e) {
+                waiting.remove(task);
+                throw e;
+            }
+        }
+        
+        @Override
+        public void shutdown() {
+            delegate.shutdown();
+        }
+        
+        @Override
+        public List<Runnable> shutdownNow() {
+            stopping = true;
+            delegate.shutdownNow();
+            List<Runnable> notRun = new ArrayList<>();
+            for (PermitTask task : waiting) {
+                if (task.claim()) {
+                    notRun.add(task.command);
+                }
+            }
+            return notRun;
+        }
+        
+        @Override
+        public boolean isShutdown() {
+            return delegate.isShutdown();
+        }
+        
+        @Override
+        public boolean isTerminated() {
+            return delegate.isTerminated();
+        }
+        
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            return delegate.awaitTermination(timeout, unit);
+        }
+        
+        /**
+         * A task waiting for a permit. Whoever claims it first, the task once it has a permit or
+         * {@link #shutdownNow}, decides its fate, so it is either run or handed back, never both.
+         */
+        private final class PermitTask implements Runnable {
+        
+            private final Runnable command;
+            private final AtomicBoolean claimed = new AtomicBoolean(false);
+            
+            private PermitTask(Runnable command) {
+                this.command = command;
+            }
+            
+            private boolean claim() {
+                if (claimed.compareAndSet(false, true)) {
+                    waiting.remove(this);
+                    return true;
+                }
+                return false;
+            }
+            
+            @Override
+            public void run() {
+                try {
+                    permits.acquire();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    if (!stopping) {
+                        // Interrupted by something other than shutdownNow; still wait for a permit
+                        permits.acquireUninterruptibly();
+                    } else {
+                        if (command instanceof Future && claim()) {
+                            ((Future<?>) command).cancel(false);
+                        }
+                        return;
+                    }
+                }
+                if (!claim()) {
+                    permits.release();
+                    return;
+                }
+                try {
+                    command.run();
+                } finally {
+                    permits.release();
+                }
+            }
+        }
+    }
+    
+    /**
+     * Thread factory for named daemon worker threads.
+     */
+    static final class DaemonThreadFactory implements ThreadFactory {
+    
+        private final String prefix;
+        private final AtomicInteger counter = new AtomicInteger();
+        
+        DaemonThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
+        
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
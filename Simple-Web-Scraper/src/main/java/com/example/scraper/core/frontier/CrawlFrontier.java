@@ -0,0 +1,256 @@
+package com.example.scraper.core.frontier;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Queue of URLs waiting to be crawled, kept as one FIFO queue per host.
+ * Hosts take turns handing out URLs, and a host with its maximum number of pages in progress is
+ * skipped until one of them completes, so a slow or rate-limited host never holds up the others.
+ * All operations are O(1).
+ */
+public class CrawlFrontier {
+    
+    private static final Logger logger = LoggerFactory.getLogger(CrawlFrontier.class);
+    
+    private final CrawlScope scope;
+    private final int maxDepth;
+    private final int maxActivePerHost;
+    private final Map<String, HostQueue> hosts;
+    private final ArrayDeque<HostQueue> readyHosts;
+    private final UrlDeduplicator seenUrls;
+    
+    private long queuedCount = 0;
+    private int activeCount = 0;
+    
+    /**
+     * Creates a crawl frontier with the default exact, on-heap URL deduplication.
+     * 
+     * @param scope Scope that discovered links must be in
+     * @param maxDepth Maximum link depth from the seeds (seeds are depth 0)
+     * @param maxActivePerHost Maximum pages per host handed out and not yet completed
+     */
+    public CrawlFrontier(CrawlScope scope, int maxDepth, int maxActivePerHost) {
+        this(scope, maxDepth, maxActivePerHost, UrlDeduplicator.createDefault());
+    }
+    
+    /**
+     * Creates a crawl frontier.
+     * 
+     * @param scope Scope that discovered links must be in
+     * @param maxDepth Maximum link depth from the seeds (seeds are depth 0)
+     * @param maxActivePerHost Maximum pages per host handed out and not yet completed
+     * @param deduplicator Set of URLs already seen
+     */
+    public CrawlFrontier(CrawlScope scope, int maxDepth, int maxActivePerHost, UrlDeduplicator deduplicator) {
+        this.scope = scope;
+        this.maxDepth = maxDepth;
+        this.maxActivePerHost = Math.max(1, maxActivePerHost);
+        this.hosts = new HashMap<>();
+        this.readyHosts = new ArrayDeque<>();
+        this.seenUrls = deduplicator;
+    }
+    
+    /**
+     * Adds a seed URL. Seeds are always queued, even when they fall outside the crawl scope.
+     * 
+     * @param url The seed URL
+     * @return true if the URL was queued, false if it was invalid or already seen
+     */
+    public synchronized boolean addSeed(String url) {
+        return enqueue(url, 0);
+    }
+    
+    /**
+     * Adds a discovered link if it is in scope, within the depth limit and not seen before.
+     * 
+     * @param url The absolute URL of the link
+     * @param depth Link depth of the URL
+     * @return true if the URL was queued
+     */
+    public synchronized boolean offer(String url, int depth) {
+        if (depth > maxDepth || !scope.isInScope(url)) {
+            return false;
+        }
+        return enqueue(url, depth);
+    }
+    
+    /**
+     * Queues a URL again whether or not it was seen, such as one that was waiting or in progress
+     * when a checkpoint was taken. The URL is marked seen.
+     * 
+     * @param url The URL
+     * @param depth Link depth of the URL
+     * @return true if the URL was queued, false if it was invalid
+     */
+    public synchronized boolean requeue(String url, int depth) {
+        String host = CrawlScope.hostOf(url);
+        if (host == null) {
+            return false;
+        }
+        seenUrls.markSeen(url);
+        add(url, host, depth);
+        return true;
+    }
+    
+    private boolean enqueue(String url, int depth) {
+        String host = CrawlScope.hostOf(url);
+        if (host == null || !seenUrls.markSeen(url)) {
+            return false;
+        }
+        add(url, host, depth);
+        return true;
+    }
+    
+    private void add(String url, String host, int depth) {
+        HostQueue hostQueue = hosts.computeIfAbsent(host, HostQueue::new);
+        hostQueue.entries.add(new FrontierEntry(url, host, depth));
+        queuedCount++;
+        markReadyIfEligible(hostQueue);
+    }
+    
+    /**
+     * Takes the next URL to crawl without waiting.
+     * 
+     * @return next entry, or null if no host currently has a URL ready
+     */
+    public synchronized FrontierEntry poll() {
+        HostQueue hostQueue = readyHosts.poll();
+        if (hostQueue == null) {
+            return null;
+        }
+        hostQueue.ready = false;
+        
+        FrontierEntry entry = hostQueue.entries.poll();
+        queuedCount--;
+        hostQueue.active++;
+        activeCount++;
+        
+        // Send the host to the back of the line so hosts take turns
+        markReadyIfEligible(hostQueue);
+        return entry;
+    }
+    
+    /**
+     * Takes the next URL to crawl, waiting for one to become ready.
+     * 
+     * @return next entry, or null once the frontier is exhausted (nothing queued and nothing in progress)
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public synchronized FrontierEntry take() throws InterruptedException {
+        while (true) {
+            FrontierEntry entry = poll();
+            if (entry != null) {
+                return entry;
+            }
+            if (activeCount == 0) {
+                return null;
+            }
+            wait();
+        }
+    }
+    
+    /**
+     * Marks a URL handed out by poll or take as finished, freeing its host for the next URL.
+     * Links discovered on the page should be offered before calling this.
+     * 
+     * @param entry The completed entry
+     */
+    public synchronized void complete(FrontierEntry entry) {
+        HostQueue hostQueue = hosts.get(entry.getHost());
+        if (hostQueue == null || hostQueue.active == 0) {
+            logger.warn("Completed URL was not in progress: {}", entry.getUrl());
+            return;
+        }
+        
+        hostQueue.active--;
+        activeCount--;
+        
+        if (hostQueue.active == 0 && hostQueue.entries.isEmpty()) {
+            hosts.remove(hostQueue.host);
+        } else {
+            markReadyIfEligible(hostQueue);
+        }
+        notifyAll();
+    }
+    
+    /**
+     * Waits until every handed-out URL has been completed.
+     * 
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public synchronized void awaitIdle() throws InterruptedException {
+        while (activeCount > 0) {
+            wait();
+        }
+    }
+    
+    private void markReadyIfEligible(HostQueue hostQueue) {
+        if (!hostQueue.ready && !hostQueue.entries.isEmpty() && hostQueue.active < maxActivePerHost) {
+            hostQueue.ready = true;
+            readyHosts.add(hostQueue);
+            notifyAll();
+        }
+    }
+    
+    /**
+     * Gets the number of URLs waiting to be crawled.
+     * 
+     * @return queued URL count
+     */
+    public synchronized long getQueuedCount() {
+        return queuedCount;
+    }
+    
+    /**
+     * Gets the number of URLs handed out and not yet completed.
+     * 
+     * @return in-progress URL count
+     */
+    public synchronized int getActiveCount() {
+        return activeCount;
+    }
+    
+    /**
+     * Gets the number of distinct URLs seen so far.
+     * 
+     * @return seen URL count
+     */
+    public synchronized long getSeenCount() {
+        return seenUrls.getSeenCount();
+    }
+    
+    /**
+     * Gets the memory allocated for the seen-URL set.
+     * 
+     * @return allocated bytes
+     */
+    public synchronized long getSeenSetBytes() {
+        return seenUrls.getAllocatedBytes();
+    }
+    
+    /**
+     * Gets the number of hosts with queued or in-progress URLs.
+     * 
+     * @return host count
+     */
+    public synchronized int getHostCount() {
+        return hosts.size();
+    }
+    
+    private static final class HostQueue {
+    
+        private final String host;
+        private final ArrayDeque<FrontierEntry> entries = new ArrayDeque<>();
+        private int active = 0;
+        private boolean ready = false;
+        
+        private HostQueue(String host) {
+            this.host = host;
+        }
+    }
+}
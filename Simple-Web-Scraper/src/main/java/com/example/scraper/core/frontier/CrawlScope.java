@@ -0,0 +1,101 @@
+package com.example.scraper.core.frontier;
+
+import java.net.URI;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Decides which discovered links belong to a crawl.
+ * Links must be HTTP(S), may be restricted to the seed hosts, and may be filtered by include/exclude patterns.
+ */
+public class CrawlScope {
+    
+    private final Set<String> allowedHosts;
+    private final Pattern includePattern;
+    private final Pattern excludePattern;
+    
+    /**
+     * Creates a crawl scope.
+     * 
+     * @param allowedHosts Hosts links must belong to, or null to allow any host
+     * @param includePattern Regex a URL must match (anywhere) to be crawled, or null
+     * @param excludePattern Regex that rejects a URL if it matches (anywhere), or null
+     */
+    public CrawlScope(Collection<String> allowedHosts, Pattern includePattern, Pattern excludePattern) {
+        this.allowedHosts = allowedHosts == null ? null : toLowerCase(allowedHosts);
+        this.includePattern = includePattern;
+        this.excludePattern = excludePattern;
+    }
+    
+    /**
+     * Creates a scope limited to the hosts of the given seed URLs.
+     * 
+     * @param seedUrls Seed URLs whose hosts are in scope
+     * @param includePattern Regex a URL must match to be crawled, or null
+     * @param excludePattern Regex that rejects a URL if it matches, or null
+     * @return crawl scope
+     */
+    public static CrawlScope sameHost(Collection<String> seedUrls, Pattern includePattern, Pattern excludePattern) {
+        Set<String> hosts = new HashSet<>();
+        for (String url : seedUrls) {
+            String host = hostOf(url);
+            if (host != null) {
+                hosts.add(host);
+            }
+        }
+        return new CrawlScope(hosts, includePattern, excludePattern);
+    }
+    
+    /**
+     * Checks whether a URL is in scope.
+     * 
+     * @param url The absolute URL to check
+     * @return true if the URL should be crawled
+     */
+    public boolean isInScope(String url) {
+        String host = hostOf(url);
+        if (host == null) {
+            return false;
+        }
+        if (allowedHosts != null && !allowedHosts.contains(host)) {
+            return false;
+        }
+        if (includePattern != null && !includePattern.matcher(url).find()) {
+            return false;
+        }
+        return excludePattern == null || !excludePattern.matcher(url).find();
+    }
+    
+    /**
+     * Extracts the lower-cased host of an HTTP(S) URL.
+     * 
+     * @param url The URL
+     * @return host name, or null if the URL is not a valid HTTP(S) URL
+     */
+    public static String hostOf(String url) {
+        try {
+            URI uri = new URI(url);
+            String scheme = uri.getScheme();
+            if (scheme == null || uri.getHost() == null) {
+                return null;
+            }
+            if (!scheme.equalsIgnoreCase("http") && !scheme.equalsIgnoreCase("https")) {
+                return null;
+            }
+            return uri.getHost().toLowerCase(Locale.ROOT);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+    
+    private static Set<String> toLowerCase(Collection<String> hosts) {
+        Set<String> result = new HashSet<>();
+        for (String host : hosts) {
+            result.add(host.toLowerCase(Locale.ROOT));
+        }
+        return result;
+    }
+}
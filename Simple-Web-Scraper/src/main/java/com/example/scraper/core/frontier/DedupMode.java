@@ -0,0 +1,26 @@
+package com.example.scraper.core.frontier;
+
+import java.util.Locale;
+
+/**
+ * Data structure used to remember which URLs a crawl has already seen.
+ */
+public enum DedupMode {
+    
+    /** Open-addressing hash set of 64-bit URL fingerprints; about 16-32 bytes per URL, no false positives. */
+    EXACT,
+    
+    /** Scalable Bloom filter; a few bytes per URL with a configurable false-positive rate. */
+    BLOOM;
+    
+    /**
+     * Parses a dedup mode name, ignoring case.
+     * 
+     * @param name The mode name ("exact" or "bloom")
+     * @return the dedup mode
+     * @throws IllegalArgumentException if the name is not a known mode
+     */
+    public static DedupMode parse(String name) {
+        return valueOf(name.trim().toUpperCase(Locale.ROOT));
+    }
+}
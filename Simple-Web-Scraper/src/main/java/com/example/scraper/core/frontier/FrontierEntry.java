@@ -0,0 +1,37 @@
+package com.example.scraper.core.frontier;
+
+/**
+ * A URL waiting in the crawl frontier, with the link depth at which it was discovered.
+ */
+public final class FrontierEntry {
+    
+    private final String url;
+    private final String host;
+    private final int depth;
+    
+    public FrontierEntry(String url, String host, int depth) {
+        this.url = url;
+        this.host = host;
+        this.depth = depth;
+    }
+    
+    public String getUrl() {
+        return url;
+    }
+    
+    public String getHost() {
+        return host;
+    }
+    
+    public int getDepth() {
+        return depth;
+    }
+    
+    @Override
+    public String toString() {
+        return "FrontierEntry{" +
+                "url='" + url + '\'' +
+                ", depth=" + depth +
+                '}';
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.scraper.core.frontier;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+
+/**
+ * Fixed-size array of longs stored either on the Java heap or in off-heap direct memory.
+ * Off-heap storage keeps large dedup sets out of the garbage collector's way; it is split into
+ * pages because a single direct buffer is limited to 2 GB.
+ */
+abstract class LongArray {
+    
+    private static final int PAGE_SHIFT = 24;
+    private static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+    
+    /**
+     * Allocates a zero-filled array.
+     * 
+     * @param length Number of longs
+     * @param offHeap true to allocate direct (off-heap) memory
+     * @return the array
+     */
+    static LongArray allocate(long length, boolean offHeap) {
+        if (offHeap) {
+            return new DirectLongArray(length);
+        }
+        if (length > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Heap long array too large: " + length);
+        }
+        return new HeapLongArray((int) length);
+    }
+    
+    abstract long get(long index);
+    
+    abstract void set(long index, long value);
+    
+    abstract long length();
+    
+    /**
+     * Gets the number of bytes allocated for the array.
+     * 
+     * @return allocated bytes
+     */
+    long getAllocatedBytes() {
+        return length() * Long.BYTES;
+    }
+    
+    private static final class HeapLongArray extends LongArray {
+        
+        private final long[] values;
+        
+        private HeapLongArray(int length) {
+            this.values = new long[length];
+        }
+        
+        @Override
+        long get(long index) {
+            return values[(int) index];
+        }
+        
+        @Override
+        void set(long index, long value) {
+            values[(int) index] = value;
+        }
+        
+        @Override
+        long length() {
+            return values.length;
+        }
+    }
+    
+    private static final class DirectLongArray extends LongArray {
+        
+        private final LongBuffer[] pages;
+        private final long length;
+        
+        private DirectLongArray(long length) {
+            this.length = length;
+            int pageCount = (int) ((length + PAGE_SIZE - 1) >>> PAGE_SHIFT);
+            this.pages = new LongBuffer[pageCount];
+            for (int i = 0; i < pageCount; i++) {
+                long pageLength = Math.min(PAGE_SIZE, length - ((long) i << PAGE_SHIFT));
+                pages[i] = ByteBuffer.allocateDirect((int) pageLength * Long.BYTES)
+                        .order(ByteOrder.nativeOrder())
+                        .asLongBuffer();
+            }
+        }
+        
+        @Override
+        long get(long index) {
+            return pages[(int) (index >>> PAGE_SHIFT)].get((int) (index & PAGE_MASK));
+        }
+        
+        @Override
+        void set(long index, long value) {
+            pages[(int) (index >>> PAGE_SHIFT)].put((int) (index & PAGE_MASK), value);
+        }
+        
+        @Override
+        long length() {
+            return length;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.scraper.core.frontier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Exact set of 64-bit fingerprints using open addressing with linear probing over a primitive array.
+ * Costs 8 bytes per slot and keeps the load factor at or below 0.5 while it may grow, so 16-32 bytes
+ * per URL instead of the 100+ bytes a {@code HashSet<String>} entry needs.
+ * Once the next resize would exceed the memory budget the table stops growing and fills up to a load
+ * factor of 0.9; beyond that it keeps growing and logs a warning, since dropping URLs is not an option
+ * for an exact set.
+ */
+public class LongHashSet implements SeenUrlSet {
+    
+    private static final Logger logger = LoggerFactory.getLogger(LongHashSet.class);
+    private static final long EMPTY = 0L;
+    private static final long ZERO_REPLACEMENT = 0x9e3779b97f4a7c15L;
+    private static final double MAX_LOAD_FACTOR = 0.5;
+    private static final double FULL_LOAD_FACTOR = 0.9;
+    
+    private final boolean offHeap;
+    private final long memoryBudgetBytes;
+    private LongArray table;
+    private long mask;
+    private long size = 0;
+    private boolean budgetWarningLogged = false;
+    
+    /**
+     * Creates a hash set.
+     * 
+     * @param expectedSize Number of elements to size the initial table for
+     * @param memoryBudgetBytes Memory the table should stay within
+     * @param offHeap true to store the table in off-heap memory
+     */
+    public LongHashSet(long expectedSize, long memoryBudgetBytes, boolean offHeap) {
+        this.offHeap = offHeap;
+        this.memoryBudgetBytes = memoryBudgetBytes;
+        long capacity = tableSizeFor((long) Math.ceil(Math.max(16, expectedSize) / MAX_LOAD_FACTOR));
+        while (capacity > 16 && capacity * Long.BYTES > memoryBudgetBytes) {
+            capacity >>>= 1;
+        }
+        this.table = LongArray.allocate(capacity, offHeap);
+        this.mask = capacity - 1;
+    }
+    
+    @Override
+    public boolean add(long fingerprint) {
+        long key = fingerprint == EMPTY ? ZERO_REPLACEMENT : fingerprint;
+        if (!insert(table, mask, key)) {
+            return false;
+        }
+        size++;
+        if (size > table.length() * MAX_LOAD_FACTOR) {
+            growIfAllowed();
+        }
+        return true;
+    }
+    
+    @Override
+    public boolean contains(long fingerprint) {
+        long key = fingerprint == EMPTY ? ZERO_REPLACEMENT : fingerprint;
+        long index = UrlFingerprint.fmix64(key) & mask;
+        while (true) {
+            long current = table.get(index);
+            if (current == EMPTY) {
+                return false;
+            }
+            if (current == key) {
+                return true;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+    
+    private static boolean insert(LongArray table, long mask, long key) {
+        long index = UrlFingerprint.fmix64(key) & mask;
+        while (true) {
+            long current = table.get(index);
+            if (current == EMPTY) {
+                table.set(index, key);
+                return true;
+            }
+            if (current == key) {
+                return false;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+    
+    private void growIfAllowed() {
+        long newCapacity = table.length() << 1;
+        boolean overBudget = newCapacity * Long.BYTES > memoryBudgetBytes;
+        if (overBudget && size < table.length() * FULL_LOAD_FACTOR) {
+            return;
+        }
+        if (overBudget && !budgetWarningLogged) {
+            logger.warn("Seen-URL set exceeds its memory budget of {} MB ({} URLs); "
+                    + "consider --dedup bloom", memoryBudgetBytes >> 20, size);
+            budgetWarningLogged = true;
+        }
+        
+        LongArray newTable = LongArray.allocate(newCapacity, offHeap);
+        long newMask = newCapacity - 1;
+        for (long i = 0; i < table.length(); i++) {
+            long key = table.get(i);
+            if (key != EMPTY) {
+                insert(newTable, newMask, key);
+            }
+        }
+        table = newTable;
+        mask = newMask;
+    }
+    
+    private static long tableSizeFor(long minimum) {
+        return Long.highestOneBit(minimum - 1) << 1;
+    }
+    
+    @Override
+    public long size() {
+        return size;
+    }
+    
+    @Override
+    public long getAllocatedBytes() {
+        return table.getAllocatedBytes();
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.scraper.core.frontier;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Scalable Bloom filter (Almeida et al.) over 64-bit fingerprints.
+ * Starts with one filter sized for the expected number of URLs; when it is full a new filter with
+ * twice the capacity and half the false-positive rate is added, so the overall false-positive rate
+ * stays below the configured target however many URLs are added.
+ * Once a new filter would exceed the memory budget the last filter keeps taking URLs and the
+ * false-positive rate rises instead; a warning is logged when that happens.
+ */
+public class ScalableBloomFilter implements SeenUrlSet {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ScalableBloomFilter.class);
+    private static final double LN2 = Math.log(2);
+    private static final double TIGHTENING_RATIO = 0.5;
+    private static final int GROWTH_FACTOR = 2;
+    
+    private final double falsePositiveRate;
+    private final long memoryBudgetBytes;
+    private final boolean offHeap;
+    private final List<Stage> stages = new ArrayList<>();
+    private long size = 0;
+    private boolean saturated = false;
+    
+    /**
+     * Creates a scalable Bloom filter.
+     * 
+     * @param expectedSize Number of URLs the first filter is sized for
+     * @param falsePositiveRate Target overall false-positive rate, e.g. 0.001
+     * @param memoryBudgetBytes Maximum memory for all filters together
+     * @param offHeap true to store the bit arrays in off-heap memory
+     */
+    public ScalableBloomFilter(long expectedSize, double falsePositiveRate, long memoryBudgetBytes, boolean offHeap) {
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("False-positive rate must be between 0 and 1");
+        }
+        this.falsePositiveRate = falsePositiveRate;
+        this.memoryBudgetBytes = memoryBudgetBytes;
+        this.offHeap = offHeap;
+        
+        // Stage i gets rate p0 * r^i; with p0 = p * (1 - r) the rates sum to at most p
+        long capacity = Math.max(1024, expectedSize);
+        double stageRate = falsePositiveRate * (1 - TIGHTENING_RATIO);
+        while (capacity > 1024 && Stage.bitsFor(capacity, stageRate) / 8 > memoryBudgetBytes) {
+            capacity >>>= 1;
+        }
+        stages.add(new Stage(capacity, stageRate, offHeap));
+    }
+    
+    @Override
+    public boolean add(long fingerprint) {
+        if (contains(fingerprint)) {
+            return false;
+        }
+        
+        Stage current = stages.get(stages.size() - 1);
+        if (current.count >= current.capacity && !saturated) {
+            current = addStage(current);
+        }
+        current.put(fingerprint);
+        size++;
+        return true;
+    }
+    
+    @Override
+    public boolean contains(long fingerprint) {
+        // Newest stages hold the most elements, so check them first
+        for (int i = stages.size() - 1; i >= 0; i--) {
+            if (stages.get(i).mightContain(fingerprint)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private Stage addStage(Stage current) {
+        long capacity = current.capacity * GROWTH_FACTOR;
+        double rate = current.falsePositiveRate * TIGHTENING_RATIO;
+        if (getAllocatedBytes() + Stage.bitsFor(capacity, rate) / 8 > memoryBudgetBytes) {
+            saturated = true;
+            logger.warn("Bloom filter reached its memory budget of {} MB after {} URLs; "
+                    + "the false-positive rate will now exceed {}", memoryBudgetBytes >> 20, size, falsePositiveRate);
+            return current;
+        }
+        
+        Stage stage = new Stage(capacity, rate, offHeap);
+        stages.add(stage);
+        return stage;
+    }
+    
+    @Override
+    public long size() {
+        return size;
+    }
+    
+    @Override
+    public long getAllocatedBytes() {
+        long bytes = 0;
+        for (Stage stage : stages) {
+            bytes += stage.bits.getAllocatedBytes();
+        }
+        return bytes;
+    }
+    
+    /**
+     * Gets the number of filters in use.
+     * 
+     * @return stage count
+     */
+    public int getStageCount() {
+        return stages.size();
+    }
+    
+    /**
+     * One fixed-size Bloom filter. Bit positions are derived from the fingerprint by double hashing.
+     */
+    private static final class Stage {
+        
+        private final long capacity;
+        private final double falsePositiveRate;
+        private final LongArray bits;
+        private final long bitCount;
+        private final int hashCount;
+        private long count = 0;
+        
+        private Stage(long capacity, double falsePositiveRate, boolean offHeap) {
+            this.capacity = capacity;
+            this.falsePositiveRate = falsePositiveRate;
+            long words = (bitsFor(capacity, falsePositiveRate) + 63) / 64;
+            this.bits = LongArray.allocate(words, offHeap);
+            this.bitCount = words * 64;
+            this.hashCount = Math.max(1, (int) Math.round((double) bitCount / capacity * LN2));
+        }
+        
+        static long bitsFor(long capacity, double falsePositiveRate) {
+            return (long) Math.ceil(-capacity * Math.log(falsePositiveRate) / (LN2 * LN2));
+        }
+        
+        void put(long fingerprint) {
+            long h1 = fingerprint;
+            long h2 = UrlFingerprint.fmix64(fingerprint) | 1;
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Long.remainderUnsigned(h1 + i * h2, bitCount);
+                long word = bits.get(bit >>> 6);
+                bits.set(bit >>> 6, word | (1L << bit));
+            }
+            count++;
+        }
+        
+        boolean mightContain(long fingerprint) {
+            long h1 = fingerprint;
+            long h2 = UrlFingerprint.fmix64(fingerprint) | 1;
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Long.remainderUnsigned(h1 + i * h2, bitCount);
+                if ((bits.get(bit >>> 6) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.scraper.core.frontier;
+
+/**
+ * Set of URL fingerprints that have already been seen during a crawl.
+ */
+public interface SeenUrlSet {
+    
+    /**
+     * Adds a fingerprint to the set.
+     * 
+     * @param fingerprint 64-bit URL fingerprint
+     * @return true if the fingerprint was not in the set before
+     */
+    boolean add(long fingerprint);
+    
+    /**
+     * Checks whether a fingerprint is in the set.
+     * 
+     * @param fingerprint 64-bit URL fingerprint
+     * @return true if the fingerprint was (probably, for approximate sets) added before
+     */
+    boolean contains(long fingerprint);
+    
+    /**
+     * Gets the number of fingerprints added.
+     * 
+     * @return element count
+     */
+    long size();
+    
+    /**
+     * Gets the memory allocated for the set's storage.
+     * 
+     * @return allocated bytes
+     */
+    long getAllocatedBytes();
+}
@@ -0,0 +1,114 @@
+package com.example.scraper.core.frontier;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Rewrites URLs into a canonical form so that different spellings of the same page are deduplicated.
+ * Applies the same rules as the parser's URL normalization (trimming, protocol-relative URLs become
+ * HTTPS, a scheme and host are required) and additionally:
+ * <ul>
+ *   <li>lower-cases the scheme and host and drops default ports</li>
+ *   <li>resolves "." and ".." path segments and uses "/" for an empty path</li>
+ *   <li>drops the fragment</li>
+ *   <li>removes tracking parameters (utm_*, gclid, fbclid) and sorts the remaining query parameters</li>
+ * </ul>
+ */
+public final class UrlCanonicalizer {
+    
+    private UrlCanonicalizer() {
+        // Utility class
+    }
+    
+    /**
+     * Canonicalizes a URL.
+     * 
+     * @param url The absolute URL
+     * @return canonical URL, or null if the URL is invalid or has no scheme and host
+     */
+    public static String canonicalize(String url) {
+        if (url == null || url.trim().isEmpty()) {
+            return null;
+        }
+        
+        String trimmed = url.trim();
+        if (trimmed.startsWith("//")) {
+            trimmed = "https:" + trimmed;
+        }
+        
+        try {
+            URI uri = new URI(trimmed).normalize();
+            if (uri.getScheme() == null || uri.getHost() == null) {
+                return null;
+            }
+            
+            String scheme = uri.getScheme().toLowerCase(Locale.ROOT);
+            StringBuilder result = new StringBuilder(trimmed.length());
+            result.append(scheme).append("://");
+            if (uri.getRawUserInfo() != null) {
+                result.append(uri.getRawUserInfo()).append('@');
+            }
+            result.append(uri.getHost().toLowerCase(Locale.ROOT));
+            if (uri.getPort() != -1 && uri.getPort() != defaultPort(scheme)) {
+                result.append(':').append(uri.getPort());
+            }
+            
+            String path = uri.getRawPath();
+            result.append(path == null || path.isEmpty() ? "/" : path);
+            
+            String query = canonicalQuery(uri.getRawQuery());
+            if (query != null) {
+                result.append('?').append(query);
+            }
+            return result.toString();
+            
+        } catch (URISyntaxException e) {
+            return null;
+        }
+    }
+    
+    private static String canonicalQuery(String rawQuery) {
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return null;
+        }
+        
+        List<String> params = new ArrayList<>();
+        for (String param : rawQuery.split("&")) {
+            if (!param.isEmpty() && !isTrackingParameter(param)) {
+                params.add(param);
+            }
+        }
+        if (params.isEmpty()) {
+            return null;
+        }
+        
+        // Sort by name only; the stable sort keeps repeated keys in their original order
+        params.sort(Comparator.comparing(UrlCanonicalizer::parameterName));
+        return String.join("&", params);
+    }
+    
+    private static String parameterName(String param) {
+        int equals = param.indexOf('=');
+        return equals >= 0 ? param.substring(0, equals) : param;
+    }
+    
+    private static boolean isTrackingParameter(String param) {
+        String name = parameterName(param).toLowerCase(Locale.ROOT);
+        return name.startsWith("utm_") || name.equals("gclid") || name.equals("fbclid");
+    }
+    
+    private static int defaultPort(String scheme) {
+        switch (scheme) {
+            case "http":
+                return 80;
+            case "https":
+                return 443;
+            default:
+                return -1;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.scraper.core.frontier;
+
+/**
+ * Remembers which URLs a crawl has already seen. URLs are canonicalized, reduced to 64-bit
+ * fingerprints and stored in a compact {@link SeenUrlSet}, so memory per URL does not depend on URL length.
+ * Not thread-safe; the crawl frontier guards it with its own lock.
+ */
+public class UrlDeduplicator {
+    
+    public static final long DEFAULT_EXPECTED_URLS = 1 << 16;
+    public static final double DEFAULT_FALSE_POSITIVE_RATE = 0.001;
+    public static final int DEFAULT_MEMORY_BUDGET_MB = 256;
+    
+    private final SeenUrlSet seenUrls;
+    
+    /**
+     * Creates a deduplicator backed by the given set.
+     * 
+     * @param seenUrls Set to store URL fingerprints in
+     */
+    public UrlDeduplicator(SeenUrlSet seenUrls) {
+        this.seenUrls = seenUrls;
+    }
+    
+    /**
+     * Creates a deduplicator with the given storage options.
+     * 
+     * @param mode Exact hash set or Bloom filter
+     * @param falsePositiveRate Target false-positive rate (Bloom filter only)
+     * @param memoryBudgetMb Memory budget in megabytes
+     * @param offHeap true to keep the set in off-heap memory
+     * @return the deduplicator
+     */
+    public static UrlDeduplicator create(DedupMode mode, double falsePositiveRate, int memoryBudgetMb, boolean offHeap) {
+        long budgetBytes = (long) memoryBudgetMb << 20;
+        if (mode == DedupMode.BLOOM) {
+            return new UrlDeduplicator(new ScalableBloomFilter(DEFAULT_EXPECTED_URLS, falsePositiveRate, budgetBytes, offHeap));
+        }
+        return new UrlDeduplicator(new LongHashSet(DEFAULT_EXPECTED_URLS, budgetBytes, offHeap));
+    }
+    
+    /**
+     * Creates an exact, on-heap deduplicator with default settings.
+     * 
+     * @return the deduplicator
+     */
+    public static UrlDeduplicator createDefault() {
+        return create(DedupMode.EXACT, DEFAULT_FALSE_POSITIVE_RATE, DEFAULT_MEMORY_BUDGET_MB, false);
+    }
+    
+    /**
+     * Records a URL as seen.
+     * 
+     * @param url The absolute URL
+     * @return true if the URL is valid and was not seen before (in canonical form)
+     */
+    public boolean markSeen(String url) {
+        String canonical = UrlCanonicalizer.canonicalize(url);
+        return canonical != null && seenUrls.add(UrlFingerprint.of(canonical));
+    }
+    
+    /**
+     * Records a URL as seen by the fingerprint it is stored under, as when restoring a checkpoint.
+     * 
+     * @param fingerprint Fingerprint from {@link #fingerprint(String)}
+     * @return true if the fingerprint was not seen before
+     */
+    public boolean markSeen(long fingerprint) {
+        return seenUrls.add(fingerprint);
+    }
+    
+    /**
+     * Gets the fingerprint a URL is stored under: that of its canonical form.
+     * 
+     * @param url The absolute URL
+     * @return 64-bit fingerprint, or 0 if the URL is invalid
+     */
+    public static long fingerprint(String url) {
+        String canonical = UrlCanonicalizer.canonicalize(url);
+        return canonical != null ? UrlFingerprint.of(canonical) : 0;
+    }
+    
+    /**
+     * Checks whether a URL has been seen, without recording it.
+     * 
+     * @param url The absolute URL
+     * @return true if the URL (in canonical form) was seen before
+     */
+    public boolean isSeen(String url) {
+        String canonical = UrlCanonicalizer.canonicalize(url);
+        return canonical != null && seenUrls.contains(UrlFingerprint.of(canonical));
+    }
+    
+    /**
+     * Gets the number of distinct URLs seen.
+     * 
+     * @return seen URL count
+     */
+    public long getSeenCount() {
+        return seenUrls.size();
+    }
+    
+    /**
+     * Gets the memory allocated for the seen-URL set.
+     * 
+     * @return allocated bytes
+     */
+    public long getAllocatedBytes() {
+        return seenUrls.getAllocatedBytes();
+    }
+}
@@ -0,0 +1,221 @@
+package com.example.scraper.core.http;
+
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Per-host crawl delay driven by how each host is coping, using additive-increase /
+ * multiplicative-decrease (AIMD) on the request rate.
+ * <p>
+ * While a host answers quickly with 2xx or 304 responses, its rate (one request per delay) grows
+ * by a fixed step per response. When its latency rises well above the fastest latency seen for
+ * it, the rate is cut by a quarter; 429, 5xx responses and connection failures halve it. Cuts are
+ * applied at most once per response time or current delay, whichever is longer, so a burst of
+ * overload responses to requests that were already in flight counts once. The delay never drops below the floor passed by the caller,
+ * which is the larger of the robots.txt Crawl-delay and the configured minimum delay.
+ */
+public class AdaptiveDelayController {
+    
+    private static final Logger logger = LoggerFactory.getLogger(AdaptiveDelayController.class);
+    
+    public static final long INITIAL_DELAY_MS = 1000;
+    public static final long MAX_DELAY_MS = 60_000;
+    
+    /** Requests per second added after each healthy response. */
+    static final double RATE_INCREASE = 0.2;
+    /** Rate multiplier after 429, 5xx or a failed connection. */
+    static final double OVERLOAD_DECREASE = 0.5;
+    /** Rate multiplier when latency rises. */
+    static final double LATENCY_DECREASE = 0.75;
+    /** Latency, relative to the host's baseline, that counts as slow. */
+    static final double LATENCY_THRESHOLD = 2.0;
+    /** Latency rise below which changes are treated as noise. */
+    static final long MIN_LATENCY_RISE_MS = 50;
+    
+    private static final double LATENCY_ALPHA = 0.2;
+    private static final double BASELINE_DRIFT = 0.01;
+    private static final double MAX_RATE = 1000.0;
+    private static final double MIN_RATE = 1000.0 / MAX_DELAY_MS;
+    
+    private final boolean adaptive;
+    private final long initialDelayMs;
+    private final ConcurrentMap<String, HostState> hosts;
+    
+    public AdaptiveDelayController() {
+        this(true, INITIAL_DELAY_MS);
+    }
+    
+    /**
+     * Creates a delay controller.
+     * 
+     * @param adaptive Whether delays adapt to responses; if false the caller's floor is used as is
+     * @param initialDelayMs Delay for a host before any response has been seen
+     */
+    public AdaptiveDelayController(boolean adaptive, long initialDelayMs) {
+        this.adaptive = adaptive;
+        this.initialDelayMs = Math.max(1, Math.min(initialDelayMs, MAX_DELAY_MS));
+        this.hosts = new ConcurrentHashMap<>();
+    }
+    
+    /**
+     * Creates a controller that always uses the caller's delay.
+     * 
+     * @return non-adaptive controller
+     */
+    public static AdaptiveDelayController fixed() {
+        return new AdaptiveDelayController(false, INITIAL_DELAY_MS);
+    }
+    
+    /**
+     * Gets the delay to leave between requests to a host.
+     * 
+     * @param host The host being requested
+     * @param floorMs Minimum delay, from robots.txt or configuration
+     * @return delay in milliseconds
+     */
+    public long delayFor(String host, long floorMs) {
+        long floor = Math.max(0, floorMs);
+        if (!adaptive) {
+            return floor;
+        }
+        
+        HostState state = state(host);
+        synchronized (state) {
+            state.floorMs = floor;
+            state.rate = Math.min(state.rate, maxRate(floor));
+            return Math.max(floor, toDelayMs(state.rate));
+        }
+    }
+    
+    /**
+     * Feeds back a response from a host.
+     * 
+     * @param host The host that answered
+     * @param statusCode HTTP status code
+     * @param latencyMs Time from sending the request to receiving the response
+     */
+    public void onResponse(String host, int statusCode, long latencyMs) {
+        if (!adaptive) {
+            return;
+        }
+        
+        HostState state = state(host);
+        synchronized (state) {
+            if (statusCode == 429 || statusCode >= 500) {
+                decrease(state, OVERLOAD_DECREASE, "status " + statusCode);
+                return;
+            }
+            if ((statusCode < 200 || statusCode >= 300) && statusCode != 304) {
+                // Other client errors and redirects say nothing about load
+                return;
+            }
+            
+            state.observeLatency(latencyMs);
+            if (state.latencyMs > LATENCY_THRESHOLD * state.baselineMs
+                    && state.latencyMs - state.baselineMs > MIN_LATENCY_RISE_MS) {
+                decrease(state, LATENCY_DECREASE, String.format("latency %.0fms (baseline %.0fms)",
+                                                                 state.latencyMs, state.baselineMs));
+            } else {
+                state.rate = Math.min(state.rate + RATE_INCREASE, maxRate(state.floorMs));
+            }
+        }
+    }
+    
+    /**
+     * Feeds back a request to a host that failed without a response, such as a timeout.
+     * 
+     * @param host The host that was requested
+     */
+    public void onFailure(String host) {
+        if (!adaptive) {
+            return;
+        }
+        
+        HostState state = state(host);
+        synchronized (state) {
+            decrease(state, OVERLOAD_DECREASE, "request failure");
+        }
+    }
+    
+    /**
+     * Gets the current adaptive delay for a host, ignoring its floor.
+     * 
+     * @param host The host to inspect
+     * @return delay in milliseconds, or the initial delay if the host has not been seen
+     */
+    public long getDelayMs(String host) {
+        HostState state = hosts.get(host.toLowerCase(Locale.ROOT));
+        if (state == null) {
+            return initialDelayMs;
+        }
+        synchronized (state) {
+            return toDelayMs(state.rate);
+        }
+    }
+    
+    public boolean isAdaptive() {
+        return adaptive;
+    }
+    
+    private HostState state(String host) {
+        return hosts.computeIfAbsent(host.toLowerCase(Locale.ROOT), key -> new HostState(key, 1000.0 / initialDelayMs));
+    }
+    
+    /**
+     * Cuts a host's rate unless it was already cut within the last response time or delay.
+     * Refused connections fail in well under a millisecond, so the delay bounds the window too.
+     */
+    private void decrease(HostState state, double factor, String reason) {
+        long now = System.nanoTime();
+        long windowNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(Math.round(state.latencyMs), toDelayMs(state.rate)));
+        if (state.lastDecreaseNanos != 0 && now - state.lastDecreaseNanos < windowNanos) {
+            return;
+        }
+        state.lastDecreaseNanos = now;
+        
+        long before = toDelayMs(state.rate);
+        state.rate = Math.max(MIN_RATE, state.rate * factor);
+        logger.debug("Backing off {}: {}, delay {}ms -> {}ms", state.host, reason, before, toDelayMs(state.rate));
+    }
+    
+    private static double maxRate(long floorMs) {
+        return floorMs > 0 ? Math.min(MAX_RATE, 1000.0 / floorMs) : MAX_RATE;
+    }
+    
+    private static long toDelayMs(double rate) {
+        return Math.round(1000.0 / rate);
+    }
+    
+    private static final class HostState {
+        
+        private final String host;
+        private double rate;
+        private long floorMs = 0;
+        private double latencyMs = 0;
+        private double baselineMs = 0;
+        private long lastDecreaseNanos = 0;
+        
+        private HostState(String host, double rate) {
+            this.host = host;
+            this.rate = rate;
+        }
+        
+        /**
+         * Updates the smoothed latency and the baseline, which follows the lowest smoothed latency
+         * and drifts up slowly so a host that permanently slows down becomes the new normal.
+         */
+        private void observeLatency(long sampleMs) {
+            latencyMs = latencyMs == 0 ? sampleMs : latencyMs + LATENCY_ALPHA * (sampleMs - latencyMs);
+            if (baselineMs == 0 || latencyMs < baselineMs) {
+                baselineMs = latencyMs;
+            } else {
+                baselineMs += BASELINE_DRIFT * (latencyMs - baselineMs);
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.scraper.core.http;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Input stream that stops returning data once a maximum number of bytes has been read.
+ * Used to cap the size of streamed response bodies without buffering them.
+ */
+public class BoundedInputStream extends FilterInputStream {
+    
+    private final long maxBytes;
+    
+    private long bytesRead = 0;
+    private boolean truncated = false;
+    
+    public BoundedInputStream(InputStream in, long maxBytes) {
+        super(in);
+        this.maxBytes = maxBytes;
+    }
+    
+    @Override
+    public int read() throws IOException {
+        if (remaining() <= 0) {
+            markTruncated();
+            return -1;
+        }
+        
+        int b = super.read();
+        if (b >= 0) {
+            bytesRead++;
+        }
+        return b;
+    }
+    
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        long remaining = remaining();
+        if (remaining <= 0) {
+            markTruncated();
+            return -1;
+        }
+        
+        int n = super.read(b, off, (int) Math.min(len, remaining));
+        if (n > 0) {
+            bytesRead += n;
+        }
+        return n;
+    }
+    
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = super.skip(Math.min(n, remaining()));
+        bytesRead += skipped;
+        return skipped;
+    }
+    
+    @Override
+    public int available() throws IOException {
+        return (int) Math.min(super.available(), remaining());
+    }
+    
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+    
+    /**
+     * Marks the stream as truncated if the underlying stream still has data.
+     */
+    private void markTruncated() throws IOException {
+        if (!truncated && super.read() >= 0) {
+            truncated = true;
+        }
+    }
+    
+    private long remaining() {
+        return maxBytes - bytesRead;
+    }
+    
+    /**
+     * Gets the number of bytes read so far.
+     * 
+     * @return bytes read
+     */
+    public long getBytesRead() {
+        return bytesRead;
+    }
+    
+    /**
+     * Checks whether the body was cut off at the size limit.
+     * 
+     * @return true if more data was available than the limit allowed
+     */
+    public boolean isTruncated() {
+        return truncated;
+    }
+}
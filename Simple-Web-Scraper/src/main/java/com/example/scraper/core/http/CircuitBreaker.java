@@ -0,0 +1,222 @@
+package com.example.scraper.core.http;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Per-host circuit breaker over a sliding window of recent request outcomes.
+ * <p>
+ * While closed, requests pass and their outcomes are recorded. When at least the minimum number of
+ * outcomes is in the window and the failure share reaches the threshold, the circuit opens: new
+ * requests fail fast without touching the network, and requests that were already queued are parked.
+ * Once the open period has passed, one probe request is let through (half-open) while the parked
+ * requests wait for its outcome. A successful probe closes the circuit and lets them continue; a
+ * failed one opens it again for twice as long, up to ten times the base period, and from then on
+ * every request fails fast, queued or not, until a later probe succeeds.
+ */
+public class CircuitBreaker {
+    
+    private static final Logger logger = LoggerFactory.getLogger(CircuitBreaker.class);
+    private static final int MAX_OPEN_MULTIPLIER = 10;
+    
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+    
+    /**
+     * What a request that is about to be sent should do.
+     */
+    public enum Permission {
+        /** Send the request normally. */
+        ALLOW,
+        /** Send the request as the single half-open probe; do not retry it. */
+        PROBE,
+        /** Park until the probe is due or has an outcome, see {@link #awaitProbe()}, then try again. */
+        WAIT,
+        /** Do not send the request; a probe already failed and the circuit is open. */
+        REJECT
+    }
+    
+    private final String host;
+    private final double failureRateThreshold;
+    private final int minimumCalls;
+    private final long baseOpenMillis;
+    private final boolean[] outcomes;
+    
+    private State state = State.CLOSED;
+    private int next = 0;
+    private int count = 0;
+    private int failures = 0;
+    private long openMillis;
+    private long openUntilMillis = 0;
+    private boolean probeFailed = false;
+    private CompletableFuture<Void> probe;
+    
+    /**
+     * Creates a closed circuit breaker.
+     * 
+     * @param host The host the breaker protects, used in log messages
+     * @param failureRateThreshold Share of failed outcomes (0-1] that opens the circuit
+     * @param windowSize Number of recent outcomes considered
+     * @param minimumCalls Outcomes needed in the window before the circuit can open
+     * @param openMillis How long the circuit stays open before a probe is sent
+     */
+    public CircuitBreaker(String host, double failureRateThreshold, int windowSize, int minimumCalls, long openMillis) {
+        if (windowSize < 1) {
+            throw new IllegalArgumentException("Circuit breaker window must hold at least one outcome");
+        }
+        this.host = host;
+        this.failureRateThreshold = failureRateThreshold;
+        this.outcomes = new boolean[windowSize];
+        this.minimumCalls = Math.max(1, Math.min(minimumCalls, windowSize));
+        this.baseOpenMillis = Math.max(0, openMillis);
+        this.openMillis = this.baseOpenMillis;
+    }
+    
+    /**
+     * Checks, without changing state, whether a request could currently be sent.
+     * 
+     * @return false while the circuit is open and its open period has not passed
+     */
+    public synchronized boolean isCallPermitted() {
+        return state != State.OPEN || System.currentTimeMillis() >= openUntilMillis;
+    }
+    
+    /**
+     * Decides what a request that is about to be sent should do.
+     * 
+     * @return permission for the request
+     */
+    public synchronized Permission acquire() {
+        switch (state) {
+            case CLOSED:
+                return Permission.ALLOW;
+            case OPEN:
+                if (System.currentTimeMillis() < openUntilMillis) {
+                    return probeFailed ? Permission.REJECT : Permission.WAIT;
+                }
+                state = State.HALF_OPEN;
+                probe = new CompletableFuture<>();
+                logger.info("Circuit for {} half-open, sending a probe request", host);
+                return Permission.PROBE;
+            default:
+                return Permission.WAIT;
+        }
+    }
+    
+    /**
+     * Gets a future for parked requests: while open it completes when the probe is due, and while
+     * half-open when the probe's outcome is known.
+     * 
+     * @return future completed when a parked request should try again
+     */
+    public synchronized CompletableFuture<Void> awaitProbe() {
+        if (state == State.HALF_OPEN) {
+            return probe;
+        }
+        long remaining = openUntilMillis - System.currentTimeMillis();
+        if (state == State.OPEN && remaining > 0) {
+            return CompletableFuture.runAsync(() -> { },
+                    CompletableFuture.delayedExecutor(remaining, TimeUnit.MILLISECONDS));
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+    
+    /**
+     * Records a successful request.
+     * 
+     * @param permission The permission the request was sent with
+     */
+    public void recordSuccess(Permission permission) {
+        CompletableFuture<Void> finishedProbe = null;
+        synchronized (this) {
+            if (permission == Permission.PROBE && state == State.HALF_OPEN) {
+                logger.info("Circuit for {} closed, probe request succeeded", host);
+                state = State.CLOSED;
+                openMillis = baseOpenMillis;
+                probeFailed = false;
+                resetWindow();
+                finishedProbe = probe;
+            } else if (state == State.CLOSED) {
+                record(false);
+            }
+        }
+        if (finishedProbe != null) {
+            finishedProbe.complete(null);
+        }
+    }
+    
+    /**
+     * Records a failed request.
+     * 
+     * @param permission The permission the request was sent with
+     * @return true if this failure opened the circuit
+     */
+    public boolean recordFailure(Permission permission) {
+        CompletableFuture<Void> finishedProbe = null;
+        boolean opened = false;
+        synchronized (this) {
+            if (permission == Permission.PROBE && state == State.HALF_OPEN) {
+                openMillis = Math.min(openMillis * 2, baseOpenMillis * MAX_OPEN_MULTIPLIER);
+                probeFailed = true;
+                open("probe request failed");
+                finishedProbe = probe;
+                opened = true;
+            } else if (state == State.CLOSED) {
+                record(true);
+                if (count >= minimumCalls && failures >= failureRateThreshold * count) {
+                    open(failures + " of the last " + count + " requests failed");
+                    opened = true;
+                }
+            }
+        }
+        if (finishedProbe != null) {
+            finishedProbe.complete(null);
+        }
+        return opened;
+    }
+    
+    /**
+     * Gets how long the circuit stays open.
+     * 
+     * @return remaining open time in milliseconds, 0 if the circuit is not open
+     */
+    public synchronized long getOpenRemainingMillis() {
+        return state == State.OPEN ? Math.max(0, openUntilMillis - System.currentTimeMillis()) : 0;
+    }
+    
+    public synchronized State getState() {
+        return state;
+    }
+    
+    private void record(boolean failure) {
+        if (count == outcomes.length) {
+            if (outcomes[next]) {
+                failures--;
+            }
+        } else {
+            count++;
+        }
+        outcomes[next] = failure;
+        if (failure) {
+            failures++;
+        }
+        next = (next + 1) % outcomes.length;
+    }
+    
+    private void open(String reason) {
+        state = State.OPEN;
+        openUntilMillis = System.currentTimeMillis() + openMillis;
+        resetWindow();
+        logger.warn("Circuit for {} opened ({}), failing its requests fast for {}ms", host, reason, openMillis);
+    }
+    
+    private void resetWindow() {
+        next = 0;
+        count = 0;
+        failures = 0;
+    }
+}
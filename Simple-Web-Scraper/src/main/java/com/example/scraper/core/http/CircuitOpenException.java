@@ -0,0 +1,13 @@
+package com.example.scraper.core.http;
+
+/**
+ * Thrown when a request is not sent because the circuit breaker for its host is open.
+ */
+public class CircuitOpenException extends RuntimeException {
+    
+    private static final long serialVersionUID = 1L;
+    
+    public CircuitOpenException(String host) {
+        super("Circuit open for host " + host + ", request not sent");
+    }
+}
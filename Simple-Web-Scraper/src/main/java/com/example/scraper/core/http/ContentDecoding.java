@@ -0,0 +1,126 @@
+package com.example.scraper.core.http;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import org.brotli.dec.BrotliInputStream;
+
+/**
+ * Decodes response bodies according to their Content-Encoding header. {@code java.net.http.HttpClient}
+ * leaves compressed bodies as they arrived, so every body is passed through here before it is parsed.
+ */
+public final class ContentDecoding {
+    
+    /**
+     * Value of the Accept-Encoding request header for the encodings decoded here.
+     */
+    public static final String ACCEPT_ENCODING = "gzip, deflate, br";
+    
+    private ContentDecoding() {
+        // Utility class
+    }
+    
+    /**
+     * Wraps a response body in the decoder for its content encoding.
+     * 
+     * @param wire Body as received
+     * @param contentEncoding Value of the Content-Encoding header, or null
+     * @return decoded body; empty bodies (such as those of 304 responses) are returned as they are
+     * @throws IOException if the encoding is not supported or the stream header is invalid
+     */
+    public static InputStream decode(InputStream wire, String contentEncoding) throws IOException {
+        String encoding = contentEncoding == null ? "identity" : contentEncoding.trim().toLowerCase(Locale.ROOT);
+        if (encoding.isEmpty() || encoding.equals("identity")) {
+            return wire;
+        }
+        
+        PushbackInputStream in = new PushbackInputStream(wire, 2);
+        int first = in.read();
+        if (first < 0) {
+            return in;
+        }
+        in.unread(first);
+        
+        switch (encoding) {
+            case "gzip":
+            case "x-gzip":
+                return new GZIPInputStream(in, 8192);
+            case "deflate":
+                return inflate(in);
+            case "br":
+                return new BrotliInputStream(in);
+            default:
+                throw new IOException("Unsupported Content-Encoding: " + contentEncoding);
+        }
+    }
+    
+    /**
+     * Inflates a "deflate" body. The encoding is defined as zlib-wrapped data, but some servers send
+     * raw deflate data, so the zlib header is checked first.
+     */
+    private static InputStream inflate(PushbackInputStream in) throws IOException {
+        byte[] header = new byte[2];
+        int n = in.readNBytes(header, 0, 2);
+        in.unread(header, 0, n);
+        
+        boolean zlib = n == 2 && (header[0] & 0x0f) == 8 && (((header[0] & 0xff) << 8) | (header[1] & 0xff)) % 31 == 0;
+        Inflater inflater = new Inflater(!zlib);
+        return new InflaterInputStream(in, inflater, 8192) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    inflater.end();
+                }
+            }
+        };
+    }
+    
+    /**
+     * Input stream that counts the bytes read through it.
+     */
+    static final class CountingInputStream extends FilterInputStream {
+        
+        private long count = 0;
+        
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+        
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+        
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+        
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+        
+        long getCount() {
+            return count;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.scraper.core.http;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Response body stream that decodes its Content-Encoding as it is read and, when closed, records
+ * how many bytes came over the wire and how many were decoded.
+ * The decoder is created on the first read, because the HTTP client hands the stream over before
+ * any body data has arrived and it must not block. A callback is run once the body has been read to
+ * the end or closed, whichever comes first.
+ */
+final class DecodedInputStream extends InputStream {
+    
+    private static final Logger logger = LoggerFactory.getLogger(DecodedInputStream.class);
+    
+    private final ContentDecoding.CountingInputStream wire;
+    private final String contentEncoding;
+    private final String url;
+    private final TransferStats stats;
+    private final Runnable bodyDone;
+    
+    private InputStream decoded;
+    private long decodedBytes = 0;
+    private boolean closed = false;
+    private boolean done = false;
+    
+    DecodedInputStream(InputStream body, String contentEncoding, String url, TransferStats stats) {
+        this(body, contentEncoding, url, stats, () -> { });
+    }
+    
+    DecodedInputStream(InputStream body, String contentEncoding, String url, TransferStats stats, Runnable bodyDone) {
+        this.wire = new ContentDecoding.CountingInputStream(body);
+        this.contentEncoding = contentEncoding;
+        this.url = url;
+        this.stats = stats;
+        this.bodyDone = bodyDone;
+    }
+    
+    private InputStream decoder() throws IOException {
+        if (decoded == null) {
+            decoded = ContentDecoding.decode(wire, contentEncoding);
+        }
+        return decoded;
+    }
+    
+    @Override
+    public int read() throws IOException {
+        int b = decoder().read();
+        if (b >= 0) {
+            decodedBytes++;
+        } else {
+            finish();
+        }
+        return b;
+    }
+    
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int n = decoder().read(b, off, len);
+        if (n > 0) {
+            decodedBytes += n;
+        } else if (n < 0) {
+            finish();
+        }
+        return n;
+    }
+    
+    private void finish() {
+        if (!done) {
+            done = true;
+            bodyDone.run();
+        }
+    }
+    
+    @Override
+    public int available() throws IOException {
+        return decoded != null ? decoded.available() : 0;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        
+        try {
+            if (decoded != null) {
+                decoded.close();
+            } else {
+                wire.close();
+            }
+        } finally {
+            finish();
+            stats.record(wire.getCount(), decodedBytes);
+            logger.debug("Read {} bytes ({} decoded, encoding {}) for URL: {}",
+                        wire.getCount(), decodedBytes, contentEncoding != null ? contentEncoding : "identity", url);
+        }
+    }
+}
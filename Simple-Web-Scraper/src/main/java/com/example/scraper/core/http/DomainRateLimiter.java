@@ -0,0 +1,386 @@
+package com.example.scraper.core.http;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Non-blocking per-domain rate limiter.
+ * Requests for a domain are granted in FIFO order, spaced by the domain's delay and capped by its
+ * concurrency limit. Waiting requests are completed from a timer thread instead of parking the caller.
+ * A domain's state is dropped once nothing holds or waits for a slot and its spacing has run out, so
+ * a crawl across many hosts keeps state only for those it is currently fetching from.
+ */
+public class DomainRateLimiter implements AutoCloseable {
+    
+    private static final Logger logger = LoggerFactory.getLogger(DomainRateLimiter.class);
+    public static final int DEFAULT_MAX_CONCURRENT_PER_DOMAIN = 2;
+    
+    private final ScheduledExecutorService scheduler;
+    private final ConcurrentMap<String, DomainState> domains;
+    private final ConcurrentMap<String, DomainLimits> domainLimits;
+    private final int defaultMaxConcurrent;
+    
+    public DomainRateLimiter() {
+        this(DEFAULT_MAX_CONCURRENT_PER_DOMAIN);
+    }
+    
+    public DomainRateLimiter(int defaultMaxConcurrent) {
+        if (defaultMaxConcurrent < 1) {
+            throw new IllegalArgumentException("Concurrency per domain must be at least 1");
+        }
+        this.defaultMaxConcurrent = defaultMaxConcurrent;
+        this.domains = new ConcurrentHashMap<>();
+        this.domainLimits = new ConcurrentHashMap<>();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "domain-rate-limiter");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    /**
+     * Overrides the delay and concurrency limit for a single domain.
+     * 
+     * @param domain The domain (host name) to configure
+     * @param limits Delay and concurrency to use for the domain
+     */
+    public void setDomainLimits(String domain, DomainLimits limits) {
+        domainLimits.put(domain.toLowerCase(Locale.ROOT), limits);
+    }
+    
+    /**
+     * Requests a slot for a request to a domain.
+     * The returned future completes once the request may start; the permit must be released when it is done.
+     * 
+     * @param domain The domain (host name) being requested
+     * @param delayMs Minimum delay between request starts, used unless the domain has an override
+     * @return future completed with a permit when the request may proceed
+     */
+    public CompletableFuture<Permit> acquire(String domain, long delayMs) {
+        String key = domain.toLowerCase(Locale.ROOT);
+        CompletableFuture<Permit> future = new CompletableFuture<>();
+        Waiter waiter = new Waiter(future, effectiveDelayMs(key, delayMs));
+        
+        while (true) {
+            DomainState state = domains.computeIfAbsent(key, DomainState::new);
+            synchronized (state) {
+                if (state.evicted) {
+                    // Dropped between the lookup and the lock; look up its replacement
+                    continue;
+                }
+                state.waiters.add(waiter);
+            }
+            dispatch(state);
+            return future;
+        }
+    }
+    
+    /**
+     * Grants slots to waiting requests while the domain has free concurrency.
+     * Slots are granted under the domain lock, so spacing holds however many threads call in. When the
+     * next slot is in the future a single timer re-runs dispatch at that time; the following slot is
+     * then measured from the moment the grant actually happened, so a late timer never shortens a gap.
+     * 
+     * @param state The domain state to dispatch
+     */
+    private void dispatch(DomainState state) {
+        List<Waiter> ready = new ArrayList<>();
+        long now = System.nanoTime();
+        
+        synchronized (state) {
+            int maxConcurrent = maxConcurrent(state.domain);
+            while (state.active < maxConcurrent && !state.waiters.isEmpty() && !state.timerPending) {
+                long waitNanos = state.nextSlotNanos - now;
+                if (waitNanos > 0) {
+                    logger.debug("Rate limiting: delaying request to domain {} by {}ms",
+                                state.domain, TimeUnit.NANOSECONDS.toMillis(waitNanos));
+                    state.timerPending = true;
+                    scheduler.schedule(() -> onTimer(state), waitNanos, TimeUnit.NANOSECONDS);
+                    break;
+                }
+                
+                Waiter waiter = state.waiters.poll();
+                state.nextSlotNanos = now + TimeUnit.MILLISECONDS.toNanos(waiter.delayMs);
+                state.active++;
+                ready.add(waiter);
+            }
+            
+            if (state.active == 0 && state.waiters.isEmpty() && !state.timerPending) {
+                long idleNanos = state.nextSlotNanos - now;
+                if (idleNanos > 0) {
+                    // Keep the spacing until the next slot, then come back to drop the state
+                    state.timerPending = true;
+                    scheduler.schedule(() -> onTimer(state), idleNanos, TimeUnit.NANOSECONDS);
+                } else {
+                    state.evicted = true;
+                    domains.remove(state.domain, state);
+                }
+            }
+        }
+        
+        // Complete outside the lock so dependent stages never run while holding it
+        for (Waiter waiter : ready) {
+            grant(state, waiter);
+        }
+    }
+    
+    /**
+     * Holds back new requests to a domain for a while, e.g. when it answered with Retry-After.
+     * Requests already running are not affected, and a shorter pause never cuts an earlier one short.
+     * 
+     * @param domain The domain (host name) to pause
+     * @param pauseMs How long no request may start
+     */
+    public void pause(String domain, long pauseMs) {
+        if (pauseMs <= 0) {
+            return;
+        }
+        String key = domain.toLowerCase(Locale.ROOT);
+        long until = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(pauseMs);
+        DomainState state;
+        while (true) {
+            state = domains.computeIfAbsent(key, DomainState::new);
+            synchronized (state) {
+                if (state.evicted) {
+                    continue;
+                }
+                if (until - state.nextSlotNanos > 0) {
+                    state.nextSlotNanos = until;
+                }
+                break;
+            }
+        }
+        // Keeps the state until the pause is over
+        dispatch(state);
+        logger.debug("Pausing requests to domain {} for {}ms", domain, pauseMs);
+    }
+    
+    private void onTimer(DomainState state) {
+        synchronized (state) {
+            state.timerPending = false;
+        }
+        dispatch(state);
+    }
+    
+    /**
+     * Hands a permit to a waiter, returning the slot if the waiter gave up in the meantime.
+     */
+    private void grant(DomainState state, Waiter waiter) {
+        Permit permit = new Permit(state);
+        if (!waiter.future.complete(permit)) {
+            permit.release();
+        }
+    }
+    
+    private void release(DomainState state) {
+        synchronized (state) {
+            state.active--;
+        }
+        dispatch(state);
+    }
+    
+    private long effectiveDelayMs(String domain, long delayMs) {
+        DomainLimits limits = domainLimits.get(domain);
+        return limits != null && limits.getDelayMs() >= 0 ? limits.getDelayMs() : Math.max(0, delayMs);
+    }
+    
+    private int maxConcurrent(String domain) {
+        DomainLimits limits = domainLimits.get(domain);
+        return limits != null && limits.getMaxConcurrent() > 0 ? limits.getMaxConcurrent() : defaultMaxConcurrent;
+    }
+    
+    /**
+     * Gets the number of requests currently holding or scheduled for a slot on a domain.
+     * 
+     * @param domain The domain to inspect
+     * @return number of active requests
+     */
+    public int getActiveCount(String domain) {
+        DomainState state = domains.get(domain.toLowerCase(Locale.ROOT));
+        if (state == null) {
+            return 0;
+        }
+        synchronized (state) {
+            return state.active;
+        }
+    }
+    
+    /**
+     * Gets the number of requests waiting for a slot on a domain.
+     * 
+     * @param domain The domain to inspect
+     * @return number of queued requests
+     */
+    public int getQueuedCount(String domain) {
+        DomainState state = domains.get(domain.toLowerCase(Locale.ROOT));
+        if (state == null) {
+            return 0;
+        }
+        synchronized (state) {
+            return state.waiters.size();
+        }
+    }
+    
+    /**
+     * Gets the number of requests holding a slot on any domain.
+     * 
+     * @return number of active requests
+     */
+    public int getActiveCount() {
+        int active = 0;
+        for (DomainState state : domains.values()) {
+            synchronized (state) {
+                active += state.active;
+            }
+        }
+        return active;
+    }
+    
+    /**
+     * Gets the number of requests waiting for a slot on any domain.
+     * 
+     * @return number of queued requests
+     */
+    public int getQueuedCount() {
+        int queued = 0;
+        for (DomainState state : domains.values()) {
+            synchronized (state) {
+                queued += state.waiters.size();
+            }
+        }
+        return queued;
+    }
+    
+    /**
+     * Gets the number of domains whose state is kept.
+     * 
+     * @return tracked domains
+     */
+    int getTrackedDomainCount() {
+        return domains.size();
+    }
+    
+    /**
+     * Gets the default number of concurrent requests allowed per domain.
+     * 
+     * @return default concurrency per domain
+     */
+    public int getDefaultMaxConcurrent() {
+        return defaultMaxConcurrent;
+    }
+    
+    /**
+     * Stops the timer thread. Requests still waiting for a slot are never granted.
+     */
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+    
+    /**
+     * A granted request slot. Releasing it lets the next queued request for the domain proceed.
+     */
+    public final class Permit {
+    
+        private final DomainState state;
+        private final AtomicBoolean released = new AtomicBoolean(false);
+        
+        private Permit(DomainState state) {
+            this.state = state;
+        }
+        
+        /**
+         * Releases the slot. Calling this more than once has no effect.
+         */
+        public void release() {
+            if (released.compareAndSet(false, true)) {
+                DomainRateLimiter.this.release(state);
+            }
+        }
+    }
+    
+    /**
+     * Delay and concurrency settings for a domain.
+     */
+    public static final class DomainLimits {
+    
+        private final long delayMs;
+        private final int maxConcurrent;
+        
+        /**
+         * Creates domain limits.
+         * 
+         * @param delayMs Minimum delay between request starts, or -1 to use the caller's delay
+         * @param maxConcurrent Maximum concurrent requests, or 0 to use the default
+         */
+        public DomainLimits(long delayMs, int maxConcurrent) {
+            this.delayMs = delayMs;
+            this.maxConcurrent = maxConcurrent;
+        }
+        
+        /**
+         * Parses limits in the form {@code delayMs[:maxConcurrent]}.
+         * 
+         * @param spec The limits specification
+         * @return parsed limits
+         * @throws NumberFormatException if the specification is not numeric
+         */
+        public static DomainLimits parse(String spec) {
+            String[] parts = spec.split(":", 2);
+            long delayMs = Long.parseLong(parts[0].trim());
+            int maxConcurrent = parts.length > 1 ? Integer.parseInt(parts[1].trim()) : 0;
+            return new DomainLimits(delayMs, maxConcurrent);
+        }
+        
+        public long getDelayMs() {
+            return delayMs;
+        }
+        
+        public int getMaxConcurrent() {
+            return maxConcurrent;
+        }
+        
+        @Override
+        public String toString() {
+            return maxConcurrent > 0 ? delayMs + ":" + maxConcurrent : String.valueOf(delayMs);
+        }
+    }
+    
+    private static final class DomainState {
+    
+        private final String domain;
+        private final Queue<Waiter> waiters = new ArrayDeque<>();
+        private long nextSlotNanos = System.nanoTime();
+        private int active = 0;
+        private boolean timerPending = false;
+        private boolean evicted = false;
+        
+        private DomainState(String domain) {
+            this.domain = domain;
+        }
+    }
+    
+    private static final class Waiter {
+    
+        private final CompletableFuture<Permit> future;
+        private final long delayMs;
+        
+        private Waiter(CompletableFuture<Permit> future, long delayMs) {
+            this.future = future;
+            this.delayMs = delayMs;
+        }
+    }
+}
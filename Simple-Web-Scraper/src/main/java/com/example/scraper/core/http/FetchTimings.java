@@ -0,0 +1,45 @@
+package com.example.scraper.core.http;
+
+import com.example.scraper.core.metrics.LabeledHistograms;
+
+/**
+ * Per-host latency histograms for the stages of a fetch: waiting for the rate limiter, waiting for
+ * the response headers and receiving the body.
+ * <p>
+ * The JDK HTTP client does not report DNS lookup or connection setup separately, so both are part
+ * of the time to headers, together with the server's time to first byte. With a streamed body, the
+ * body time ends when the fetch thread has read and closed it, before the page is parsed.
+ */
+public class FetchTimings {
+    
+    private final LabeledHistograms rateLimitWait = new LabeledHistograms();
+    private final LabeledHistograms timeToHeaders = new LabeledHistograms();
+    private final LabeledHistograms bodyTime = new LabeledHistograms();
+    
+    /**
+     * Gets the time from asking the rate limiter for a slot to being given one, per host.
+     * 
+     * @return rate limiter wait histograms
+     */
+    public LabeledHistograms getRateLimitWait() {
+        return rateLimitWait;
+    }
+    
+    /**
+     * Gets the time from sending a request to receiving the response headers, per host.
+     * 
+     * @return time-to-headers histograms
+     */
+    public LabeledHistograms getTimeToHeaders() {
+        return timeToHeaders;
+    }
+    
+    /**
+     * Gets the time from the response headers to the last byte of the body, per host.
+     * 
+     * @return body time histograms
+     */
+    public LabeledHistograms getBodyTime() {
+        return bodyTime;
+    }
+}
@@ -1,14 +1,26 @@
 package com.example.scraper.core.http;
 
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.net.http.HttpHeaders;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.Semaphore;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -21,29 +33,91 @@ public class HttpFetcher {
     private static final Logger logger = LoggerFactory.getLogger(HttpFetcher.class);
     private static final String DEFAULT_USER_AGENT = "SimpleWebScraper/1.0 (+https://github.com/example/simple-web-scraper)";
     private static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(30);
-    private static final int MAX_CONCURRENT_REQUESTS_PER_DOMAIN = 2;
+    public static final long DEFAULT_MAX_BODY_BYTES = 10 * 1024 * 1024; // 10MB
     
-    private final HttpClient httpClient;
-    private final ConcurrentMap<String, Semaphore> domainSemaphores;
-    private final ConcurrentMap<String, Long> lastRequestTime;
+    private final HttpTransport transport;
+    private final AdaptiveDelayController delayController;
+    private final RetryPolicy retryPolicy;
+    private final RetryBudget retryBudget;
+    private final ConcurrentMap<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+    private final DomainRateLimiter rateLimiter;
+    private final Executor executor;
     private final String userAgent;
     private final Duration timeout;
+    private final long maxBodyBytes;
+    private final TransferStats transferStats = new TransferStats();
+    private final FetchTimings timings = new FetchTimings();
     
     public HttpFetcher() {
         this(DEFAULT_USER_AGENT, DEFAULT_TIMEOUT);
     }
     
     public HttpFetcher(String userAgent, Duration timeout) {
+        this(userAgent, timeout, DEFAULT_MAX_BODY_BYTES);
+    }
+    
+    public HttpFetcher(String userAgent, Duration timeout, long maxBodyBytes) {
+        this(userAgent, timeout, maxBodyBytes, new DomainRateLimiter());
+    }
+    
+    public HttpFetcher(String userAgent, Duration timeout, long maxBodyBytes, DomainRateLimiter rateLimiter) {
+        this(userAgent, timeout, maxBodyBytes, rateLimiter, ForkJoinPool.commonPool());
+    }
+    
+    /**
+     * Creates a fetcher that performs its blocking requests on the given executor.
+     * 
+     * @param userAgent User-Agent header to send
+     * @param timeout Request timeout
+     * @param maxBodyBytes Maximum decoded body size read from a response
+     * @param rateLimiter Per-domain rate limiter
+     * @param executor Executor that runs requests and retries
+     */
+    public HttpFetcher(String userAgent, Duration timeout, long maxBodyBytes, DomainRateLimiter rateLimiter,
+                       Executor executor) {
+        this(userAgent, timeout, maxBodyBytes, rateLimiter, executor, new HttpTransport(new TransportOptions()));
+    }
+    
+    /**
+     * Creates a fetcher that sends its requests through a shared transport.
+     * 
+     * @param userAgent User-Agent header to send
+     * @param timeout Request timeout
+     * @param maxBodyBytes Maximum decoded body size read from a response
+     * @param rateLimiter Per-domain rate limiter
+     * @param executor Executor that runs requests and retries
+     * @param transport HTTP client shared with other components
+     */
+    public HttpFetcher(String userAgent, Duration timeout, long maxBodyBytes, DomainRateLimiter rateLimiter,
+                       Executor executor, HttpTransport transport) {
+        this(userAgent, timeout, maxBodyBytes, rateLimiter, executor, transport, AdaptiveDelayController.fixed(),
+             new RetryPolicy());
+    }
+    
+    /**
+     * Creates a fetcher whose per-domain delay is adjusted from the responses it receives.
+     * 
+     * @param userAgent User-Agent header to send
+     * @param timeout Request timeout
+     * @param maxBodyBytes Maximum decoded body size read from a response
+     * @param rateLimiter Per-domain rate limiter
+     * @param executor Executor that runs requests and retries
+     * @param transport HTTP client shared with other components
+     * @param delayController Turns the crawl delay passed to each fetch into the delay actually used
+     * @param retryPolicy Retry, retry budget and circuit breaker settings
+     */
+    public HttpFetcher(String userAgent, Duration timeout, long maxBodyBytes, DomainRateLimiter rateLimiter,
+                       Executor executor, HttpTransport transport, AdaptiveDelayController delayController,
+                       RetryPolicy retryPolicy) {
         this.userAgent = userAgent;
         this.timeout = timeout;
-        this.domainSemaphores = new ConcurrentHashMap<>();
-        this.lastRequestTime = new ConcurrentHashMap<>();
-        
-        this.httpClient = HttpClient.newBuilder()
-                .connectTimeout(Duration.ofSeconds(10))
-                .followRedirects(HttpClient.Redirect.NORMAL) // Follow redirects
-                .version(HttpClient.Version.HTTP_2)
-                .build();
+        this.maxBodyBytes = maxBodyBytes;
+        this.rateLimiter = rateLimiter;
+        this.executor = executor;
+        this.transport = transport;
+        this.delayController = delayController;
+        this.retryPolicy = retryPolicy;
+        this.retryBudget = retryPolicy.newRetryBudget();
     }
     
     /**
@@ -54,28 +128,90 @@ public class HttpFetcher {
      * @return CompletableFuture containing the HTTP response
      */
     public CompletableFuture<HttpResponse<String>> fetchAsync(String url, long crawlDelayMs) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                URI uri = URI.create(url);
-                String domain = uri.getScheme() + "://" + uri.getHost();
-                
-                // Apply rate limiting
-                applyRateLimit(domain, crawlDelayMs);
-                
-                // Acquire semaphore for concurrent request limiting
-                Semaphore semaphore = domainSemaphores.computeIfAbsent(domain, 
-                    k -> new Semaphore(MAX_CONCURRENT_REQUESTS_PER_DOMAIN));
-                
-                semaphore.acquire();
-                try {
-                    return fetchWithRetry(url);
-                } finally {
-                    semaphore.release();
-                }
-                
-            } catch (Exception e) {
-                logger.error("Error fetching URL {}: {}", url, e.getMessage());
-                throw new RuntimeException("Failed to fetch URL: " + url, e);
+        return fetchAsync(url, crawlDelayMs, Map.of());
+    }
+    
+    /**
+     * Fetches content from a URL, sending extra request headers such as conditional-request validators.
+     * 
+     * @param url The URL to fetch
+     * @param crawlDelayMs Minimum delay between requests to the same domain
+     * @param headers Additional request headers
+     * @return CompletableFuture containing the HTTP response
+     */
+    public CompletableFuture<HttpResponse<String>> fetchAsync(String url, long crawlDelayMs, Map<String, String> headers) {
+        return fetchAsync(url, crawlDelayMs, headers, bodyDone -> responseInfo -> HttpResponse.BodySubscribers.mapping(
+                HttpResponse.BodySubscribers.ofByteArray(),
+                body -> {
+                    bodyDone.run();
+                    return decodeToString(url, responseInfo.headers(), body);
+                }));
+    }
+    
+    /**
+     * Fetches content from a URL and exposes the body as a stream instead of a String.
+     * The body is decoded as it is read, and the decoded stream is capped at the configured maximum
+     * body size; the caller must close it. The request keeps its slot in the domain's concurrency
+     * limit until the stream is read to the end or closed.
+     * 
+     * @param url The URL to fetch
+     * @param crawlDelayMs Minimum delay between requests to the same domain
+     * @return CompletableFuture containing the HTTP response with a streaming body
+     */
+    public CompletableFuture<HttpResponse<InputStream>> fetchStreamAsync(String url, long crawlDelayMs) {
+        return fetchStreamAsync(url, crawlDelayMs, Map.of());
+    }
+    
+    /**
+     * Fetches content from a URL as a stream, sending extra request headers such as
+     * conditional-request validators.
+     * 
+     * @param url The URL to fetch
+     * @param crawlDelayMs Minimum delay between requests to the same domain
+     * @param headers Additional request headers
+     * @return CompletableFuture containing the HTTP response with a streaming body
+     */
+    public CompletableFuture<HttpResponse<InputStream>> fetchStreamAsync(String url, long crawlDelayMs,
+                                                                       Map<String, String> headers) {
+        return fetchAsync(url, crawlDelayMs, headers, bodyDone -> responseInfo -> HttpResponse.BodySubscribers.mapping(
+                HttpResponse.BodySubscribers.ofInputStream(),
+                body -> new BoundedInputStream(new DecodedInputStream(body,
+                        responseInfo.headers().firstValue("Content-Encoding").orElse(null), url, transferStats,
+                        bodyDone), maxBodyBytes)));
+    }
+    
+    /**
+     * Fetches content from a URL using body handlers from the given factory.
+     * 
+     * @param url The URL to fetch
+     * @param crawlDelayMs Minimum delay between requests to the same domain
+     * @param headers Additional request headers
+     * @param bodyHandlers Creates the handler that converts each attempt's response body
+     * @return CompletableFuture containing the HTTP response
+     */
+    private <T> CompletableFuture<HttpResponse<T>> fetchAsync(String url, long crawlDelayMs, Map<String, String> headers,
+                                                            BodyHandlerFactory<T> bodyHandlers) {
+        String domain;
+        try {
+            domain = URI.create(url).getHost();
+            if (domain == null) {
+                throw new IllegalArgumentException("URL has no host");
+            }
+        } catch (IllegalArgumentException e) {
+            logger.error("Error fetching URL {}: {}", url, e.getMessage());
+            return CompletableFuture.failedFuture(new RuntimeException("Failed to fetch URL: " + url, e));
+        }
+        
+        retryBudget.recordRequest();
+        FetchRequest<T> request = new FetchRequest<>(url, domain.toLowerCase(Locale.ROOT), crawlDelayMs, headers, bodyHandlers);
+        return attempt(request, 0, 0).whenComplete((response, error) -> {
+            if (error == null) {
+                return;
+            }
+            if (unwrap(error) instanceof CircuitOpenException) {
+                logger.debug("Skipped URL {}: {}", url, unwrap(error).getMessage());
+            } else {
+                logger.error("Error fetching URL {}: {}", url, error.getMessage());
             }
         });
     }
@@ -97,127 +233,279 @@ public class HttpFetcher {
     }
     
     /**
-     * Applies rate limiting by ensuring minimum delay between requests to the same domain.
+     * Synchronous version of fetchStreamAsync.
      * 
-     * @param domain The domain to apply rate limiting for
-     * @param crawlDelayMs Minimum delay in milliseconds
+     * @param url The URL to fetch
+     * @param crawlDelayMs Minimum delay between requests to the same domain
+     * @return HTTP response with a streaming body that the caller must close
      */
-    private void applyRateLimit(String domain, long crawlDelayMs) {
-        Long lastTime = lastRequestTime.get(domain);
-        if (lastTime != null) {
-            long timeSinceLastRequest = System.currentTimeMillis() - lastTime;
-            if (timeSinceLastRequest < crawlDelayMs) {
-                long sleepTime = crawlDelayMs - timeSinceLastRequest;
-                logger.debug("Rate limiting: sleeping {}ms for domain {}", sleepTime, domain);
-                try {
-                    Thread.sleep(sleepTime);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    throw new RuntimeException("Rate limiting interrupted", e);
-                }
-            }
+    public HttpResponse<InputStream> fetchStream(String url, long crawlDelayMs) {
+        try {
+            return fetchStreamAsync(url, crawlDelayMs).get();
+        } catch (Exception e) {
+            logger.error("Error in synchronous fetch for URL {}: {}", url, e.getMessage());
+            throw new RuntimeException("Failed to fetch URL: " + url, e);
         }
-        lastRequestTime.put(domain, System.currentTimeMillis());
     }
     
     /**
-     * Fetches content with exponential backoff retry for server errors.
+     * Makes one attempt at a URL once the domain's rate limit and circuit breaker allow it.
+     * While the host's circuit is open a new attempt fails fast without a request. An attempt that
+     * was already queued when the circuit opened is parked, without holding a rate-limiter slot,
+     * until the probe request is due or has an outcome; once a probe has failed it fails fast too.
      * 
-     * @param url The URL to fetch
-     * @return HTTP response
+     * @param request The URL and how to fetch it
+     * @param attempt Number of attempts made so far
+     * @param previousDelayMs Wait before this attempt, 0 for the first one
+     * @return CompletableFuture containing the HTTP response
      */
-    private HttpResponse<String> fetchWithRetry(String url) {
-        int maxRetries = 3;
-        int baseDelayMs = 1000; // 1 second base delay
+    private <T> CompletableFuture<HttpResponse<T>> attempt(FetchRequest<T> request, int attempt, long previousDelayMs) {
+        CircuitBreaker breaker = circuitBreaker(request.domain);
+        if (!breaker.isCallPermitted()) {
+            return CompletableFuture.failedFuture(new CircuitOpenException(request.domain));
+        }
         
-        for (int attempt = 0; attempt <= maxRetries; attempt++) {
-            try {
-                HttpResponse<String> response = performRequest(url);
-                int statusCode = response.statusCode();
-                
-                if (statusCode >= 200 && statusCode < 300) {
-                    // Success
-                    logger.debug("Successfully fetched URL: {} (status: {})", url, statusCode);
-                    return response;
-                    
-                } else if (statusCode >= 300 && statusCode < 400) {
-                    // Redirect - let HttpClient handle it
-                    logger.debug("Redirect response for URL: {} (status: {})", url, statusCode);
-                    return response;
-                    
-                } else if (statusCode >= 400 && statusCode < 500) {
-                    // Client error - don't retry
-                    logger.warn("Client error for URL: {} (status: {})", url, statusCode);
-                    return response;
-                    
-                } else if (statusCode >= 500 && statusCode < 600) {
-                    // Server error - retry with exponential backoff
-                    if (attempt < maxRetries) {
-                        long delayMs = baseDelayMs * (1L << attempt); // Exponential backoff
-                        logger.warn("Server error for URL: {} (status: {}), retrying in {}ms (attempt {}/{})", 
-                                   url, statusCode, delayMs, attempt + 1, maxRetries);
-                        
-                        // Check for Retry-After header
-                        String retryAfter = response.headers().firstValue("Retry-After").orElse(null);
-                        if (retryAfter != null) {
-                            try {
-                                delayMs = Long.parseLong(retryAfter) * 1000; // Convert seconds to milliseconds
-                                logger.debug("Using Retry-After header: {}ms", delayMs);
-                            } catch (NumberFormatException e) {
-                                logger.debug("Invalid Retry-After header: {}", retryAfter);
-                            }
-                        }
-                        
-                        Thread.sleep(delayMs);
-                        continue;
-                    } else {
-                        logger.error("Max retries exceeded for URL: {} (status: {})", url, statusCode);
-                        return response;
+        // Wait for a rate-limited slot without holding a thread, then perform the request
+        long queuedNanos = System.nanoTime();
+        return rateLimiter.acquire(request.domain, delayController.delayFor(request.domain, request.crawlDelayMs))
+                .thenCompose(permit -> {
+                    timings.getRateLimitWait().record(request.domain, System.nanoTime() - queuedNanos);
+                    CircuitBreaker.Permission permission = breaker.acquire();
+                    if (permission == CircuitBreaker.Permission.REJECT) {
+                        permit.release();
+                        return CompletableFuture.failedFuture(new CircuitOpenException(request.domain));
                     }
-                }
-                
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                throw new RuntimeException("Request interrupted", e);
-            } catch (Exception e) {
-                if (attempt < maxRetries) {
-                    long delayMs = baseDelayMs * (1L << attempt);
-                    logger.warn("Exception fetching URL: {}, retrying in {}ms (attempt {}/{})", 
-                               url, delayMs, attempt + 1, maxRetries, e);
-                    try {
-                        Thread.sleep(delayMs);
-                    } catch (InterruptedException ie) {
-                        Thread.currentThread().interrupt();
-                        throw new RuntimeException("Retry interrupted", ie);
+                    if (permission == CircuitBreaker.Permission.WAIT) {
+                        permit.release();
+                        return breaker.awaitProbe().thenCompose(ignored -> attempt(request, attempt, previousDelayMs));
                     }
-                } else {
-                    logger.error("Max retries exceeded for URL: {}", url, e);
-                    throw new RuntimeException("Failed to fetch URL after retries: " + url, e);
-                }
+                    
+                    // The body handler releases the slot once the body is read or closed, which for a
+                    // streamed body is after send returns; a request that fails releases it here
+                    return CompletableFuture.supplyAsync(() -> send(request, permit::release), executor)
+                            .whenComplete((response, error) -> {
+                                if (error != null) {
+                                    permit.release();
+                                }
+                            })
+                            .handle((response, error) -> onOutcome(request, attempt, previousDelayMs, permission,
+                                                                   response, error == null ? null : unwrap(error)))
+                            .thenCompose(next -> next);
+                });
+    }
+    
+    /**
+     * Sends a request and reports its latency or failure to the delay controller.
+     * 
+     * @param request The URL and how to fetch it
+     * @param bodyDone Run once the response body has been read or closed
+     * @return HTTP response
+     */
+    private <T> HttpResponse<T> send(FetchRequest<T> request, Runnable bodyDone) {
+        try {
+            long start = System.nanoTime();
+            HttpResponse<T> response = performRequest(request.url, request.headers,
+                    new TimedBodyHandler<>(request.bodyHandlers.create(bodyDone), timings, request.domain, start));
+            delayController.onResponse(request.domain, response.statusCode(),
+                                       TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            return response;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Request interrupted", e);
+        } catch (Exception e) {
+            delayController.onFailure(request.domain);
+            throw new CompletionException(e);
+        }
+    }
+    
+    /**
+     * Records an attempt's outcome with the host's circuit breaker and decides whether to retry.
+     * Retries wait with decorrelated jitter, or as long as a Retry-After header asks, without holding
+     * a thread or a rate-limiter slot, and each one must be paid for from the shared retry budget.
+     * A Retry-After on a 429 or 503 response also pauses all requests to the domain.
+     * 
+     * @param request The URL and how to fetch it
+     * @param attempt Number of attempts made before this one
+     * @param previousDelayMs Wait before this attempt
+     * @param permission How the circuit breaker let this attempt through
+     * @param response The response, or null if the request failed
+     * @param error The failure, or null if a response was received
+     * @return CompletableFuture with the final response, or the next attempt's
+     */
+    private <T> CompletableFuture<HttpResponse<T>> onOutcome(FetchRequest<T> request, int attempt, long previousDelayMs,
+                                                           CircuitBreaker.Permission permission,
+                                                           HttpResponse<T> response, Throwable error) {
+        String url = request.url;
+        CircuitBreaker breaker = circuitBreaker(request.domain);
+        boolean failed = error != null || retryPolicy.isRetryable(response.statusCode());
+        if (!failed) {
+            breaker.recordSuccess(permission);
+            logResponse(url, response.statusCode());
+            return CompletableFuture.completedFuture(response);
+        }
+        
+        breaker.recordFailure(permission);
+        
+        long retryAfterMs = -1;
+        String problem;
+        if (response != null) {
+            int statusCode = response.statusCode();
+            problem = "Server error for URL: " + url + " (status: " + statusCode + ")";
+            if (statusCode == 429 || statusCode == 503) {
+                retryAfterMs = RetryAfter.parse(response.headers(), System.currentTimeMillis());
+                // A Retry-After longer than any retry would wait gives up this URL, but must not hold
+                // back the rest of the host for that long
+                rateLimiter.pause(request.domain, Math.min(retryAfterMs, retryPolicy.getMaxDelayMs()));
+            }
+        } else {
+            problem = "Exception fetching URL: " + url + " (" + error.getMessage() + ")";
+        }
+        
+        String giveUpReason = null;
+        if (attempt >= retryPolicy.getMaxRetries()) {
+            giveUpReason = "max retries exceeded";
+        } else if (permission == CircuitBreaker.Permission.PROBE) {
+            giveUpReason = "circuit breaker probe failed";
+        } else if (retryAfterMs > retryPolicy.getMaxDelayMs()) {
+            giveUpReason = "Retry-After of " + retryAfterMs + "ms exceeds the maximum retry delay";
+        } else if (!breaker.isCallPermitted()) {
+            giveUpReason = "circuit open";
+        } else if (!retryBudget.tryAcquire()) {
+            giveUpReason = "retry budget exhausted";
+        }
+        
+        if (giveUpReason != null) {
+            logger.error("{}, not retrying: {}", problem, giveUpReason);
+            if (response != null) {
+                return CompletableFuture.completedFuture(response);
             }
+            return CompletableFuture.failedFuture(new RuntimeException("Failed to fetch URL after retries: " + url, error));
         }
         
-        throw new RuntimeException("Unexpected end of retry loop for URL: " + url);
+        long delayMs = Math.max(retryPolicy.nextDelayMs(previousDelayMs), retryAfterMs);
+        logger.warn("{}, retrying in {}ms (attempt {}/{})", problem, delayMs, attempt + 1, retryPolicy.getMaxRetries());
+        if (response != null) {
+            discardBody(response);
+        }
+        Executor delayed = CompletableFuture.delayedExecutor(delayMs, TimeUnit.MILLISECONDS, executor);
+        return CompletableFuture.supplyAsync(() -> null, delayed)
+                .thenCompose(ignored -> attempt(request, attempt + 1, delayMs));
+    }
+    
+    private static void logResponse(String url, int statusCode) {
+        if (statusCode >= 200 && statusCode < 300) {
+            logger.debug("Successfully fetched URL: {} (status: {})", url, statusCode);
+        } else if (statusCode == 304) {
+            // Not modified - the caller sent validators and keeps its cached copy
+            logger.debug("Not modified: {}", url);
+        } else if (statusCode >= 300 && statusCode < 400) {
+            // Redirect - let HttpClient handle it
+            logger.debug("Redirect response for URL: {} (status: {})", url, statusCode);
+        } else {
+            // Client error - don't retry
+            logger.warn("Client error for URL: {} (status: {})", url, statusCode);
+        }
+    }
+    
+    private CircuitBreaker circuitBreaker(String domain) {
+        return circuitBreakers.computeIfAbsent(domain, retryPolicy::newCircuitBreaker);
+    }
+    
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
     }
     
     /**
      * Performs the actual HTTP request.
      * 
      * @param url The URL to request
+     * @param headers Additional request headers
+     * @param bodyHandler Handler that converts the response body
      * @return HTTP response
      */
-    private HttpResponse<String> performRequest(String url) throws Exception {
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(url))
+    private <T> HttpResponse<T> performRequest(String url, Map<String, String> headers,
+                                               HttpResponse.BodyHandler<T> bodyHandler) throws Exception {
+        HttpRequest.Builder builder = transport.newRequest(URI.create(url))
                 .timeout(timeout)
                 .header("User-Agent", userAgent)
                 .header("Accept", "text/html,application/xhtml+xml,application/xml;q=0.9,*/*;q=0.8")
                 .header("Accept-Language", "en-US,en;q=0.5")
-                .header("Accept-Encoding", "gzip, deflate")
-                .GET()
-                .build();
+                .header("Accept-Encoding", ContentDecoding.ACCEPT_ENCODING)
+                .GET();
+        headers.forEach(builder::header);
+        
+        return transport.send(builder.build(), bodyHandler);
+    }
+    
+    /**
+     * Decodes a buffered response body and converts it to a String using the charset from its
+     * Content-Type header (UTF-8 if none is declared). Decoding stops at the maximum body size, so a
+     * small compressed body cannot inflate without bound.
+     * 
+     * @param url The URL that was fetched
+     * @param headers Response headers
+     * @param body Body as received
+     * @return decoded body text, truncated to the maximum body size
+     */
+    private String decodeToString(String url, HttpHeaders headers, byte[] body) {
+        String contentEncoding = headers.firstValue("Content-Encoding").orElse(null);
+        try (InputStream decoded = new DecodedInputStream(new ByteArrayInputStream(body), contentEncoding,
+                                                          url, transferStats)) {
+            String charset = getCharset(headers);
+            byte[] bytes = decoded.readNBytes((int) Math.min(maxBodyBytes, Integer.MAX_VALUE - 8));
+            if (decoded.read() >= 0) {
+                logger.warn("Response body for URL {} exceeded {} bytes and was truncated", url, maxBodyBytes);
+            }
+            return new String(bytes, charset != null ? Charset.forName(charset) : StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to decode response body for URL: " + url, e);
+        }
+    }
+    
+    /**
+     * Releases the body of a response that is being discarded before a retry.
+     * 
+     * @param response The response to discard
+     */
+    private void discardBody(HttpResponse<?> response) {
+        if (response.body() instanceof Closeable) {
+            try {
+                ((Closeable) response.body()).close();
+            } catch (IOException e) {
+                logger.debug("Error closing discarded response body: {}", e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * Gets the charset declared in a response's Content-Type header.
+     * 
+     * @param response The HTTP response
+     * @return charset name, or null if absent or unsupported
+     */
+    public static String getCharset(HttpResponse<?> response) {
+        return getCharset(response.headers());
+    }
+    
+    private static String getCharset(HttpHeaders headers) {
+        String contentType = headers.firstValue("Content-Type").orElse(null);
+        if (contentType == null) {
+            return null;
+        }
         
-        return httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        for (String param : contentType.split(";")) {
+            String[] pair = param.trim().split("=", 2);
+            if (pair.length == 2 && pair[0].trim().toLowerCase(Locale.ROOT).equals("charset")) {
+                String charset = pair[1].trim().replace("\"", "").replace("'", "");
+                try {
+                    return Charset.isSupported(charset) ? charset : null;
+                } catch (IllegalArgumentException e) {
+                    return null;
+                }
+            }
+        }
+        
+        return null;
     }
     
     /**
@@ -237,4 +525,103 @@ public class HttpFetcher {
     public Duration getTimeout() {
         return timeout;
     }
+    
+    /**
+     * Gets the maximum number of body bytes read from a streamed response.
+     * 
+     * @return maximum body size in bytes
+     */
+    public long getMaxBodyBytes() {
+        return maxBodyBytes;
+    }
+    
+    /**
+     * Gets the per-domain rate limiter used by this fetcher.
+     * 
+     * @return domain rate limiter
+     */
+    public DomainRateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+    
+    /**
+     * Gets the totals of response body bytes received and decoded by this fetcher.
+     * 
+     * @return transfer statistics
+     */
+    public TransferStats getTransferStats() {
+        return transferStats;
+    }
+    
+    /**
+     * Gets the per-host rate limiter wait, time-to-headers and body time histograms.
+     * 
+     * @return fetch timings
+     */
+    public FetchTimings getTimings() {
+        return timings;
+    }
+    
+    /**
+     * Gets the policy that decides which failures are retried.
+     * 
+     * @return retry policy
+     */
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+    
+    /**
+     * Gets the retry budget shared by all fetches, with its request and retry counts.
+     * 
+     * @return retry budget
+     */
+    public RetryBudget getRetryBudget() {
+        return retryBudget;
+    }
+    
+    /**
+     * Gets the circuit breaker state of a host.
+     * 
+     * @param domain The host to inspect
+     * @return circuit state, CLOSED for hosts not yet requested
+     */
+    public CircuitBreaker.State getCircuitState(String domain) {
+        CircuitBreaker breaker = circuitBreakers.get(domain.toLowerCase(Locale.ROOT));
+        return breaker != null ? breaker.getState() : CircuitBreaker.State.CLOSED;
+    }
+    
+    /**
+     * A URL being fetched, with everything needed to attempt it again.
+     */
+    private static final class FetchRequest<T> {
+    
+        private final String url;
+        private final String domain;
+        private final long crawlDelayMs;
+        private final Map<String, String> headers;
+        private final BodyHandlerFactory<T> bodyHandlers;
+        
+        private FetchRequest(String url, String domain, long crawlDelayMs, Map<String, String> headers,
+                             BodyHandlerFactory<T> bodyHandlers) {
+            this.url = url;
+            this.domain = domain;
+            this.crawlDelayMs = crawlDelayMs;
+            this.headers = headers;
+            this.bodyHandlers = bodyHandlers;
+        }
+    }
+    
+    /**
+     * Creates the body handler for one attempt.
+     */
+    @FunctionalInterface
+    private interface BodyHandlerFactory<T> {
+    
+        /**
+         * @param bodyDone Must be run once the body has been read to the end or closed
+         * @return body handler for the attempt
+         */
+        HttpResponse.BodyHandler<T> create(Runnable bodyDone);
+    }
 }
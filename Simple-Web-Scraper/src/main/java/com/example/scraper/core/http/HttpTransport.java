@@ -0,0 +1,161 @@
+package com.example.scraper.core.http;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The single HTTP client shared by page fetches and robots.txt lookups, so both reuse the same
+ * connections (and TLS sessions) to each origin.
+ * <p>
+ * HTTPS origins that negotiate HTTP/2 get one multiplexed connection each. Plain-HTTP origins and
+ * hosts configured for HTTP/1.1 use the client's pool of persistent HTTP/1.1 connections instead;
+ * requests to them are pinned to HTTP/1.1 so no h2c upgrade is attempted.
+ */
+public class HttpTransport implements AutoCloseable {
+    
+    private static final Logger logger = LoggerFactory.getLogger(HttpTransport.class);
+    
+    private final HttpClient client;
+    private final ExecutorService executor;
+    private final TransportOptions options;
+    
+    /**
+     * Creates a transport with its own client and executor.
+     * The keep-alive, pool size and stream limits are JDK system properties that are read once, when
+     * the first client is created, so they only take effect if no client was created before and they
+     * were not set on the command line.
+     * 
+     * @param options Connection settings
+     */
+    public HttpTransport(TransportOptions options) {
+        this.options = options;
+        applySystemProperties(options);
+        
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, options.getThreads()), runnable -> {
+            Thread thread = new Thread(runnable, "http-client-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.client = HttpClient.newBuilder()
+                .connectTimeout(options.getConnectTimeout())
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .version(options.isHttp2() ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+                .executor(executor)
+                .build();
+        logger.debug("Created HTTP transport: {}", options);
+    }
+    
+    /**
+     * Creates a transport over an existing client. The client is not closed by {@link #close()}.
+     * 
+     * @param client Client to send requests with
+     */
+    public HttpTransport(HttpClient client) {
+        this.client = client;
+        this.executor = null;
+        this.options = new TransportOptions();
+    }
+    
+    private static void applySystemProperties(TransportOptions options) {
+        if (options.getKeepAliveSeconds() > 0) {
+            setIfAbsent("jdk.httpclient.keepalive.timeout", options.getKeepAliveSeconds());
+            setIfAbsent("jdk.httpclient.keepalive.timeout.h2", options.getKeepAliveSeconds());
+        }
+        if (options.getConnectionPoolSize() > 0) {
+            setIfAbsent("jdk.httpclient.connectionPoolSize", options.getConnectionPoolSize());
+        }
+        if (options.getMaxHttp2Streams() > 0) {
+            setIfAbsent("jdk.httpclient.maxstreams", options.getMaxHttp2Streams());
+        }
+    }
+    
+    private static void setIfAbsent(String property, int value) {
+        if (System.getProperty(property) == null) {
+            System.setProperty(property, String.valueOf(value));
+        }
+    }
+    
+    /**
+     * Starts a request to a URI, pinned to HTTP/1.1 where HTTP/2 should not be attempted.
+     * 
+     * @param uri The request URI
+     * @return request builder
+     */
+    public HttpRequest.Builder newRequest(URI uri) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri);
+        if (!useHttp2(uri)) {
+            builder.version(HttpClient.Version.HTTP_1_1);
+        }
+        return builder;
+    }
+    
+    /**
+     * Checks whether requests to a URI may use HTTP/2.
+     * 
+     * @param uri The request URI
+     * @return true for HTTPS origins not configured for HTTP/1.1 when HTTP/2 is enabled
+     */
+    public boolean useHttp2(URI uri) {
+        String host = uri.getHost();
+        return options.isHttp2()
+                && "https".equalsIgnoreCase(uri.getScheme())
+                && (host == null || !options.getHttp1Hosts().contains(host.toLowerCase(Locale.ROOT)));
+    }
+    
+    /**
+     * Sends a request, blocking until the response headers (and, depending on the handler, the body)
+     * have arrived.
+     * 
+     * @param request The request
+     * @param bodyHandler Handler for the response body
+     * @return HTTP response
+     * @throws IOException if the request fails
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler)
+            throws IOException, InterruptedException {
+        return client.send(request, bodyHandler);
+    }
+    
+    /**
+     * Sends a request without blocking.
+     * 
+     * @param request The request
+     * @param bodyHandler Handler for the response body
+     * @return CompletableFuture with the HTTP response
+     */
+    public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler) {
+        return client.sendAsync(request, bodyHandler);
+    }
+    
+    public HttpClient getClient() {
+        return client;
+    }
+    
+    public TransportOptions getOptions() {
+        return options;
+    }
+    
+    /**
+     * Stops the executor owned by this transport. Idle connections are closed by the client once it
+     * is no longer referenced.
+     */
+    @Override
+    public void close() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+}
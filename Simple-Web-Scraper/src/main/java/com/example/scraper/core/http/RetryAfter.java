@@ -0,0 +1,58 @@
+package com.example.scraper.core.http;
+
+import java.net.http.HttpHeaders;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Parses the Retry-After response header, which servers send with 429 and 503 responses to say
+ * how long clients should wait before trying again.
+ */
+public final class RetryAfter {
+    
+    private RetryAfter() {
+    }
+    
+    /**
+     * Gets the wait requested by a response.
+     * 
+     * @param headers The response headers
+     * @param nowMillis Current time, used for HTTP-date values
+     * @return wait in milliseconds, or -1 if the header is missing or invalid
+     */
+    public static long parse(HttpHeaders headers, long nowMillis) {
+        return headers.firstValue("Retry-After").map(value -> parse(value, nowMillis)).orElse(-1L);
+    }
+    
+    /**
+     * Parses a Retry-After value, either delay-seconds ("120") or an HTTP-date
+     * ("Fri, 31 Dec 1999 23:59:59 GMT") (RFC 9110 section 10.2.3).
+     * 
+     * @param value The header value
+     * @param nowMillis Current time, used for HTTP-date values
+     * @return wait in milliseconds, 0 for a date in the past, or -1 if the value is invalid
+     */
+    public static long parse(String value, long nowMillis) {
+        String trimmed = value.trim();
+        if (trimmed.isEmpty()) {
+            return -1;
+        }
+        
+        if (Character.isDigit(trimmed.charAt(0))) {
+            try {
+                long seconds = Long.parseLong(trimmed);
+                return seconds > Long.MAX_VALUE / 1000 ? Long.MAX_VALUE : seconds * 1000;
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+        }
+        
+        try {
+            long at = ZonedDateTime.parse(trimmed, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+            return Math.max(0, at - nowMillis);
+        } catch (DateTimeParseException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.scraper.core.http;
+
+/**
+ * Caps retries across all hosts at a fraction of first attempts, so a wave of failures cannot
+ * multiply the crawl's traffic and time.
+ * <p>
+ * Every first attempt deposits {@code ratio} tokens and every retry withdraws one. A small initial
+ * balance lets the first failures of a run be retried, and the balance is capped so a long healthy
+ * run cannot save up for an unbounded retry storm later.
+ */
+public class RetryBudget {
+    
+    public static final int DEFAULT_INITIAL_TOKENS = 10;
+    public static final int DEFAULT_MAX_TOKENS = 100;
+    
+    private final double ratio;
+    private final double maxTokens;
+    private double tokens;
+    private long requests;
+    private long retries;
+    private long denied;
+    
+    /**
+     * Creates a retry budget.
+     * 
+     * @param ratio Retries earned per first attempt
+     * @param initialTokens Retries available before any request was made
+     * @param maxTokens Maximum number of retries that can be saved up
+     */
+    public RetryBudget(double ratio, int initialTokens, int maxTokens) {
+        this.ratio = Math.max(0, ratio);
+        this.maxTokens = Math.max(0, maxTokens);
+        this.tokens = Math.min(initialTokens, this.maxTokens);
+    }
+    
+    /**
+     * Records a first attempt, earning retry tokens.
+     */
+    public synchronized void recordRequest() {
+        requests++;
+        tokens = Math.min(maxTokens, tokens + ratio);
+    }
+    
+    /**
+     * Takes a token for a retry.
+     * 
+     * @return true if the retry may go ahead
+     */
+    public synchronized boolean tryAcquire() {
+        if (tokens >= 1) {
+            tokens -= 1;
+            retries++;
+            return true;
+        }
+        denied++;
+        return false;
+    }
+    
+    public synchronized long getRequestCount() {
+        return requests;
+    }
+    
+    public synchronized long getRetryCount() {
+        return retries;
+    }
+    
+    public synchronized long getDeniedCount() {
+        return denied;
+    }
+    
+    @Override
+    public synchronized String toString() {
+        return String.format("%d requests, %d retries, %d retries denied by budget", requests, retries, denied);
+    }
+}
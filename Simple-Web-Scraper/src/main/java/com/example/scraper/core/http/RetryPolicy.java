@@ -0,0 +1,157 @@
+package com.example.scraper.core.http;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Settings for retrying failed requests and for the per-host circuit breakers.
+ * <p>
+ * Waits between attempts use decorrelated jitter: each wait is drawn uniformly between the base
+ * delay and three times the previous wait, capped at the maximum. Compared with plain exponential
+ * backoff this spreads out retries from many URLs that failed at the same moment.
+ */
+public class RetryPolicy {
+    
+    public static final int DEFAULT_MAX_RETRIES = 3;
+    public static final long DEFAULT_BASE_DELAY_MS = 500;
+    public static final long DEFAULT_MAX_DELAY_MS = 30_000;
+    public static final double DEFAULT_BUDGET_RATIO = 0.2;
+    public static final double DEFAULT_BREAKER_FAILURE_RATE = 0.5;
+    public static final int DEFAULT_BREAKER_WINDOW = 20;
+    public static final int DEFAULT_BREAKER_MINIMUM_CALLS = 10;
+    public static final long DEFAULT_BREAKER_OPEN_MS = 30_000;
+    
+    // Retries per URL after the first attempt
+    private int maxRetries = DEFAULT_MAX_RETRIES;
+    private long baseDelayMs = DEFAULT_BASE_DELAY_MS;
+    private long maxDelayMs = DEFAULT_MAX_DELAY_MS;
+    
+    // Retries allowed across the whole crawl, as a fraction of first attempts
+    private double budgetRatio = DEFAULT_BUDGET_RATIO;
+    
+    // A host's circuit opens when this share of its recent attempts failed
+    private double breakerFailureRate = DEFAULT_BREAKER_FAILURE_RATE;
+    private int breakerWindow = DEFAULT_BREAKER_WINDOW;
+    private int breakerMinimumCalls = DEFAULT_BREAKER_MINIMUM_CALLS;
+    private long breakerOpenMs = DEFAULT_BREAKER_OPEN_MS;
+    
+    /**
+     * Checks whether a response status is worth retrying: 429 and all 5xx responses.
+     * 
+     * @param statusCode HTTP status code
+     * @return true if the request should be retried
+     */
+    public boolean isRetryable(int statusCode) {
+        return statusCode == 429 || (statusCode >= 500 && statusCode < 600);
+    }
+    
+    /**
+     * Draws the wait before the next attempt.
+     * 
+     * @param previousDelayMs The previous wait, or 0 before the first retry
+     * @return wait in milliseconds
+     */
+    public long nextDelayMs(long previousDelayMs) {
+        long base = Math.max(1, baseDelayMs);
+        long upper = Math.max(base, Math.min(maxDelayMs, Math.max(base, previousDelayMs) * 3));
+        long delay = upper > base ? ThreadLocalRandom.current().nextLong(base, upper + 1) : base;
+        return Math.min(delay, Math.max(base, maxDelayMs));
+    }
+    
+    /**
+     * Creates a circuit breaker for one host with these settings.
+     * 
+     * @param host The host the breaker protects
+     * @return new closed circuit breaker
+     */
+    public CircuitBreaker newCircuitBreaker(String host) {
+        return new CircuitBreaker(host, breakerFailureRate, breakerWindow, breakerMinimumCalls, breakerOpenMs);
+    }
+    
+    /**
+     * Creates the retry budget shared by all fetches.
+     * 
+     * @return new retry budget
+     */
+    public RetryBudget newRetryBudget() {
+        return new RetryBudget(budgetRatio, RetryBudget.DEFAULT_INITIAL_TOKENS, RetryBudget.DEFAULT_MAX_TOKENS);
+    }
+    
+    // Getters and setters
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+    
+    public void setMaxRetries(int maxRetries) {
+        this.maxRetries = maxRetries;
+    }
+    
+    public long getBaseDelayMs() {
+        return baseDelayMs;
+    }
+    
+    public void setBaseDelayMs(long baseDelayMs) {
+        this.baseDelayMs = baseDelayMs;
+    }
+    
+    public long getMaxDelayMs() {
+        return maxDelayMs;
+    }
+    
+    public void setMaxDelayMs(long maxDelayMs) {
+        this.maxDelayMs = maxDelayMs;
+    }
+    
+    public double getBudgetRatio() {
+        return budgetRatio;
+    }
+    
+    public void setBudgetRatio(double budgetRatio) {
+        this.budgetRatio = budgetRatio;
+    }
+    
+    public double getBreakerFailureRate() {
+        return breakerFailureRate;
+    }
+    
+    public void setBreakerFailureRate(double breakerFailureRate) {
+        this.breakerFailureRate = breakerFailureRate;
+    }
+    
+    public int getBreakerWindow() {
+        return breakerWindow;
+    }
+    
+    public void setBreakerWindow(int breakerWindow) {
+        this.breakerWindow = breakerWindow;
+    }
+    
+    public int getBreakerMinimumCalls() {
+        return breakerMinimumCalls;
+    }
+    
+    public void setBreakerMinimumCalls(int breakerMinimumCalls) {
+        this.breakerMinimumCalls = breakerMinimumCalls;
+    }
+    
+    public long getBreakerOpenMs() {
+        return breakerOpenMs;
+    }
+    
+    public void setBreakerOpenMs(long breakerOpenMs) {
+        this.breakerOpenMs = breakerOpenMs;
+    }
+    
+    @Override
+    public String toString() {
+        return "RetryPolicy{" +
+                "maxRetries=" + maxRetries +
+                ", baseDelayMs=" + baseDelayMs +
+                ", maxDelayMs=" + maxDelayMs +
+                ", budgetRatio=" + budgetRatio +
+                ", breakerFailureRate=" + breakerFailureRate +
+                ", breakerWindow=" + breakerWindow +
+                ", breakerMinimumCalls=" + breakerMinimumCalls +
+                ", breakerOpenMs=" + breakerOpenMs +
+                '}';
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.scraper.core.http;
+
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+
+/**
+ * Body handler that records when the response headers arrived and when the body was complete,
+ * around the handler that actually converts the body.
+ */
+final class TimedBodyHandler<T> implements HttpResponse.BodyHandler<T> {
+    
+    private final HttpResponse.BodyHandler<T> delegate;
+    private final FetchTimings timings;
+    private final String host;
+    private final long sentNanos;
+    
+    TimedBodyHandler(HttpResponse.BodyHandler<T> delegate, FetchTimings timings, String host, long sentNanos) {
+        this.delegate = delegate;
+        this.timings = timings;
+        this.host = host;
+        this.sentNanos = sentNanos;
+    }
+    
+    @Override
+    public HttpResponse.BodySubscriber<T> apply(HttpResponse.ResponseInfo responseInfo) {
+        long headersNanos = System.nanoTime();
+        timings.getTimeToHeaders().record(host, headersNanos - sentNanos);
+        return new TimedSubscriber<>(delegate.apply(responseInfo), timings, host, headersNanos);
+    }
+    
+    private static final class TimedSubscriber<T> implements HttpResponse.BodySubscriber<T> {
+    
+        private final HttpResponse.BodySubscriber<T> delegate;
+        private final FetchTimings timings;
+        private final String host;
+        private final long headersNanos;
+        
+        private TimedSubscriber(HttpResponse.BodySubscriber<T> delegate, FetchTimings timings, String host,
+                                long headersNanos) {
+            this.delegate = delegate;
+            this.timings = timings;
+            this.host = host;
+            this.headersNanos = headersNanos;
+        }
+        
+        @Override
+        public CompletionStage<T> getBody() {
+            return delegate.getBody();
+        }
+        
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            delegate.onSubscribe(subscription);
+        }
+        
+        @Override
+        public void onNext(List<ByteBuffer> item) {
+            delegate.onNext(item);
+        }
+        
+        @Override
+        public void onError(Throwable throwable) {
+            delegate.onError(throwable);
+        }
+        
+        @Override
+        public void onComplete() {
+            timings.getBodyTime().record(host, System.nanoTime() - headersNanos);
+            delegate.onComplete();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.scraper.core.http;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Running totals of response body bytes received on the wire and after content decoding,
+ * showing how much bandwidth compression saves.
+ */
+public class TransferStats {
+    
+    private final AtomicLong responses = new AtomicLong();
+    private final AtomicLong wireBytes = new AtomicLong();
+    private final AtomicLong decodedBytes = new AtomicLong();
+    
+    /**
+     * Adds one response body.
+     * 
+     * @param wire Bytes received, before decoding
+     * @param decoded Bytes after decoding
+     */
+    public void record(long wire, long decoded) {
+        responses.incrementAndGet();
+        wireBytes.addAndGet(wire);
+        decodedBytes.addAndGet(decoded);
+    }
+    
+    public long getResponseCount() {
+        return responses.get();
+    }
+    
+    public long getWireBytes() {
+        return wireBytes.get();
+    }
+    
+    public long getDecodedBytes() {
+        return decodedBytes.get();
+    }
+    
+    /**
+     * Gets the fraction of decoded bytes that did not have to be transferred.
+     * 
+     * @return savings between 0 and 1, or 0 if nothing was decoded
+     */
+    public double getSavings() {
+        long decoded = decodedBytes.get();
+        return decoded > 0 ? Math.max(0, 1.0 - (double) wireBytes.get() / decoded) : 0;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("%d responses, %d bytes on the wire, %d bytes decoded (%.1f%% saved)",
+                getResponseCount(), getWireBytes(), getDecodedBytes(), getSavings() * 100);
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.scraper.core.http;
+
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Connection settings for the shared {@link HttpTransport}.
+ */
+public class TransportOptions {
+    
+    public static final Duration DEFAULT_CONNECT_TIMEOUT = Duration.ofSeconds(10);
+    public static final int DEFAULT_THREADS = Math.max(4, Runtime.getRuntime().availableProcessors());
+    
+    private Duration connectTimeout = DEFAULT_CONNECT_TIMEOUT;
+    
+    // Threads that run the client's response handling
+    private int threads = DEFAULT_THREADS;
+    
+    // HTTP/2 for HTTPS origins that negotiate it, with all requests to an origin multiplexed on one connection
+    private boolean http2 = true;
+    
+    // Hosts that are always spoken to over HTTP/1.1, with their own connection pool
+    private final Set<String> http1Hosts = new LinkedHashSet<>();
+    
+    // JDK client tuning; 0 keeps the JDK default (see jdk.httpclient.* in the java.net.http module docs)
+    private int keepAliveSeconds = 0;
+    private int connectionPoolSize = 0;
+    private int maxHttp2Streams = 0;
+    
+    // Getters and setters
+    public Duration getConnectTimeout() {
+        return connectTimeout;
+    }
+    
+    public void setConnectTimeout(Duration connectTimeout) {
+        this.connectTimeout = connectTimeout;
+    }
+    
+    public int getThreads() {
+        return threads;
+    }
+    
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+    
+    public boolean isHttp2() {
+        return http2;
+    }
+    
+    public void setHttp2(boolean http2) {
+        this.http2 = http2;
+    }
+    
+    public Set<String> getHttp1Hosts() {
+        return http1Hosts;
+    }
+    
+    public void addHttp1Host(String host) {
+        http1Hosts.add(host.toLowerCase(Locale.ROOT));
+    }
+    
+    public int getKeepAliveSeconds() {
+        return keepAliveSeconds;
+    }
+    
+    public void setKeepAliveSeconds(int keepAliveSeconds) {
+        this.keepAliveSeconds = keepAliveSeconds;
+    }
+    
+    public int getConnectionPoolSize() {
+        return connectionPoolSize;
+    }
+    
+    public void setConnectionPoolSize(int connectionPoolSize) {
+        this.connectionPoolSize = connectionPoolSize;
+    }
+    
+    public int getMaxHttp2Streams() {
+        return maxHttp2Streams;
+    }
+    
+    public void setMaxHttp2Streams(int maxHttp2Streams) {
+        this.maxHttp2Streams = maxHttp2Streams;
+    }
+    
+    @Override
+    public String toString() {
+        return "TransportOptions{" +
+                "connectTimeout=" + connectTimeout +
+                ", threads=" + threads +
+                ", http2=" + http2 +
+                ", http1Hosts=" + http1Hosts +
+                ", keepAliveSeconds=" + keepAliveSeconds +
+                ", connectionPoolSize=" + connectionPoolSize +
+                ", maxHttp2Streams=" + maxHttp2Streams +
+                '}';
+    }
+}
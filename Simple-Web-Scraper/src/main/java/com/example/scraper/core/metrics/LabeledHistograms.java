@@ -0,0 +1,82 @@
+package com.example.scraper.core.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * One {@link LatencyHistogram} per value of a label, such as one per host.
+ * The number of distinct values is capped so a crawl over many hosts cannot grow memory or the
+ * metrics output without limit; values seen after the cap is reached share an "other" histogram.
+ */
+public class LabeledHistograms {
+    
+    public static final int DEFAULT_MAX_LABELS = 200;
+    public static final String OTHER = "other";
+    
+    private final int maxLabels;
+    private final ConcurrentMap<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+    
+    public LabeledHistograms() {
+        this(DEFAULT_MAX_LABELS);
+    }
+    
+    /**
+     * Creates an empty set of histograms.
+     * 
+     * @param maxLabels Maximum number of label values tracked separately
+     */
+    public LabeledHistograms(int maxLabels) {
+        this.maxLabels = maxLabels;
+    }
+    
+    /**
+     * Gets the histogram for a label value, creating it on first use.
+     * 
+     * @param label The label value
+     * @return its histogram, or the shared "other" histogram once the cap is reached
+     */
+    public LatencyHistogram get(String label) {
+        LatencyHistogram histogram = histograms.get(label);
+        if (histogram != null) {
+            return histogram;
+        }
+        if (histograms.size() >= maxLabels) {
+            return histograms.computeIfAbsent(OTHER, key -> new LatencyHistogram());
+        }
+        return histograms.computeIfAbsent(label, key -> new LatencyHistogram());
+    }
+    
+    /**
+     * Records a duration for a label value.
+     * 
+     * @param label The label value
+     * @param nanos Duration in nanoseconds
+     */
+    public void record(String label, long nanos) {
+        get(label).record(nanos);
+    }
+    
+    /**
+     * Gets the histograms recorded so far.
+     * 
+     * @return label value to histogram, sorted by label
+     */
+    public Map<String, LatencyHistogram> snapshot() {
+        return new TreeMap<>(histograms);
+    }
+    
+    /**
+     * Gets the number of values recorded under all label values together.
+     * 
+     * @return total count
+     */
+    public long getCount() {
+        long count = 0;
+        for (LatencyHistogram histogram : histograms.values()) {
+            count += histogram.getCount();
+        }
+        return count;
+    }
+}
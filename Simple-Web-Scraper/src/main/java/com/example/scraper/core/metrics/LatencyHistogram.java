@@ -0,0 +1,167 @@
+package com.example.scraper.core.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of durations in nanoseconds with a bounded relative error, for percentiles
+ * of latencies recorded from many threads.
+ * <p>
+ * Values below 64ns get a bucket each; above that every power of two is split into 32 equal
+ * buckets, so a percentile is never off by more than about 3%, however large the value. That is
+ * the layout of an HdrHistogram with five significant bits, in a fixed array of about 1,200 counters
+ * covering durations up to about 36 minutes; longer values are counted in the last bucket. Recording
+ * is one atomic increment plus two adders, and needs no allocation.
+ */
+public class LatencyHistogram {
+    
+    private static final int LINEAR_BITS = 6;
+    private static final int LINEAR_BUCKETS = 1 << LINEAR_BITS;
+    private static final int SUB_BUCKET_BITS = LINEAR_BITS - 1;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_EXPONENT = 40;
+    private static final long MAX_TRACKABLE = (1L << (MAX_EXPONENT + 1)) - 1;
+    private static final int BUCKET_COUNT = LINEAR_BUCKETS + (MAX_EXPONENT - LINEAR_BITS + 1) * SUB_BUCKETS;
+    
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+    
+    /**
+     * Records a duration.
+     * 
+     * @param nanos Duration in nanoseconds; negative values count as 0
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(bucketOf(Math.min(value, MAX_TRACKABLE)));
+        count.increment();
+        sum.add(value);
+        
+        long current = max.get();
+        while (value > current && !max.compareAndSet(current, value)) {
+            current = max.get();
+        }
+    }
+    
+    /**
+     * Records the time elapsed since a start time.
+     * 
+     * @param startNanos Start time from {@link System#nanoTime()}
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+    
+    static int bucketOf(long value) {
+        if (value < LINEAR_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) - SUB_BUCKETS;
+        return LINEAR_BUCKETS + (exponent - LINEAR_BITS) * SUB_BUCKETS + subBucket;
+    }
+    
+    /**
+     * Gets the largest value that falls into a bucket.
+     */
+    static long highestValueIn(int bucket) {
+        if (bucket < LINEAR_BUCKETS) {
+            return bucket;
+        }
+        int exponent = (bucket - LINEAR_BUCKETS) / SUB_BUCKETS + LINEAR_BITS;
+        long subBucket = (bucket - LINEAR_BUCKETS) % SUB_BUCKETS + SUB_BUCKETS;
+        return ((subBucket + 1) << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+    
+    public long getCount() {
+        return count.sum();
+    }
+    
+    /**
+     * Gets the sum of all recorded durations.
+     * 
+     * @return total in nanoseconds
+     */
+    public long getSum() {
+        return sum.sum();
+    }
+    
+    /**
+     * Gets the largest recorded duration.
+     * 
+     * @return maximum in nanoseconds, or 0 if nothing was recorded
+     */
+    public long getMax() {
+        return max.get();
+    }
+    
+    /**
+     * Gets the mean of the recorded durations.
+     * 
+     * @return mean in nanoseconds, or 0 if nothing was recorded
+     */
+    public double getMean() {
+        long n = count.sum();
+        return n > 0 ? (double) sum.sum() / n : 0;
+    }
+    
+    /**
+     * Gets the duration below which a given fraction of the recorded values fall. The result is the
+     * upper bound of the bucket holding that value, capped at the maximum, so it may overstate the
+     * exact value by up to about 3% but never understates it.
+     * 
+     * @param quantile Fraction between 0 and 1, e.g. 0.99
+     * @return duration in nanoseconds, or 0 if nothing was recorded
+     */
+    public long getValueAtQuantile(double quantile) {
+        return getValuesAtQuantiles(quantile)[0];
+    }
+    
+    /**
+     * Gets several quantiles from one pass over the counters, so they are consistent with each
+     * other while values are still being recorded.
+     * 
+     * @param quantiles Fractions between 0 and 1, in ascending order
+     * @return durations in nanoseconds, all 0 if nothing was recorded
+     * @see #getValueAtQuantile(double)
+     */
+    public long[] getValuesAtQuantiles(double... quantiles) {
+        long total = 0;
+        long[] snapshot = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        long[] values = new long[quantiles.length];
+        if (total == 0) {
+            return values;
+        }
+        
+        long maxValue = max.get();
+        int bucket = 0;
+        long seen = snapshot[0];
+        for (int q = 0; q < quantiles.length; q++) {
+            long rank = Math.max(1, (long) Math.ceil(Math.min(1, Math.max(0, quantiles[q])) * total));
+            while (seen < rank && bucket < BUCKET_COUNT - 1) {
+                seen += snapshot[++bucket];
+            }
+            values[q] = Math.min(highestValueIn(bucket), maxValue);
+        }
+        return values;
+    }
+    
+    @Override
+    public String toString() {
+        long[] quantiles = getValuesAtQuantiles(0.5, 0.95, 0.99);
+        return String.format("count %d, mean %.2fms, p50 %.2fms, p95 %.2fms, p99 %.2fms, max %.2fms", getCount(),
+                getMean() / 1e6, millis(quantiles[0]), millis(quantiles[1]), millis(quantiles[2]), millis(getMax()));
+    }
+    
+    private static double millis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,221 @@
+package com.example.scraper.core.metrics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleSupplier;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Named counters, gauges and latency histograms of a run, rendered in the Prometheus text format
+ * or as a human-readable summary.
+ * <p>
+ * Counters and gauges are read from suppliers when the metrics are rendered, so components keep
+ * counting in their own atomic fields and registering costs nothing on the hot path. Histograms are
+ * {@link LatencyHistogram}s recorded by the components directly; they are exposed as Prometheus
+ * summaries in seconds.
+ */
+public class MetricsRegistry {
+    
+    private static final Pattern NAME = Pattern.compile("[a-zA-Z_:][a-zA-Z0-9_:]*");
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99};
+    private static final int SUMMARY_MAX_LABELS = 10;
+    
+    private final List<Metric> metrics = new CopyOnWriteArrayList<>();
+    private final long startNanos = System.nanoTime();
+    
+    /**
+     * Registers a counter, a value that only goes up.
+     * 
+     * @param name Metric name, ending in "_total" by convention
+     * @param help One-line description, also used in the summary
+     * @param value Reads the current count
+     * @throws IllegalArgumentException if the name is invalid or already registered
+     */
+    public void counter(String name, String help, LongSupplier value) {
+        register(new Metric(name, help, "counter", null, () -> (double) value.getAsLong(), null));
+    }
+    
+    /**
+     * Registers a gauge, a value that goes up and down such as a queue depth.
+     * 
+     * @param name Metric name
+     * @param help One-line description, also used in the summary
+     * @param value Reads the current value
+     * @throws IllegalArgumentException if the name is invalid or already registered
+     */
+    public void gauge(String name, String help, DoubleSupplier value) {
+        register(new Metric(name, help, "gauge", null, value, null));
+    }
+    
+    /**
+     * Registers a latency histogram.
+     * 
+     * @param name Metric name, ending in "_seconds" by convention
+     * @param help One-line description, also used in the summary
+     * @param histogram The histogram the component records into
+     * @throws IllegalArgumentException if the name is invalid or already registered
+     */
+    public void histogram(String name, String help, LatencyHistogram histogram) {
+        register(new Metric(name, help, "summary", null, null, () -> Map.of("", histogram)));
+    }
+    
+    /**
+     * Registers a latency histogram per label value, such as one per host.
+     * 
+     * @param name Metric name, ending in "_seconds" by convention
+     * @param help One-line description, also used in the summary
+     * @param label Label name, e.g. "host"
+     * @param histograms The histograms the component records into
+     * @throws IllegalArgumentException if a name is invalid or the metric is already registered
+     */
+    public void histograms(String name, String help, String label, LabeledHistograms histograms) {
+        if (!NAME.matcher(label).matches()) {
+            throw new IllegalArgumentException("Invalid label name: " + label);
+        }
+        register(new Metric(name, help, "summary", label, null, histograms::snapshot));
+    }
+    
+    private void register(Metric metric) {
+        if (!NAME.matcher(metric.name).matches()) {
+            throw new IllegalArgumentException("Invalid metric name: " + metric.name);
+        }
+        synchronized (metrics) {
+            for (Metric existing : metrics) {
+                if (existing.name.equals(metric.name)) {
+                    throw new IllegalArgumentException("Metric already registered: " + metric.name);
+                }
+            }
+            metrics.add(metric);
+        }
+    }
+    
+    /**
+     * Gets the time since the registry was created, which is taken as the start of the run.
+     * 
+     * @return elapsed milliseconds
+     */
+    public long getUptimeMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+    
+    /**
+     * Renders every metric in the Prometheus text exposition format (version 0.0.4).
+     * 
+     * @return metrics text, one sample per line
+     */
+    public String toPrometheus() {
+        StringBuilder out = new StringBuilder();
+        for (Metric metric : metrics) {
+            out.append("# HELP ").append(metric.name).append(' ').append(escapeHelp(metric.help)).append('\n');
+            out.append("# TYPE ").append(metric.name).append(' ').append(metric.type).append('\n');
+            if (metric.histograms == null) {
+                out.append(metric.name).append(' ').append(formatValue(metric.value.getAsDouble())).append('\n');
+                continue;
+            }
+            
+            for (Map.Entry<String, LatencyHistogram> entry : metric.histograms.get().entrySet()) {
+                String labels = metric.label != null
+                        ? metric.label + "=\"" + escapeLabel(entry.getKey()) + "\""
+                        : "";
+                LatencyHistogram histogram = entry.getValue();
+                long[] values = histogram.getValuesAtQuantiles(QUANTILES);
+                for (int i = 0; i < QUANTILES.length; i++) {
+                    out.append(metric.name).append('{').append(labels).append(labels.isEmpty() ? "" : ",")
+                       .append("quantile=\"").append(QUANTILES[i]).append("\"} ")
+                       .append(formatValue(values[i] / 1e9)).append('\n');
+                }
+                String suffix = labels.isEmpty() ? " " : "{" + labels + "} ";
+                out.append(metric.name).append("_sum").append(suffix)
+                   .append(formatValue(histogram.getSum() / 1e9)).append('\n');
+                out.append(metric.name).append("_count").append(suffix).append(histogram.getCount()).append('\n');
+            }
+        }
+        return out.toString();
+    }
+    
+    /**
+     * Renders the metrics for a log or console, with rates for counters and percentiles for
+     * histograms. Labeled histograms list their busiest label values only.
+     * 
+     * @return multi-line summary
+     */
+    public String formatSummary() {
+        long uptimeMillis = Math.max(1, getUptimeMillis());
+        StringBuilder out = new StringBuilder(String.format(Locale.ROOT, "Run summary after %.1fs:",
+                uptimeMillis / 1000.0));
+        for (Metric metric : metrics) {
+            out.append("\n  ").append(metric.help).append(':');
+            if (metric.histograms == null) {
+                out.append(' ');
+                double value = metric.value.getAsDouble();
+                out.append(formatValue(value));
+                if (metric.type.equals("counter") && value > 0) {
+                    out.append(String.format(Locale.ROOT, " (%.1f/s)", value * 1000 / uptimeMillis));
+                }
+                continue;
+            }
+            
+            Map<String, LatencyHistogram> histograms = metric.histograms.get();
+            if (metric.label == null) {
+                out.append(' ').append(histograms.get(""));
+                continue;
+            }
+            List<Map.Entry<String, LatencyHistogram>> busiest = new ArrayList<>(histograms.entrySet());
+            busiest.sort(Comparator.comparingLong(
+                    (Map.Entry<String, LatencyHistogram> entry) -> entry.getValue().getCount()).reversed());
+            if (busiest.isEmpty()) {
+                out.append(" none");
+            }
+            for (int i = 0; i < Math.min(SUMMARY_MAX_LABELS, busiest.size()); i++) {
+                out.append("\n    ").append(busiest.get(i).getKey()).append(": ").append(busiest.get(i).getValue());
+            }
+            if (busiest.size() > SUMMARY_MAX_LABELS) {
+                out.append("\n    (").append(busiest.size() - SUMMARY_MAX_LABELS).append(" more ")
+                   .append(metric.label).append(" values)");
+            }
+        }
+        return out.toString();
+    }
+    
+    private static String formatValue(double value) {
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            return Long.toString((long) value);
+        }
+        return Double.toString(value);
+    }
+    
+    private static String escapeHelp(String help) {
+        return help.replace("\\", "\\\\").replace("\n", "\\n");
+    }
+    
+    private static String escapeLabel(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+    
+    private static final class Metric {
+    
+        private final String name;
+        private final String help;
+        private final String type;
+        private final String label;
+        private final DoubleSupplier value;
+        private final Supplier<Map<String, LatencyHistogram>> histograms;
+        
+        private Metric(String name, String help, String type, String label, DoubleSupplier value,
+                       Supplier<Map<String, LatencyHistogram>> histograms) {
+            this.name = name;
+            this.help = help;
+            this.type = type;
+            this.label = label;
+            this.value = value;
+            this.histograms = histograms;
+        }
+    }
+}
@@ -1,13 +1,19 @@
 package com.example.scraper.core.parser;
 
+import java.io.InputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
+import com.example.scraper.core.dedup.NearDuplicateDetector;
 import com.example.scraper.model.ScrapedData;
 import com.example.scraper.model.DataSelectors;
+import com.example.scraper.model.ExtractionSchema;
+import com.example.scraper.model.FieldSpec;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
@@ -17,6 +23,8 @@ import org.slf4j.LoggerFactory;
 
 /**
  * HTML parser using jsoup for extracting data with CSS selectors.
+ * Methods taking {@link DataSelectors} compile them on every call; callers parsing many pages with
+ * the same selectors should compile a {@link SelectorPlan} once and pass that instead.
  */
 public class HtmlParser {
     
@@ -31,39 +39,185 @@ public class HtmlParser {
      * @return List of scraped data
      */
     public List<ScrapedData> parseHtml(String htmlContent, String baseUrl, DataSelectors selectors) {
+        return parsePage(htmlContent, baseUrl, selectors, false).getRecords();
+    }
+    
+    /**
+     * Parses HTML from a stream and extracts data using CSS selectors.
+     * The document is built directly from the stream, so the raw body is never held as a String.
+     * 
+     * @param input The HTML content stream
+     * @param charsetName Charset from the Content-Type header, or null to detect it from BOM or meta tags
+     * @param baseUrl The base URL for resolving relative links
+     * @param selectors CSS selectors for data extraction
+     * @return List of scraped data
+     */
+    public List<ScrapedData> parseHtml(InputStream input, String charsetName, String baseUrl, DataSelectors selectors) {
+        return parsePage(input, charsetName, baseUrl, selectors, false).getRecords();
+    }
+    
+    /**
+     * Parses HTML content, extracting records and optionally the page's links.
+     * 
+     * @param htmlContent The HTML content to parse
+     * @param baseUrl The base URL for resolving relative links
+     * @param selectors CSS selectors for data extraction
+     * @param extractLinks Whether to collect the page's links for crawling
+     * @return parsed page
+     */
+    public ParsedPage parsePage(String htmlContent, String baseUrl, DataSelectors selectors, boolean extractLinks) {
+        return parsePage(htmlContent, baseUrl, SelectorPlan.compile(selectors), extractLinks);
+    }
+    
+    /**
+     * Parses HTML content with precompiled selectors, extracting records and optionally the page's links.
+     * 
+     * @param htmlContent The HTML content to parse
+     * @param baseUrl The base URL for resolving relative links
+     * @param plan Compiled selectors for data extraction
+     * @param extractLinks Whether to collect the page's links for crawling
+     * @return parsed page
+     */
+    public ParsedPage parsePage(String htmlContent, String baseUrl, SelectorPlan plan, boolean extractLinks) {
+        return parsePage(htmlContent, baseUrl, plan, extractLinks, null);
+    }
+    
+    /**
+     * Parses HTML content with precompiled selectors, skipping pages whose text nearly matches an
+     * earlier page's.
+     * 
+     * @param htmlContent The HTML content to parse
+     * @param baseUrl The base URL for resolving relative links
+     * @param plan Compiled selectors for data extraction
+     * @param extractLinks Whether to collect the page's links for crawling
+     * @param nearDuplicates Pages seen so far, or null to extract every page
+     * @return parsed page, empty if the page is a near-duplicate
+     */
+    public ParsedPage parsePage(String htmlContent, String baseUrl, SelectorPlan plan, boolean extractLinks,
+                                NearDuplicateDetector nearDuplicates) {
         try {
-            Document document = Jsoup.parse(htmlContent, baseUrl);
-            return extractData(document, selectors);
+            return parseDocument(Jsoup.parse(htmlContent, baseUrl), plan, extractLinks, nearDuplicates);
         } catch (Exception e) {
             logger.error("Error parsing HTML content: {}", e.getMessage());
-            return new ArrayList<>();
+            return ParsedPage.empty();
         }
     }
     
     /**
-     * Extracts data from a jsoup Document using CSS selectors.
+     * Parses HTML from a stream, extracting records and optionally the page's links.
      * 
-     * @param document The jsoup Document
+     * @param input The HTML content stream
+     * @param charsetName Charset from the Content-Type header, or null to detect it from BOM or meta tags
+     * @param baseUrl The base URL for resolving relative links
      * @param selectors CSS selectors for data extraction
+     * @param extractLinks Whether to collect the page's links for crawling
+     * @return parsed page
+     */
+    public ParsedPage parsePage(InputStream input, String charsetName, String baseUrl, DataSelectors selectors,
+                                boolean extractLinks) {
+        return parsePage(input, charsetName, baseUrl, SelectorPlan.compile(selectors), extractLinks);
+    }
+    
+    /**
+     * Parses HTML from a stream with precompiled selectors, extracting records and optionally the page's links.
+     * 
+     * @param input The HTML content stream
+     * @param charsetName Charset from the Content-Type header, or null to detect it from BOM or meta tags
+     * @param baseUrl The base URL for resolving relative links
+     * @param plan Compiled selectors for data extraction
+     * @param extractLinks Whether to collect the page's links for crawling
+     * @return parsed page
+     */
+    public ParsedPage parsePage(InputStream input, String charsetName, String baseUrl, SelectorPlan plan,
+                                boolean extractLinks) {
+        return parsePage(input, charsetName, baseUrl, plan, extractLinks, null);
+    }
+    
+    /**
+     * Parses HTML from a stream with precompiled selectors, skipping pages whose text nearly matches
+     * an earlier page's.
+     * 
+     * @param input The HTML content stream
+     * @param charsetName Charset from the Content-Type header, or null to detect it from BOM or meta tags
+     * @param baseUrl The base URL for resolving relative links
+     * @param plan Compiled selectors for data extraction
+     * @param extractLinks Whether to collect the page's links for crawling
+     * @param nearDuplicates Pages seen so far, or null to extract every page
+     * @return parsed page, empty if the page is a near-duplicate
+     */
+    public ParsedPage parsePage(InputStream input, String charsetName, String baseUrl, SelectorPlan plan,
+                                boolean extractLinks, NearDuplicateDetector nearDuplicates) {
+        try {
+            return parseDocument(Jsoup.parse(input, charsetName, baseUrl), plan, extractLinks, nearDuplicates);
+        } catch (Exception e) {
+            logger.error("Error parsing HTML stream: {}", e.getMessage());
+            return ParsedPage.empty();
+        }
+    }
+    
+    /**
+     * Extracts records and optionally links from a parsed document. A near-duplicate page is
+     * skipped before any selector runs, and its links are not followed, since they lead to the
+     * same places as the page it duplicates.
+     * 
+     * @param document The jsoup Document
+     * @param plan Compiled selectors for data extraction
+     * @param extractLinks Whether to collect the page's links for crawling
+     * @param nearDuplicates Pages seen so far, or null to extract every page
+     * @return parsed page
+     */
+    private ParsedPage parseDocument(Document document, SelectorPlan plan, boolean extractLinks,
+                                     NearDuplicateDetector nearDuplicates) {
+        if (nearDuplicates != null && nearDuplicates.isNearDuplicate(document.text())) {
+            logger.debug("Skipping near-duplicate page: {}", document.location());
+            return ParsedPage.nearDuplicate();
+        }
+        return new ParsedPage(extractData(document, plan),
+                              extractLinks ? extractLinks(document) : List.of());
+    }
+    
+    /**
+     * Collects the absolute URLs of all links in a document.
+     * 
+     * @param document The jsoup Document
+     * @return absolute link URLs in document order
+     */
+    private List<String> extractLinks(Document document) {
+        List<String> links = new ArrayList<>();
+        for (Element link : document.select("a[href]")) {
+            String url = link.absUrl("href");
+            if (!url.isEmpty()) {
+                links.add(url);
+            }
+        }
+        return links;
+    }
+    
+    /**
+     * Extracts data from a jsoup Document using compiled selectors.
+     * 
+     * @param document The jsoup Document
+     * @param plan Compiled selectors for data extraction
      * @return List of scraped data
      */
-    private List<ScrapedData> extractData(Document document, DataSelectors selectors) {
+    private List<ScrapedData> extractData(Document document, SelectorPlan plan) {
         List<ScrapedData> results = new ArrayList<>();
+        String containerSelector = plan.getSchema().getContainerSelector();
         
         try {
             // Find the container elements (e.g., article, .item, etc.)
-            Elements containers = document.select(selectors.getContainerSelector());
+            Elements containers = plan.findContainers(document);
             
             if (containers.isEmpty()) {
-                logger.warn("No containers found with selector: {}", selectors.getContainerSelector());
+                logger.warn("No containers found with selector: {}", containerSelector);
                 return results;
             }
             
-            logger.debug("Found {} containers with selector: {}", containers.size(), selectors.getContainerSelector());
+            logger.debug("Found {} containers with selector: {}", containers.size(), containerSelector);
             
             for (Element container : containers) {
                 try {
-                    ScrapedData data = extractDataFromContainer(container, selectors);
+                    ScrapedData data = extractDataFromContainer(container, plan);
                     if (data != null) {
                         results.add(data);
                     }
@@ -75,57 +229,41 @@ public class HtmlParser {
             
         } catch (Exception e) {
             logger.error("Error extracting data from document: {}", e.getMessage());
+        } finally {
+            plan.releaseMatchState(document);
         }
         
         return results;
     }
     
     /**
-     * Extracts data from a single container element.
+     * Extracts data from a single container element, finding all fields in one walk of its subtree.
      * 
      * @param container The container element
-     * @param selectors CSS selectors for data extraction
-     * @return ScrapedData object or null if extraction fails
+     * @param plan Compiled selectors for data extraction
+     * @return ScrapedData object or null if the container has no key field value
      */
-    private ScrapedData extractDataFromContainer(Element container, DataSelectors selectors) {
-        ScrapedData data = new ScrapedData();
-        
-        // Extract title
-        Optional<String> title = extractText(container, selectors.getTitleSelector());
-        if (title.isPresent()) {
-            data.setTitle(normalizeText(title.get()));
-        }
-        
-        // Extract description
-        Optional<String> description = extractText(container, selectors.getDescriptionSelector());
-        if (description.isPresent()) {
-            data.setDescription(normalizeText(description.get()));
-        }
-        
-        // Extract URL
-        Optional<String> url = extractUrl(container, selectors.getUrlSelector());
-        if (url.isPresent()) {
-            data.setUrl(normalizeUrl(url.get()));
-        }
+    private ScrapedData extractDataFromContainer(Element container, SelectorPlan plan) {
+        ExtractionSchema schema = plan.getSchema();
+        ScrapedData data = new ScrapedData(schema);
+        Element[] fields = plan.findFields(container);
         
-        // Extract price if selector is provided
-        if (selectors.getPriceSelector() != null) {
-            Optional<String> price = extractText(container, selectors.getPriceSelector());
-            if (price.isPresent()) {
-                data.setPrice(normalizeText(price.get()));
+        for (int i = 0; i < fields.length; i++) {
+            String value = extractValue(schema.getField(i), fields[i]);
+            Pattern pattern = plan.getPattern(i);
+            if (value != null && pattern != null && schema.getType(i) == FieldSpec.Type.BOOLEAN) {
+                // A boolean field with a regex tells whether the value matches
+                data.set(i, pattern.matcher(value).find());
+                continue;
             }
-        }
-        
-        // Extract image URL if selector is provided
-        if (selectors.getImageSelector() != null) {
-            Optional<String> imageUrl = extractUrl(container, selectors.getImageSelector());
-            if (imageUrl.isPresent()) {
-                data.setImageUrl(normalizeUrl(imageUrl.get()));
+            if (value != null && pattern != null) {
+                value = applyPattern(pattern, value);
             }
+            data.set(i, schema.getType(i).coerce(value));
         }
         
-        // Only return data if we have at least a title or URL
-        if (data.getTitle() != null || data.getUrl() != null) {
+        // Only return data that identifies something, e.g. has a title or URL
+        if (data.isComplete()) {
             return data;
         }
         
@@ -133,57 +271,75 @@ public class HtmlParser {
     }
     
     /**
-     * Extracts text content from an element using a CSS selector.
+     * Reads a field's raw value from the element its selector matched.
      * 
-     * @param container The container element
-     * @param selector CSS selector
-     * @return Optional containing the extracted text
+     * @param field The field being extracted
+     * @param element The element the field selector matched, or null
+     * @return the raw value, or null if there is none
      */
-    private Optional<String> extractText(Element container, String selector) {
-        if (selector == null || selector.trim().isEmpty()) {
-            return Optional.empty();
+    private String extractValue(FieldSpec field, Element element) {
+        if (element == null) {
+            return null;
         }
-        
-        try {
-            Element element = container.selectFirst(selector);
-            if (element != null) {
-                String text = element.text();
-                if (text != null && !text.trim().isEmpty()) {
-                    return Optional.of(text);
-                }
+        switch (field.getSource()) {
+            case HTML:
+                return normalizeText(element.html());
+            case ATTR:
+                return normalizeText(element.attr(field.getAttribute()));
+            case URL:
+                return extractUrl(element).map(this::normalizeUrl).orElse(null);
+            default:
+                return extractText(element).map(this::normalizeText).orElse(null);
+        }
+    }
+    
+    /**
+     * Narrows a raw value with a field's regex.
+     * 
+     * @param pattern The field's compiled regex
+     * @param value The raw value
+     * @return the first group, or the whole match if the regex has no groups; null if nothing matched
+     */
+    private String applyPattern(Pattern pattern, String value) {
+        Matcher matcher = pattern.matcher(value);
+        if (!matcher.find()) {
+            return null;
+        }
+        return normalizeText(matcher.groupCount() > 0 ? matcher.group(1) : matcher.group());
+    }
+    
+    /**
+     * Extracts text content from a matched element.
+     * 
+     * @param element The element a field selector matched, or null
+     * @return Optional containing the extracted text
+     */
+    private Optional<String> extractText(Element element) {
+        if (element != null) {
+            String text = element.text();
+            if (!text.trim().isEmpty()) {
+                return Optional.of(text);
             }
-        } catch (Exception e) {
-            logger.debug("Error extracting text with selector '{}': {}", selector, e.getMessage());
         }
         
         return Optional.empty();
     }
     
     /**
-     * Extracts URL from an element using a CSS selector.
+     * Extracts URL from a matched element's href, or its src if it has no href.
      * 
-     * @param container The container element
-     * @param selector CSS selector
+     * @param element The element a field selector matched, or null
      * @return Optional containing the extracted URL
      */
-    private Optional<String> extractUrl(Element container, String selector) {
-        if (selector == null || selector.trim().isEmpty()) {
-            return Optional.empty();
-        }
-        
-        try {
-            Element element = container.selectFirst(selector);
-            if (element != null) {
-                String url = element.attr("href");
-                if (url == null || url.trim().isEmpty()) {
-                    url = element.attr("src");
-                }
-                if (url != null && !url.trim().isEmpty()) {
-                    return Optional.of(url);
-                }
+    private Optional<String> extractUrl(Element element) {
+        if (element != null) {
+            String url = element.attr("href");
+            if (url.trim().isEmpty()) {
+                url = element.attr("src");
+            }
+            if (!url.trim().isEmpty()) {
+                return Optional.of(url);
             }
-        } catch (Exception e) {
-            logger.debug("Error extracting URL with selector '{}': {}", selector, e.getMessage());
         }
         
         return Optional.empty();
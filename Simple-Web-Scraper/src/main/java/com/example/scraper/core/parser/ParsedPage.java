@@ -0,0 +1,91 @@
+package com.example.scraper.core.parser;
+
+import java.util.List;
+
+import com.example.scraper.model.ScrapedData;
+
+/**
+ * Result of parsing a page: the extracted records and the links found on it. A page that could not
+ * be fetched is marked as failed, so a checkpoint leaves it to be fetched again, and a page skipped as
+ * a near-duplicate is marked so its empty result is not cached as the page's content.
+ */
+public final class ParsedPage {
+    
+    private static final ParsedPage EMPTY = new ParsedPage(List.of(), List.of(), false, false);
+    private static final ParsedPage FAILED = new ParsedPage(List.of(), List.of(), true, false);
+    private static final ParsedPage NEAR_DUPLICATE = new ParsedPage(List.of(), List.of(), false, true);
+    
+    private final List<ScrapedData> records;
+    private final List<String> links;
+    private final boolean failed;
+    private final boolean nearDuplicate;
+    
+    public ParsedPage(List<ScrapedData> records, List<String> links) {
+        this(records, links, false, false);
+    }
+    
+    private ParsedPage(List<ScrapedData> records, List<String> links, boolean failed, boolean nearDuplicate) {
+        this.records = records;
+        this.links = links;
+        this.failed = failed;
+        this.nearDuplicate = nearDuplicate;
+    }
+    
+    /**
+     * Gets an empty page with no records and no links, for a page that was deliberately skipped.
+     * 
+     * @return empty page
+     */
+    public static ParsedPage empty() {
+        return EMPTY;
+    }
+    
+    /**
+     * Gets an empty page for a page that could not be fetched but may succeed if tried again.
+     * 
+     * @return failed page
+     */
+    public static ParsedPage failed() {
+        return FAILED;
+    }
+    
+    /**
+     * Gets an empty page for a page skipped because it nearly matches a page seen before.
+     * 
+     * @return near-duplicate page
+     */
+    public static ParsedPage nearDuplicate() {
+        return NEAR_DUPLICATE;
+    }
+    
+    public List<ScrapedData> getRecords() {
+        return records;
+    }
+    
+    /**
+     * Gets the absolute URLs of the links on the page, in document order.
+     * 
+     * @return link URLs, empty if link extraction was not requested
+     */
+    public List<String> getLinks() {
+        return links;
+    }
+    
+    /**
+     * Checks whether the page could not be fetched, as opposed to being fetched or skipped.
+     * 
+     * @return true if the page failed
+     */
+    public boolean isFailed() {
+        return failed;
+    }
+    
+    /**
+     * Checks whether the page was skipped as a near-duplicate, so it has no records or links of its own.
+     * 
+     * @return true if the page is a near-duplicate
+     */
+    public boolean isNearDuplicate() {
+        return nearDuplicate;
+    }
+}
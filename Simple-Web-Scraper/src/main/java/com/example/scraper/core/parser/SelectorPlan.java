@@ -0,0 +1,192 @@
+package com.example.scraper.core.parser;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+import com.example.scraper.model.DataSelectors;
+import com.example.scraper.model.ExtractionSchema;
+import com.example.scraper.model.FieldSpec;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.select.Collector;
+import org.jsoup.select.Elements;
+import org.jsoup.select.Evaluator;
+import org.jsoup.select.NodeFilter;
+import org.jsoup.select.NodeTraversor;
+import org.jsoup.select.QueryParser;
+import org.jsoup.select.Selector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An {@link ExtractionSchema} compiled into jsoup evaluators and regex patterns once per job.
+ * <p>
+ * jsoup parses a selector string into an {@link Evaluator} on every {@code select} call; with
+ * several field selectors per container and hundreds of containers per page that parsing and the
+ * separate subtree walk per field dominate extraction. A plan parses each selector once and finds
+ * the first match of every field in a single walk of the container. Plans are immutable and can be
+ * shared between threads.
+ */
+public class SelectorPlan {
+    
+    private static final Logger logger = LoggerFactory.getLogger(SelectorPlan.class);
+    private static final int MAX_CACHED_PLANS = 256;
+    
+    // Plans of the schemas seen by this JVM, so jobs that reuse a schema skip compiling it
+    private static final Map<ExtractionSchema, SelectorPlan> CACHE = new ConcurrentHashMap<>();
+    
+    private final ExtractionSchema schema;
+    private final Evaluator container;
+    private final Evaluator[] fields;
+    private final Pattern[] patterns;
+    private final int fieldCount;
+    
+    private SelectorPlan(ExtractionSchema schema) {
+        this.schema = schema;
+        this.container = compile("container", schema.getContainerSelector());
+        this.fields = new Evaluator[schema.size()];
+        this.patterns = new Pattern[schema.size()];
+        
+        int count = 0;
+        for (int i = 0; i < schema.size(); i++) {
+            FieldSpec field = schema.getField(i);
+            fields[i] = compile(field.getName(), field.getSelector());
+            if (fields[i] != null) {
+                count++;
+            }
+            if (field.getRegex() != null) {
+                patterns[i] = Pattern.compile(field.getRegex());
+            }
+        }
+        this.fieldCount = count;
+    }
+    
+    /**
+     * Compiles a schema into a plan. A blank or invalid selector is logged once and its field is
+     * left empty in every record, as it was when each lookup failed on its own.
+     * 
+     * @param schema Fields to extract
+     * @return compiled plan
+     */
+    public static SelectorPlan compile(ExtractionSchema schema) {
+        return new SelectorPlan(schema);
+    }
+    
+    /**
+     * Gets the plan of a schema, compiling it only if no equal schema was compiled before.
+     * 
+     * @param schema Fields to extract
+     * @return compiled plan, possibly shared with other jobs
+     */
+    public static SelectorPlan cached(ExtractionSchema schema) {
+        SelectorPlan plan = CACHE.get(schema);
+        if (plan == null) {
+            if (CACHE.size() >= MAX_CACHED_PLANS) {
+                CACHE.clear();
+            }
+            plan = CACHE.computeIfAbsent(schema, SelectorPlan::new);
+        }
+        return plan;
+    }
+    
+    /**
+     * Compiles fixed selectors into a plan for the schema of {@link ExtractionSchema#fromSelectors}.
+     * 
+     * @param selectors CSS selectors for data extraction
+     * @return compiled plan
+     */
+    public static SelectorPlan compile(DataSelectors selectors) {
+        return new SelectorPlan(ExtractionSchema.fromSelectors(selectors));
+    }
+    
+    public ExtractionSchema getSchema() {
+        return schema;
+    }
+    
+    /**
+     * Gets a field's compiled regex.
+     * 
+     * @param index Field index in the schema
+     * @return the pattern, or null if the field has no regex
+     */
+    public Pattern getPattern(int index) {
+        return patterns[index];
+    }
+    
+    /**
+     * Finds the container elements of a page.
+     * 
+     * @param root The document or element to search
+     * @return matching containers in document order, empty if the container selector is invalid
+     */
+    public Elements findContainers(Element root) {
+        if (container == null) {
+            return new Elements();
+        }
+        return root.select(container);
+    }
+    
+    /**
+     * Finds the first element matching each field selector within a container, in one walk of its
+     * subtree that stops as soon as every field has a match. The container itself is a candidate,
+     * as it is for {@link Element#selectFirst(Evaluator)}.
+     * 
+     * @param container The container element
+     * @return first match per field indexed like the schema's fields, null where nothing matched
+     */
+    public Element[] findFields(Element container) {
+        Element[] found = new Element[fields.length];
+        if (fieldCount == 0) {
+            return found;
+        }
+        NodeTraversor.filter(new NodeFilter() {
+            private int remaining = fieldCount;
+            
+            @Override
+            public FilterResult head(Node node, int depth) {
+                if (!(node instanceof Element)) {
+                    return FilterResult.SKIP_CHILDREN;
+                }
+                Element element = (Element) node;
+                for (int i = 0; i < fields.length; i++) {
+                    if (found[i] == null && fields[i] != null && fields[i].matches(container, element)) {
+                        found[i] = element;
+                        remaining--;
+                    }
+                }
+                return remaining == 0 ? FilterResult.STOP : FilterResult.CONTINUE;
+            }
+        }, container);
+        return found;
+    }
+    
+    /**
+     * Drops the per-root match memos that structural evaluators ({@code :has}, descendant and
+     * sibling combinators) keep for the calling thread. jsoup clears them only when a collector
+     * starts a search, so the plan does the same once a page is done; otherwise each worker
+     * thread would keep every container it has seen reachable.
+     * 
+     * @param root Any element; nothing is searched
+     */
+    public void releaseMatchState(Element root) {
+        for (Evaluator field : fields) {
+            if (field != null) {
+                // Collector.stream resets the evaluator eagerly and returns a lazy, unconsumed stream
+                Collector.stream(field, root).close();
+            }
+        }
+    }
+    
+    private static Evaluator compile(String name, String selector) {
+        if (selector == null || selector.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            return QueryParser.parse(selector);
+        } catch (Selector.SelectorParseException e) {
+            logger.warn("Ignoring invalid {} selector '{}': {}", name, selector, e.getMessage());
+            return null;
+        }
+    }
+}
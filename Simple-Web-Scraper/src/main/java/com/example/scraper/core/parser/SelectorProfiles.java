@@ -0,0 +1,174 @@
+package com.example.scraper.core.parser;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+import com.example.scraper.core.frontier.CrawlScope;
+import com.example.scraper.model.ExtractionSchema;
+
+/**
+ * Site-specific extraction schemas, picked per page by host and URL pattern, with a default schema
+ * for pages no profile matches.
+ * <p>
+ * Every schema is compiled into a {@link SelectorPlan} once, when the profiles are created; the
+ * profiles that can apply to a host are worked out on its first page and cached. All schemas must
+ * have the default schema's field layout, since their records go to the same output.
+ * Instances are immutable apart from that cache and can be shared between threads and jobs.
+ */
+public class SelectorProfiles {
+    
+    private static final int MAX_CACHED_HOSTS = 10_000;
+    
+    private final SelectorPlan defaultPlan;
+    private final List<Profile> profiles;
+    
+    // Host to the profiles whose host list admits it, in declaration order
+    private final Map<String, Profile[]> candidatesByHost = new ConcurrentHashMap<>();
+    
+    /**
+     * Creates profiles.
+     * 
+     * @param defaultSchema Schema for pages no profile matches
+     * @param profiles Site-specific profiles; the first one that matches a page is used
+     * @throws IllegalArgumentException if a profile's fields differ from the default schema's
+     */
+    public SelectorProfiles(ExtractionSchema defaultSchema, List<Profile> profiles) {
+        for (Profile profile : profiles) {
+            if (!defaultSchema.hasSameLayout(profile.getSchema())) {
+                throw new IllegalArgumentException("Selector profile '" + profile.getName()
+                        + "' must have the same fields, in the same order and of the same types, as the default schema");
+            }
+        }
+        this.defaultPlan = SelectorPlan.cached(defaultSchema);
+        this.profiles = Collections.unmodifiableList(new ArrayList<>(profiles));
+    }
+    
+    /**
+     * Creates profiles that extract every page with one schema.
+     * 
+     * @param schema Schema for all pages
+     * @return profiles without site-specific entries
+     */
+    public static SelectorProfiles of(ExtractionSchema schema) {
+        return new SelectorProfiles(schema, List.of());
+    }
+    
+    /**
+     * Picks the compiled selectors for a page.
+     * 
+     * @param url The page URL, after redirects
+     * @return plan of the first matching profile, or the default plan
+     */
+    public SelectorPlan planFor(String url) {
+        if (profiles.isEmpty()) {
+            return defaultPlan;
+        }
+        String host = CrawlScope.hostOf(url);
+        if (host == null) {
+            return defaultPlan;
+        }
+        
+        Profile[] candidates = candidatesByHost.get(host);
+        if (candidates == null) {
+            if (candidatesByHost.size() >= MAX_CACHED_HOSTS) {
+                candidatesByHost.clear();
+            }
+            candidates = profiles.stream().filter(profile -> profile.matchesHost(host)).toArray(Profile[]::new);
+            candidatesByHost.put(host, candidates);
+        }
+        for (Profile profile : candidates) {
+            if (profile.matchesUrl(url)) {
+                return profile.plan;
+            }
+        }
+        return defaultPlan;
+    }
+    
+    public ExtractionSchema getDefaultSchema() {
+        return defaultPlan.getSchema();
+    }
+    
+    public List<Profile> getProfiles() {
+        return profiles;
+    }
+    
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        for (Profile profile : profiles) {
+            text.append(profile.getName()).append(", ");
+        }
+        return text.append("default").toString();
+    }
+    
+    /**
+     * A named schema for the pages of some hosts, optionally narrowed by a URL pattern.
+     */
+    public static final class Profile {
+    
+        private final String name;
+        private final List<String> hosts;
+        private final Pattern urlPattern;
+        private final SelectorPlan plan;
+        
+        /**
+         * Creates a profile and compiles its schema.
+         * 
+         * @param name Profile name, used in log and error messages
+         * @param hosts Host names the profile applies to; "*.example.com" matches every subdomain of
+         *              example.com. Empty to apply to all hosts
+         * @param urlPattern Regex that must be found in the page URL, or null to match every URL
+         * @param schema Fields extracted from matching pages
+         */
+        public Profile(String name, List<String> hosts, Pattern urlPattern, ExtractionSchema schema) {
+            if (hosts.isEmpty() && urlPattern == null) {
+                throw new IllegalArgumentException("Selector profile '" + name + "' needs hosts or a URL pattern");
+            }
+            this.name = name;
+            List<String> lowerCased = new ArrayList<>();
+            for (String host : hosts) {
+                lowerCased.add(host.toLowerCase(Locale.ROOT));
+            }
+            this.hosts = Collections.unmodifiableList(lowerCased);
+            this.urlPattern = urlPattern;
+            this.plan = SelectorPlan.cached(schema);
+        }
+        
+        private boolean matchesHost(String host) {
+            if (hosts.isEmpty()) {
+                return true;
+            }
+            for (String pattern : hosts) {
+                if (pattern.startsWith("*.") ? host.endsWith(pattern.substring(1)) : host.equals(pattern)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        
+        private boolean matchesUrl(String url) {
+            return urlPattern == null || urlPattern.matcher(url).find();
+        }
+        
+        public String getName() {
+            return name;
+        }
+        
+        public List<String> getHosts() {
+            return hosts;
+        }
+        
+        public Pattern getUrlPattern() {
+            return urlPattern;
+        }
+        
+        public ExtractionSchema getSchema() {
+            return plan.getSchema();
+        }
+    }
+}
@@ -0,0 +1,503 @@
+package com.example.scraper.core.persistence;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import com.example.scraper.model.ExtractionSchema;
+import com.example.scraper.model.ScrapedData;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Base class for writers that stream records to size-rotated, optionally compressed files through a
+ * Jackson generator.
+ * Every record must have the writer's {@link ExtractionSchema} layout, whose fields become the
+ * columns or properties in schema order.
+ * Records are encoded straight into a large buffer with no per-record String, and the buffer is
+ * flushed in groups: after a number of records or when the oldest unflushed record reaches a maximum
+ * age, whichever comes first. All public methods are synchronized, so one writer can be shared by
+ * many scraper threads.
+ */
+public abstract class AbstractRecordWriter {
+    
+    private static final Logger logger = LoggerFactory.getLogger(AbstractRecordWriter.class);
+    private static final int BUFFER_SIZE = 256 * 1024;
+    
+    private static final ScheduledExecutorService FLUSHER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "output-flusher");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    private final String outputPath;
+    private final boolean appendMode;
+    private final int flushRecords;
+    private final long flushIntervalNanos;
+    private final OutputCompression compression;
+    private final long maxFileBytes;
+    private final long maxCompressedFileBytes;
+    private final ScheduledFuture<?> flushTask;
+    private final ExtractionSchema schema;
+    private final WriterPosition resumePosition;
+    
+    private File currentFile;
+    private CountingOutputStream uncompressedStream;
+    private CountingOutputStream compressedStream;
+    private long fileStartBytes;
+    private long finishedFileBytes;
+    private JsonGenerator generator;
+    private int fileCounter = 0;
+    private int unflushedRecords = 0;
+    private long oldestUnflushedNanos = 0;
+    private boolean closed = false;
+    
+    /**
+     * Creates a writer and opens its output file.
+     * 
+     * @param outputPath Path of the first output file; the compression suffix is added if missing
+     * @param appendMode Whether to append to an existing file instead of overwriting it
+     * @param options Buffering, compression and rotation settings, and the position to resume from
+     * @throws IllegalArgumentException if compressed output is to be resumed
+     */
+    protected AbstractRecordWriter(String outputPath, boolean appendMode, WriterOptions options) {
+        if (options.getResumePosition() != null && options.getCompression() != OutputCompression.NONE) {
+            throw new IllegalArgumentException("Only uncompressed output can be resumed");
+        }
+        this.compression = options.getCompression();
+        this.outputPath = outputPath.endsWith(compression.getFileSuffix())
+                ? outputPath
+                : outputPath + compression.getFileSuffix();
+        this.appendMode = appendMode;
+        this.flushRecords = Math.max(1, options.getFlushRecords());
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(options.getFlushIntervalMs());
+        this.maxFileBytes = options.getMaxFileBytes();
+        this.maxCompressedFileBytes = options.getMaxCompressedFileBytes();
+        this.schema = options.getSchema();
+        this.resumePosition = options.getResumePosition();
+        
+        long flushIntervalMs = options.getFlushIntervalMs();
+        initializeFile();
+        this.flushTask = flushIntervalMs > 0
+                ? FLUSHER.scheduleWithFixedDelay(this::flushIfStale, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS)
+                : null;
+    }
+    
+    /**
+     * Creates options with the given flush settings and defaults for everything else.
+     * 
+     * @param flushRecords Flush after this many buffered records
+     * @param flushIntervalMs Flush buffered records once the oldest is this old (0 disables)
+     * @return writer options
+     */
+    protected static WriterOptions createOptions(int flushRecords, long flushIntervalMs) {
+        WriterOptions options = new WriterOptions();
+        options.setFlushRecords(flushRecords);
+        options.setFlushIntervalMs(flushIntervalMs);
+        return options;
+    }
+    
+    /**
+     * Gets the schema of the records written, available to {@link #createGenerator}.
+     * 
+     * @return extraction schema
+     */
+    protected ExtractionSchema getSchema() {
+        return schema;
+    }
+    
+    /**
+     * Writes a field value with its natural JSON type: strings as strings, Long and Double as
+     * numbers, Boolean as a boolean.
+     * 
+     * @param generator The generator for the current file
+     * @param value The value, non-null
+     * @throws IOException if writing fails
+     */
+    protected static void writeScalar(JsonGenerator generator, Object value) throws IOException {
+        if (value instanceof Long) {
+            generator.writeNumber((Long) value);
+        } else if (value instanceof Double) {
+            generator.writeNumber((Double) value);
+        } else if (value instanceof Boolean) {
+            generator.writeBoolean((Boolean) value);
+        } else {
+            generator.writeString(value.toString());
+        }
+    }
+    
+    /**
+     * Gets the name of the format, used in log and error messages.
+     * 
+     * @return format name such as "CSV"
+     */
+    protected abstract String formatName();
+    
+    /**
+     * Creates the generator that encodes records into the given stream.
+     * 
+     * @param out Buffered output stream of the current file
+     * @param newFile true if the file is empty, false if records are being appended to an existing file
+     * @return the generator
+     * @throws IOException if the generator cannot be created
+     */
+    protected abstract JsonGenerator createGenerator(OutputStream out, boolean newFile) throws IOException;
+    
+    /**
+     * Encodes one record.
+     * 
+     * @param generator The generator for the current file
+     * @param data The record to write
+     * @throws IOException if writing fails
+     */
+    protected abstract void writeRecord(JsonGenerator generator, ScrapedData data) throws IOException;
+    
+    /**
+     * Initializes the output file.
+     */
+    private void initializeFile() {
+        try {
+            Path path = Paths.get(outputPath);
+            Path parentDir = path.getParent();
+            
+            if (parentDir != null) {
+                Files.createDirectories(parentDir);
+            }
+            if (resumePosition != null) {
+                path = cutTo(resumePosition);
+            }
+            
+            // An empty file is started afresh so that it gets its header
+            boolean append = (appendMode || resumePosition != null) && Files.exists(path) && Files.size(path) > 0;
+            openFile(path, append);
+            logger.debug("{} {} file: {}", append ? "Appending to" : "Created", formatName(), currentFile.getAbsolutePath());
+            
+        } catch (IOException e) {
+            logger.error("Error initializing {} file: {}", formatName(), e.getMessage());
+            throw new RuntimeException("Failed to initialize " + formatName() + " file", e);
+        }
+    }
+    
+    /**
+     * Discards the output written after a position: cuts its file to the position and deletes the
+     * files rotated after it.
+     * 
+     * @param position Position to continue writing from
+     * @return path of the file to append to
+     * @throws IOException if the output ends before the position or cannot be cut
+     */
+    private Path cutTo(WriterPosition position) throws IOException {
+        Path path = rotatedPath(outputPath, compression.getFileSuffix(), position.getFileIndex());
+        long size = Files.exists(path) ? Files.size(path) : 0;
+        if (size < position.getBytes()) {
+            throw new IOException(path + " has " + size + " bytes, fewer than the " + position.getBytes()
+                    + " to resume from");
+        }
+        if (size > position.getBytes()) {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                channel.truncate(position.getBytes());
+            }
+            logger.info("Discarded {} bytes of {} output after the resume position", size - position.getBytes(),
+                       formatName());
+        }
+        for (int index = position.getFileIndex() + 1;
+             Files.deleteIfExists(rotatedPath(outputPath, compression.getFileSuffix(), index)); index++) {
+            logger.info("Deleted {} output file {} written after the resume position", formatName(), index);
+        }
+        fileCounter = position.getFileIndex();
+        return path;
+    }
+    
+    /**
+     * Gets the path of a rotated output file: the output path itself for the first file, then for
+     * example out_1.jsonl.gz, out_2.jsonl.gz.
+     * 
+     * @param outputPath Path of the first output file, with its compression suffix
+     * @param suffix Compression suffix
+     * @param index File number, 0 for the first file
+     * @return file path
+     */
+    private static Path rotatedPath(String outputPath, String suffix, int index) {
+        if (index == 0) {
+            return Paths.get(outputPath);
+        }
+        String plainPath = outputPath.substring(0, outputPath.length() - suffix.length());
+        int dot = plainPath.lastIndexOf('.');
+        String baseName = dot >= 0 ? plainPath.substring(0, dot) : plainPath;
+        String extension = dot >= 0 ? plainPath.substring(dot) : "";
+        return Paths.get(baseName + "_" + index + extension + suffix);
+    }
+    
+    /**
+     * Checks whether uncompressed output on disk still reaches a position, that is, whether a
+     * writer can resume from it.
+     * 
+     * @param outputPath Path of the first output file
+     * @param position Output position
+     * @return true if the position's file holds at least its bytes, false if not or if it cannot be read
+     */
+    public static boolean reaches(String outputPath, WriterPosition position) {
+        if (position.getBytes() == 0) {
+            return true;
+        }
+        try {
+            return Files.size(rotatedPath(outputPath, "", position.getFileIndex())) >= position.getBytes();
+        } catch (IOException e) {
+            return false;
+        }
+    }
+    
+    /**
+     * Opens a file and builds the stream stack: generator, uncompressed byte counter, buffer,
+     * compressor, compressed byte counter, file. Appending to a compressed file starts a new gzip
+     * member or zstd frame, which decompressors read as a continuation of the file.
+     */
+    private void openFile(Path path, boolean append) throws IOException {
+        OutputStream out = append
+                ? Files.newOutputStream(path, StandardOpenOption.CREATE, StandardOpenOption.APPEND)
+                : Files.newOutputStream(path);
+        long existingBytes = append ? Files.size(path) : 0;
+        if (compressedStream != null) {
+            finishedFileBytes += compressedStream.getCount() - fileStartBytes;
+        }
+        fileStartBytes = existingBytes;
+        currentFile = path.toFile();
+        compressedStream = new CountingOutputStream(out, existingBytes);
+        OutputStream buffered = new BufferedOutputStream(compression.wrap(compressedStream), BUFFER_SIZE);
+        uncompressedStream = new CountingOutputStream(buffered,
+                compression == OutputCompression.NONE ? existingBytes : 0);
+        generator = createGenerator(uncompressedStream, !append);
+    }
+    
+    /**
+     * Writes a list of scraped data.
+     * 
+     * @param dataList List of scraped data
+     */
+    public synchronized void writeData(List<ScrapedData> dataList) {
+        if (dataList == null || dataList.isEmpty()) {
+            return;
+        }
+        
+        for (ScrapedData data : dataList) {
+            writeData(data);
+        }
+        logger.debug("Wrote {} records to {} file", dataList.size(), formatName());
+    }
+    
+    /**
+     * Writes a single scraped data record.
+     * 
+     * @param data Scraped data record
+     * @throws IllegalArgumentException if the record's fields differ from the writer's schema
+     */
+    public synchronized void writeData(ScrapedData data) {
+        if (data == null) {
+            return;
+        }
+        if (closed) {
+            throw new IllegalStateException(formatName() + " writer is closed");
+        }
+        if (!schema.hasSameLayout(data.getSchema())) {
+            throw new IllegalArgumentException("Record fields do not match the " + formatName() + " writer's schema");
+        }
+        
+        try {
+            // Check if we need to rotate the file
+            if (shouldRotateFile()) {
+                rotateFile();
+            }
+            
+            writeRecord(generator, data);
+            if (unflushedRecords++ == 0) {
+                oldestUnflushedNanos = System.nanoTime();
+            }
+            if (unflushedRecords >= flushRecords) {
+                flush();
+            }
+            
+        } catch (IOException e) {
+            logger.error("Error writing {} data: {}", formatName(), e.getMessage());
+            throw new RuntimeException("Failed to write " + formatName() + " data", e);
+        }
+    }
+    
+    /**
+     * Flushes buffered records to the file.
+     */
+    public synchronized void flush() {
+        if (closed) {
+            return;
+        }
+        try {
+            generator.flush();
+            unflushedRecords = 0;
+        } catch (IOException e) {
+            logger.error("Error flushing {} file: {}", formatName(), e.getMessage());
+            throw new RuntimeException("Failed to flush " + formatName() + " file", e);
+        }
+    }
+    
+    private synchronized void flushIfStale() {
+        if (!closed && unflushedRecords > 0 && System.nanoTime() - oldestUnflushedNanos >= flushIntervalNanos) {
+            try {
+                flush();
+            } catch (RuntimeException e) {
+                // Reported again by the next write or by close
+                logger.debug("Timed flush failed: {}", e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * Checks if the current file should be rotated due to size, using the in-memory byte counters.
+     * The compressed count trails the data slightly because compressors hold back a block.
+     * 
+     * @return true if file should be rotated
+     */
+    private boolean shouldRotateFile() {
+        // Include bytes still buffered in the generator
+        long uncompressed = uncompressedStream.getCount() + generator.getOutputBuffered();
+        return (maxFileBytes > 0 && uncompressed > maxFileBytes)
+                || (maxCompressedFileBytes > 0 && compressedStream.getCount() > maxCompressedFileBytes);
+    }
+    
+    /**
+     * Rotates the current file to a new one with incremented name.
+     */
+    private void rotateFile() {
+        try {
+            // Close current file
+            generator.close();
+            unflushedRecords = 0;
+            
+            // Create new file with incremented name, e.g. out_1.jsonl.gz
+            fileCounter++;
+            openFile(rotatedPath(outputPath, compression.getFileSuffix(), fileCounter), false);
+            
+            logger.info("Rotated {} file to: {}", formatName(), currentFile.getAbsolutePath());
+            
+        } catch (IOException e) {
+            logger.error("Error rotating {} file: {}", formatName(), e.getMessage());
+            throw new RuntimeException("Failed to rotate " + formatName() + " file", e);
+        }
+    }
+    
+    /**
+     * Flushes buffered records and closes the writer.
+     */
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (flushTask != null) {
+            flushTask.cancel(false);
+        }
+        
+        try {
+            generator.close();
+            logger.debug("{} writer closed", formatName());
+        } catch (IOException e) {
+            logger.error("Error closing {} writer: {}", formatName(), e.getMessage());
+        }
+    }
+    
+    /**
+     * Gets the current file being written to.
+     * 
+     * @return Current file
+     */
+    public synchronized File getCurrentFile() {
+        return currentFile;
+    }
+    
+    /**
+     * Gets the uncompressed bytes written to the current file, including bytes not yet flushed.
+     * 
+     * @return uncompressed byte count
+     */
+    public synchronized long getUncompressedBytes() {
+        return uncompressedStream.getCount() + generator.getOutputBuffered();
+    }
+    
+    /**
+     * Gets the position after the records written so far, including records not yet flushed.
+     * Positions locate records on disk only for uncompressed output.
+     * 
+     * @return output position
+     */
+    public synchronized WriterPosition getPosition() {
+        return new WriterPosition(fileCounter, getUncompressedBytes());
+    }
+    
+    /**
+     * Gets the bytes the compressor has passed to the current file so far.
+     * 
+     * @return compressed byte count
+     */
+    public synchronized long getCompressedBytes() {
+        return compressedStream.getCount();
+    }
+    
+    /**
+     * Gets the bytes this writer has passed to its files so far, across rotations and after
+     * compression, not counting what appended files already held.
+     * 
+     * @return bytes written
+     */
+    public synchronized long getBytesWritten() {
+        return finishedFileBytes + compressedStream.getCount() - fileStartBytes;
+    }
+    
+    /**
+     * Gets the number of files created (including rotations).
+     * 
+     * @return Number of files created
+     */
+    public synchronized int getFileCount() {
+        return fileCounter + 1;
+    }
+    
+    /**
+     * Output stream that counts the bytes written through it, so rotation does not have to stat the file.
+     */
+    private static final class CountingOutputStream extends FilterOutputStream {
+    
+        private long count;
+        
+        private CountingOutputStream(OutputStream out, long initialCount) {
+            super(out);
+            this.count = initialCount;
+        }
+        
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+        
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+        
+        long getCount() {
+            return count;
+        }
+    }
+}
@@ -1,236 +1,91 @@
 package com.example.scraper.core.persistence;
 
-import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.util.List;
+import java.io.OutputStream;
 
 import com.example.scraper.model.ScrapedData;
-import com.fasterxml.jackson.databind.ObjectWriter;
-import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.dataformat.csv.CsvFactory;
 import com.fasterxml.jackson.dataformat.csv.CsvSchema;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 /**
- * Writes scraped data to CSV files using Jackson CSV module.
+ * Writes scraped data to CSV files using Jackson's streaming CSV generator.
  */
-public class CSVWriter {
+public class CSVWriter extends AbstractRecordWriter {
     
-    private static final Logger logger = LoggerFactory.getLogger(CSVWriter.class);
-    private static final long MAX_FILE_SIZE = 10 * 1024 * 1024; // 10MB
-    private static final String FILE_ENCODING = "UTF-8";
+    private static final CsvFactory CSV_FACTORY = new CsvFactory();
     
-    private final CsvMapper csvMapper;
-    private final CsvSchema schema;
-    private final ObjectWriter writer;
-    private final String outputPath;
-    private final boolean appendMode;
-    
-    private File currentFile;
-    private FileWriter fileWriter;
-    private boolean headerWritten = false;
-    private int fileCounter = 0;
+    // Built from the extraction schema when the first file is opened, during construction
+    private CsvSchema csvSchema;
     
     public CSVWriter(String outputPath) {
         this(outputPath, false);
     }
     
     public CSVWriter(String outputPath, boolean appendMode) {
-        this.outputPath = outputPath;
-        this.appendMode = appendMode;
-        
-        this.csvMapper = new CsvMapper();
-        this.schema = csvMapper.schemaFor(ScrapedData.class)
-                .withHeader()
-                .withColumnSeparator(',')
-                .withQuoteChar('"')
-                .withLineSeparator("\n");
-        
-        this.writer = csvMapper.writer(schema);
-        
-        initializeFile();
-    }
-    
-    /**
-     * Initializes the output file.
-     */
-    private void initializeFile() {
-        try {
-            Path path = Paths.get(outputPath);
-            Path parentDir = path.getParent();
-            
-            if (parentDir != null) {
-                Files.createDirectories(parentDir);
-            }
-            
-            // Determine the actual file to use
-            if (appendMode && Files.exists(path)) {
-                currentFile = path.toFile();
-                fileWriter = new FileWriter(currentFile, true); // Append mode
-                headerWritten = true; // Assume header already exists
-                logger.debug("Opened existing file for appending: {}", currentFile.getAbsolutePath());
-            } else {
-                currentFile = path.toFile();
-                fileWriter = new FileWriter(currentFile, false); // Overwrite mode
-                headerWritten = false;
-                logger.debug("Created new file: {}", currentFile.getAbsolutePath());
-            }
-            
-        } catch (IOException e) {
-            logger.error("Error initializing CSV file: {}", e.getMessage());
-            throw new RuntimeException("Failed to initialize CSV file", e);
-        }
+        this(outputPath, appendMode, new WriterOptions());
     }
     
     /**
-     * Writes a list of scraped data to CSV.
+     * Creates a CSV writer with group-commit settings.
      * 
-     * @param dataList List of scraped data
+     * @param outputPath Path of the output file
+     * @param appendMode Whether to append to an existing file instead of overwriting it
+     * @param flushRecords Flush after this many buffered records
+     * @param flushIntervalMs Flush buffered records once the oldest is this old (0 disables)
      */
-    public void writeData(List<ScrapedData> dataList) {
-        if (dataList == null || dataList.isEmpty()) {
-            return;
-        }
-        
-        try {
-            // Check if we need to rotate the file
-            if (shouldRotateFile()) {
-                rotateFile();
-            }
-            
-            // Write header if needed
-            if (!headerWritten) {
-                writeHeader();
-                headerWritten = true;
-            }
-            
-            // Write data
-            for (ScrapedData data : dataList) {
-                String csvLine = writer.writeValueAsString(data);
-                fileWriter.write(csvLine);
-            }
-            
-            fileWriter.flush();
-            logger.debug("Wrote {} records to CSV file", dataList.size());
-            
-        } catch (IOException e) {
-            logger.error("Error writing CSV data: {}", e.getMessage());
-            throw new RuntimeException("Failed to write CSV data", e);
-        }
+    public CSVWriter(String outputPath, boolean appendMode, int flushRecords, long flushIntervalMs) {
+        this(outputPath, appendMode, createOptions(flushRecords, flushIntervalMs));
     }
     
     /**
-     * Writes a single scraped data record to CSV.
+     * Creates a CSV writer.
      * 
-     * @param data Scraped data record
-     */
-    public void writeData(ScrapedData data) {
-        if (data == null) {
-            return;
-        }
-        
-        try {
-            // Check if we need to rotate the file
-            if (shouldRotateFile()) {
-                rotateFile();
-            }
-            
-            // Write header if needed
-            if (!headerWritten) {
-                writeHeader();
-                headerWritten = true;
-            }
-            
-            // Write data
-            String csvLine = writer.writeValueAsString(data);
-            fileWriter.write(csvLine);
-            fileWriter.flush();
-            
-        } catch (IOException e) {
-            logger.error("Error writing CSV data: {}", e.getMessage());
-            throw new RuntimeException("Failed to write CSV data", e);
-        }
-    }
-    
-    /**
-     * Writes the CSV header.
+     * @param outputPath Path of the output file; the compression suffix is added if missing
+     * @param appendMode Whether to append to an existing file instead of overwriting it
+     * @param options Buffering, compression and rotation settings
      */
-    private void writeHeader() throws IOException {
-        String header = "title,description,url,price,image_url\n";
-        fileWriter.write(header);
-        fileWriter.flush();
+    public CSVWriter(String outputPath, boolean appendMode, WriterOptions options) {
+        super(outputPath, appendMode, options);
     }
     
-    /**
-     * Checks if the current file should be rotated due to size.
-     * 
-     * @return true if file should be rotated
-     */
-    private boolean shouldRotateFile() {
-        return currentFile != null && currentFile.length() > MAX_FILE_SIZE;
+    @Override
+    protected String formatName() {
+        return "CSV";
     }
     
-    /**
-     * Rotates the current file to a new one with incremented name.
-     */
-    private void rotateFile() {
-        try {
-            // Close current file
-            if (fileWriter != null) {
-                fileWriter.close();
+    @Override
+    protected JsonGenerator createGenerator(OutputStream out, boolean newFile) throws IOException {
+        if (csvSchema == null) {
+            CsvSchema.Builder builder = CsvSchema.builder();
+            for (int i = 0; i < getSchema().size(); i++) {
+                builder.addColumn(getSchema().getName(i));
             }
-            
-            // Create new file with incremented name
-            fileCounter++;
-            String baseName = outputPath.substring(0, outputPath.lastIndexOf('.'));
-            String extension = outputPath.substring(outputPath.lastIndexOf('.'));
-            String newFileName = baseName + "_" + fileCounter + extension;
-            
-            currentFile = new File(newFileName);
-            fileWriter = new FileWriter(currentFile, false);
-            headerWritten = false; // Reset header flag for new file
-            
-            logger.info("Rotated CSV file to: {}", currentFile.getAbsolutePath());
-            
-        } catch (IOException e) {
-            logger.error("Error rotating CSV file: {}", e.getMessage());
-            throw new RuntimeException("Failed to rotate CSV file", e);
+            csvSchema = builder
+                    .setColumnSeparator(',')
+                    .setQuoteChar('"')
+                    .setLineSeparator("\n")
+                    .build();
         }
+        JsonGenerator generator = CSV_FACTORY.createGenerator(out, JsonEncoding.UTF8);
+        // The generator writes the header before the first record; an appended file already has one
+        generator.setSchema(newFile ? csvSchema.withHeader() : csvSchema.withoutHeader());
+        return generator;
     }
     
-    /**
-     * Closes the CSV writer and releases resources.
-     */
-    public void close() {
-        try {
-            if (fileWriter != null) {
-                fileWriter.close();
+    @Override
+    protected void writeRecord(JsonGenerator generator, ScrapedData data) throws IOException {
+        generator.writeStartArray();
+        for (int i = 0; i < getSchema().size(); i++) {
+            Object value = data.get(i);
+            if (value == null) {
+                // Missing values are empty cells
+                generator.writeString("");
+            } else {
+                writeScalar(generator, value);
             }
-            logger.debug("CSV writer closed");
-        } catch (IOException e) {
-            logger.error("Error closing CSV writer: {}", e.getMessage());
         }
-    }
-    
-    /**
-     * Gets the current file being written to.
-     * 
-     * @return Current file
-     */
-    public File getCurrentFile() {
-        return currentFile;
-    }
-    
-    /**
-     * Gets the number of files created (including rotations).
-     * 
-     * @return Number of files created
-     */
-    public int getFileCount() {
-        return fileCounter + 1;
+        generator.writeEndArray();
     }
 }
@@ -0,0 +1,72 @@
+package com.example.scraper.core.persistence;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+import com.github.luben.zstd.ZstdOutputStream;
+
+/**
+ * Compression applied to output files. Every file is a complete gzip member or zstd frame, so rotated
+ * segments can be decompressed independently.
+ */
+public enum OutputCompression {
+    
+    /** Plain text. */
+    NONE(""),
+    
+    /** gzip, using the JDK's deflater. */
+    GZIP(".gz"),
+    
+    /** Zstandard, via zstd-jni. */
+    ZSTD(".zst");
+    
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+    private static final int ZSTD_LEVEL = 3;
+    
+    private final String fileSuffix;
+    
+    OutputCompression(String fileSuffix) {
+        this.fileSuffix = fileSuffix;
+    }
+    
+    /**
+     * Gets the suffix appended to file names, such as ".gz".
+     * 
+     * @return file suffix, empty for no compression
+     */
+    public String getFileSuffix() {
+        return fileSuffix;
+    }
+    
+    /**
+     * Wraps a file stream in a compressing stream. Flushing the returned stream makes everything
+     * written so far decompressible, at a small cost in compression ratio.
+     * 
+     * @param out The file stream
+     * @return compressing stream, or the stream itself for no compression
+     * @throws IOException if the compressor cannot be created
+     */
+    public OutputStream wrap(OutputStream out) throws IOException {
+        switch (this) {
+            case GZIP:
+                return new GZIPOutputStream(out, GZIP_BUFFER_SIZE, true);
+            case ZSTD:
+                return new ZstdOutputStream(out, ZSTD_LEVEL);
+            default:
+                return out;
+        }
+    }
+    
+    /**
+     * Parses a compression name, ignoring case.
+     * 
+     * @param name The compression name ("none", "gzip" or "zstd")
+     * @return the compression
+     * @throws IllegalArgumentException if the name is not a known compression
+     */
+    public static OutputCompression parse(String name) {
+        return valueOf(name.trim().toUpperCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,572 @@
+package com.example.scraper.core.persistence;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import com.example.scraper.model.ExtractionSchema;
+import com.example.scraper.model.FieldSpec;
+import com.example.scraper.model.ScrapedData;
+import com.github.luben.zstd.Zstd;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Writes scraped data to Apache Parquet files for analytics pipelines.
+ * Columns follow the writer's {@link ExtractionSchema}: string fields are UTF8 byte arrays, integer
+ * fields INT64, number fields DOUBLE and boolean fields BOOLEAN, all optional.
+ * Rows are buffered into row groups; each column of a row group is written as one column chunk.
+ * String chunks are dictionary-encoded when their distinct values are small enough (titles, prices
+ * and image URLs repeat a lot) and plain-encoded otherwise; other types are always plain-encoded. Pages are compressed with the configured codec (gzip or zstd).
+ * Rotation happens at row-group boundaries; every file has its own footer and is readable on its own.
+ * The next file is only created with its first row group, so a run never ends on an empty file.
+ */
+public class ParquetWriter {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ParquetWriter.class);
+    private static final byte[] MAGIC = "PAR1".getBytes(StandardCharsets.US_ASCII);
+    private static final String CREATED_BY = "simple-web-scraper version 1.0.0";
+    
+    private static final long MAX_ROW_GROUP_BYTES = 64L * 1024 * 1024;
+    private static final int MAX_DICTIONARY_BYTES = 1024 * 1024;
+    private static final int BUFFER_SIZE = 256 * 1024;
+    
+    // Parquet enum values (parquet.thrift)
+    private static final int TYPE_BOOLEAN = 0;
+    private static final int TYPE_INT64 = 2;
+    private static final int TYPE_DOUBLE = 5;
+    private static final int TYPE_BYTE_ARRAY = 6;
+    private static final int REPETITION_OPTIONAL = 1;
+    private static final int CONVERTED_TYPE_UTF8 = 0;
+    private static final int PAGE_DATA = 0;
+    private static final int PAGE_DICTIONARY = 2;
+    private static final int ENCODING_PLAIN = 0;
+    private static final int ENCODING_RLE = 3;
+    private static final int ENCODING_RLE_DICTIONARY = 8;
+    private static final int CODEC_UNCOMPRESSED = 0;
+    private static final int CODEC_GZIP = 2;
+    private static final int CODEC_ZSTD = 6;
+    
+    private final String outputPath;
+    private final OutputCompression compression;
+    private final int rowGroupRows;
+    private final long maxFileBytes;
+    private final long maxCompressedFileBytes;
+    private final ExtractionSchema schema;
+    private final int[] columnTypes;
+    private final List<List<Object>> columnValues = new ArrayList<>();
+    private final List<RowGroupMeta> rowGroups = new ArrayList<>();
+    
+    private File currentFile;
+    private OutputStream fileStream;
+    private long filePosition;
+    private long finishedFileBytes;
+    private long uncompressedFileBytes;
+    private long bufferedBytes;
+    private int bufferedRows;
+    private int fileCounter = 0;
+    private boolean closed = false;
+    
+    public ParquetWriter(String outputPath) {
+        this(outputPath, new WriterOptions());
+    }
+    
+    /**
+     * Creates a Parquet writer.
+     * 
+     * @param outputPath Path of the first output file
+     * @param options Schema, compression and rotation settings; flush settings do not apply, since
+     *                Parquet data only becomes readable when a row group and the footer are written
+     */
+    public ParquetWriter(String outputPath, WriterOptions options) {
+        this.outputPath = outputPath;
+        this.compression = options.getCompression();
+        this.rowGroupRows = Math.max(1, options.getRowGroupRows());
+        this.maxFileBytes = options.getMaxFileBytes();
+        this.maxCompressedFileBytes = options.getMaxCompressedFileBytes();
+        this.schema = options.getSchema();
+        this.columnTypes = new int[schema.size()];
+        for (int i = 0; i < schema.size(); i++) {
+            columnTypes[i] = physicalType(schema.getType(i));
+            columnValues.add(new ArrayList<>());
+        }
+        
+        try {
+            Path path = Paths.get(outputPath);
+            Path parentDir = path.getParent();
+            if (parentDir != null) {
+                Files.createDirectories(parentDir);
+            }
+            openFile(path);
+            logger.debug("Created Parquet file: {}", currentFile.getAbsolutePath());
+        } catch (IOException e) {
+            logger.error("Error initializing Parquet file: {}", e.getMessage());
+            throw new RuntimeException("Failed to initialize Parquet file", e);
+        }
+    }
+    
+    private void openFile(Path path) throws IOException {
+        currentFile = path.toFile();
+        fileStream = new BufferedOutputStream(Files.newOutputStream(path), BUFFER_SIZE);
+        fileStream.write(MAGIC);
+        filePosition = MAGIC.length;
+        uncompressedFileBytes = MAGIC.length;
+        rowGroups.clear();
+    }
+    
+    /**
+     * Writes a list of scraped data.
+     * 
+     * @param dataList List of scraped data
+     */
+    public synchronized void writeData(List<ScrapedData> dataList) {
+        if (dataList == null || dataList.isEmpty()) {
+            return;
+        }
+        for (ScrapedData data : dataList) {
+            writeData(data);
+        }
+    }
+    
+    /**
+     * Writes a single scraped data record. The record is buffered until its row group is complete.
+     * 
+     * @param data Scraped data record
+     * @throws IllegalArgumentException if the record's fields differ from the writer's schema
+     */
+    public synchronized void writeData(ScrapedData data) {
+        if (data == null) {
+            return;
+        }
+        if (closed) {
+            throw new IllegalStateException("Parquet writer is closed");
+        }
+        if (!schema.hasSameLayout(data.getSchema())) {
+            throw new IllegalArgumentException("Record fields do not match the Parquet writer's schema");
+        }
+        
+        for (int i = 0; i < columnTypes.length; i++) {
+            Object value = data.get(i);
+            columnValues.get(i).add(value);
+            if (value instanceof String) {
+                bufferedBytes += ((String) value).length() + 4;
+            } else if (value != null) {
+                bufferedBytes += 8;
+            }
+        }
+        bufferedRows++;
+        
+        if (bufferedRows >= rowGroupRows || bufferedBytes >= MAX_ROW_GROUP_BYTES) {
+            try {
+                writeRowGroup();
+                if (shouldRotateFile()) {
+                    finishFile();
+                }
+            } catch (IOException e) {
+                logger.error("Error writing Parquet data: {}", e.getMessage());
+                throw new RuntimeException("Failed to write Parquet data", e);
+            }
+        }
+    }
+    
+    private boolean shouldRotateFile() {
+        return (maxFileBytes > 0 && uncompressedFileBytes > maxFileBytes)
+                || (maxCompressedFileBytes > 0 && filePosition > maxCompressedFileBytes);
+    }
+    
+    private void openNextFile() throws IOException {
+        fileCounter++;
+        int dot = outputPath.lastIndexOf('.');
+        String baseName = dot >= 0 ? outputPath.substring(0, dot) : outputPath;
+        String extension = dot >= 0 ? outputPath.substring(dot) : "";
+        openFile(Paths.get(baseName + "_" + fileCounter + extension));
+        logger.info("Rotated Parquet file to: {}", currentFile.getAbsolutePath());
+    }
+    
+    /**
+     * Writes the buffered rows as one row group.
+     */
+    private void writeRowGroup() throws IOException {
+        if (bufferedRows == 0) {
+            return;
+        }
+        if (fileStream == null) {
+            // The previous file was finished at a rotation
+            openNextFile();
+        }
+        
+        RowGroupMeta rowGroup = new RowGroupMeta(bufferedRows, filePosition);
+        for (int i = 0; i < columnTypes.length; i++) {
+            rowGroup.columns.add(writeColumnChunk(schema.getName(i), columnTypes[i], columnValues.get(i)));
+            columnValues.get(i).clear();
+        }
+        rowGroups.add(rowGroup);
+        logger.debug("Wrote Parquet row group with {} rows", bufferedRows);
+        bufferedRows = 0;
+        bufferedBytes = 0;
+    }
+    
+    private ColumnChunkMeta writeColumnChunk(String name, int type, List<Object> values) throws IOException {
+        ColumnChunkMeta chunk = new ColumnChunkMeta(name, type, values.size(), filePosition);
+        
+        // Definition levels: 1 for a present value, 0 for null
+        int[] definitionLevels = new int[values.size()];
+        Map<String, Integer> dictionary = new HashMap<>();
+        List<String> dictionaryValues = new ArrayList<>();
+        int[] indices = new int[values.size()];
+        int nonNullCount = 0;
+        long dictionaryBytes = 0;
+        boolean useDictionary = type == TYPE_BYTE_ARRAY;
+        
+        for (int row = 0; row < values.size(); row++) {
+            Object value = values.get(row);
+            if (value == null) {
+                continue;
+            }
+            definitionLevels[row] = 1;
+            if (useDictionary) {
+                String text = (String) value;
+                Integer index = dictionary.get(text);
+                if (index == null) {
+                    index = dictionaryValues.size();
+                    dictionary.put(text, index);
+                    dictionaryValues.add(text);
+                    dictionaryBytes += text.length() + 4;
+                    // Mostly-unique columns such as descriptions are better off plain
+                    useDictionary = dictionaryBytes <= MAX_DICTIONARY_BYTES;
+                }
+                indices[nonNullCount] = index;
+            }
+            nonNullCount++;
+        }
+        
+        // A dictionary only pays off when values repeat
+        useDictionary = useDictionary && dictionaryValues.size() <= nonNullCount / 2;
+        
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        byte[] levels = RleHybridEncoder.encode(definitionLevels, definitionLevels.length, 1);
+        writeIntLe(body, levels.length);
+        body.write(levels);
+        
+        if (useDictionary && !dictionaryValues.isEmpty()) {
+            chunk.dictionaryPageOffset = filePosition;
+            writePage(chunk, PAGE_DICTIONARY, plainEncode(TYPE_BYTE_ARRAY, dictionaryValues), dictionaryValues.size(),
+                      ENCODING_PLAIN);
+            
+            int bitWidth = RleHybridEncoder.bitWidth(dictionaryValues.size() - 1);
+            body.write(bitWidth);
+            body.write(RleHybridEncoder.encode(indices, nonNullCount, bitWidth));
+            chunk.dataPageOffset = filePosition;
+            writePage(chunk, PAGE_DATA, body.toByteArray(), values.size(), ENCODING_RLE_DICTIONARY);
+        } else {
+            List<Object> nonNull = new ArrayList<>(nonNullCount);
+            for (Object value : values) {
+                if (value != null) {
+                    nonNull.add(value);
+                }
+            }
+            body.write(plainEncode(type, nonNull));
+            chunk.dataPageOffset = filePosition;
+            writePage(chunk, PAGE_DATA, body.toByteArray(), values.size(), ENCODING_PLAIN);
+        }
+        return chunk;
+    }
+    
+    private void writePage(ColumnChunkMeta chunk, int pageType, byte[] data, int valueCount, int encoding)
+            throws IOException {
+        byte[] compressed = compress(data);
+        
+        ThriftCompactWriter header = new ThriftCompactWriter();
+        header.writeI32Field(1, pageType);
+        header.writeI32Field(2, data.length);
+        header.writeI32Field(3, compressed.length);
+        if (pageType == PAGE_DATA) {
+            header.beginStructField(5);
+            header.writeI32Field(1, valueCount);
+            header.writeI32Field(2, encoding);
+            header.writeI32Field(3, ENCODING_RLE); // definition levels
+            header.writeI32Field(4, ENCODING_RLE); // repetition levels
+            header.endStruct();
+        } else {
+            header.beginStructField(7);
+            header.writeI32Field(1, valueCount);
+            header.writeI32Field(2, encoding);
+            header.endStruct();
+        }
+        byte[] headerBytes = header.finish();
+        
+        fileStream.write(headerBytes);
+        fileStream.write(compressed);
+        filePosition += headerBytes.length + compressed.length;
+        uncompressedFileBytes += headerBytes.length + data.length;
+        chunk.compressedSize += headerBytes.length + compressed.length;
+        chunk.uncompressedSize += headerBytes.length + data.length;
+        chunk.encodings.add(encoding);
+    }
+    
+    private byte[] compress(byte[] data) throws IOException {
+        switch (compression) {
+            case GZIP:
+                ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 2 + 64);
+                try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+                    gzip.write(data);
+                }
+                return out.toByteArray();
+            case ZSTD:
+                return Zstd.compress(data, 3);
+            default:
+                return data;
+        }
+    }
+    
+    private int codec() {
+        switch (compression) {
+            case GZIP:
+                return CODEC_GZIP;
+            case ZSTD:
+                return CODEC_ZSTD;
+            default:
+                return CODEC_UNCOMPRESSED;
+        }
+    }
+    
+    private static int physicalType(FieldSpec.Type type) {
+        switch (type) {
+            case INTEGER:
+                return TYPE_INT64;
+            case NUMBER:
+                return TYPE_DOUBLE;
+            case BOOLEAN:
+                return TYPE_BOOLEAN;
+            default:
+                return TYPE_BYTE_ARRAY;
+        }
+    }
+    
+    /**
+     * Plain-encodes non-null values: length-prefixed UTF-8 for byte arrays, little-endian for
+     * INT64 and DOUBLE, and one bit per value, least significant first, for BOOLEAN.
+     */
+    private static byte[] plainEncode(int type, List<?> values) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        if (type == TYPE_BOOLEAN) {
+            int bits = 0;
+            for (int i = 0; i < values.size(); i++) {
+                if ((Boolean) values.get(i)) {
+                    bits |= 1 << (i % 8);
+                }
+                if (i % 8 == 7) {
+                    out.write(bits);
+                    bits = 0;
+                }
+            }
+            if (values.size() % 8 != 0) {
+                out.write(bits);
+            }
+            return out.toByteArray();
+        }
+        for (Object value : values) {
+            if (type == TYPE_INT64) {
+                writeLongLe(out, (Long) value);
+            } else if (type == TYPE_DOUBLE) {
+                writeLongLe(out, Double.doubleToLongBits((Double) value));
+            } else {
+                byte[] bytes = value.toString().getBytes(StandardCharsets.UTF_8);
+                writeIntLe(out, bytes.length);
+                out.write(bytes);
+            }
+        }
+        return out.toByteArray();
+    }
+    
+    private static void writeLongLe(OutputStream out, long value) throws IOException {
+        writeIntLe(out, (int) value);
+        writeIntLe(out, (int) (value >>> 32));
+    }
+    
+    private static void writeIntLe(OutputStream out, int value) throws IOException {
+        out.write(value & 0xff);
+        out.write((value >>> 8) & 0xff);
+        out.write((value >>> 16) & 0xff);
+        out.write((value >>> 24) & 0xff);
+    }
+    
+    /**
+     * Writes the file footer (schema and row group metadata) and closes the current file, unless it
+     * was already finished at a rotation and no rows have arrived since.
+     */
+    private void finishFile() throws IOException {
+        writeRowGroup();
+        if (fileStream == null) {
+            return;
+        }
+        
+        byte[] footer = encodeFileMetaData();
+        fileStream.write(footer);
+        writeIntLe(fileStream, footer.length);
+        fileStream.write(MAGIC);
+        fileStream.close();
+        fileStream = null;
+        finishedFileBytes += filePosition + footer.length + 4 + MAGIC.length;
+        filePosition = 0;
+    }
+    
+    private byte[] encodeFileMetaData() {
+        long totalRows = 0;
+        for (RowGroupMeta rowGroup : rowGroups) {
+            totalRows += rowGroup.rowCount;
+        }
+        
+        ThriftCompactWriter meta = new ThriftCompactWriter();
+        meta.writeI32Field(1, 1); // version
+        
+        meta.beginListField(2, ThriftCompactWriter.TYPE_STRUCT, columnTypes.length + 1);
+        meta.beginStruct();
+        meta.writeStringField(4, "scraped_data");
+        meta.writeI32Field(5, columnTypes.length);
+        meta.endStruct();
+        for (int i = 0; i < columnTypes.length; i++) {
+            meta.beginStruct();
+            meta.writeI32Field(1, columnTypes[i]);
+            meta.writeI32Field(3, REPETITION_OPTIONAL);
+            meta.writeStringField(4, schema.getName(i));
+            if (columnTypes[i] == TYPE_BYTE_ARRAY) {
+                meta.writeI32Field(6, CONVERTED_TYPE_UTF8);
+                meta.beginStructField(10); // LogicalType union
+                meta.beginStructField(1); // STRING
+                meta.endStruct();
+                meta.endStruct();
+            }
+            meta.endStruct();
+        }
+        
+        meta.writeI64Field(3, totalRows);
+        
+        meta.beginListField(4, ThriftCompactWriter.TYPE_STRUCT, rowGroups.size());
+        for (RowGroupMeta rowGroup : rowGroups) {
+            long totalUncompressed = 0;
+            long totalCompressed = 0;
+            meta.beginStruct();
+            meta.beginListField(1, ThriftCompactWriter.TYPE_STRUCT, rowGroup.columns.size());
+            for (ColumnChunkMeta chunk : rowGroup.columns) {
+                long chunkStart = chunk.dictionaryPageOffset >= 0 ? chunk.dictionaryPageOffset : chunk.dataPageOffset;
+                meta.beginStruct();
+                meta.writeI64Field(2, chunkStart);
+                meta.beginStructField(3);
+                meta.writeI32Field(1, chunk.type);
+                meta.beginListField(2, ThriftCompactWriter.TYPE_I32, chunk.encodings.size() + 1);
+                meta.writeI32(ENCODING_RLE);
+                for (int encoding : chunk.encodings) {
+                    meta.writeI32(encoding);
+                }
+                meta.beginListField(3, ThriftCompactWriter.TYPE_BINARY, 1);
+                meta.writeString(chunk.name);
+                meta.writeI32Field(4, codec());
+                meta.writeI64Field(5, chunk.valueCount);
+                meta.writeI64Field(6, chunk.uncompressedSize);
+                meta.writeI64Field(7, chunk.compressedSize);
+                meta.writeI64Field(9, chunk.dataPageOffset);
+                if (chunk.dictionaryPageOffset >= 0) {
+                    meta.writeI64Field(11, chunk.dictionaryPageOffset);
+                }
+                meta.endStruct();
+                meta.endStruct();
+                totalUncompressed += chunk.uncompressedSize;
+                totalCompressed += chunk.compressedSize;
+            }
+            meta.writeI64Field(2, totalUncompressed);
+            meta.writeI64Field(3, rowGroup.rowCount);
+            meta.writeI64Field(5, rowGroup.fileOffset);
+            meta.writeI64Field(6, totalCompressed);
+            meta.endStruct();
+        }
+        
+        meta.writeStringField(6, CREATED_BY);
+        return meta.finish();
+    }
+    
+    /**
+     * Writes the buffered rows and the footer, and closes the file.
+     */
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            finishFile();
+            logger.debug("Parquet writer closed");
+        } catch (IOException e) {
+            logger.error("Error closing Parquet writer: {}", e.getMessage());
+        }
+    }
+    
+    /**
+     * Gets the current file being written to.
+     * 
+     * @return Current file
+     */
+    public synchronized File getCurrentFile() {
+        return currentFile;
+    }
+    
+    /**
+     * Gets the bytes written to all output files so far, counting row groups once they are written.
+     * 
+     * @return bytes written
+     */
+    public synchronized long getBytesWritten() {
+        return closed ? finishedFileBytes : finishedFileBytes + filePosition;
+    }
+    
+    /**
+     * Gets the number of files created (including rotations).
+     * 
+     * @return Number of files created
+     */
+    public synchronized int getFileCount() {
+        return fileCounter + 1;
+    }
+    
+    private static final class RowGroupMeta {
+    
+        private final int rowCount;
+        private final long fileOffset;
+        private final List<ColumnChunkMeta> columns = new ArrayList<>();
+        
+        private RowGroupMeta(int rowCount, long fileOffset) {
+            this.rowCount = rowCount;
+            this.fileOffset = fileOffset;
+        }
+    }
+    
+    private static final class ColumnChunkMeta {
+    
+        private final String name;
+        private final int type;
+        private final int valueCount;
+        private final List<Integer> encodings = new ArrayList<>();
+        private long dictionaryPageOffset = -1;
+        private long dataPageOffset;
+        private long compressedSize;
+        private long uncompressedSize;
+        
+        private ColumnChunkMeta(String name, int type, int valueCount, long startOffset) {
+            this.name = name;
+            this.type = type;
+            this.valueCount = valueCount;
+            this.dataPageOffset = startOffset;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.scraper.core.persistence;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * Encoder for Parquet's RLE / bit-packing hybrid encoding, used for definition levels and dictionary
+ * indices. Runs of at least eight equal values become RLE runs; everything else is bit-packed in
+ * groups of eight.
+ */
+final class RleHybridEncoder {
+    
+    private RleHybridEncoder() {
+        // Utility class
+    }
+    
+    /**
+     * Encodes values with the given bit width.
+     * 
+     * @param values Values to encode, each below {@code 1 << bitWidth}
+     * @param count Number of values to encode
+     * @param bitWidth Bits per value (1-32)
+     * @return encoded bytes, without a length prefix
+     */
+    static byte[] encode(int[] values, int count, int bitWidth) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(16, count * bitWidth / 8 + 16));
+        int[] pending = new int[Math.max(8, count)];
+        int pendingCount = 0;
+        
+        int i = 0;
+        while (i < count) {
+            int value = values[i];
+            int j = i + 1;
+            while (j < count && values[j] == value) {
+                j++;
+            }
+            int run = j - i;
+            
+            // Top the pending bit-packed values up to a group of eight before starting an RLE run
+            int fill = (8 - pendingCount % 8) % 8;
+            if (run - fill >= 8) {
+                for (int k = 0; k < fill; k++) {
+                    pending[pendingCount++] = value;
+                }
+                writeBitPacked(out, pending, pendingCount, bitWidth);
+                pendingCount = 0;
+                writeRle(out, value, run - fill, bitWidth);
+            } else {
+                for (int k = 0; k < run; k++) {
+                    pending[pendingCount++] = value;
+                }
+            }
+            i = j;
+        }
+        
+        // The last group is padded with zeros; readers stop after the known value count
+        writeBitPacked(out, pending, pendingCount, bitWidth);
+        return out.toByteArray();
+    }
+    
+    private static void writeRle(ByteArrayOutputStream out, int value, int runLength, int bitWidth) {
+        writeVarint(out, runLength << 1);
+        int byteWidth = (bitWidth + 7) / 8;
+        for (int b = 0; b < byteWidth; b++) {
+            out.write((value >>> (8 * b)) & 0xff);
+        }
+    }
+    
+    private static void writeBitPacked(ByteArrayOutputStream out, int[] values, int count, int bitWidth) {
+        if (count == 0) {
+            return;
+        }
+        int groups = (count + 7) / 8;
+        writeVarint(out, (groups << 1) | 1);
+        
+        long buffer = 0;
+        int bufferedBits = 0;
+        for (int i = 0; i < groups * 8; i++) {
+            long value = i < count ? values[i] & 0xffffffffL : 0;
+            buffer |= value << bufferedBits;
+            bufferedBits += bitWidth;
+            while (bufferedBits >= 8) {
+                out.write((int) (buffer & 0xff));
+                buffer >>>= 8;
+                bufferedBits -= 8;
+            }
+        }
+    }
+    
+    private static void writeVarint(ByteArrayOutputStream out, int value) {
+        int remaining = value;
+        while ((remaining & ~0x7f) != 0) {
+            out.write((remaining & 0x7f) | 0x80);
+            remaining >>>= 7;
+        }
+        out.write(remaining);
+    }
+    
+    /**
+     * Gets the number of bits needed to store values up to the given maximum.
+     * 
+     * @param maxValue Largest value to encode
+     * @return bit width, at least 1
+     */
+    static int bitWidth(int maxValue) {
+        return Math.max(1, 32 - Integer.numberOfLeadingZeros(maxValue));
+    }
+}
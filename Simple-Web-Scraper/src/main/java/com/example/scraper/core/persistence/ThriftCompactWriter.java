@@ -0,0 +1,122 @@
+package com.example.scraper.core.persistence;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Minimal encoder for the Thrift compact protocol, enough to write Parquet page headers and file
+ * metadata. Fields must be written in increasing id order within each struct.
+ */
+final class ThriftCompactWriter {
+    
+    static final byte TYPE_BOOLEAN_TRUE = 1;
+    static final byte TYPE_BOOLEAN_FALSE = 2;
+    static final byte TYPE_I32 = 5;
+    static final byte TYPE_I64 = 6;
+    static final byte TYPE_BINARY = 8;
+    static final byte TYPE_LIST = 9;
+    static final byte TYPE_STRUCT = 12;
+    
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+    private final Deque<Short> fieldIdStack = new ArrayDeque<>();
+    private short lastFieldId = 0;
+    
+    void writeI32Field(int fieldId, int value) {
+        writeFieldHeader(fieldId, TYPE_I32);
+        writeVarint(zigzag(value));
+    }
+    
+    void writeI64Field(int fieldId, long value) {
+        writeFieldHeader(fieldId, TYPE_I64);
+        writeVarint(zigzag(value));
+    }
+    
+    void writeBooleanField(int fieldId, boolean value) {
+        writeFieldHeader(fieldId, value ? TYPE_BOOLEAN_TRUE : TYPE_BOOLEAN_FALSE);
+    }
+    
+    void writeStringField(int fieldId, String value) {
+        writeFieldHeader(fieldId, TYPE_BINARY);
+        writeString(value);
+    }
+    
+    /**
+     * Starts a struct-valued field; end it with {@link #endStruct()}.
+     */
+    void beginStructField(int fieldId) {
+        writeFieldHeader(fieldId, TYPE_STRUCT);
+        beginStruct();
+    }
+    
+    /**
+     * Starts a struct that is a list element; end it with {@link #endStruct()}.
+     */
+    void beginStruct() {
+        fieldIdStack.push(lastFieldId);
+        lastFieldId = 0;
+    }
+    
+    void endStruct() {
+        out.write(0); // STOP
+        lastFieldId = fieldIdStack.pop();
+    }
+    
+    /**
+     * Starts a list-valued field; follow it with exactly {@code size} elements.
+     */
+    void beginListField(int fieldId, byte elementType, int size) {
+        writeFieldHeader(fieldId, TYPE_LIST);
+        if (size < 15) {
+            out.write((size << 4) | elementType);
+        } else {
+            out.write(0xf0 | elementType);
+            writeVarint(size);
+        }
+    }
+    
+    void writeI32(int value) {
+        writeVarint(zigzag(value));
+    }
+    
+    void writeString(String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarint(bytes.length);
+        out.write(bytes, 0, bytes.length);
+    }
+    
+    /**
+     * Ends the top-level struct and returns the encoded bytes.
+     * 
+     * @return encoded struct
+     */
+    byte[] finish() {
+        out.write(0); // STOP
+        return out.toByteArray();
+    }
+    
+    private void writeFieldHeader(int fieldId, byte type) {
+        int delta = fieldId - lastFieldId;
+        if (delta > 0 && delta <= 15) {
+            out.write((delta << 4) | type);
+        } else {
+            out.write(type);
+            writeVarint(zigzag(fieldId));
+        }
+        lastFieldId = (short) fieldId;
+    }
+    
+    private void writeVarint(long value) {
+        long remaining = value;
+        while ((remaining & ~0x7fL) != 0) {
+            out.write((int) ((remaining & 0x7f) | 0x80));
+            remaining >>>= 7;
+        }
+        out.write((int) remaining);
+    }
+    
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+}
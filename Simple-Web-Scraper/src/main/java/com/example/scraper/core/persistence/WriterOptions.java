@@ -0,0 +1,119 @@
+package com.example.scraper.core.persistence;
+
+import com.example.scraper.model.ExtractionSchema;
+
+/**
+ * Buffering, compression and rotation settings for record writers.
+ */
+public class WriterOptions {
+    
+    public static final int DEFAULT_FLUSH_RECORDS = 1000;
+    public static final long DEFAULT_FLUSH_INTERVAL_MS = 1000;
+    public static final long DEFAULT_MAX_FILE_BYTES = 10 * 1024 * 1024; // 10MB
+    public static final int DEFAULT_ROW_GROUP_ROWS = 100_000;
+    
+    // Flush after this many buffered records, or once the oldest is flushIntervalMs old (0 disables)
+    private int flushRecords = DEFAULT_FLUSH_RECORDS;
+    private long flushIntervalMs = DEFAULT_FLUSH_INTERVAL_MS;
+    
+    private OutputCompression compression = OutputCompression.NONE;
+    
+    // Rotate when either limit is reached (0 means no limit)
+    private long maxFileBytes = DEFAULT_MAX_FILE_BYTES;
+    private long maxCompressedFileBytes = 0;
+    
+    // Rows per Parquet row group
+    private int rowGroupRows = DEFAULT_ROW_GROUP_ROWS;
+    
+    // Fields of the records written, in column order
+    private ExtractionSchema schema = ExtractionSchema.DEFAULT;
+    
+    // Output position a resumed run continues from; null starts a new output
+    private WriterPosition resumePosition;
+    
+    // Getters and setters
+    public int getFlushRecords() {
+        return flushRecords;
+    }
+    
+    public void setFlushRecords(int flushRecords) {
+        this.flushRecords = flushRecords;
+    }
+    
+    public long getFlushIntervalMs() {
+        return flushIntervalMs;
+    }
+    
+    public void setFlushIntervalMs(long flushIntervalMs) {
+        this.flushIntervalMs = flushIntervalMs;
+    }
+    
+    public OutputCompression getCompression() {
+        return compression;
+    }
+    
+    public void setCompression(OutputCompression compression) {
+        this.compression = compression;
+    }
+    
+    public long getMaxFileBytes() {
+        return maxFileBytes;
+    }
+    
+    public void setMaxFileBytes(long maxFileBytes) {
+        this.maxFileBytes = maxFileBytes;
+    }
+    
+    public long getMaxCompressedFileBytes() {
+        return maxCompressedFileBytes;
+    }
+    
+    public void setMaxCompressedFileBytes(long maxCompressedFileBytes) {
+        this.maxCompressedFileBytes = maxCompressedFileBytes;
+    }
+    
+    public int getRowGroupRows() {
+        return rowGroupRows;
+    }
+    
+    public void setRowGroupRows(int rowGroupRows) {
+        this.rowGroupRows = rowGroupRows;
+    }
+    
+    public ExtractionSchema getSchema() {
+        return schema;
+    }
+    
+    public void setSchema(ExtractionSchema schema) {
+        this.schema = schema;
+    }
+    
+    /**
+     * Gets the position to continue writing from. The writer cuts the file at that position to its
+     * length, deletes the files rotated after it and appends to it; only uncompressed output can
+     * be cut.
+     * 
+     * @return position, or null to start a new output
+     */
+    public WriterPosition getResumePosition() {
+        return resumePosition;
+    }
+    
+    public void setResumePosition(WriterPosition resumePosition) {
+        this.resumePosition = resumePosition;
+    }
+    
+    @Override
+    public String toString() {
+        return "WriterOptions{" +
+                "flushRecords=" + flushRecords +
+                ", flushIntervalMs=" + flushIntervalMs +
+                ", compression=" + compression +
+                ", maxFileBytes=" + maxFileBytes +
+                ", maxCompressedFileBytes=" + maxCompressedFileBytes +
+                ", rowGroupRows=" + rowGroupRows +
+                ", schema=" + schema +
+                ", resumePosition=" + resumePosition +
+                '}';
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.scraper.core.persistence;
+
+import java.util.Objects;
+
+/**
+ * A point in a writer's uncompressed output: the rotated file (0 for the first file) and the
+ * number of bytes in it. Positions increase as records are written, across rotations.
+ */
+public final class WriterPosition implements Comparable<WriterPosition> {
+    
+    public static final WriterPosition START = new WriterPosition(0, 0);
+    
+    private final int fileIndex;
+    private final long bytes;
+    
+    public WriterPosition(int fileIndex, long bytes) {
+        if (fileIndex < 0 || bytes < 0) {
+            throw new IllegalArgumentException("Invalid writer position: " + fileIndex + "/" + bytes);
+        }
+        this.fileIndex = fileIndex;
+        this.bytes = bytes;
+    }
+    
+    public int getFileIndex() {
+        return fileIndex;
+    }
+    
+    public long getBytes() {
+        return bytes;
+    }
+    
+    @Override
+    public int compareTo(WriterPosition other) {
+        int byFile = Integer.compare(fileIndex, other.fileIndex);
+        return byFile != 0 ? byFile : Long.compare(bytes, other.bytes);
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        WriterPosition that = (WriterPosition) o;
+        return fileIndex == that.fileIndex && bytes == that.bytes;
+    }
+    
+    @Override
+    public int hashCode() {
+        return Objects.hash(fileIndex, bytes);
+    }
+    
+    @Override
+    public String toString() {
+        return "WriterPosition{" +
+                "fileIndex=" + fileIndex +
+                ", bytes=" + bytes +
+                '}';
+    }
+}
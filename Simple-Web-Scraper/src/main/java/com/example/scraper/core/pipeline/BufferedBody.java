@@ -0,0 +1,147 @@
+package com.example.scraper.core.pipeline;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+
+/**
+ * A response body read into memory in fixed-size chunks, waiting in the {@link ParseStage} for a
+ * parse thread. Reading it back drops each chunk once it has been consumed, so a body held by the
+ * parser shrinks as the document is built, and the bytes it reserved in the parse stage are given
+ * back chunk by chunk. Reading into chunks avoids the single full-size copy that
+ * {@link InputStream#readAllBytes()} makes of every body.
+ * <p>
+ * A body is read by one thread at a time.
+ */
+public class BufferedBody extends InputStream {
+    
+    public static final int CHUNK_BYTES = 16 * 1024;
+    
+    private final List<byte[]> chunks;
+    private final long size;
+    private int chunkIndex;
+    private int offset;
+    private Semaphore budget;
+    private int reserved;
+    
+    private BufferedBody(List<byte[]> chunks, long size) {
+        this.chunks = chunks;
+        this.size = size;
+    }
+    
+    /**
+     * Reads a stream to its end and closes it.
+     * 
+     * @param input The stream to read
+     * @return the buffered body
+     * @throws IOException if the stream cannot be read
+     */
+    public static BufferedBody read(InputStream input) throws IOException {
+        List<byte[]> chunks = new ArrayList<>();
+        long size = 0;
+        try (input) {
+            while (true) {
+                byte[] chunk = new byte[CHUNK_BYTES];
+                int filled = input.readNBytes(chunk, 0, CHUNK_BYTES);
+                if (filled > 0) {
+                    // Only the last chunk is partly filled; trimming it keeps small pages small
+                    chunks.add(filled < CHUNK_BYTES ? Arrays.copyOf(chunk, filled) : chunk);
+                    size += filled;
+                }
+                if (filled < CHUNK_BYTES) {
+                    return new BufferedBody(chunks, size);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Gets the number of bytes in the body.
+     * 
+     * @return body size
+     */
+    public long size() {
+        return size;
+    }
+    
+    /**
+     * Records the bytes this body holds in a parse stage's budget, given back as it is consumed.
+     * 
+     * @param budget The budget the bytes were acquired from
+     * @param permits Bytes acquired
+     */
+    void reserve(Semaphore budget, int permits) {
+        this.budget = budget;
+        this.reserved = permits;
+    }
+    
+    @Override
+    public int read() throws IOException {
+        byte[] chunk = currentChunk();
+        if (chunk == null) {
+            return -1;
+        }
+        int value = chunk[offset++] & 0xff;
+        advance(chunk);
+        return value;
+    }
+    
+    @Override
+    public int read(byte[] buffer, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        byte[] chunk = currentChunk();
+        if (chunk == null) {
+            return -1;
+        }
+        int count = Math.min(len, chunk.length - offset);
+        System.arraycopy(chunk, offset, buffer, off, count);
+        offset += count;
+        advance(chunk);
+        return count;
+    }
+    
+    @Override
+    public int available() {
+        byte[] chunk = currentChunk();
+        return chunk != null ? chunk.length - offset : 0;
+    }
+    
+    private byte[] currentChunk() {
+        return chunkIndex < chunks.size() ? chunks.get(chunkIndex) : null;
+    }
+    
+    /**
+     * Drops a chunk once it has been read to its end and gives its bytes back to the budget.
+     */
+    private void advance(byte[] chunk) {
+        if (offset == chunk.length) {
+            chunks.set(chunkIndex++, null);
+            offset = 0;
+            release(chunk.length);
+        }
+    }
+    
+    private void release(int bytes) {
+        int permits = Math.min(bytes, reserved);
+        if (permits > 0) {
+            reserved -= permits;
+            budget.release(permits);
+        }
+    }
+    
+    /**
+     * Drops the unread chunks and gives back every byte still reserved.
+     */
+    @Override
+    public void close() {
+        while (chunkIndex < chunks.size()) {
+            chunks.set(chunkIndex++, null);
+        }
+        release(reserved);
+    }
+}
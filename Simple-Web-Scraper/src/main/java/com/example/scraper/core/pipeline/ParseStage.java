@@ -0,0 +1,267 @@
+package com.example.scraper.core.pipeline;
+
+import java.io.InputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import com.example.scraper.core.metrics.LatencyHistogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * CPU stage of the scrape pipeline: parses fetched pages on a fixed pool of platform threads,
+ * separate from the threads that wait on the network.
+ * <p>
+ * Fetch tasks hand pages over through a bounded queue. When the parsers fall behind and the queue
+ * is full, {@link #submit} blocks the handing-over thread, which slows fetching down to the speed
+ * of parsing instead of buffering bodies without limit. Bodies handed over as {@link BufferedBody}
+ * are also bounded in bytes, so a queue of large pages waits for room as well. Queue depth, time
+ * spent parsing and time fetch threads spent blocked on a full queue are counted so the two stages
+ * can be sized.
+ */
+public class ParseStage implements AutoCloseable {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ParseStage.class);
+    public static final int DEFAULT_THREADS = Runtime.getRuntime().availableProcessors();
+    public static final int DEFAULT_QUEUE_CAPACITY = 64;
+    public static final long DEFAULT_QUEUE_BYTES = 64L * 1024 * 1024;
+    
+    private final int threads;
+    private final int queueCapacity;
+    private final int queueBytes;
+    // Fair, so a large body waiting for room is not overtaken by smaller ones indefinitely
+    private final Semaphore bodyBytes;
+    private final ThreadPoolExecutor executor;
+    private final AtomicInteger maxQueueDepth = new AtomicInteger();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong parseNanos = new AtomicLong();
+    private final LatencyHistogram parseTimes = new LatencyHistogram();
+    private final AtomicLong blockedHandoffs = new AtomicLong();
+    private final AtomicLong blockedNanos = new AtomicLong();
+    
+    /**
+     * Creates a parse stage with the default byte limit and starts its threads.
+     * 
+     * @param threads Number of parse threads, normally the number of CPUs
+     * @param queueCapacity Maximum number of fetched pages waiting for a parse thread
+     */
+    public ParseStage(int threads, int queueCapacity) {
+        this(threads, queueCapacity, DEFAULT_QUEUE_BYTES);
+    }
+    
+    /**
+     * Creates a parse stage and starts its threads.
+     * 
+     * @param threads Number of parse threads, normally the number of CPUs
+     * @param queueCapacity Maximum number of fetched pages waiting for a parse thread
+     * @param queueBytes Maximum bytes of buffered bodies waiting for or being parsed; a larger
+     *                   body is let through on its own once the others are done
+     */
+    public ParseStage(int threads, int queueCapacity, long queueBytes) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Parse threads must be at least 1");
+        }
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("Parse queue capacity must be at least 1");
+        }
+        if (queueBytes < 1) {
+            throw new IllegalArgumentException("Parse queue bytes must be at least 1");
+        }
+        this.threads = threads;
+        this.queueCapacity = queueCapacity;
+        this.queueBytes = (int) Math.min(queueBytes, Integer.MAX_VALUE);
+        this.bodyBytes = new Semaphore(this.queueBytes, true);
+        
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "parse-worker-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (runnable, pool) -> waitForSpace(runnable));
+        this.executor.prestartAllCoreThreads();
+    }
+    
+    /**
+     * Queues a parse task, waiting for space if the parse threads are behind.
+     * 
+     * @param task Parsing work for one page
+     * @return future completed with the task's result on a parse thread
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                long start = System.nanoTime();
+                T value = null;
+                Throwable failure = null;
+                try {
+                    value = task.get();
+                } catch (Throwable e) {
+                    failure = e;
+                }
+                // Counted before the result is handed on, so whoever waits on it sees the task as done
+                long elapsed = System.nanoTime() - start;
+                parseNanos.addAndGet(elapsed);
+                parseTimes.record(elapsed);
+                completed.incrementAndGet();
+                if (failure != null) {
+                    result.completeExceptionally(failure);
+                } else {
+                    result.complete(value);
+                }
+            });
+            maxQueueDepth.accumulateAndGet(executor.getQueue().size(), Math::max);
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+    
+    /**
+     * Queues a body for parsing, waiting first while the bodies already handed over hold the
+     * stage's byte limit. The body's bytes are given back as the task reads it, and all of them
+     * once the task returns.
+     * 
+     * @param body Buffered response body
+     * @param task Parsing work reading the body
+     * @return future completed with the task's result on a parse thread
+     */
+    public <T> CompletableFuture<T> submit(BufferedBody body, Function<InputStream, T> task) {
+        int permits = (int) Math.min(body.size(), queueBytes);
+        if (!bodyBytes.tryAcquire(permits)) {
+            blockedHandoffs.incrementAndGet();
+            long start = System.nanoTime();
+            try {
+                bodyBytes.acquire(permits);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                body.close();
+                return CompletableFuture.failedFuture(
+                        new RejectedExecutionException("Interrupted while waiting for a parse thread", e));
+            } finally {
+                blockedNanos.addAndGet(System.nanoTime() - start);
+            }
+        }
+        body.reserve(bodyBytes, permits);
+        CompletableFuture<T> result = submit(() -> {
+            try (body) {
+                return task.apply(body);
+            }
+        });
+        // A task that was rejected never ran to close its body
+        return result.whenComplete((value, failure) -> body.close());
+    }
+    
+    /**
+     * Blocks a handing-over thread until the queue has room for its task.
+     */
+    private void waitForSpace(Runnable runnable) {
+        if (executor.isShutdown()) {
+            throw new RejectedExecutionException("Parse stage is closed");
+        }
+        blockedHandoffs.incrementAndGet();
+        long start = System.nanoTime();
+        try {
+            while (!executor.getQueue().offer(runnable, 100, TimeUnit.MILLISECONDS)) {
+                if (executor.isShutdown()) {
+                    throw new RejectedExecutionException("Parse stage is closed");
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while waiting for a parse thread", e);
+        } finally {
+            blockedNanos.addAndGet(System.nanoTime() - start);
+        }
+    }
+    
+    public int getThreads() {
+        return threads;
+    }
+    
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+    
+    /**
+     * Gets the bytes of buffered bodies handed over and not yet read by a parse thread.
+     * 
+     * @return queued body bytes
+     */
+    public long getQueuedBytes() {
+        return queueBytes - bodyBytes.availablePermits();
+    }
+    
+    /**
+     * Gets the number of fetched pages waiting for a parse thread.
+     * 
+     * @return current queue depth
+     */
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+    
+    public int getMaxQueueDepth() {
+        return maxQueueDepth.get();
+    }
+    
+    public long getCompletedCount() {
+        return completed.get();
+    }
+    
+    public long getParseMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(parseNanos.get());
+    }
+    
+    /**
+     * Gets the time each page spent on a parse thread.
+     * 
+     * @return parse time histogram
+     */
+    public LatencyHistogram getParseTimes() {
+        return parseTimes;
+    }
+    
+    public long getBlockedHandoffCount() {
+        return blockedHandoffs.get();
+    }
+    
+    public long getBlockedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(blockedNanos.get());
+    }
+    
+    /**
+     * Lets queued pages finish parsing and stops the parse threads.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                logger.warn("Parse threads did not finish within 30 seconds");
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            executor.shutdownNow();
+        }
+    }
+    
+    @Override
+    public String toString() {
+        return completed.get() + " pages on " + threads + " threads in " + getParseMillis() + "ms, queue depth max "
+                + maxQueueDepth.get() + " of " + queueCapacity + ", " + blockedHandoffs.get()
+                + " handoffs waited " + getBlockedMillis() + "ms for a full queue";
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.scraper.core.pipeline;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.example.scraper.model.ScrapedData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Hands records to a downstream sink on a dedicated writer thread through a bounded queue.
+ * Scrape threads only enqueue; when the writer falls behind and the queue is full, {@link #accept}
+ * blocks, which holds the scrape thread and so slows fetching down to the speed of the writer.
+ * Memory use is bounded by the queue capacity regardless of how many pages are scraped.
+ */
+public class QueuedRecordSink implements RecordSink, AutoCloseable {
+    
+    private static final Logger logger = LoggerFactory.getLogger(QueuedRecordSink.class);
+    public static final int DEFAULT_CAPACITY = 256;
+    
+    private static final List<ScrapedData> END_OF_STREAM = List.of();
+    
+    private final RecordSink downstream;
+    private final BlockingQueue<List<ScrapedData>> queue;
+    private final Thread writerThread;
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private final AtomicLong recordsWritten = new AtomicLong();
+    private final AtomicLong blockedAccepts = new AtomicLong();
+    private final AtomicLong pagesAccepted = new AtomicLong();
+    private final Object progressLock = new Object();
+    private long pagesHandled = 0;
+    private volatile boolean closed = false;
+    
+    /**
+     * Creates a queued sink and starts its writer thread.
+     * 
+     * @param downstream Sink that performs the actual writes; only ever called from the writer thread
+     * @param capacity Maximum number of pages waiting to be written
+     */
+    public QueuedRecordSink(RecordSink downstream, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Queue capacity must be at least 1");
+        }
+        this.downstream = downstream;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.writerThread = new Thread(this::drain, "record-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+    
+    /**
+     * Queues a page's records, waiting for space if the writer is behind.
+     * 
+     * @param records Records from a single page
+     * @throws IllegalStateException if the sink is closed
+     * @throws RuntimeException if the writer has failed
+     */
+    @Override
+    public void accept(List<ScrapedData> records) {
+        if (records.isEmpty()) {
+            return;
+        }
+        if (closed) {
+            throw new IllegalStateException("Record sink is closed");
+        }
+        // A failure while writing this page is reported by the next accept or by close
+        throwIfFailed();
+        
+        try {
+            if (!queue.offer(records)) {
+                blockedAccepts.incrementAndGet();
+                while (!queue.offer(records, 100, TimeUnit.MILLISECONDS)) {
+                    throwIfFailed();
+                }
+            }
+            pagesAccepted.incrementAndGet();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the record writer", e);
+        }
+    }
+    
+    private void drain() {
+        try {
+            while (true) {
+                List<ScrapedData> records = queue.take();
+                if (records == END_OF_STREAM) {
+                    return;
+                }
+                // After a failure keep taking (and discarding) pages so blocked producers are released
+                if (failure.get() == null) {
+                    write(records);
+                }
+                synchronized (progressLock) {
+                    pagesHandled++;
+                    progressLock.notifyAll();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private void write(List<ScrapedData> records) {
+        try {
+            downstream.accept(records);
+            recordsWritten.addAndGet(records.size());
+        } catch (RuntimeException e) {
+            logger.error("Record writer failed: {}", e.getMessage());
+            failure.set(e);
+        }
+    }
+    
+    /**
+     * Waits until the pages accepted so far have been handed to the downstream sink. Pages accepted
+     * while waiting may or may not have been written when this returns.
+     * 
+     * @throws InterruptedException if interrupted while waiting
+     * @throws RuntimeException if the writer has failed
+     */
+    public void awaitWritten() throws InterruptedException {
+        long accepted = pagesAccepted.get();
+        synchronized (progressLock) {
+            while (pagesHandled < accepted) {
+                throwIfFailed();
+                progressLock.wait(100);
+            }
+        }
+        throwIfFailed();
+    }
+    
+    private void throwIfFailed() {
+        Throwable error = failure.get();
+        if (error != null) {
+            throw new RuntimeException("Failed to write records", error);
+        }
+    }
+    
+    /**
+     * Writes all queued records and stops the writer thread.
+     * 
+     * @throws RuntimeException if the writer failed
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        
+        try {
+            queue.put(END_OF_STREAM);
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            writerThread.interrupt();
+        }
+        if (blockedAccepts.get() > 0) {
+            logger.debug("Scrapers waited for the record writer {} times", blockedAccepts.get());
+        }
+        throwIfFailed();
+    }
+    
+    /**
+     * Gets the number of records handed to the downstream sink.
+     * 
+     * @return records written
+     */
+    public long getRecordsWritten() {
+        return recordsWritten.get();
+    }
+    
+    /**
+     * Gets the number of pages waiting to be written.
+     * 
+     * @return queue depth
+     */
+    public int getQueueDepth() {
+        return queue.size();
+    }
+    
+    /**
+     * Gets how many times a scrape thread had to wait because the queue was full.
+     * 
+     * @return blocked accept count
+     */
+    public long getBlockedAcceptCount() {
+        return blockedAccepts.get();
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.scraper.core.pipeline;
+
+import java.util.List;
+
+import com.example.scraper.model.ScrapedData;
+
+/**
+ * Destination for records as pages are scraped.
+ * Implementations may block to apply backpressure and must be safe to call from several threads.
+ */
+@FunctionalInterface
+public interface RecordSink {
+    
+    /**
+     * Accepts the records extracted from one page.
+     * 
+     * @param records Records from a single page (never null, may be empty)
+     */
+    void accept(List<ScrapedData> records);
+}
@@ -0,0 +1,250 @@
+package com.example.scraper.core.robots;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import crawlercommons.robots.BaseRobotRules;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bounded LRU cache of robots.txt files keyed by origin (scheme://host), optionally persisted to a
+ * JSON file so later runs can skip the robots.txt round trip for sites they have seen recently.
+ * Entries expire according to the response's caching headers; an expired entry may still be served
+ * for {@link #MAX_STALE} while it is refreshed.
+ */
+public class RobotsCache {
+    
+    private static final Logger logger = LoggerFactory.getLogger(RobotsCache.class);
+    private static final int FILE_VERSION = 1;
+    
+    public static final int DEFAULT_MAX_ENTRIES = 10_000;
+    public static final String FILE_NAME = "robots.json";
+    
+    // RFC 9309 section 2.4: cached robots.txt should not be used for more than 24 hours
+    public static final Duration DEFAULT_TTL = Duration.ofHours(24);
+    public static final Duration MAX_STALE = Duration.ofHours(24);
+    
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    
+    private final int maxEntries;
+    private final Path file;
+    private final LinkedHashMap<String, Entry> entries;
+    
+    /**
+     * Creates an in-memory cache.
+     * 
+     * @param maxEntries Maximum number of origins kept; the least recently used are evicted
+     */
+    public RobotsCache(int maxEntries) {
+        this(maxEntries, null);
+    }
+    
+    /**
+     * Creates a cache backed by a file. Existing entries are loaded from the file if it exists.
+     * 
+     * @param maxEntries Maximum number of origins kept; the least recently used are evicted
+     * @param file File the cache is loaded from and saved to, or null to keep it in memory only
+     */
+    public RobotsCache(int maxEntries, Path file) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("Cache size must be at least 1");
+        }
+        this.maxEntries = maxEntries;
+        this.file = file;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > RobotsCache.this.maxEntries;
+            }
+        };
+        
+        if (file != null && Files.exists(file)) {
+            load();
+        }
+    }
+    
+    /**
+     * Gets the cached entry for an origin, expired or not, and marks it as recently used.
+     * 
+     * @param origin Origin such as https://example.com
+     * @return cached entry, or null if the origin is not cached
+     */
+    public synchronized Entry get(String origin) {
+        return entries.get(origin);
+    }
+    
+    /**
+     * Adds or replaces the entry for an origin.
+     * 
+     * @param origin Origin such as https://example.com
+     * @param entry The robots.txt entry
+     */
+    public synchronized void put(String origin, Entry entry) {
+        entries.put(origin, entry);
+    }
+    
+    /**
+     * Removes every entry. The backing file is not touched until the next save.
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+    
+    /**
+     * Gets the number of cached origins.
+     * 
+     * @return entry count
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+    
+    /**
+     * Gets the file the cache is persisted to.
+     * 
+     * @return cache file, or null for an in-memory cache
+     */
+    public Path getFile() {
+        return file;
+    }
+    
+    /**
+     * Writes the cache to its file, replacing the previous contents atomically.
+     * Entries too old to be served are left out. Does nothing for an in-memory cache.
+     */
+    public void save() {
+        if (file == null) {
+            return;
+        }
+        
+        List<Map.Entry<String, Entry>> snapshot;
+        synchronized (this) {
+            snapshot = new ArrayList<>(entries.entrySet());
+        }
+        
+        long now = System.currentTimeMillis();
+        ObjectNode root = objectMapper.createObjectNode();
+        root.put("version", FILE_VERSION);
+        ArrayNode array = root.putArray("entries");
+        // Least recently used first, so reloading restores the LRU order
+        for (Map.Entry<String, Entry> mapEntry : snapshot) {
+            Entry entry = mapEntry.getValue();
+            if (entry.isUsable(now)) {
+                array.addObject()
+                        .put("origin", mapEntry.getKey())
+                        .put("content", entry.getContent())
+                        .put("fetchedAt", entry.getFetchedAtMillis())
+                        .put("expiresAt", entry.getExpiresAtMillis());
+            }
+        }
+        
+        try {
+            Path directory = file.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            Path temp = Files.createTempFile(directory, FILE_NAME, ".tmp");
+            try {
+                objectMapper.writeValue(temp.toFile(), root);
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+            logger.debug("Saved {} robots.txt entries to {}", array.size(), file);
+        } catch (IOException e) {
+            logger.warn("Failed to save robots.txt cache to {}: {}", file, e.getMessage());
+        }
+    }
+    
+    private void load() {
+        try {
+            JsonNode root = objectMapper.readTree(file.toFile());
+            if (root == null || root.path("version").asInt() != FILE_VERSION) {
+                logger.warn("Ignoring robots.txt cache {} with unknown format", file);
+                return;
+            }
+            
+            long now = System.currentTimeMillis();
+            synchronized (this) {
+                for (JsonNode node : root.path("entries")) {
+                    Entry entry = new Entry(node.path("content").asText(),
+                            node.path("fetchedAt").asLong(), node.path("expiresAt").asLong());
+                    if (entry.isUsable(now)) {
+                        entries.put(node.path("origin").asText(), entry);
+                    }
+                }
+            }
+            logger.debug("Loaded {} robots.txt entries from {}", size(), file);
+        } catch (IOException e) {
+            logger.warn("Failed to load robots.txt cache from {}: {}", file, e.getMessage());
+        }
+    }
+    
+    /**
+     * A cached robots.txt file. 4xx responses are cached as an empty file (allow everything) and
+     * 5xx responses as a file that disallows everything, so every entry can be parsed the same way.
+     */
+    public static final class Entry {
+        
+        private final String content;
+        private final long fetchedAtMillis;
+        private final long expiresAtMillis;
+        private volatile BaseRobotRules rules;
+        
+        public Entry(String content, long fetchedAtMillis, long expiresAtMillis) {
+            this.content = content;
+            this.fetchedAtMillis = fetchedAtMillis;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+        
+        public String getContent() {
+            return content;
+        }
+        
+        public long getFetchedAtMillis() {
+            return fetchedAtMillis;
+        }
+        
+        public long getExpiresAtMillis() {
+            return expiresAtMillis;
+        }
+        
+        /**
+         * Checks whether the entry is past its expiry time and should be refreshed.
+         * 
+         * @param nowMillis Current wall-clock time
+         * @return true if expired
+         */
+        public boolean isExpired(long nowMillis) {
+            return nowMillis >= expiresAtMillis;
+        }
+        
+        /**
+         * Checks whether the entry may still be served, possibly stale while it is refreshed.
+         * 
+         * @param nowMillis Current wall-clock time
+         * @return true if fresh or stale by less than {@link #MAX_STALE}
+         */
+        public boolean isUsable(long nowMillis) {
+            return nowMillis < expiresAtMillis + MAX_STALE.toMillis();
+        }
+        
+        BaseRobotRules getRules() {
+            return rules;
+        }
+        
+        void setRules(BaseRobotRules rules) {
+            this.rules = rules;
+        }
+    }
+}
@@ -2,12 +2,23 @@ package com.example.scraper.core.robots;
 
 import java.net.URI;
 import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
+import com.example.scraper.core.http.HttpTransport;
 import crawlercommons.robots.BaseRobotRules;
 import crawlercommons.robots.SimpleRobotRulesParser;
 import org.slf4j.Logger;
@@ -16,119 +27,337 @@ import org.slf4j.LoggerFactory;
 /**
  * Handles robots.txt compliance for web scraping.
  * Uses crawler-commons library for parsing robots.txt files.
+ * Fetched files are kept in a {@link RobotsCache} for as long as their caching headers allow
+ * (at most 24 hours); expired entries keep being served while they are refreshed in the background.
+ * Lookups are asynchronous, and concurrent lookups for a host that is not cached share one request.
  */
-public class RobotsTxtCompliance {
+public class RobotsTxtCompliance implements AutoCloseable {
     
     private static final Logger logger = LoggerFactory.getLogger(RobotsTxtCompliance.class);
     private static final String USER_AGENT = "SimpleWebScraper/1.0 (+https://github.com/example/simple-web-scraper)";
     private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final String DISALLOW_ALL = "User-agent: *\nDisallow: /\n";
     
-    private final HttpClient httpClient;
-    private final ConcurrentMap<String, BaseRobotRules> robotsCache;
+    // Lifetime bounds for cached files; server errors are retried sooner
+    static final Duration MIN_TTL = Duration.ofMinutes(1);
+    static final Duration ERROR_TTL = Duration.ofMinutes(5);
+    
+    private final HttpTransport transport;
+    private final RobotsCache robotsCache;
     private final SimpleRobotRulesParser parser;
+    private final ConcurrentMap<String, CompletableFuture<BaseRobotRules>> inFlight;
+    private final Set<String> refreshing;
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong cacheMisses = new AtomicLong();
     
     public RobotsTxtCompliance(HttpClient httpClient) {
-        this.httpClient = httpClient;
-        this.robotsCache = new ConcurrentHashMap<>();
+        this(httpClient, new RobotsCache(RobotsCache.DEFAULT_MAX_ENTRIES));
+    }
+    
+    /**
+     * Creates a robots.txt checker that shares the given cache.
+     * 
+     * @param httpClient Client used to fetch robots.txt files
+     * @param robotsCache Cache of fetched files, possibly persisted across runs
+     */
+    public RobotsTxtCompliance(HttpClient httpClient, RobotsCache robotsCache) {
+        this(new HttpTransport(httpClient), robotsCache);
+    }
+    
+    /**
+     * Creates a robots.txt checker that fetches through a transport shared with page fetches, so
+     * robots.txt lookups reuse the connections already open to each origin.
+     * 
+     * @param transport Transport used to fetch robots.txt files
+     * @param robotsCache Cache of fetched files, possibly persisted across runs
+     */
+    public RobotsTxtCompliance(HttpTransport transport, RobotsCache robotsCache) {
+        this.transport = transport;
+        this.robotsCache = robotsCache;
         this.parser = new SimpleRobotRulesParser();
+        this.inFlight = new ConcurrentHashMap<>();
+        this.refreshing = ConcurrentHashMap.newKeySet();
     }
     
     /**
      * Checks if a URL is allowed to be crawled according to robots.txt rules.
+     * Blocks while robots.txt is fetched; see {@link #isUrlAllowedAsync(String)}.
      * 
      * @param url The URL to check
      * @return true if crawling is allowed, false otherwise
      */
     public boolean isUrlAllowed(String url) {
+        return isUrlAllowedAsync(url).join();
+    }
+    
+    /**
+     * Checks if a URL is allowed to be crawled without blocking the calling thread.
+     * 
+     * @param url The URL to check
+     * @return CompletableFuture completing with true if crawling is allowed; never completes exceptionally
+     */
+    public CompletableFuture<Boolean> isUrlAllowedAsync(String url) {
         try {
-            URI uri = URI.create(url);
-            String domain = uri.getScheme() + "://" + uri.getHost();
-            
-            BaseRobotRules rules = getRobotRules(domain);
-            return rules.isAllowed(url);
-            
+            return getRobotRulesAsync(originOf(url)).thenApply(rules -> rules.isAllowed(url));
         } catch (Exception e) {
             logger.warn("Error checking robots.txt for URL {}: {}", url, e.getMessage());
             // Default to allowing if we can't determine the rules
-            return true;
+            return CompletableFuture.completedFuture(true);
         }
     }
     
     /**
      * Gets the crawl delay for a domain from robots.txt.
+     * Blocks while robots.txt is fetched; see {@link #getCrawlDelayAsync(String)}.
      * 
-     * @param domain The domain to check
+     * @param domain The domain to check, or any URL on it
      * @return crawl delay in milliseconds, or default 1000ms if not specified
      */
     public long getCrawlDelay(String domain) {
+        return getCrawlDelayAsync(domain).join();
+    }
+    
+    /**
+     * Gets the crawl delay for a domain without blocking the calling thread.
+     * 
+     * @param domain The domain to check, or any URL on it
+     * @return CompletableFuture completing with the crawl delay in milliseconds, or the default of
+     *         1000ms if not specified; never completes exceptionally
+     */
+    public CompletableFuture<Long> getCrawlDelayAsync(String domain) {
+        return getCrawlDelayAsync(domain, 1000L); // Default 1 second
+    }
+        
+    /**
+     * Gets the crawl delay for a domain without blocking the calling thread.
+     * 
+     * @param domain The domain to check, or any URL on it
+     * @param defaultDelayMs Delay to report when robots.txt sets no Crawl-delay
+     * @return CompletableFuture completing with the crawl delay in milliseconds; never completes exceptionally
+     */
+    public CompletableFuture<Long> getCrawlDelayAsync(String domain, long defaultDelayMs) {
         try {
-            BaseRobotRules rules = getRobotRules(domain);
-            long delay = rules.getCrawlDelay();
-            return delay > 0 ? delay * 1000 : 1000; // Convert to milliseconds, default 1 second
+            return getRobotRulesAsync(originOf(domain)).thenApply(rules -> {
+                // crawler-commons already reports the delay in milliseconds
+                long delay = rules.getCrawlDelay();
+                return delay > 0 ? delay : defaultDelayMs;
+            });
         } catch (Exception e) {
             logger.warn("Error getting crawl delay for domain {}: {}", domain, e.getMessage());
-            return 1000; // Default 1 second
+            return CompletableFuture.completedFuture(defaultDelayMs);
+        }
+    }
+    
+    /**
+     * Reduces a URL to the origin its robots.txt applies to.
+     * 
+     * @param url Absolute URL
+     * @return scheme, host and explicit port, e.g. https://example.com:8443
+     */
+    static String originOf(String url) {
+        URI uri = URI.create(url);
+        if (uri.getScheme() == null || uri.getHost() == null) {
+            throw new IllegalArgumentException("Not an absolute URL: " + url);
         }
+        String origin = uri.getScheme().toLowerCase(Locale.ROOT) + "://" + uri.getHost().toLowerCase(Locale.ROOT);
+        return uri.getPort() != -1 ? origin + ":" + uri.getPort() : origin;
     }
     
     /**
      * Gets or fetches robot rules for a domain.
-     * Rules are cached to avoid repeated requests.
+     * Rules are cached to avoid repeated requests. An expired entry is still returned while a
+     * background request refreshes it, unless it is too old to be served at all.
+     * While robots.txt is being fetched, every caller for the domain shares one in-flight future,
+     * so only one request is sent and no thread waits for it.
      * 
      * @param domain The domain to get rules for
-     * @return BaseRobotRules for the domain
+     * @return CompletableFuture with the BaseRobotRules for the domain; never completes exceptionally
      */
-    private BaseRobotRules getRobotRules(String domain) {
-        return robotsCache.computeIfAbsent(domain, this::fetchRobotRules);
+    private CompletableFuture<BaseRobotRules> getRobotRulesAsync(String domain) {
+        RobotsCache.Entry entry = robotsCache.get(domain);
+        long now = System.currentTimeMillis();
+        if (entry != null && entry.isUsable(now)) {
+            cacheHits.incrementAndGet();
+            if (entry.isExpired(now)) {
+                refreshInBackground(domain, entry);
+            }
+            return CompletableFuture.completedFuture(rulesOf(domain, entry));
+        }
+        cacheMisses.incrementAndGet();
+        
+        CompletableFuture<BaseRobotRules> pending = new CompletableFuture<>();
+        CompletableFuture<BaseRobotRules> existing = inFlight.putIfAbsent(domain, pending);
+        if (existing != null) {
+            return existing;
+        }
+        
+        // Another caller may have finished the fetch between the cache check and putIfAbsent
+        entry = robotsCache.get(domain);
+        if (entry != null && entry.isUsable(System.currentTimeMillis())) {
+            inFlight.remove(domain, pending);
+            pending.complete(rulesOf(domain, entry));
+            return pending;
+        }
+        
+        fetchRobotsEntryAsync(domain).whenComplete((fetched, error) -> {
+            RobotsCache.Entry result = fetched != null ? fetched : errorEntry("");
+            // Publish to the cache before leaving the in-flight map so later callers find it
+            robotsCache.put(domain, result);
+            inFlight.remove(domain, pending);
+            pending.complete(rulesOf(domain, result));
+        });
+        return pending;
+    }
+    
+    private BaseRobotRules rulesOf(String domain, RobotsCache.Entry entry) {
+        BaseRobotRules rules = entry.getRules();
+        if (rules == null) {
+            rules = parser.parseContent(domain + "/robots.txt", entry.getContent().getBytes(StandardCharsets.UTF_8),
+                                        "text/plain", USER_AGENT);
+            entry.setRules(rules);
+        }
+        return rules;
     }
     
     /**
-     * Fetches robots.txt from a domain and parses it.
+     * Fetches robots.txt from a domain.
      * 
      * @param domain The domain to fetch robots.txt from
-     * @return Parsed robot rules
+     * @return CompletableFuture with the cache entry for the response; never completes exceptionally
      */
-    private BaseRobotRules fetchRobotRules(String domain) {
+    private CompletableFuture<RobotsCache.Entry> fetchRobotsEntryAsync(String domain) {
         String robotsUrl = domain + "/robots.txt";
+        logger.debug("Fetching robots.txt from: {}", robotsUrl);
         
         try {
-            logger.debug("Fetching robots.txt from: {}", robotsUrl);
-            
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(robotsUrl))
-                    .timeout(REQUEST_TIMEOUT)
-                    .header("User-Agent", USER_AGENT)
-                    .GET()
-                    .build();
-            
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            return transport.sendAsync(createRequest(robotsUrl), HttpResponse.BodyHandlers.ofString())
+                    .handle((response, error) -> {
+                        if (error != null) {
+                            logger.warn("Error fetching robots.txt from {}: {}", robotsUrl, error.getMessage());
+                            // On error, assume crawling is allowed
+                            return errorEntry("");
+                        }
+                        return toEntry(domain, response);
+                    });
+        } catch (Exception e) {
+            logger.warn("Error fetching robots.txt from {}: {}", robotsUrl, e.getMessage());
+            return CompletableFuture.completedFuture(errorEntry(""));
+        }
+    }
+    
+    /**
+     * Refreshes an expired entry without blocking the caller. If the refresh fails, the old file is
+     * kept and retried after {@link #ERROR_TTL}.
+     * 
+     * @param domain The domain to refresh
+     * @param stale The expired entry
+     */
+    private void refreshInBackground(String domain, RobotsCache.Entry stale) {
+        if (!refreshing.add(domain)) {
+            return;
+        }
+        
+        String robotsUrl = domain + "/robots.txt";
+        logger.debug("Refreshing expired robots.txt from: {}", robotsUrl);
+        transport.sendAsync(createRequest(robotsUrl), HttpResponse.BodyHandlers.ofString())
+                .whenComplete((response, error) -> {
+                    try {
+                        if (error == null && response.statusCode() < 500) {
+                            robotsCache.put(domain, toEntry(domain, response));
+                        } else {
+                            logger.warn("Failed to refresh robots.txt from {}, keeping the cached copy", robotsUrl);
+                            robotsCache.put(domain, new RobotsCache.Entry(stale.getContent(), stale.getFetchedAtMillis(),
+                                    System.currentTimeMillis() + ERROR_TTL.toMillis()));
+                        }
+                    } finally {
+                        refreshing.remove(domain);
+                    }
+                });
+    }
+    
+    private HttpRequest createRequest(String robotsUrl) {
+        return transport.newRequest(URI.create(robotsUrl))
+                .timeout(REQUEST_TIMEOUT)
+                .header("User-Agent", USER_AGENT)
+                .GET()
+                .build();
+    }
+    
+    private RobotsCache.Entry toEntry(String domain, HttpResponse<String> response) {
+        int statusCode = response.statusCode();
+        long now = System.currentTimeMillis();
+        
+        if (statusCode >= 200 && statusCode < 300) {
+            // Success - cache the robots.txt content
+            logger.debug("Successfully fetched robots.txt for domain: {}", domain);
+            return new RobotsCache.Entry(response.body(), now, now + cacheLifetime(response.headers(), now).toMillis());
             
-            int statusCode = response.statusCode();
+        } else if (statusCode >= 400 && statusCode < 500) {
+            // 4xx errors - assume crawling is allowed
+            logger.debug("robots.txt not found ({}), assuming crawling allowed for domain: {}", statusCode, domain);
+            return new RobotsCache.Entry("", now, now + cacheLifetime(response.headers(), now).toMillis());
             
-            if (statusCode >= 200 && statusCode < 300) {
-                // Success - parse the robots.txt content
-                String robotsContent = response.body();
-                BaseRobotRules rules = parser.parseContent(robotsUrl, robotsContent.getBytes(), "text/plain", USER_AGENT);
-                logger.debug("Successfully parsed robots.txt for domain: {}", domain);
-                return rules;
-                
-            } else if (statusCode >= 400 && statusCode < 500) {
-                // 4xx errors - assume crawling is allowed
-                logger.debug("robots.txt not found ({}), assuming crawling allowed for domain: {}", statusCode, domain);
-                return parser.parseContent(robotsUrl, new byte[0], "text/plain", USER_AGENT);
-                
-            } else {
-                // 5xx errors - block crawling temporarily
-                logger.warn("robots.txt server error ({}), blocking crawling for domain: {}", statusCode, domain);
-                // Return rules that disallow all crawling
-                return parser.parseContent(robotsUrl, "User-agent: *\nDisallow: /\n".getBytes(), "text/plain", USER_AGENT);
+        } else {
+            // 5xx errors - block crawling temporarily
+            logger.warn("robots.txt server error ({}), blocking crawling for domain: {}", statusCode, domain);
+            return errorEntry(DISALLOW_ALL);
+        }
+    }
+    
+    private static RobotsCache.Entry errorEntry(String content) {
+        long now = System.currentTimeMillis();
+        return new RobotsCache.Entry(content, now, now + ERROR_TTL.toMillis());
+    }
+    
+    /**
+     * Works out how long a robots.txt response may be cached from its Cache-Control or Expires header.
+     * 
+     * @param headers Response headers
+     * @param nowMillis Current wall-clock time
+     * @return lifetime between {@link #MIN_TTL} and {@link RobotsCache#DEFAULT_TTL}, which is also
+     *         the default when the response has no caching headers
+     */
+    static Duration cacheLifetime(HttpHeaders headers, long nowMillis) {
+        Duration lifetime = null;
+        
+        // Cache-Control takes precedence over Expires (RFC 9111 section 5.3)
+        for (String directive : headers.firstValue("Cache-Control").orElse("").toLowerCase(Locale.ROOT).split(",")) {
+            directive = directive.trim();
+            if (directive.equals("no-store") || directive.equals("no-cache")) {
+                lifetime = Duration.ZERO;
+                break;
+            } else if (directive.startsWith("max-age=")) {
+                try {
+                    lifetime = Duration.ofSeconds(Long.parseLong(directive.substring(8)));
+                } catch (NumberFormatException e) {
+                    logger.debug("Ignoring invalid Cache-Control max-age: {}", directive);
+                }
+            }
+        }
+        
+        Optional<String> expires = headers.firstValue("Expires");
+        if (lifetime == null && expires.isPresent()) {
+            try {
+                long expiresAt = ZonedDateTime.parse(expires.get(), DateTimeFormatter.RFC_1123_DATE_TIME)
+                        .toInstant().toEpochMilli();
+                long date = headers.firstValue("Date")
+                        .map(value -> ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME)
+                                .toInstant().toEpochMilli())
+                        .orElse(nowMillis);
+                lifetime = Duration.ofMillis(Math.max(0, expiresAt - date));
+            } catch (DateTimeParseException e) {
+                // An invalid Expires value such as "0" means already expired
+                lifetime = Duration.ZERO;
             }
-            
-        } catch (Exception e) {
-            logger.warn("Error fetching robots.txt from {}: {}", robotsUrl, e.getMessage());
-            // On error, assume crawling is allowed
-            return parser.parseContent(robotsUrl, new byte[0], "text/plain", USER_AGENT);
         }
+        
+        if (lifetime == null) {
+            return RobotsCache.DEFAULT_TTL;
+        }
+        if (lifetime.compareTo(MIN_TTL) < 0) {
+            return MIN_TTL;
+        }
+        return lifetime.compareTo(RobotsCache.DEFAULT_TTL) > 0 ? RobotsCache.DEFAULT_TTL : lifetime;
     }
     
     /**
@@ -148,4 +377,32 @@ public class RobotsTxtCompliance {
     public int getCacheSize() {
         return robotsCache.size();
     }
+    
+    /**
+     * Gets the number of lookups answered from the cache, including expired entries served while
+     * they are refreshed.
+     * 
+     * @return cache hit count
+     */
+    public long getCacheHitCount() {
+        return cacheHits.get();
+    }
+    
+    /**
+     * Gets the number of lookups that had to wait for robots.txt to be fetched, either by sending
+     * the request or by joining one already in flight.
+     * 
+     * @return cache miss count
+     */
+    public long getCacheMissCount() {
+        return cacheMisses.get();
+    }
+    
+    /**
+     * Saves the robots.txt cache if it is backed by a file.
+     */
+    @Override
+    public void close() {
+        robotsCache.save();
+    }
 }
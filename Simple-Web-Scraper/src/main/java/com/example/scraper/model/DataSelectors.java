@@ -4,6 +4,8 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 
 /**
  * Configuration for CSS selectors used in data extraction.
+ * Covers the fixed title, description, url, price and image fields; see {@link ExtractionSchema}
+ * for arbitrary fields.
  */
 public class DataSelectors {
     
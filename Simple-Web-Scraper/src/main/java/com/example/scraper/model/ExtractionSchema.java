@@ -0,0 +1,195 @@
+package com.example.scraper.model;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Declares what is extracted from a page: a container selector and the named fields read from each
+ * container. Every record of a schema stores its values in one array indexed like the schema's
+ * fields, so field names and types are kept once per schema rather than once per record.
+ * <p>
+ * Schemas are immutable and are usually loaded from JSON:
+ * <pre>
+ * {
+ *   "container_selector": "div.product",
+ *   "fields": [
+ *     {"name": "title", "selector": "h2", "key": true},
+ *     {"name": "url", "selector": "a", "source": "url", "key": true},
+ *     {"name": "sku", "selector": "[data-sku]", "source": "attr", "attribute": "data-sku"},
+ *     {"name": "price", "selector": ".price", "regex": "([0-9.,]+)", "type": "number"},
+ *     {"name": "in_stock", "selector": ".stock", "regex": "(?i)in stock", "type": "boolean"}
+ *   ]
+ * }
+ * </pre>
+ */
+public final class ExtractionSchema {
+    
+    /**
+     * The fixed fields of {@link DataSelectors}, without selectors. Records created without a schema use it.
+     */
+    public static final ExtractionSchema DEFAULT = fromSelectors(new DataSelectors());
+    
+    private final String containerSelector;
+    private final List<FieldSpec> fields;
+    private final String[] names;
+    private final FieldSpec.Type[] types;
+    private final Map<String, Integer> indexes;
+    private final boolean hasKeyFields;
+    
+    /**
+     * Creates a schema.
+     * 
+     * @param containerSelector CSS selector for the elements that each yield one record
+     * @param fields Fields read from each container, in output column order
+     * @throws IllegalArgumentException if there are no fields or two fields share a name
+     */
+    @JsonCreator
+    public ExtractionSchema(@JsonProperty("container_selector") String containerSelector,
+                            @JsonProperty("fields") List<FieldSpec> fields) {
+        if (fields == null || fields.isEmpty()) {
+            throw new IllegalArgumentException("An extraction schema needs at least one field");
+        }
+        this.containerSelector = containerSelector;
+        this.fields = Collections.unmodifiableList(new ArrayList<>(fields));
+        this.names = new String[fields.size()];
+        this.types = new FieldSpec.Type[fields.size()];
+        this.indexes = new HashMap<>();
+        boolean keys = false;
+        for (int i = 0; i < fields.size(); i++) {
+            FieldSpec field = fields.get(i);
+            names[i] = field.getName();
+            types[i] = field.getType();
+            if (indexes.put(field.getName(), i) != null) {
+                throw new IllegalArgumentException("Duplicate field name in extraction schema: " + field.getName());
+            }
+            keys |= field.isKey();
+        }
+        this.hasKeyFields = keys;
+    }
+    
+    /**
+     * Builds the schema equivalent to a set of fixed selectors: text title, description and price,
+     * URL-valued url and image_url, with title and url as key fields.
+     * 
+     * @param selectors CSS selectors for the fixed fields
+     * @return schema with the fields title, description, url, price and image_url
+     */
+    public static ExtractionSchema fromSelectors(DataSelectors selectors) {
+        return new ExtractionSchema(selectors.getContainerSelector(), List.of(
+                new FieldSpec("title", selectors.getTitleSelector(), FieldSpec.Source.TEXT, true),
+                new FieldSpec("description", selectors.getDescriptionSelector(), FieldSpec.Source.TEXT, false),
+                new FieldSpec("url", selectors.getUrlSelector(), FieldSpec.Source.URL, true),
+                new FieldSpec("price", selectors.getPriceSelector(), FieldSpec.Source.TEXT, false),
+                new FieldSpec("image_url", selectors.getImageSelector(), FieldSpec.Source.URL, false)));
+    }
+    
+    /**
+     * Reads a schema from a JSON file.
+     * 
+     * @param file The schema file
+     * @return the schema
+     * @throws IOException if the file cannot be read or is not a valid schema
+     */
+    public static ExtractionSchema load(File file) throws IOException {
+        try {
+            return new ObjectMapper().readValue(file, ExtractionSchema.class);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid extraction schema " + file + ": " + e.getMessage(), e);
+        }
+    }
+    
+    public String getContainerSelector() {
+        return containerSelector;
+    }
+    
+    public List<FieldSpec> getFields() {
+        return fields;
+    }
+    
+    public int size() {
+        return names.length;
+    }
+    
+    public FieldSpec getField(int index) {
+        return fields.get(index);
+    }
+    
+    public String getName(int index) {
+        return names[index];
+    }
+    
+    public FieldSpec.Type getType(int index) {
+        return types[index];
+    }
+    
+    /**
+     * Gets the position of a field in records of this schema.
+     * 
+     * @param name Field name
+     * @return field index, or -1 if the schema has no such field
+     */
+    public int indexOf(String name) {
+        Integer index = indexes.get(name);
+        return index != null ? index : -1;
+    }
+    
+    /**
+     * Checks whether records of another schema have the same field names and types in the same
+     * order, so a writer or cache built for this schema can store them.
+     * 
+     * @param other Another schema
+     * @return true if records of both schemas are laid out alike
+     */
+    public boolean hasSameLayout(ExtractionSchema other) {
+        return this == other || (other != null && Arrays.equals(names, other.names) && Arrays.equals(types, other.types));
+    }
+    
+    /**
+     * Checks whether extracted values make a record worth keeping: at least one key field has a
+     * value, or, if the schema has no key fields, at least one field has.
+     * 
+     * @param values Values indexed like the schema's fields
+     * @return true if the record should be kept
+     */
+    boolean isComplete(Object[] values) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null && (!hasKeyFields || fields.get(i).isKey())) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        
+        ExtractionSchema that = (ExtractionSchema) o;
+        return Objects.equals(containerSelector, that.containerSelector) && fields.equals(that.fields);
+    }
+    
+    @Override
+    public int hashCode() {
+        return Objects.hash(containerSelector, fields);
+    }
+    
+    @Override
+    public String toString() {
+        return "ExtractionSchema{" +
+                "containerSelector='" + containerSelector + '\'' +
+                ", fields=" + fields +
+                '}';
+    }
+}
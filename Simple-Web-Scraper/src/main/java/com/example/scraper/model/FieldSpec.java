@@ -0,0 +1,247 @@
+package com.example.scraper.model;
+
+import java.util.Locale;
+import java.util.Objects;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * One named field of an {@link ExtractionSchema}: where its value is found in a container and how
+ * the raw string is turned into the stored value.
+ */
+public final class FieldSpec {
+    
+    /**
+     * What part of the matched element supplies the raw value.
+     */
+    public enum Source {
+        /** The element's text, whitespace-normalized. */
+        @JsonProperty("text") TEXT,
+        /** The element's inner HTML. */
+        @JsonProperty("html") HTML,
+        /** The value of {@link FieldSpec#getAttribute()}; "abs:" prefixes resolve URLs. */
+        @JsonProperty("attr") ATTR,
+        /** The element's href, or its src if it has none, kept only if it is a usable URL. */
+        @JsonProperty("url") URL
+    }
+    
+    /**
+     * Type the raw string is coerced to. Values that do not coerce are stored as null.
+     */
+    public enum Type {
+        /** Kept as a string. */
+        @JsonProperty("string") STRING,
+        /** A {@link Long} from the first number in the string; currency symbols and grouping commas are ignored. */
+        @JsonProperty("integer") INTEGER,
+        /** A {@link Double}; as for integers, with '.' as the decimal separator. */
+        @JsonProperty("number") NUMBER,
+        /** A {@link Boolean} from true/false, yes/no, on/off or 1/0. */
+        @JsonProperty("boolean") BOOLEAN;
+        
+        /**
+         * Coerces a raw string to this type.
+         * 
+         * @param raw The extracted string, or null
+         * @return the coerced value, or null if the string is null or does not coerce
+         */
+        public Object coerce(String raw) {
+            if (raw == null) {
+                return null;
+            }
+            switch (this) {
+                case INTEGER: {
+                    String digits = numericPart(raw, false);
+                    try {
+                        return digits.isEmpty() ? null : Long.valueOf(digits);
+                    } catch (NumberFormatException e) {
+                        return null;
+                    }
+                }
+                case NUMBER: {
+                    String digits = numericPart(raw, true);
+                    try {
+                        return digits.isEmpty() ? null : Double.valueOf(digits);
+                    } catch (NumberFormatException e) {
+                        return null;
+                    }
+                }
+                case BOOLEAN:
+                    switch (raw.trim().toLowerCase(Locale.ROOT)) {
+                        case "true": case "yes": case "on": case "1":
+                            return Boolean.TRUE;
+                        case "false": case "no": case "off": case "0":
+                            return Boolean.FALSE;
+                        default:
+                            return null;
+                    }
+                default:
+                    return raw;
+            }
+        }
+        
+        /**
+         * Finds the first number in a string, such as 10 in "$10 - $20" or 4.5 in "Rated 4.5 out of 5".
+         * Grouping commas between digits are skipped; a minus sign counts only right before the digits.
+         */
+        private static String numericPart(String raw, boolean decimal) {
+            int start = 0;
+            while (start < raw.length() && !isDigit(raw, start)
+                    && !(decimal && raw.charAt(start) == '.' && isDigit(raw, start + 1))) {
+                start++;
+            }
+            
+            StringBuilder digits = new StringBuilder(raw.length() - start);
+            if (start > 0 && raw.charAt(start - 1) == '-') {
+                digits.append('-');
+            }
+            boolean fraction = false;
+            for (int i = start; i < raw.length(); i++) {
+                char c = raw.charAt(i);
+                if (isDigit(raw, i)) {
+                    digits.append(c);
+                } else if (c == ',' && !fraction && isDigit(raw, i + 1)) {
+                    // Grouping separator inside the number
+                    continue;
+                } else if (c == '.' && decimal && !fraction && isDigit(raw, i + 1)) {
+                    digits.append(c);
+                    fraction = true;
+                } else {
+                    // The fraction of an integer field is dropped, and anything else ends the number
+                    break;
+                }
+            }
+            return digits.toString();
+        }
+        
+        private static boolean isDigit(String raw, int index) {
+            return index < raw.length() && raw.charAt(index) >= '0' && raw.charAt(index) <= '9';
+        }
+    }
+    
+    private final String name;
+    private final String selector;
+    private final Source source;
+    private final String attribute;
+    private final String regex;
+    private final Type type;
+    private final boolean key;
+    
+    /**
+     * Creates a field.
+     * 
+     * @param name Field name, used as the output column or JSON property
+     * @param selector CSS selector for the element within the container; the first match is used
+     * @param source What part of the element supplies the value (default: text)
+     * @param attribute Attribute to read when the source is attr
+     * @param regex Optional pattern applied to the raw value: its first group, or the whole match if
+     *              it has no groups, becomes the value; no match leaves the field empty. For a
+     *              boolean field, the value is whether the pattern matches
+     * @param type Type the value is coerced to (default: string)
+     * @param key Whether the field identifies a record: containers where no key field has a value
+     *            are skipped, and without key fields containers with no value at all are skipped
+     * @throws IllegalArgumentException if the name is blank, an attr field has no attribute or the
+     *                                  regex is invalid
+     */
+    @JsonCreator
+    public FieldSpec(@JsonProperty("name") String name,
+                     @JsonProperty("selector") String selector,
+                     @JsonProperty("source") Source source,
+                     @JsonProperty("attribute") String attribute,
+                     @JsonProperty("regex") String regex,
+                     @JsonProperty("type") Type type,
+                     @JsonProperty("key") boolean key) {
+        if (name == null || name.trim().isEmpty()) {
+            throw new IllegalArgumentException("Field name must not be empty");
+        }
+        this.name = name;
+        this.selector = selector;
+        this.source = source != null ? source : Source.TEXT;
+        this.attribute = attribute;
+        this.regex = regex;
+        this.type = type != null ? type : Type.STRING;
+        this.key = key;
+        
+        if (this.source == Source.ATTR && (attribute == null || attribute.isEmpty())) {
+            throw new IllegalArgumentException("Field '" + name + "' reads an attribute but names none");
+        }
+        if (regex != null) {
+            try {
+                Pattern.compile(regex);
+            } catch (PatternSyntaxException e) {
+                throw new IllegalArgumentException("Field '" + name + "' has an invalid regex: " + e.getMessage(), e);
+            }
+        }
+    }
+    
+    /**
+     * Creates a string field without a regex.
+     * 
+     * @param name Field name
+     * @param selector CSS selector for the element within the container
+     * @param source What part of the element supplies the value
+     * @param key Whether the field identifies a record
+     */
+    public FieldSpec(String name, String selector, Source source, boolean key) {
+        this(name, selector, source, null, null, Type.STRING, key);
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public String getSelector() {
+        return selector;
+    }
+    
+    public Source getSource() {
+        return source;
+    }
+    
+    public String getAttribute() {
+        return attribute;
+    }
+    
+    public String getRegex() {
+        return regex;
+    }
+    
+    public Type getType() {
+        return type;
+    }
+    
+    public boolean isKey() {
+        return key;
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        
+        FieldSpec that = (FieldSpec) o;
+        return key == that.key && name.equals(that.name) && Objects.equals(selector, that.selector)
+                && source == that.source && Objects.equals(attribute, that.attribute)
+                && Objects.equals(regex, that.regex) && type == that.type;
+    }
+    
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, selector, source, attribute, regex, type, key);
+    }
+    
+    @Override
+    public String toString() {
+        return "FieldSpec{" +
+                "name='" + name + '\'' +
+                ", selector='" + selector + '\'' +
+                ", source=" + source +
+                (attribute != null ? ", attribute='" + attribute + '\'' : "") +
+                (regex != null ? ", regex='" + regex + '\'' : "") +
+                ", type=" + type +
+                ", key=" + key +
+                '}';
+    }
+}
@@ -1,87 +1,157 @@
 package com.example.scraper.model;
 
-import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.Arrays;
 
 /**
- * Represents scraped data from a web page.
+ * Represents scraped data from a web page: one value per field of its {@link ExtractionSchema},
+ * stored in a plain array shared with nothing else.
+ * <p>
+ * Records created without a schema use {@link ExtractionSchema#DEFAULT}, whose fields the named
+ * getters and setters read and write. On a record of another schema those getters return null for
+ * fields the schema does not have, and the setters throw.
  */
 public class ScrapedData {
     
-    @JsonProperty("title")
-    private String title;
+    private final ExtractionSchema schema;
+    private final Object[] values;
     
-    @JsonProperty("description")
-    private String description;
+    public ScrapedData() {
+        this(ExtractionSchema.DEFAULT);
+    }
     
-    @JsonProperty("url")
-    private String url;
+    public ScrapedData(ExtractionSchema schema) {
+        this.schema = schema;
+        this.values = new Object[schema.size()];
+    }
     
-    @JsonProperty("price")
-    private String price;
+    public ScrapedData(String title, String description, String url) {
+        this();
+        setTitle(title);
+        setDescription(description);
+        setUrl(url);
+    }
     
-    @JsonProperty("image_url")
-    private String imageUrl;
+    public ExtractionSchema getSchema() {
+        return schema;
+    }
     
-    public ScrapedData() {
-        // Default constructor for Jackson
+    /**
+     * Gets a value by field index.
+     * 
+     * @param index Field index in the schema
+     * @return the value (String, Long, Double or Boolean), or null
+     */
+    public Object get(int index) {
+        return values[index];
     }
     
-    public ScrapedData(String title, String description, String url) {
-        this.title = title;
-        this.description = description;
-        this.url = url;
+    /**
+     * Sets a value by field index.
+     * 
+     * @param index Field index in the schema
+     * @param value The value, already coerced to the field's type, or null
+     */
+    public void set(int index, Object value) {
+        values[index] = value;
+    }
+    
+    /**
+     * Gets a value by field name.
+     * 
+     * @param name Field name
+     * @return the value, or null if it is missing or the schema has no such field
+     */
+    public Object get(String name) {
+        int index = schema.indexOf(name);
+        return index >= 0 ? values[index] : null;
+    }
+    
+    /**
+     * Sets a value by field name.
+     * 
+     * @param name Field name
+     * @param value The value, already coerced to the field's type, or null
+     * @throws IllegalArgumentException if the schema has no such field
+     */
+    public void set(String name, Object value) {
+        int index = schema.indexOf(name);
+        if (index < 0) {
+            throw new IllegalArgumentException("Schema has no field named " + name);
+        }
+        values[index] = value;
+    }
+    
+    /**
+     * Checks whether the record has a value in a key field, or in any field if the schema has no
+     * key fields; records without one are not worth keeping.
+     * 
+     * @return true if the record identifies something
+     */
+    public boolean isComplete() {
+        return schema.isComplete(values);
     }
     
     // Getters and setters
     public String getTitle() {
-        return title;
+        return getString("title");
     }
     
     public void setTitle(String title) {
-        this.title = title;
+        set("title", title);
     }
     
     public String getDescription() {
-        return description;
+        return getString("description");
     }
     
     public void setDescription(String description) {
-        this.description = description;
+        set("description", description);
     }
     
     public String getUrl() {
-        return url;
+        return getString("url");
     }
     
     public void setUrl(String url) {
-        this.url = url;
+        set("url", url);
     }
     
     public String getPrice() {
-        return price;
+        return getString("price");
     }
     
     public void setPrice(String price) {
-        this.price = price;
+        set("price", price);
     }
     
     public String getImageUrl() {
-        return imageUrl;
+        return getString("image_url");
     }
     
     public void setImageUrl(String imageUrl) {
-        this.imageUrl = imageUrl;
+        set("image_url", imageUrl);
+    }
+    
+    private String getString(String name) {
+        Object value = get(name);
+        return value != null ? value.toString() : null;
     }
     
     @Override
     public String toString() {
-        return "ScrapedData{" +
-                "title='" + title + '\'' +
-                ", description='" + description + '\'' +
-                ", url='" + url + '\'' +
-                ", price='" + price + '\'' +
-                ", imageUrl='" + imageUrl + '\'' +
-                '}';
+        StringBuilder text = new StringBuilder("ScrapedData{");
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                text.append(", ");
+            }
+            text.append(schema.getName(i)).append('=');
+            if (values[i] instanceof String) {
+                text.append('\'').append(values[i]).append('\'');
+            } else {
+                text.append(values[i]);
+            }
+        }
+        return text.append('}').toString();
     }
     
     @Override
@@ -90,21 +160,11 @@ public class ScrapedData {
         if (o == null || getClass() != o.getClass()) return false;
         
         ScrapedData that = (ScrapedData) o;
-        
-        if (title != null ? !title.equals(that.title) : that.title != null) return false;
-        if (description != null ? !description.equals(that.description) : that.description != null) return false;
-        if (url != null ? !url.equals(that.url) : that.url != null) return false;
-        if (price != null ? !price.equals(that.price) : that.price != null) return false;
-        return imageUrl != null ? imageUrl.equals(that.imageUrl) : that.imageUrl == null;
+        return schema.hasSameLayout(that.schema) && Arrays.equals(values, that.values);
     }
     
     @Override
     public int hashCode() {
-        int result = title != null ? title.hashCode() : 0;
-        result = 31 * result + (description != null ? description.hashCode() : 0);
-        result = 31 * result + (url != null ? url.hashCode() : 0);
-        result = 31 * result + (price != null ? price.hashCode() : 0);
-        result = 31 * result + (imageUrl != null ? imageUrl.hashCode() : 0);
-        return result;
+        return Arrays.hashCode(values);
     }
 }
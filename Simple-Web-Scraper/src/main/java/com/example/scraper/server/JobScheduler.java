@@ -0,0 +1,288 @@
+package com.example.scraper.server;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.example.scraper.cli.ScrapeOptions;
+import com.example.scraper.cli.WebScraper;
+import com.example.scraper.core.parser.SelectorProfiles;
+import com.example.scraper.core.persistence.CSVWriter;
+import com.example.scraper.core.persistence.JSONLWriter;
+import com.example.scraper.core.persistence.WriterOptions;
+import com.example.scraper.core.pipeline.QueuedRecordSink;
+import com.example.scraper.model.DataSelectors;
+import com.example.scraper.model.ExtractionSchema;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs scrape jobs on one long-lived {@link WebScraper}, so every job reuses its warm JIT, HTTP
+ * connections, rate limits and robots.txt cache, and jobs that give the same selectors share one
+ * compiled {@link com.example.scraper.core.parser.SelectorPlan}.
+ * <p>
+ * Up to a fixed number of jobs run at once; later ones wait in a FIFO queue. Running jobs share the
+ * scraper's page slots, which it hands out in turn, so a large job cannot starve a small one
+ * submitted after it. Each job writes its records to its own directory as JSON Lines and as CSV,
+ * so either export is a plain file served from disk.
+ * <p>
+ * Only the most recently finished jobs are remembered; older ones are forgotten as new ones finish,
+ * though their files remain.
+ */
+public class JobScheduler implements AutoCloseable {
+    
+    private static final Logger logger = LoggerFactory.getLogger(JobScheduler.class);
+    public static final int DEFAULT_MAX_RUNNING_JOBS = 4;
+    public static final int DEFAULT_MAX_FINISHED_JOBS = 100;
+    
+    private final WebScraper scraper;
+    private final Path jobsDir;
+    private final int outputQueuePages;
+    private final int maxFinishedJobs;
+    private final ExecutorService runners;
+    private final Map<String, ScrapeJob> jobs = new ConcurrentHashMap<>();
+    // Finished jobs in the order they finished, oldest first
+    private final Deque<ScrapeJob> finishedJobs = new ArrayDeque<>();
+    private final AtomicInteger runningCount = new AtomicInteger();
+    private final AtomicInteger queuedCount = new AtomicInteger();
+    
+    /**
+     * Creates a scheduler.
+     * 
+     * @param scraper The scraper all jobs run on; closing the scheduler does not close it
+     * @param jobsDir Directory under which each job gets a directory for its output
+     * @param maxRunningJobs Jobs that run at the same time
+     * @param outputQueuePages Pages buffered for each job's output writer
+     * @param maxFinishedJobs Finished jobs to remember before the oldest is forgotten
+     */
+    public JobScheduler(WebScraper scraper, Path jobsDir, int maxRunningJobs, int outputQueuePages,
+                        int maxFinishedJobs) {
+        if (maxRunningJobs < 1) {
+            throw new IllegalArgumentException("At least one job must be allowed to run");
+        }
+        if (maxFinishedJobs < 1) {
+            throw new IllegalArgumentException("At least one finished job must be remembered");
+        }
+        this.scraper = scraper;
+        this.jobsDir = jobsDir;
+        this.outputQueuePages = outputQueuePages;
+        this.maxFinishedJobs = maxFinishedJobs;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.runners = Executors.newFixedThreadPool(maxRunningJobs, runnable -> {
+            Thread thread = new Thread(runnable, "scrape-job-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    /**
+     * Queues a job.
+     * 
+     * @param urls URLs to scrape, or seeds to crawl from
+     * @param selectors Selectors to extract records with, or null for the scraper's own
+     * @param options Robots.txt, delay and page limit settings
+     * @param crawl Whether to follow links from the URLs
+     * @return the pending job
+     * @throws IllegalArgumentException if there are no URLs
+     */
+    public ScrapeJob submit(List<String> urls, DataSelectors selectors, ScrapeOptions options, boolean crawl) {
+        if (urls.isEmpty()) {
+            throw new IllegalArgumentException("At least one URL is required");
+        }
+        options.setSelectorProfiles(selectors != null ? compile(selectors) : scraper.getSelectorProfiles());
+        String id = UUID.randomUUID().toString();
+        ScrapeJob job = new ScrapeJob(id, urls, selectors, options, crawl, jobsDir.resolve(id));
+        jobs.put(id, job);
+        queuedCount.incrementAndGet();
+        job.setFuture(runners.submit(() -> run(job)));
+        logger.info("Queued job {} with {} URLs", id, urls.size());
+        return job;
+    }
+    
+    /**
+     * Gets the compiled form of a set of selectors, compiling them only if no job used them before.
+     * Invalid selectors leave their field empty, as in a command-line run.
+     * 
+     * @param selectors Selectors for the built-in fields
+     * @return compiled selectors
+     */
+    public SelectorProfiles compile(DataSelectors selectors) {
+        return SelectorProfiles.of(ExtractionSchema.fromSelectors(selectors));
+    }
+    
+    /**
+     * Runs a job to the end, writing its records as they are extracted.
+     * 
+     * @param job The job
+     */
+    private void run(ScrapeJob job) {
+        if (!job.markRunning()) {
+            return;
+        }
+        queuedCount.decrementAndGet();
+        runningCount.incrementAndGet();
+        logger.info("Started job {}", job.getId());
+        
+        ScrapeJob.Status status = ScrapeJob.Status.COMPLETED;
+        String error = null;
+        long recordsWritten = 0;
+        try {
+            Files.createDirectories(job.getDirectory());
+            WriterOptions writerOptions = new WriterOptions();
+            writerOptions.setSchema(job.getOptions().getSelectorProfiles().getDefaultSchema());
+            // One file per format, so an export is a single file
+            writerOptions.setMaxFileBytes(0);
+            JSONLWriter jsonlWriter = new JSONLWriter(job.getJsonlFile().toString(), false, writerOptions);
+            CSVWriter csvWriter = new CSVWriter(job.getCsvFile().toString(), false, writerOptions);
+            QueuedRecordSink sink = new QueuedRecordSink(records -> {
+                jsonlWriter.writeData(records);
+                csvWriter.writeData(records);
+            }, outputQueuePages);
+            
+            try {
+                if (job.isCrawl()) {
+                    scraper.crawl(job.getUrls(), job.getOptions(), sink);
+                } else {
+                    List<String> urls = job.getUrls();
+                    scraper.scrapeUrls(urls.subList(0, (int) Math.min(urls.size(), job.getTotalPages())),
+                                       job.getOptions(), sink);
+                }
+            } finally {
+                try {
+                    sink.close();
+                } finally {
+                    jsonlWriter.close();
+                    csvWriter.close();
+                }
+                recordsWritten = sink.getRecordsWritten();
+            }
+        } catch (InterruptedException e) {
+            // Cancelled; the job is marked CANCELLED below
+            logger.debug("Job {} interrupted", job.getId());
+        } catch (IOException | RuntimeException e) {
+            logger.error("Job {} failed: {}", job.getId(), e.getMessage(), e);
+            status = ScrapeJob.Status.FAILED;
+            error = e.getMessage();
+        } finally {
+            runningCount.decrementAndGet();
+        }
+        
+        job.markFinished(status, recordsWritten, error);
+        logger.info("Job {} {}: {} pages, {} records", job.getId(), job.getStatus(), job.getPagesScraped(),
+                   recordsWritten);
+        retire(job);
+    }
+    
+    /**
+     * Remembers a finished job, forgetting the oldest finished jobs beyond the limit.
+     * 
+     * @param job The job that just finished
+     */
+    private void retire(ScrapeJob job) {
+        synchronized (finishedJobs) {
+            finishedJobs.addLast(job);
+            while (finishedJobs.size() > maxFinishedJobs) {
+                ScrapeJob oldest = finishedJobs.removeFirst();
+                jobs.remove(oldest.getId(), oldest);
+                logger.debug("Forgot job {}", oldest.getId());
+            }
+        }
+    }
+    
+    /**
+     * Gets a job.
+     * 
+     * @param id Job ID
+     * @return the job, or null if there is none with that ID
+     */
+    public ScrapeJob get(String id) {
+        return jobs.get(id);
+    }
+    
+    /**
+     * Gets all jobs, newest first.
+     * 
+     * @return jobs
+     */
+    public List<ScrapeJob> list() {
+        List<ScrapeJob> list = new ArrayList<>(jobs.values());
+        list.sort(Comparator.comparingLong(ScrapeJob::getCreatedAt).reversed());
+        return list;
+    }
+    
+    /**
+     * Cancels a job.
+     * 
+     * @param id Job ID
+     * @return false if there is no such job or it had already finished
+     */
+    public boolean cancel(String id) {
+        ScrapeJob job = jobs.get(id);
+        return job != null && cancel(job);
+    }
+    
+    /**
+     * Cancels a job, counting it out of the queue if it had not started.
+     * 
+     * @param job The job
+     * @return false if the job had already finished
+     */
+    private boolean cancel(ScrapeJob job) {
+        boolean wasPending;
+        // The job's lock keeps a runner from starting it between the check and the cancel
+        synchronized (job) {
+            wasPending = job.getStatus() == ScrapeJob.Status.PENDING;
+            if (!job.cancel()) {
+                return false;
+            }
+        }
+        if (wasPending) {
+            queuedCount.decrementAndGet();
+            retire(job);
+        }
+        return true;
+    }
+    
+    public int getRunningCount() {
+        return runningCount.get();
+    }
+    
+    /**
+     * Gets the number of jobs waiting for a free runner.
+     * 
+     * @return pending jobs
+     */
+    public int getQueuedCount() {
+        return queuedCount.get();
+    }
+    
+    /**
+     * Cancels running and queued jobs and waits briefly for their output to be closed.
+     */
+    @Override
+    public void close() {
+        for (ScrapeJob job : jobs.values()) {
+            cancel(job);
+        }
+        runners.shutdownNow();
+        try {
+            if (!runners.awaitTermination(10, TimeUnit.SECONDS)) {
+                logger.warn("Jobs still running after shutdown");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
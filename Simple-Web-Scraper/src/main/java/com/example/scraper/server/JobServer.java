@@ -0,0 +1,715 @@
+package com.example.scraper.server;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.example.scraper.cli.ScrapeOptions;
+import com.example.scraper.cli.ScraperConfig;
+import com.example.scraper.cli.WebScraper;
+import com.example.scraper.model.DataSelectors;
+import com.example.scraper.model.ExtractionSchema;
+import com.example.scraper.model.ScrapedData;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.jsoup.select.QueryParser;
+import org.jsoup.select.Selector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Serves the REST API the web frontend calls, under /api, in front of a {@link JobScheduler}:
+ * <ul>
+ *   <li>{@code GET /api/jobs}, {@code POST /api/jobs} to list and submit jobs</li>
+ *   <li>{@code GET /api/jobs/{id}} and {@code /status} for a job's settings and progress</li>
+ *   <li>{@code GET /api/jobs/{id}/results?page=&pageSize=} for a page of its records</li>
+ *   <li>{@code GET /api/jobs/{id}/export?format=csv|jsonl} to download its output file</li>
+ *   <li>{@code POST /api/jobs/{id}/cancel}</li>
+ *   <li>{@code POST /api/test-selectors} to try selectors on one page</li>
+ *   <li>{@code GET /api/robots/{domain}} to check a site's robots.txt</li>
+ * </ul>
+ * Errors are answered as {@code {"message": "..."}}. The frontend's WebSocket progress events are
+ * not served; it falls back to polling the status endpoint. Given a web root, the server also serves
+ * the frontend's static files, answering unknown paths with its index.html for client-side routes.
+ * Like {@link com.example.scraper.core.metrics.MetricsServer} it listens on the loopback interface only.
+ */
+public class JobServer implements AutoCloseable {
+    
+    private static final Logger logger = LoggerFactory.getLogger(JobServer.class);
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final String JSON = "application/json; charset=utf-8";
+    private static final int HANDLER_THREADS = 8;
+    private static final int MAX_REQUEST_BYTES = 1024 * 1024;
+    private static final int RESULTS_PREVIEW = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int SAMPLE_RESULTS = 5;
+    private static final long TEST_TIMEOUT_SECONDS = 60;
+    private static final List<String> LOCAL_HOSTS = List.of("localhost", "127.0.0.1", "[::1]");
+    private static final Map<String, String> CONTENT_TYPES = Map.of(
+            "html", "text/html; charset=utf-8",
+            "css", "text/css; charset=utf-8",
+            "js", "text/javascript; charset=utf-8",
+            "json", JSON,
+            "svg", "image/svg+xml",
+            "png", "image/png",
+            "ico", "image/x-icon",
+            "md", "text/plain; charset=utf-8");
+    
+    // The frontend's selector names and the fields of ExtractionSchema.fromSelectors they fill
+    private static final Map<String, String> FIELD_NAMES = Map.of(
+            "titleSelector", "title",
+            "descriptionSelector", "description",
+            "urlSelector", "url",
+            "priceSelector", "price",
+            "imageSelector", "image_url");
+    
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final WebScraper scraper;
+    private final JobScheduler scheduler;
+    private final ScraperConfig config;
+    private final DataSelectors defaultSelectors;
+    private final Path webRoot;
+    
+    private JobServer(WebScraper scraper, ScraperConfig config, DataSelectors defaultSelectors) throws IOException {
+        this.scraper = scraper;
+        this.config = config;
+        this.defaultSelectors = defaultSelectors;
+        this.webRoot = config.getWebRoot() != null ? Path.of(config.getWebRoot()).toAbsolutePath().normalize() : null;
+        this.scheduler = new JobScheduler(scraper, Path.of(config.getJobsDir()), config.getMaxJobs(),
+                                          config.getOutputQueuePages(), config.getMaxFinishedJobs());
+        this.server = HttpServer.create(
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), config.getServerPort()), 0);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(HANDLER_THREADS, runnable -> {
+            Thread thread = new Thread(runnable, "job-server-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/api/", this::handleApi);
+        server.createContext("/", this::handleStatic);
+    }
+    
+    /**
+     * Starts serving jobs on the port and with the limits of a configuration, and registers the job
+     * counts with the scraper's metrics.
+     * 
+     * @param scraper The scraper every job runs on
+     * @param config Server settings, and the defaults for job settings a request leaves out
+     * @param defaultSelectors Selectors a job's selectors are merged over
+     * @return the running server
+     * @throws IOException if the port cannot be bound
+     */
+    public static JobServer start(WebScraper scraper, ScraperConfig config, DataSelectors defaultSelectors)
+            throws IOException {
+        JobServer jobServer = new JobServer(scraper, config, defaultSelectors);
+        scraper.getMetrics().gauge("scraper_jobs_running", "Jobs running", jobServer.scheduler::getRunningCount);
+        scraper.getMetrics().gauge("scraper_jobs_queued", "Jobs waiting to run", jobServer.scheduler::getQueuedCount);
+        jobServer.server.start();
+        logger.info("Serving jobs at http://localhost:{}/api/jobs", jobServer.getPort());
+        return jobServer;
+    }
+    
+    private void handleApi(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String method = exchange.getRequestMethod();
+            String[] path = exchange.getRequestURI().getRawPath().substring("/api/".length()).split("/");
+            if (!isLocalRequest(exchange)) {
+                sendError(exchange, 403, "Requests must come from localhost");
+                return;
+            }
+            try {
+                Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+                if (path[0].equals("jobs") && path.length == 1) {
+                    if (method.equals("GET")) {
+                        listJobs(exchange);
+                    } else if (method.equals("POST")) {
+                        createJob(exchange);
+                    } else {
+                        sendError(exchange, 405, "Method not allowed");
+                    }
+                } else if (path[0].equals("jobs") && path.length <= 3) {
+                    handleJob(exchange, method, path, query);
+                } else if (path[0].equals("test-selectors") && path.length == 1 && method.equals("POST")) {
+                    testSelectors(exchange);
+                } else if (path[0].equals("robots") && path.length == 2 && method.equals("GET")) {
+                    checkRobots(exchange, URLDecoder.decode(path[1], StandardCharsets.UTF_8));
+                } else {
+                    sendError(exchange, 404, "Not found");
+                }
+            } catch (UnsupportedMediaTypeException e) {
+                sendError(exchange, 415, e.getMessage());
+            } catch (IllegalArgumentException e) {
+                sendError(exchange, 400, e.getMessage());
+            } catch (RuntimeException e) {
+                logger.error("Error handling {} {}: {}", method, exchange.getRequestURI(), e.getMessage(), e);
+                sendError(exchange, 500, "Internal error: " + e.getMessage());
+            }
+        }
+    }
+    
+    private void handleJob(HttpExchange exchange, String method, String[] path, Map<String, String> query)
+            throws IOException {
+        ScrapeJob job = scheduler.get(path[1]);
+        if (job == null) {
+            sendError(exchange, 404, "No job with ID " + path[1]);
+            return;
+        }
+        String action = path.length == 3 ? path[2] : "";
+        String expectedMethod = action.equals("cancel") ? "POST" : "GET";
+        if (!method.equals(expectedMethod)) {
+            sendError(exchange, 405, "Method not allowed");
+            return;
+        }
+        
+        switch (action) {
+            case "":
+                sendJson(exchange, 200, toJson(job, true));
+                break;
+            case "status":
+                ObjectNode status = progressJson(job);
+                status.put("status", job.getStatus().name());
+                sendJson(exchange, 200, status);
+                break;
+            case "results":
+                sendResults(exchange, job, query);
+                break;
+            case "export":
+                export(exchange, job, query.getOrDefault("format", "csv"));
+                break;
+            case "cancel":
+                if (!scheduler.cancel(job.getId())) {
+                    sendError(exchange, 409, "Job has already finished");
+                    return;
+                }
+                sendJson(exchange, 200, objectMapper.createObjectNode().set("job", toJson(job, false)));
+                break;
+            default:
+                sendError(exchange, 404, "Not found");
+        }
+    }
+    
+    private void listJobs(HttpExchange exchange) throws IOException {
+        ArrayNode jobs = objectMapper.createArrayNode();
+        for (ScrapeJob job : scheduler.list()) {
+            jobs.add(toJson(job, false));
+        }
+        sendJson(exchange, 200, objectMapper.createObjectNode().set("jobs", jobs));
+    }
+    
+    /**
+     * Submits a job from a request such as
+     * {@code {"urls": [...], "selectors": {"containerSelector": "...", ...},
+     * "config": {"rateLimitMs": 2000, "respectRobots": true, "maxPages": 100, "crawl": false}}}.
+     * Selectors left blank fall back to the server's; the server's User-Agent is used for every job,
+     * so its robots.txt rules and rate limits stay consistent.
+     */
+    private void createJob(HttpExchange exchange) throws IOException {
+        JsonNode request = readJson(exchange);
+        List<String> urls = readUrls(request.path("urls"));
+        JsonNode jobConfig = request.path("config");
+        
+        ScrapeOptions options = ScrapeOptions.from(config, null);
+        if (jobConfig.has("rateLimitMs")) {
+            long delayMs = jobConfig.get("rateLimitMs").asLong(-1);
+            if (delayMs < 0) {
+                throw new IllegalArgumentException("rateLimitMs must be a non-negative number");
+            }
+            options.setDelayMs(delayMs);
+        }
+        if (jobConfig.has("respectRobots")) {
+            options.setRespectRobots(jobConfig.get("respectRobots").asBoolean(true));
+        }
+        if (jobConfig.hasNonNull("maxPages")) {
+            int maxPages = jobConfig.get("maxPages").asInt(0);
+            if (maxPages < 1) {
+                throw new IllegalArgumentException("maxPages must be a positive number");
+            }
+            options.setMaxPages(maxPages);
+        }
+        boolean crawl = jobConfig.path("crawl").asBoolean(false);
+        
+        ScrapeJob job = scheduler.submit(urls, readSelectors(request.path("selectors")), options, crawl);
+        sendJson(exchange, 201, objectMapper.createObjectNode().set("job", toJson(job, false)));
+    }
+    
+    /**
+     * Scrapes one page with the given selectors and reports how many records each selector filled.
+     * Invalid selectors are reported without fetching the page.
+     */
+    private void testSelectors(HttpExchange exchange) throws IOException {
+        JsonNode request = readJson(exchange);
+        String url = readUrl(request.path("url").asText(""));
+        JsonNode requested = request.path("selectors");
+        
+        ObjectNode validation = objectMapper.createObjectNode();
+        boolean allValid = true;
+        for (Map.Entry<String, JsonNode> entry : iterable(requested)) {
+            String selector = entry.getValue().asText("");
+            ObjectNode result = validation.putObject(entry.getKey());
+            result.put("valid", selector.isBlank() || isValidSelector(selector));
+            allValid &= result.get("valid").asBoolean();
+        }
+        
+        ObjectNode response = objectMapper.createObjectNode();
+        if (!allValid) {
+            response.put("matches", 0);
+            response.set("validation", validation);
+            response.set("sampleResults", objectMapper.createArrayNode());
+            sendJson(exchange, 200, response);
+            return;
+        }
+        
+        DataSelectors selectors = readSelectors(requested);
+        ScrapeOptions options = ScrapeOptions.from(config,
+                selectors != null ? scheduler.compile(selectors) : scraper.getSelectorProfiles());
+        List<ScrapedData> records;
+        try {
+            records = scraper.scrapeUrlAsync(url, options).get(TEST_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            sendError(exchange, 503, "Interrupted while fetching " + url);
+            return;
+        } catch (ExecutionException | TimeoutException e) {
+            sendError(exchange, 502, "Failed to fetch " + url + ": " + e.getMessage());
+            return;
+        }
+        
+        for (Map.Entry<String, JsonNode> entry : iterable(validation)) {
+            String field = FIELD_NAMES.get(entry.getKey());
+            int matches = 0;
+            for (ScrapedData record : records) {
+                if (field == null || record.get(field) != null) {
+                    matches++;
+                }
+            }
+            ((ObjectNode) entry.getValue()).put("matches", matches);
+        }
+        ArrayNode samples = objectMapper.createArrayNode();
+        for (ScrapedData record : records.subList(0, Math.min(SAMPLE_RESULTS, records.size()))) {
+            samples.add(toJson(record));
+        }
+        response.put("matches", records.size());
+        response.set("validation", validation);
+        response.set("sampleResults", samples);
+        sendJson(exchange, 200, response);
+    }
+    
+    private void checkRobots(HttpExchange exchange, String domain) throws IOException {
+        String origin = domain.contains("://") ? domain.replaceAll("/+$", "") : "https://" + domain;
+        URI uri;
+        try {
+            uri = URI.create(origin + "/");
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid domain: " + domain);
+        }
+        if (uri.getHost() == null) {
+            throw new IllegalArgumentException("Invalid domain: " + domain);
+        }
+        
+        ObjectNode response = objectMapper.createObjectNode();
+        try {
+            boolean allowed = scraper.getRobotsCompliance().isUrlAllowedAsync(uri.toString())
+                    .get(TEST_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            long crawlDelayMs = scraper.getRobotsCompliance().getCrawlDelayAsync(uri.toString(), 0)
+                    .get(TEST_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            response.put("domain", uri.getHost());
+            response.put("robotsUrl", origin + "/robots.txt");
+            response.put("userAgent", scraper.getUserAgent());
+            response.put("allowed", allowed);
+            response.put("crawlDelayMs", crawlDelayMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            sendError(exchange, 503, "Interrupted while fetching robots.txt");
+            return;
+        } catch (ExecutionException | TimeoutException e) {
+            sendError(exchange, 502, "Failed to check robots.txt for " + domain + ": " + e.getMessage());
+            return;
+        }
+        sendJson(exchange, 200, response);
+    }
+    
+    /**
+     * Answers a page of a job's records, read from its JSON Lines file. A line still being written
+     * ends the page early.
+     */
+    private void sendResults(HttpExchange exchange, ScrapeJob job, Map<String, String> query) throws IOException {
+        int page = parsePositive(query.get("page"), 1, "page");
+        int pageSize = Math.min(MAX_PAGE_SIZE, parsePositive(query.get("pageSize"), RESULTS_PREVIEW, "pageSize"));
+        ObjectNode response = objectMapper.createObjectNode();
+        response.put("page", page);
+        response.put("pageSize", pageSize);
+        response.put("total", job.getRecordCount());
+        response.set("results", readRecords(job, (long) (page - 1) * pageSize, pageSize));
+        sendJson(exchange, 200, response);
+    }
+    
+    /**
+     * Streams a finished job's output file from disk.
+     */
+    private void export(HttpExchange exchange, ScrapeJob job, String format) throws IOException {
+        Path file;
+        String contentType;
+        if (format.equals("csv")) {
+            file = job.getCsvFile();
+            contentType = "text/csv; charset=utf-8";
+        } else if (format.equals("jsonl")) {
+            file = job.getJsonlFile();
+            contentType = "application/x-ndjson; charset=utf-8";
+        } else {
+            throw new IllegalArgumentException("format must be 'csv' or 'jsonl'");
+        }
+        if (!job.getStatus().isFinished()) {
+            sendError(exchange, 409, "Job has not finished yet");
+            return;
+        }
+        if (!Files.exists(file)) {
+            sendError(exchange, 404, "Job has no output");
+            return;
+        }
+        
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.getResponseHeaders().set("Content-Disposition",
+                "attachment; filename=\"job-" + job.getId() + "." + format + "\"");
+        exchange.sendResponseHeaders(200, Files.size(file));
+        try (OutputStream out = exchange.getResponseBody()) {
+            Files.copy(file, out);
+        }
+    }
+    
+    private void handleStatic(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (webRoot == null) {
+                sendError(exchange, 404, "Not found");
+                return;
+            }
+            if (!exchange.getRequestMethod().equals("GET") && !exchange.getRequestMethod().equals("HEAD")) {
+                sendError(exchange, 405, "Method not allowed");
+                return;
+            }
+            Path file = webRoot.resolve(exchange.getRequestURI().getPath().substring(1)).normalize();
+            if (!file.startsWith(webRoot)) {
+                sendError(exchange, 404, "Not found");
+                return;
+            }
+            if (!Files.isRegularFile(file)) {
+                // Paths such as /jobs/123 belong to the frontend's router
+                file = webRoot.resolve("index.html");
+            }
+            if (!Files.isRegularFile(file)) {
+                sendError(exchange, 404, "Not found");
+                return;
+            }
+            
+            String name = file.getFileName().toString();
+            String extension = name.substring(name.lastIndexOf('.') + 1);
+            exchange.getResponseHeaders().set("Content-Type",
+                    CONTENT_TYPES.getOrDefault(extension, "application/octet-stream"));
+            if (exchange.getRequestMethod().equals("HEAD")) {
+                exchange.sendResponseHeaders(200, -1);
+                return;
+            }
+            exchange.sendResponseHeaders(200, Files.size(file));
+            try (OutputStream out = exchange.getResponseBody()) {
+                Files.copy(file, out);
+            }
+        }
+    }
+    
+    private ObjectNode toJson(ScrapeJob job, boolean withResults) throws IOException {
+        ObjectNode json = objectMapper.createObjectNode();
+        json.put("id", job.getId());
+        json.put("status", job.getStatus().name());
+        ArrayNode urls = json.putArray("urls");
+        job.getUrls().forEach(urls::add);
+        
+        DataSelectors selectors = job.getSelectors() != null ? job.getSelectors() : defaultSelectors;
+        ObjectNode selectorsJson = json.putObject("selectors");
+        selectorsJson.put("containerSelector", selectors.getContainerSelector());
+        selectorsJson.put("titleSelector", selectors.getTitleSelector());
+        selectorsJson.put("descriptionSelector", selectors.getDescriptionSelector());
+        selectorsJson.put("urlSelector", selectors.getUrlSelector());
+        selectorsJson.put("priceSelector", selectors.getPriceSelector());
+        selectorsJson.put("imageSelector", selectors.getImageSelector());
+        
+        ObjectNode configJson = json.putObject("config");
+        configJson.put("rateLimitMs", job.getOptions().getDelayMs());
+        configJson.put("userAgent", scraper.getUserAgent());
+        configJson.put("respectRobots", job.getOptions().isRespectRobots());
+        if (job.getOptions().getMaxPages() != Integer.MAX_VALUE) {
+            configJson.put("maxPages", job.getOptions().getMaxPages());
+        } else {
+            configJson.putNull("maxPages");
+        }
+        configJson.put("crawl", job.isCrawl());
+        
+        json.set("progress", progressJson(job));
+        json.put("recordCount", job.getRecordCount());
+        json.put("createdAt", job.getCreatedAt());
+        putTime(json, "startedAt", job.getStartedAt());
+        putTime(json, "finishedAt", job.getFinishedAt());
+        if (job.getError() != null) {
+            json.put("error", job.getError());
+        }
+        if (withResults && job.getStatus() == ScrapeJob.Status.COMPLETED) {
+            json.set("results", readRecords(job, 0, RESULTS_PREVIEW));
+        }
+        return json;
+    }
+    
+    private static ObjectNode progressJson(ScrapeJob job) {
+        ObjectNode progress = objectMapper.createObjectNode();
+        progress.put("percentage", job.getPercentage());
+        progress.put("pagesScraped", job.getPagesScraped());
+        progress.put("recordsExtracted", job.getRecordsExtracted());
+        progress.put("totalPages", job.getTotalPages() != Integer.MAX_VALUE ? job.getTotalPages() : 0);
+        return progress;
+    }
+    
+    private static void putTime(ObjectNode json, String name, long millis) {
+        if (millis > 0) {
+            json.put(name, millis);
+        } else {
+            json.putNull(name);
+        }
+    }
+    
+    private static ObjectNode toJson(ScrapedData record) {
+        ObjectNode json = objectMapper.createObjectNode();
+        ExtractionSchema schema = record.getSchema();
+        for (int i = 0; i < schema.size(); i++) {
+            json.set(schema.getName(i), objectMapper.valueToTree(record.get(i)));
+        }
+        return json;
+    }
+    
+    private static ArrayNode readRecords(ScrapeJob job, long skip, int limit) throws IOException {
+        ArrayNode records = objectMapper.createArrayNode();
+        Path file = job.getJsonlFile();
+        if (!Files.exists(file)) {
+            return records;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            long lineNumber = 0;
+            while (records.size() < limit && (line = reader.readLine()) != null) {
+                if (lineNumber++ < skip) {
+                    continue;
+                }
+                try {
+                    records.add(objectMapper.readTree(line));
+                } catch (JsonProcessingException e) {
+                    break;
+                }
+            }
+        }
+        return records;
+    }
+    
+    /**
+     * Reads selectors in the frontend's names, falling back to the server's for any left blank.
+     * 
+     * @return selectors, or null if every one was left blank so the job uses the server's own
+     */
+    private DataSelectors readSelectors(JsonNode json) {
+        DataSelectors selectors = new DataSelectors();
+        selectors.setContainerSelector(selectorOr(json, "containerSelector", defaultSelectors.getContainerSelector()));
+        selectors.setTitleSelector(selectorOr(json, "titleSelector", defaultSelectors.getTitleSelector()));
+        selectors.setDescriptionSelector(selectorOr(json, "descriptionSelector",
+                defaultSelectors.getDescriptionSelector()));
+        selectors.setUrlSelector(selectorOr(json, "urlSelector", defaultSelectors.getUrlSelector()));
+        selectors.setPriceSelector(selectorOr(json, "priceSelector", defaultSelectors.getPriceSelector()));
+        selectors.setImageSelector(selectorOr(json, "imageSelector", defaultSelectors.getImageSelector()));
+        for (Map.Entry<String, JsonNode> entry : iterable(json)) {
+            if (FIELD_NAMES.containsKey(entry.getKey()) || entry.getKey().equals("containerSelector")) {
+                if (!entry.getValue().asText("").isBlank()) {
+                    return selectors;
+                }
+            }
+        }
+        return null;
+    }
+    
+    private static String selectorOr(JsonNode json, String name, String defaultSelector) {
+        String selector = json.path(name).asText("");
+        return selector.isBlank() ? defaultSelector : selector;
+    }
+    
+    private static boolean isValidSelector(String selector) {
+        try {
+            QueryParser.parse(selector);
+            return true;
+        } catch (Selector.SelectorParseException e) {
+            return false;
+        }
+    }
+    
+    private static List<String> readUrls(JsonNode json) {
+        List<String> urls = new ArrayList<>();
+        for (JsonNode node : json) {
+            if (!node.asText("").isBlank()) {
+                urls.add(readUrl(node.asText()));
+            }
+        }
+        if (urls.isEmpty()) {
+            throw new IllegalArgumentException("At least one URL is required");
+        }
+        return urls;
+    }
+    
+    private static String readUrl(String value) {
+        String url = value.trim();
+        URI uri;
+        try {
+            uri = URI.create(url);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid URL: " + url);
+        }
+        if (uri.getHost() == null || !("http".equals(uri.getScheme()) || "https".equals(uri.getScheme()))) {
+            throw new IllegalArgumentException("URLs must be absolute http or https URLs: " + url);
+        }
+        return url;
+    }
+    
+    /**
+     * Checks that a request was addressed to the loopback interface by name and, if a browser sent it,
+     * from a page served there. The server only listens on loopback, but a page on another site can
+     * still reach it through the browser, or through a DNS name rebound to 127.0.0.1.
+     */
+    private static boolean isLocalRequest(HttpExchange exchange) {
+        String origin = exchange.getRequestHeaders().getFirst("Origin");
+        return isLocalHost("http://" + exchange.getRequestHeaders().getFirst("Host"))
+                && (origin == null || isLocalHost(origin));
+    }
+    
+    private static boolean isLocalHost(String url) {
+        try {
+            String host = URI.create(url).getHost();
+            return host != null && LOCAL_HOSTS.contains(host.toLowerCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+    
+    /**
+     * Reads a JSON request body. Requiring the JSON content type keeps browsers from sending one
+     * from another site's form without a preflight request.
+     */
+    private static JsonNode readJson(HttpExchange exchange) throws IOException {
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        if (contentType == null || !contentType.split(";")[0].trim().equalsIgnoreCase("application/json")) {
+            throw new UnsupportedMediaTypeException("Content-Type must be application/json");
+        }
+        byte[] body;
+        try (InputStream in = exchange.getRequestBody()) {
+            body = in.readNBytes(MAX_REQUEST_BYTES + 1);
+        }
+        if (body.length > MAX_REQUEST_BYTES) {
+            throw new IllegalArgumentException("Request body is larger than " + MAX_REQUEST_BYTES + " bytes");
+        }
+        try {
+            JsonNode json = objectMapper.readTree(body);
+            if (json == null || !json.isObject()) {
+                throw new IllegalArgumentException("Request body must be a JSON object");
+            }
+            return json;
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid JSON: " + e.getOriginalMessage());
+        }
+    }
+    
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null) {
+            return query;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int equals = pair.indexOf('=');
+            String name = equals >= 0 ? pair.substring(0, equals) : pair;
+            String value = equals >= 0 ? pair.substring(equals + 1) : "";
+            query.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return query;
+    }
+    
+    private static int parsePositive(String value, int defaultValue, String name) {
+        if (value == null || value.isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            int number = Integer.parseInt(value);
+            if (number >= 1) {
+                return number;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new IllegalArgumentException(name + " must be a positive number");
+    }
+    
+    private static Iterable<Map.Entry<String, JsonNode>> iterable(JsonNode json) {
+        return json.properties()::iterator;
+    }
+    
+    private static void sendJson(HttpExchange exchange, int status, JsonNode body) throws IOException {
+        byte[] bytes = objectMapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", JSON);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+    
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        sendJson(exchange, status, objectMapper.createObjectNode().put("message", message));
+    }
+    
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+    
+    /**
+     * Stops accepting requests and cancels the jobs that are still running or queued.
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+        scheduler.close();
+        executor.shutdownNow();
+    }
+    
+    /**
+     * Thrown for a request body that is not JSON, and answered with 415.
+     */
+    private static final class UnsupportedMediaTypeException extends IllegalArgumentException {
+    
+        UnsupportedMediaTypeException(String message) {
+            super(message);
+        }
+    }
+}
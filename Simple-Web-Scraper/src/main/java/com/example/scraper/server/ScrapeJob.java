@@ -0,0 +1,248 @@
+package com.example.scraper.server;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.example.scraper.cli.ScrapeOptions;
+import com.example.scraper.model.DataSelectors;
+
+/**
+ * A scrape submitted to the {@link JobScheduler}: its URLs, selectors and options, where its records
+ * are written, and its progress. Status changes are synchronized; the counters may be read at any time.
+ */
+public class ScrapeJob {
+    
+    /**
+     * Lifecycle of a job. PENDING jobs wait in the scheduler's queue; the last three are final.
+     */
+    public enum Status {
+        PENDING,
+        RUNNING,
+        COMPLETED,
+        FAILED,
+        CANCELLED;
+        
+        public boolean isFinished() {
+            return this == COMPLETED || this == FAILED || this == CANCELLED;
+        }
+    }
+    
+    private final String id;
+    private final List<String> urls;
+    private final DataSelectors selectors;
+    private final ScrapeOptions options;
+    private final boolean crawl;
+    private final Path directory;
+    private final long createdAt = System.currentTimeMillis();
+    private final AtomicLong pagesScraped = new AtomicLong();
+    private final AtomicLong recordsExtracted = new AtomicLong();
+    
+    private Status status = Status.PENDING;
+    private boolean cancelRequested = false;
+    private long startedAt;
+    private long finishedAt;
+    private long recordsWritten;
+    private String error;
+    private Future<?> future;
+    
+    /**
+     * Creates a pending job.
+     * 
+     * @param id Job ID, also the name of its directory
+     * @param urls URLs to scrape, or seeds to crawl from
+     * @param selectors Selectors the records are extracted with, or null for the server's own
+     * @param options Run settings; the job counts its pages through the page listener
+     * @param crawl Whether to follow links from the URLs
+     * @param directory Directory for the job's output files
+     */
+    public ScrapeJob(String id, List<String> urls, DataSelectors selectors, ScrapeOptions options, boolean crawl,
+                     Path directory) {
+        this.id = id;
+        this.urls = List.copyOf(urls);
+        this.selectors = selectors;
+        this.options = options;
+        this.crawl = crawl;
+        this.directory = directory;
+        options.setPageListener(records -> {
+            pagesScraped.incrementAndGet();
+            recordsExtracted.addAndGet(records);
+        });
+    }
+    
+    /**
+     * Moves a pending job to RUNNING.
+     * 
+     * @return false if the job was cancelled while it waited
+     */
+    synchronized boolean markRunning() {
+        if (status != Status.PENDING) {
+            return false;
+        }
+        status = Status.RUNNING;
+        startedAt = System.currentTimeMillis();
+        return true;
+    }
+    
+    /**
+     * Records the end of a run. A job whose cancellation was requested ends CANCELLED however
+     * its run ended.
+     * 
+     * @param finalStatus COMPLETED or FAILED
+     * @param recordsWritten Records in the job's output files
+     * @param error Failure message, or null
+     */
+    synchronized void markFinished(Status finalStatus, long recordsWritten, String error) {
+        this.status = cancelRequested ? Status.CANCELLED : finalStatus;
+        this.recordsWritten = recordsWritten;
+        this.error = error;
+        this.finishedAt = System.currentTimeMillis();
+    }
+    
+    /**
+     * Cancels the job: a pending job never starts, and a running one stops dispatching pages and
+     * keeps the records of the pages already in flight.
+     * 
+     * @return false if the job had already finished
+     */
+    synchronized boolean cancel() {
+        if (status.isFinished()) {
+            return false;
+        }
+        cancelRequested = true;
+        if (status == Status.PENDING) {
+            status = Status.CANCELLED;
+            finishedAt = System.currentTimeMillis();
+        }
+        if (future != null) {
+            future.cancel(true);
+        }
+        return true;
+    }
+    
+    synchronized void setFuture(Future<?> future) {
+        this.future = future;
+    }
+    
+    public String getId() {
+        return id;
+    }
+    
+    public List<String> getUrls() {
+        return urls;
+    }
+    
+    /**
+     * Gets the selectors given when the job was submitted.
+     * 
+     * @return selectors, or null if the job uses the server's own
+     */
+    public DataSelectors getSelectors() {
+        return selectors;
+    }
+    
+    public ScrapeOptions getOptions() {
+        return options;
+    }
+    
+    public boolean isCrawl() {
+        return crawl;
+    }
+    
+    public Path getDirectory() {
+        return directory;
+    }
+    
+    public synchronized Status getStatus() {
+        return status;
+    }
+    
+    public long getCreatedAt() {
+        return createdAt;
+    }
+    
+    public synchronized long getStartedAt() {
+        return startedAt;
+    }
+    
+    public synchronized long getFinishedAt() {
+        return finishedAt;
+    }
+    
+    public synchronized String getError() {
+        return error;
+    }
+    
+    public long getPagesScraped() {
+        return pagesScraped.get();
+    }
+    
+    public long getRecordsExtracted() {
+        return recordsExtracted.get();
+    }
+    
+    /**
+     * Gets the number of records in the job's output files.
+     * 
+     * @return records written once the job has finished, until then the records extracted so far
+     */
+    public synchronized long getRecordCount() {
+        return status.isFinished() ? recordsWritten : recordsExtracted.get();
+    }
+    
+    /**
+     * Gets the number of pages the job will fetch at most: its URLs, or its page limit when crawling.
+     * 
+     * @return page total
+     */
+    public long getTotalPages() {
+        return crawl ? options.getMaxPages() : Math.min(urls.size(), options.getMaxPages());
+    }
+    
+    /**
+     * Gets how far along the job is. A crawl without a page limit reports 0 until it finishes.
+     * 
+     * @return percentage between 0 and 100
+     */
+    public int getPercentage() {
+        if (getStatus() == Status.COMPLETED) {
+            return 100;
+        }
+        long total = getTotalPages();
+        if (total <= 0 || total == Integer.MAX_VALUE) {
+            return 0;
+        }
+        return (int) Math.min(100, pagesScraped.get() * 100 / total);
+    }
+    
+    /**
+     * Gets the JSON Lines file the job writes its records to.
+     * 
+     * @return file path
+     */
+    public Path getJsonlFile() {
+        return directory.resolve("records.jsonl");
+    }
+    
+    /**
+     * Gets the CSV file the job writes its records to.
+     * 
+     * @return file path
+     */
+    public Path getCsvFile() {
+        return directory.resolve("records.csv");
+    }
+    
+    @Override
+    public String toString() {
+        return "ScrapeJob{" +
+                "id='" + id + '\'' +
+                ", status=" + getStatus() +
+                ", urls=" + urls.size() +
+                ", crawl=" + crawl +
+                ", pagesScraped=" + pagesScraped +
+                ", recordsExtracted=" + recordsExtracted +
+                '}';
+    }
+}
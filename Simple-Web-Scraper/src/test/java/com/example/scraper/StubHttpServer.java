@@ -0,0 +1,179 @@
+package com.example.scraper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * In-process HTTP server on a loopback port for tests and benchmarks, so nothing depends on a
+ * live site. Paths are answered from fixed bodies or from functions of the request path; anything
+ * else gets a 404.
+ */
+public class StubHttpServer implements AutoCloseable {
+    
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Map<String, Route> exactRoutes = new ConcurrentHashMap<>();
+    private final Map<String, Route> prefixRoutes = new ConcurrentHashMap<>();
+    private final Map<String, Integer> statuses = new ConcurrentHashMap<>();
+    private final AtomicInteger requests = new AtomicInteger();
+    
+    private StubHttpServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "stub-http-server");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+    }
+    
+    /**
+     * Starts a server with no routes.
+     * 
+     * @return the running server
+     * @throws IOException if no port can be bound
+     */
+    public static StubHttpServer start() throws IOException {
+        StubHttpServer stub = new StubHttpServer();
+        stub.server.start();
+        return stub;
+    }
+    
+    /**
+     * Answers one path with a fixed body.
+     * 
+     * @param path Request path, without query
+     * @param contentType Content-Type of the response
+     * @param body Response body
+     * @return this server
+     */
+    public StubHttpServer serve(String path, String contentType, String body) {
+        exactRoutes.put(path, new Route(contentType, requestPath -> body));
+        return this;
+    }
+    
+    /**
+     * Answers every path under a prefix with a body computed from the path.
+     * 
+     * @param prefix Path prefix such as "/catalog/"
+     * @param contentType Content-Type of the responses
+     * @param pages Function from request path to body, returning null for a 404
+     * @return this server
+     */
+    public StubHttpServer serveAll(String prefix, String contentType, Function<String, String> pages) {
+        prefixRoutes.put(prefix, new Route(contentType, pages));
+        return this;
+    }
+    
+    /**
+     * Answers every path under a prefix with a handler of its own, such as one that sends its body
+     * slowly. Requests run on a thread each, so handlers may block.
+     * 
+     * @param prefix Path prefix such as "/slow/"
+     * @param handler Handler for the requests
+     * @return this server
+     */
+    public StubHttpServer handle(String prefix, HttpHandler handler) {
+        server.createContext(prefix, handler);
+        return this;
+    }
+    
+    /**
+     * Answers one path with a status and no body instead of its route, until it is set back to 200.
+     * 
+     * @param path Request path, without query
+     * @param status Response status
+     * @return this server
+     */
+    public StubHttpServer setStatus(String path, int status) {
+        if (status == 200) {
+            statuses.remove(path);
+        } else {
+            statuses.put(path, status);
+        }
+        return this;
+    }
+    
+    /**
+     * Gets the absolute URL of a path on this server.
+     * 
+     * @param path Path starting with "/"
+     * @return URL such as http://127.0.0.1:12345/path
+     */
+    public String url(String path) {
+        return getOrigin() + path;
+    }
+    
+    public String getOrigin() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+    
+    public int getRequestCount() {
+        return requests.get();
+    }
+    
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        String path = exchange.getRequestURI().getPath();
+        Integer status = statuses.get(path);
+        if (status != null) {
+            try (exchange) {
+                exchange.sendResponseHeaders(status, -1);
+            }
+            return;
+        }
+        Route route = exactRoutes.get(path);
+        if (route == null) {
+            for (Map.Entry<String, Route> entry : prefixRoutes.entrySet()) {
+                if (path.startsWith(entry.getKey())) {
+                    route = entry.getValue();
+                    break;
+                }
+            }
+        }
+        
+        String body = route != null ? route.pages.apply(path) : null;
+        try (exchange) {
+            if (body == null) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", route.contentType);
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+    }
+    
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+    
+    private static final class Route {
+    
+        private final String contentType;
+        private final Function<String, String> pages;
+        
+        private Route(String contentType, Function<String, String> pages) {
+            this.contentType = contentType;
+            this.pages = pages;
+        }
+    }
+}
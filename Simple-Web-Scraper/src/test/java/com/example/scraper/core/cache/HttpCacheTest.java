@@ -0,0 +1,110 @@
+package com.example.scraper.core.cache;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import com.example.scraper.core.parser.ParsedPage;
+import com.example.scraper.model.ExtractionSchema;
+import com.example.scraper.model.FieldSpec;
+import com.example.scraper.model.ScrapedData;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HttpCacheTest {
+    
+    @TempDir
+    Path tempDir;
+    
+    @Test
+    void testStoresPageWithValidators() {
+        HttpCache cache = new HttpCache(tempDir, 1024 * 1024);
+        ScrapedData record = new ScrapedData("Widget", "A widget", "https://shop.example.com/widget");
+        record.setPrice("$5.00");
+        ParsedPage page = new ParsedPage(List.of(record), List.of("https://shop.example.com/next"));
+        
+        assertTrue(cache.put("https://shop.example.com/list?b=2&a=1#top", "\"v1\"", null, page, true));
+        
+        // Looked up by canonical URL
+        CachedPage cached = cache.get("https://SHOP.example.com/list?a=1&b=2");
+        assertNotNull(cached);
+        assertEquals("\"v1\"", cached.getEtag());
+        assertEquals("\"v1\"", cached.getConditionalHeaders().get("If-None-Match"));
+        assertFalse(cached.getConditionalHeaders().containsKey("If-Modified-Since"));
+        assertEquals(List.of(record), cached.getPage().getRecords());
+        assertEquals(List.of("https://shop.example.com/next"), cached.getPage().getLinks());
+        assertTrue(cached.hasLinks());
+    }
+    
+    @Test
+    void testKeepsTypedValuesAndIgnoresOtherSchemas() {
+        ExtractionSchema schema = new ExtractionSchema("div", List.of(
+                new FieldSpec("sku", "span", FieldSpec.Source.TEXT, true),
+                new FieldSpec("stock", ".stock", FieldSpec.Source.TEXT, null, null, FieldSpec.Type.INTEGER, false),
+                new FieldSpec("sale", ".sale", FieldSpec.Source.TEXT, null, null, FieldSpec.Type.BOOLEAN, false)));
+        ScrapedData record = new ScrapedData(schema);
+        record.set("sku", "A-1");
+        record.set("stock", 3L);
+        record.set("sale", true);
+        
+        HttpCache cache = new HttpCache(tempDir, 1024 * 1024, schema);
+        cache.put("https://example.com/a", "\"v1\"", null, new ParsedPage(List.of(record), List.of()), false);
+        assertEquals(List.of(record), cache.get("https://example.com/a").getPage().getRecords());
+        
+        // Pages cached with other fields count as not cached
+        assertNull(new HttpCache(tempDir, 1024 * 1024).get("https://example.com/a"));
+    }
+    
+    @Test
+    void testSkipsPagesWithoutValidators() {
+        HttpCache cache = new HttpCache(tempDir, 1024 * 1024);
+        assertFalse(cache.put("https://example.com/", null, null, ParsedPage.empty(), false));
+        assertNull(cache.get("https://example.com/"));
+        assertEquals(0, cache.getEntryCount());
+    }
+    
+    @Test
+    void testReopenedCacheKeepsPages() {
+        HttpCache cache = new HttpCache(tempDir, 1024 * 1024);
+        cache.put("https://example.com/a", null, "Wed, 21 Oct 2015 07:28:00 GMT",
+                  new ParsedPage(List.of(new ScrapedData("A", null, null)), List.of()), false);
+        
+        HttpCache reopened = new HttpCache(tempDir, 1024 * 1024);
+        assertEquals(1, reopened.getEntryCount());
+        CachedPage cached = reopened.get("https://example.com/a");
+        assertEquals("Wed, 21 Oct 2015 07:28:00 GMT", cached.getConditionalHeaders().get("If-Modified-Since"));
+        assertFalse(cached.hasLinks());
+        assertEquals("A", cached.getPage().getRecords().get(0).getTitle());
+    }
+    
+    @Test
+    void testEvictsLeastRecentlyUsedWhenFull() {
+        HttpCache probe = new HttpCache(tempDir.resolve("probe"), 1024 * 1024);
+        probe.put("https://example.com/0", "\"0\"", null, page(0), false);
+        long entryBytes = probe.getTotalBytes();
+        
+        // Room for three pages but not four
+        HttpCache cache = new HttpCache(tempDir.resolve("cache"), entryBytes * 7 / 2);
+        for (int i = 0; i < 3; i++) {
+            cache.put("https://example.com/" + i, "\"" + i + "\"", null, page(i), false);
+        }
+        assertNotNull(cache.get("https://example.com/0"));
+        
+        cache.put("https://example.com/3", "\"3\"", null, page(3), false);
+        
+        assertEquals(3, cache.getEntryCount());
+        assertEquals(1, cache.getEvictionCount());
+        assertNotNull(cache.get("https://example.com/0"));
+        assertNull(cache.get("https://example.com/1"));
+        assertNotNull(cache.get("https://example.com/3"));
+    }
+    
+    private static ParsedPage page(int number) {
+        return new ParsedPage(List.of(new ScrapedData("Page " + number, "x".repeat(400), null)), List.of());
+    }
+}
@@ -0,0 +1,224 @@
+package com.example.scraper.core.checkpoint;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.example.scraper.StubHttpServer;
+import com.example.scraper.cli.OutputWriter;
+import com.example.scraper.cli.ScrapeOptions;
+import com.example.scraper.cli.ScraperConfig;
+import com.example.scraper.cli.WebScraper;
+import com.example.scraper.core.dedup.DedupRecordSink;
+import com.example.scraper.core.parser.SelectorProfiles;
+import com.example.scraper.core.persistence.AbstractRecordWriter;
+import com.example.scraper.core.persistence.JSONLWriter;
+import com.example.scraper.core.persistence.WriterOptions;
+import com.example.scraper.core.pipeline.QueuedRecordSink;
+import com.example.scraper.core.pipeline.RecordSink;
+import com.example.scraper.model.DataSelectors;
+import com.example.scraper.model.ExtractionSchema;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CrawlCheckpointTest {
+    
+    private static final int PAGES = 10;
+    
+    @TempDir
+    Path tempDir;
+    
+    private final Map<String, AtomicInteger> fetches = new ConcurrentHashMap<>();
+    private StubHttpServer site;
+    private ScraperConfig config;
+    private SelectorProfiles profiles;
+    private Path checkpointDir;
+    private Path output;
+    private boolean dedupRecords = false;
+    
+    @BeforeEach
+    void setUp() throws IOException {
+        // A chain of pages, each with one record and a link to the next
+        site = StubHttpServer.start()
+                .serve("/robots.txt", "text/plain", "User-agent: *\nDisallow:\n")
+                .serveAll("/catalog/", "text/html", path -> {
+                    fetches.computeIfAbsent(path, key -> new AtomicInteger()).incrementAndGet();
+                    int page = Integer.parseInt(path.substring("/catalog/".length()));
+                    String next = page + 1 < PAGES ? "<a href=\"/catalog/" + (page + 1) + "\">next</a>" : "";
+                    return "<html><body><div class=\"product\"><h2>Item " + page + "</h2></div>" + next + "</body></html>";
+                })
+                // The same chain, with a featured item repeated on every page
+                .serveAll("/listing/", "text/html", path -> {
+                    int page = Integer.parseInt(path.substring("/listing/".length()));
+                    String next = page + 1 < PAGES ? "<a href=\"/listing/" + (page + 1) + "\">next</a>" : "";
+                    return "<html><body><div class=\"product\"><h2>Featured</h2></div>"
+                            + "<div class=\"product\"><h2>Item " + page + "</h2></div>" + next + "</body></html>";
+                });
+                
+        config = new ScraperConfig();
+        config.setDelayMs(0);
+        config.setCacheDir(null);
+        config.setMaxDepth(PAGES);
+        DataSelectors selectors = new DataSelectors(".product", "h2", "p", "a.none");
+        profiles = SelectorProfiles.of(ExtractionSchema.fromSelectors(selectors));
+        checkpointDir = tempDir.resolve("checkpoint");
+        output = tempDir.resolve("out.jsonl");
+    }
+    
+    @AfterEach
+    void tearDown() {
+        site.close();
+    }
+    
+    @Test
+    void testResumedCrawlWritesEachPageOnce() throws Exception {
+        CrawlCheckpoint first = run(false, 4, true, List.of(site.url("/catalog/0")));
+        assertEquals(4, first.getPagesDone());
+        assertEquals(4, readTitles().size());
+        
+        // The run dies after writing part of the next page and part of a checkpoint batch
+        Files.writeString(output, "{\"title\":\"Item 4\",\"description\":null,\"url\":null,\"price\":null,\"image_url\":null}\n",
+                          StandardOpenOption.APPEND);
+        Files.write(checkpointDir.resolve("checkpoint.log"), new byte[] {0, 0, 0, 40, 1, 2, 3},
+                    StandardOpenOption.APPEND);
+        
+        CrawlCheckpoint resumed = run(true, Integer.MAX_VALUE, true, List.of(site.url("/catalog/0")));
+        assertEquals(PAGES, resumed.getPagesDone());
+        List<String> titles = readTitles();
+        assertEquals(PAGES, titles.size());
+        for (int i = 0; i < PAGES; i++) {
+            assertEquals("Item " + i, titles.get(i));
+            assertEquals(1, fetches.get("/catalog/" + i).get(), "Page " + i + " fetched again");
+        }
+        
+        // A finished crawl has nothing left to do
+        CrawlCheckpoint finished = run(true, Integer.MAX_VALUE, true, List.of(site.url("/catalog/0")));
+        assertEquals(PAGES, finished.getPagesDone());
+        assertEquals(PAGES, readTitles().size());
+        assertEquals(1, fetches.get("/catalog/0").get());
+    }
+    
+    @Test
+    void testFailedPageIsFetchedAgainOnResume() throws Exception {
+        config.setMaxRetries(0);
+        site.setStatus("/catalog/3", 500);
+        CrawlCheckpoint first = run(false, Integer.MAX_VALUE, true, List.of(site.url("/catalog/0")));
+        assertEquals(3, first.getPagesDone());
+        assertEquals(3, readTitles().size());
+        
+        site.setStatus("/catalog/3", 200);
+        CrawlCheckpoint resumed = run(true, Integer.MAX_VALUE, true, List.of(site.url("/catalog/0")));
+        assertEquals(PAGES, resumed.getPagesDone());
+        List<String> titles = readTitles();
+        assertEquals(PAGES, titles.size());
+        for (int i = 0; i < PAGES; i++) {
+            assertEquals("Item " + i, titles.get(i));
+            assertEquals(1, fetches.get("/catalog/" + i).get(), "Page " + i + " fetched again");
+        }
+    }
+    
+    @Test
+    void testResumedRunStillDropsDuplicateRecords() throws Exception {
+        dedupRecords = true;
+        run(false, 4, true, List.of(site.url("/listing/0")));
+        assertEquals(List.of("Featured", "Item 0", "Item 1", "Item 2", "Item 3"), readTitles());
+        
+        run(true, Integer.MAX_VALUE, true, List.of(site.url("/listing/0")));
+        List<String> titles = readTitles();
+        assertEquals(PAGES + 1, titles.size());
+        assertEquals(1, titles.stream().filter("Featured"::equals).count());
+    }
+    
+    @Test
+    void testResumedScrapeSkipsDoneUrls() throws Exception {
+        List<String> urls = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            urls.add(site.url("/catalog/" + i));
+        }
+        run(false, Integer.MAX_VALUE, false, urls.subList(0, 3));
+        
+        CrawlCheckpoint resumed = run(true, Integer.MAX_VALUE, false, urls);
+        assertTrue(resumed.isResumed());
+        assertEquals(6, resumed.getPagesDone());
+        // Pages of a URL list finish in any order
+        List<String> titles = readTitles();
+        titles.sort(null);
+        assertEquals(List.of("Item 0", "Item 1", "Item 2", "Item 3", "Item 4", "Item 5"), titles);
+        for (int i = 0; i < 6; i++) {
+            assertEquals(1, fetches.get("/catalog/" + i).get(), "Page " + i + " fetched again");
+        }
+    }
+    
+    @Test
+    void testNewRunDiscardsOldCheckpoint() throws Exception {
+        run(false, 2, true, List.of(site.url("/catalog/0")));
+        
+        CrawlCheckpoint fresh = CrawlCheckpoint.open(checkpointDir, false, position -> true);
+        assertFalse(fresh.isResumed());
+        assertEquals(0, fresh.getPagesDone());
+        fresh.close();
+    }
+    
+    /**
+     * Runs a scrape or crawl the way the command line does, with a checkpoint taken only at the end.
+     */
+    private CrawlCheckpoint run(boolean resume, int maxPages, boolean crawl, List<String> urls) throws Exception {
+        CrawlCheckpoint checkpoint = CrawlCheckpoint.open(checkpointDir, resume,
+                position -> AbstractRecordWriter.reaches(output.toString(), position));
+        WriterOptions writerOptions = new WriterOptions();
+        writerOptions.setSchema(profiles.getDefaultSchema());
+        writerOptions.setResumePosition(checkpoint.getOutputPosition());
+        OutputWriter outputWriter = new OutputWriter(new JSONLWriter(output.toString(), false, writerOptions));
+        QueuedRecordSink sink = new QueuedRecordSink(outputWriter, 16);
+        RecordSink recordSink = sink;
+        if (dedupRecords) {
+            DedupRecordSink dedupSink = new DedupRecordSink(sink, 1);
+            checkpoint.restoreRecordFingerprints(dedupSink::markWritten);
+            dedupSink.setFingerprintListener(checkpoint::recordFingerprint);
+            recordSink = dedupSink;
+        }
+        checkpoint.start(() -> {
+            sink.awaitWritten();
+            outputWriter.flush();
+            return outputWriter.getPosition();
+        }, 60_000);
+        
+        ScrapeOptions options = ScrapeOptions.from(config, profiles);
+        options.setMaxPages(maxPages);
+        options.setCheckpoint(checkpoint);
+        try (WebScraper scraper = new WebScraper(config, profiles)) {
+            if (crawl) {
+                scraper.crawl(urls, options, recordSink);
+            } else {
+                scraper.scrapeUrls(urls, options, recordSink);
+            }
+        } finally {
+            checkpoint.close();
+            sink.close();
+            outputWriter.close();
+        }
+        return checkpoint;
+    }
+    
+    private List<String> readTitles() throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        List<String> titles = new ArrayList<>();
+        for (String line : Files.readAllLines(output)) {
+            titles.add(mapper.readTree(line).get("title").asText());
+        }
+        return titles;
+    }
+}
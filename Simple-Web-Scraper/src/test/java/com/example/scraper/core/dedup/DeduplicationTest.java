@@ -0,0 +1,144 @@
+package com.example.scraper.core.dedup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import com.example.scraper.core.parser.HtmlParser;
+import com.example.scraper.core.parser.ParsedPage;
+import com.example.scraper.core.parser.SelectorPlan;
+import com.example.scraper.model.DataSelectors;
+import com.example.scraper.model.ScrapedData;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DeduplicationTest {
+    
+    @Test
+    void testDuplicateRecordsAreDroppedAcrossPages() {
+        List<ScrapedData> written = Collections.synchronizedList(new ArrayList<>());
+        DedupRecordSink sink = new DedupRecordSink(written::addAll, 1);
+        ScrapedData first = new ScrapedData("Widget", "A widget", "https://example.com/widget");
+        ScrapedData second = new ScrapedData("Gadget", null, "https://example.com/gadget");
+        
+        // A record repeated on the same page, then on the next page of the listing
+        sink.accept(List.of(first, second, new ScrapedData("Widget", "A widget", "https://example.com/widget")));
+        sink.accept(List.of(new ScrapedData("Gadget", null, "https://example.com/gadget")));
+        sink.accept(List.of(new ScrapedData("Gadget", "", "https://example.com/gadget")));
+        
+        assertEquals(List.of(first, second, new ScrapedData("Gadget", "", "https://example.com/gadget")), written);
+        assertEquals(5, sink.getRecordsChecked());
+        assertEquals(2, sink.getDuplicateCount());
+        assertEquals(0.4, sink.getDuplicateRatio(), 1e-9);
+        assertEquals(RecordFingerprint.of(first),
+                     RecordFingerprint.of(new ScrapedData("Widget", "A widget", "https://example.com/widget")));
+    }
+    
+    @Test
+    void testFullFingerprintSetStillDropsKnownRecords() {
+        List<ScrapedData> written = new ArrayList<>();
+        DedupRecordSink sink = new DedupRecordSink(written::addAll, 1);
+        // 1 MB holds 131072 slots, of which 85% are filled
+        int records = 120_000;
+        for (int i = 0; i < records; i++) {
+            sink.accept(List.of(new ScrapedData("Item " + i, null, null)));
+        }
+        assertEquals(records, written.size());
+        
+        sink.accept(List.of(new ScrapedData("Item 0", null, null)));
+        sink.accept(List.of(new ScrapedData("Item " + (records - 1), null, null)));
+        assertEquals(records + 1, written.size());
+        assertEquals(1, sink.getDuplicateCount());
+    }
+    
+    @Test
+    void testSimHashDistanceFollowsTextSimilarity() {
+        Random random = new Random(42);
+        List<String> page = randomWords(random, 1000);
+        String text = String.join(" ", page);
+        
+        List<String> edited = new ArrayList<>(page);
+        edited.set(500, "changed");
+        String mirror = "Mirror site. " + String.join("  ", edited).toUpperCase() + " Copyright 2026";
+        String other = String.join(" ", randomWords(random, 1000));
+        
+        assertTrue(SimHash.distance(SimHash.of(text), SimHash.of(mirror)) <= NearDuplicateDetector.DEFAULT_MAX_DISTANCE);
+        assertTrue(SimHash.distance(SimHash.of(text), SimHash.of(other)) > 16);
+        assertEquals(SimHash.of("one, two; three!"), SimHash.of("ONE two three"));
+        assertEquals(0, SimHash.of("two words"));
+    }
+    
+    @Test
+    void testDetectorFindsHashesWithinDistance() {
+        Random random = new Random(7);
+        NearDuplicateDetector detector = NearDuplicateDetector.createDefault();
+        List<Long> hashes = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            long hash = random.nextLong();
+            hashes.add(hash);
+            assertFalse(detector.checkAndAdd(hash), "Hash " + i + " is new");
+        }
+        
+        // Hashes three bits away are found whichever blocks the bits fall in, past the index's first resizes
+        for (int i = 0; i < hashes.size(); i += 10) {
+            assertTrue(detector.checkAndAdd(flipBits(random, hashes.get(i), 3)), "Hash " + i + " is near");
+        }
+        assertFalse(detector.checkAndAdd(flipBits(random, hashes.get(0), 5)));
+        assertFalse(detector.isNearDuplicate("too short"));
+        assertEquals(3301, detector.getPagesChecked());
+        assertEquals(300, detector.getNearDuplicateCount());
+    }
+    
+    @Test
+    void testParserSkipsNearDuplicatePages() {
+        Random random = new Random(3);
+        String article = String.join(" ", randomWords(random, 1000));
+        SelectorPlan plan = SelectorPlan.compile(new DataSelectors(".product", "h2", "p", "a"));
+        HtmlParser parser = new HtmlParser();
+        NearDuplicateDetector detector = NearDuplicateDetector.createDefault();
+        
+        ParsedPage original = parser.parsePage(page("Widget", article, "Posted today"),
+                                               "https://example.com/widget", plan, true, detector);
+        ParsedPage mirror = parser.parsePage(page("Widget", article, "Posted yesterday"),
+                                             "https://mirror.example.com/widget", plan, true, detector);
+        ParsedPage different = parser.parsePage(page("Gadget", String.join(" ", randomWords(random, 1000)), "Posted today"),
+                                                "https://example.com/gadget", plan, true, detector);
+        
+        assertEquals(1, original.getRecords().size());
+        assertEquals(1, original.getLinks().size());
+        assertTrue(mirror.getRecords().isEmpty());
+        assertTrue(mirror.getLinks().isEmpty());
+        // Marked so the HTTP cache does not store the skipped page as empty
+        assertTrue(mirror.isNearDuplicate());
+        assertFalse(original.isNearDuplicate());
+        assertNotEquals(0, different.getRecords().size());
+        assertEquals(1, detector.getNearDuplicateCount());
+        assertEquals(1.0 / 3, detector.getNearDuplicateRatio(), 1e-9);
+    }
+    
+    private static String page(String title, String text, String footer) {
+        return "<html><body><div class=\"product\"><h2>" + title + "</h2><p>" + text + "</p>"
+                + "<a href=\"/related\">Related</a></div><footer>" + footer + "</footer></body></html>";
+    }
+    
+    private static long flipBits(Random random, long hash, int bits) {
+        long flipped = hash;
+        while (SimHash.distance(flipped, hash) < bits) {
+            flipped ^= 1L << random.nextInt(Long.SIZE);
+        }
+        return flipped;
+    }
+    
+    private static List<String> randomWords(Random random, int count) {
+        List<String> words = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            words.add("w" + random.nextInt(5000));
+        }
+        return words;
+    }
+}
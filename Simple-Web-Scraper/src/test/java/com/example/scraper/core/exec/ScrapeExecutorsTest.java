@@ -0,0 +1,102 @@
+package com.example.scraper.core.exec;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScrapeExecutorsTest {
+    
+    @Test
+    void testBoundedExecutorNeverExceedsConcurrency() throws Exception {
+        ExecutorService executor = new ScrapeExecutors.BoundedExecutorService(Executors.newCachedThreadPool(), 3);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        List<CompletableFuture<Void>> tasks = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            tasks.add(CompletableFuture.runAsync(() -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(10);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    running.decrementAndGet();
+                }
+            }, executor));
+        }
+        
+        CompletableFuture.allOf(tasks.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+        assertEquals(3, maxRunning.get());
+        executor.shutdown();
+    }
+    
+    @Test
+    void testPlatformModeUsesDaemonThreads() throws Exception {
+        ExecutorService executor = ScrapeExecutors.create(ExecutionMode.PLATFORM, 2);
+        Thread thread = CompletableFuture.supplyAsync(Thread::currentThread, executor).get(5, TimeUnit.SECONDS);
+        
+        assertTrue(thread.isDaemon());
+        assertTrue(thread.getName().startsWith("scraper-worker-"), thread.getName());
+        executor.shutdown();
+    }
+    
+    @Test
+    void testShutdownNowNeverRunsTasksWithoutAPermit() throws Exception {
+        ExecutorService executor = new ScrapeExecutors.BoundedExecutorService(Executors.newCachedThreadPool(), 1);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.execute(() -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            holding.countDown();
+            // Holds the only permit through the shutdown, which interrupts it too
+            boolean released = false;
+            while (!released) {
+                try {
+                    released = release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    // Keep holding
+                }
+            }
+            running.decrementAndGet();
+        });
+        assertTrue(holding.await(5, TimeUnit.SECONDS));
+        
+        List<Runnable> tasks = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Runnable task = () -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                runs.incrementAndGet();
+                running.decrementAndGet();
+            };
+            tasks.add(i % 2 == 0 ? task : new FutureTask<>(task, null));
+        }
+        tasks.forEach(executor::execute);
+        Thread.sleep(50);
+        
+        // Interrupts the tasks waiting for the permit
+        List<Runnable> notRun = executor.shutdownNow();
+        release.countDown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        
+        assertEquals(0, runs.get());
+        assertEquals(1, maxRunning.get());
+        for (Runnable task : tasks) {
+            boolean cancelled = task instanceof FutureTask && ((FutureTask<?>) task).isCancelled();
+            assertTrue(notRun.contains(task) != cancelled, "Each task is either returned or cancelled");
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.scraper.core.frontier;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CrawlFrontierTest {
+    
+    @Test
+    void testDeduplicatesUrls() {
+        CrawlFrontier frontier = new CrawlFrontier(new CrawlScope(null, null, null), 3, 2);
+        
+        assertTrue(frontier.addSeed("https://example.com/a"));
+        assertFalse(frontier.addSeed("https://example.com/a"));
+        assertFalse(frontier.offer("https://example.com/a#reviews", 1));
+        assertTrue(frontier.offer("https://example.com/b", 1));
+        
+        assertEquals(2, frontier.getQueuedCount());
+        assertEquals(2, frontier.getSeenCount());
+    }
+    
+    @Test
+    void testScopeAndDepthLimits() {
+        CrawlScope scope = CrawlScope.sameHost(List.of("https://shop.example.com/"),
+                Pattern.compile("/products/"), Pattern.compile("\\.pdf$"));
+        CrawlFrontier frontier = new CrawlFrontier(scope, 2, 2);
+        
+        assertTrue(frontier.offer("https://shop.example.com/products/1", 1));
+        assertTrue(frontier.offer("https://SHOP.example.com/products/2", 2));
+        assertFalse(frontier.offer("https://shop.example.com/products/3", 3));
+        assertFalse(frontier.offer("https://other.example.com/products/1", 1));
+        assertFalse(frontier.offer("https://shop.example.com/about", 1));
+        assertFalse(frontier.offer("https://shop.example.com/products/manual.pdf", 1));
+        assertFalse(frontier.offer("mailto:shop@example.com", 1));
+    }
+    
+    @Test
+    void testHostsTakeTurns() {
+        CrawlFrontier frontier = new CrawlFrontier(new CrawlScope(null, null, null), 3, 5);
+        frontier.addSeed("https://a.example.com/1");
+        frontier.addSeed("https://a.example.com/2");
+        frontier.addSeed("https://a.example.com/3");
+        frontier.addSeed("https://b.example.com/1");
+        
+        assertEquals("a.example.com", frontier.poll().getHost());
+        assertEquals("b.example.com", frontier.poll().getHost());
+        assertEquals("a.example.com", frontier.poll().getHost());
+        assertEquals("a.example.com", frontier.poll().getHost());
+        assertNull(frontier.poll());
+    }
+    
+    @Test
+    void testBusyHostDoesNotBlockOthers() throws InterruptedException {
+        CrawlFrontier frontier = new CrawlFrontier(new CrawlScope(null, null, null), 3, 1);
+        frontier.addSeed("https://slow.example.com/1");
+        frontier.addSeed("https://slow.example.com/2");
+        frontier.addSeed("https://fast.example.com/1");
+        
+        FrontierEntry slow = frontier.poll();
+        assertEquals("slow.example.com", slow.getHost());
+        assertEquals("fast.example.com", frontier.poll().getHost());
+        
+        // The slow host has a page in progress, so its second URL is held back
+        assertNull(frontier.poll());
+        assertEquals(1, frontier.getQueuedCount());
+        
+        frontier.complete(slow);
+        FrontierEntry next = frontier.take();
+        assertEquals("https://slow.example.com/2", next.getUrl());
+    }
+    
+    @Test
+    void testTakeReturnsNullWhenExhausted() throws InterruptedException {
+        CrawlFrontier frontier = new CrawlFrontier(new CrawlScope(null, null, null), 3, 2);
+        frontier.addSeed("https://example.com/");
+        
+        FrontierEntry entry = frontier.take();
+        frontier.offer("https://example.com/next", entry.getDepth() + 1);
+        frontier.complete(entry);
+        
+        FrontierEntry next = frontier.take();
+        assertEquals(1, next.getDepth());
+        frontier.complete(next);
+        
+        assertNull(frontier.take());
+        assertEquals(0, frontier.getActiveCount());
+        assertEquals(0, frontier.getHostCount());
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.scraper.core.frontier;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UrlDeduplicatorTest {
+    
+    @Test
+    void testCanonicalize() {
+        assertEquals("https://example.com/", UrlCanonicalizer.canonicalize("HTTPS://Example.COM"));
+        assertEquals("https://example.com/a/c", UrlCanonicalizer.canonicalize("https://example.com:443/a/b/../c#top"));
+        assertEquals("http://example.com:8080/?a=1&b=2",
+                UrlCanonicalizer.canonicalize("http://example.com:8080/?b=2&utm_source=x&a=1"));
+        assertEquals("https://cdn.example.com/img.png", UrlCanonicalizer.canonicalize(" //cdn.example.com/img.png "));
+        // Repeated keys keep their order, since it can change what the page shows
+        assertEquals("https://example.com/?a=1&sort=price&sort=name",
+                UrlCanonicalizer.canonicalize("https://example.com/?sort=price&a=1&sort=name"));
+        assertEquals("https://example.com/?sort=name&sort=price",
+                UrlCanonicalizer.canonicalize("https://example.com/?sort=name&sort=price"));
+        assertNull(UrlCanonicalizer.canonicalize("/relative/path"));
+        assertNull(UrlCanonicalizer.canonicalize("not a url"));
+    }
+    
+    @Test
+    void testExactSetGrowsWithoutLosingUrls() {
+        LongHashSet set = new LongHashSet(16, 1 << 20, false);
+        for (long i = 0; i < 10_000; i++) {
+            assertTrue(set.add(i * 31));
+        }
+        for (long i = 0; i < 10_000; i++) {
+            assertFalse(set.add(i * 31));
+            assertTrue(set.contains(i * 31));
+        }
+        assertFalse(set.contains(7));
+        assertEquals(10_000, set.size());
+    }
+    
+    @Test
+    void testOffHeapDeduplicator() {
+        UrlDeduplicator deduplicator = UrlDeduplicator.create(DedupMode.EXACT, 0.001, 16, true);
+        
+        assertTrue(deduplicator.markSeen("https://example.com/page?id=1"));
+        assertFalse(deduplicator.markSeen("https://EXAMPLE.com/page?id=1#comments"));
+        assertTrue(deduplicator.isSeen("https://example.com:443/page?id=1"));
+        assertFalse(deduplicator.markSeen("javascript:void(0)"));
+        assertEquals(1, deduplicator.getSeenCount());
+    }
+    
+    @Test
+    void testBloomFilterScalesAndKeepsFalsePositiveRate() {
+        ScalableBloomFilter filter = new ScalableBloomFilter(1024, 0.01, 16 << 20, false);
+        int count = 50_000;
+        for (int i = 0; i < count; i++) {
+            filter.add(UrlFingerprint.of("https://example.com/item/" + i));
+        }
+        
+        // Every added URL must be found; Bloom filters have no false negatives
+        for (int i = 0; i < count; i++) {
+            assertTrue(filter.contains(UrlFingerprint.of("https://example.com/item/" + i)));
+        }
+        assertTrue(filter.getStageCount() > 1);
+        
+        int falsePositives = 0;
+        for (int i = 0; i < count; i++) {
+            if (filter.contains(UrlFingerprint.of("https://example.com/other/" + i))) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < count * 0.01, "False-positive rate too high: " + falsePositives);
+    }
+}
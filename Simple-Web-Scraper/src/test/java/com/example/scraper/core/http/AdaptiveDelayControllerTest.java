@@ -0,0 +1,83 @@
+package com.example.scraper.core.http;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdaptiveDelayControllerTest {
+    
+    private static final String HOST = "example.com";
+    
+    @Test
+    void testSpeedsUpWhileHealthy() {
+        AdaptiveDelayController controller = new AdaptiveDelayController();
+        assertEquals(AdaptiveDelayController.INITIAL_DELAY_MS, controller.delayFor(HOST, 0));
+        
+        long previous = controller.delayFor(HOST, 0);
+        for (int i = 0; i < 20; i++) {
+            controller.onResponse(HOST, 200, 40);
+            long delay = controller.delayFor(HOST, 0);
+            assertTrue(delay < previous, "delay should shrink after each fast response");
+            previous = delay;
+        }
+        // 1 + 20 * 0.2 = 5 requests per second
+        assertEquals(200, previous);
+    }
+    
+    @Test
+    void testFloorIsRespected() {
+        AdaptiveDelayController controller = new AdaptiveDelayController();
+        controller.delayFor(HOST, 500);
+        for (int i = 0; i < 50; i++) {
+            controller.onResponse(HOST, 200, 40);
+        }
+        assertEquals(500, controller.delayFor(HOST, 500));
+        
+        // The rate was capped at the floor, so a single back-off is felt immediately
+        controller.onResponse(HOST, 503, 40);
+        assertEquals(1000, controller.delayFor(HOST, 500));
+        assertEquals(3000, controller.delayFor(HOST, 3000));
+    }
+    
+    @Test
+    void testOverloadBurstCountsOnce() {
+        AdaptiveDelayController controller = new AdaptiveDelayController();
+        controller.onResponse(HOST, 200, 10_000);
+        
+        controller.onResponse(HOST, 429, 10_000);
+        controller.onResponse(HOST, 429, 10_000);
+        controller.onFailure(HOST);
+        
+        // 1.2 requests per second halved once
+        assertEquals(1667, controller.getDelayMs(HOST));
+    }
+    
+    @Test
+    void testBacksOffWhenLatencyRises() {
+        AdaptiveDelayController controller = new AdaptiveDelayController();
+        for (int i = 0; i < 5; i++) {
+            controller.onResponse(HOST, 200, 20);
+        }
+        long fast = controller.getDelayMs(HOST);
+        
+        controller.onResponse(HOST, 200, 2000);
+        assertTrue(controller.getDelayMs(HOST) > fast);
+    }
+    
+    @Test
+    void testIgnoresClientErrors() {
+        AdaptiveDelayController controller = new AdaptiveDelayController();
+        controller.onResponse(HOST, 404, 20);
+        controller.onResponse(HOST, 301, 20);
+        assertEquals(AdaptiveDelayController.INITIAL_DELAY_MS, controller.getDelayMs(HOST));
+    }
+    
+    @Test
+    void testFixedControllerUsesFloor() {
+        AdaptiveDelayController controller = AdaptiveDelayController.fixed();
+        controller.onResponse(HOST, 503, 20);
+        assertEquals(750, controller.delayFor(HOST, 750));
+        assertEquals(0, controller.delayFor(HOST, -1));
+    }
+}
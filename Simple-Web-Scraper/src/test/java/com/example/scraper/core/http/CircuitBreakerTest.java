@@ -0,0 +1,84 @@
+package com.example.scraper.core.http;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CircuitBreakerTest {
+    
+    @Test
+    void testOpensWhenFailureRateReached() {
+        CircuitBreaker breaker = new CircuitBreaker("example.com", 0.5, 10, 4, 60_000);
+        breaker.recordSuccess(CircuitBreaker.Permission.ALLOW);
+        breaker.recordFailure(CircuitBreaker.Permission.ALLOW);
+        assertFalse(breaker.recordFailure(CircuitBreaker.Permission.ALLOW), "too few calls to judge");
+        
+        assertTrue(breaker.recordFailure(CircuitBreaker.Permission.ALLOW));
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.isCallPermitted());
+        assertEquals(CircuitBreaker.Permission.WAIT, breaker.acquire());
+        assertFalse(breaker.awaitProbe().isDone());
+        assertTrue(breaker.getOpenRemainingMillis() > 0);
+    }
+    
+    @Test
+    void testOldOutcomesLeaveTheWindow() {
+        CircuitBreaker breaker = new CircuitBreaker("example.com", 0.5, 4, 4, 60_000);
+        breaker.recordFailure(CircuitBreaker.Permission.ALLOW);
+        breaker.recordFailure(CircuitBreaker.Permission.ALLOW);
+        breaker.recordFailure(CircuitBreaker.Permission.ALLOW);
+        for (int i = 0; i < 4; i++) {
+            breaker.recordSuccess(CircuitBreaker.Permission.ALLOW);
+        }
+        assertFalse(breaker.recordFailure(CircuitBreaker.Permission.ALLOW));
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+    
+    @Test
+    void testSuccessfulProbeClosesAndReleasesWaiters() {
+        CircuitBreaker breaker = new CircuitBreaker("example.com", 1.0, 1, 1, 0);
+        breaker.recordFailure(CircuitBreaker.Permission.ALLOW);
+        
+        assertEquals(CircuitBreaker.Permission.PROBE, breaker.acquire());
+        assertEquals(CircuitBreaker.Permission.WAIT, breaker.acquire());
+        CompletableFuture<Void> waiting = breaker.awaitProbe();
+        assertFalse(waiting.isDone());
+        
+        breaker.recordSuccess(CircuitBreaker.Permission.PROBE);
+        assertTrue(waiting.isDone());
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(CircuitBreaker.Permission.ALLOW, breaker.acquire());
+    }
+    
+    @Test
+    void testFailedProbeReopens() {
+        CircuitBreaker breaker = new CircuitBreaker("example.com", 1.0, 1, 1, 0);
+        breaker.recordFailure(CircuitBreaker.Permission.ALLOW);
+        assertEquals(CircuitBreaker.Permission.PROBE, breaker.acquire());
+        CompletableFuture<Void> waiting = breaker.awaitProbe();
+        
+        // A late result from a request sent before the circuit opened does not decide the probe
+        breaker.recordSuccess(CircuitBreaker.Permission.ALLOW);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        
+        assertTrue(breaker.recordFailure(CircuitBreaker.Permission.PROBE));
+        assertTrue(waiting.isDone());
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+    
+    @Test
+    void testQueuedRequestsFailFastAfterFailedProbe() throws InterruptedException {
+        CircuitBreaker breaker = new CircuitBreaker("example.com", 1.0, 1, 1, 20);
+        breaker.recordFailure(CircuitBreaker.Permission.ALLOW);
+        assertEquals(CircuitBreaker.Permission.WAIT, breaker.acquire());
+        
+        Thread.sleep(30);
+        assertEquals(CircuitBreaker.Permission.PROBE, breaker.acquire());
+        breaker.recordFailure(CircuitBreaker.Permission.PROBE);
+        assertEquals(CircuitBreaker.Permission.REJECT, breaker.acquire());
+    }
+}
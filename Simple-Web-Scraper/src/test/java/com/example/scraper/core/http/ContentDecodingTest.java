@@ -0,0 +1,103 @@
+package com.example.scraper.core.http;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ContentDecodingTest {
+    
+    private static final String HTML = "<html><body>" + "<article><h2>Product</h2><p>Description</p></article>".repeat(50)
+            + "</body></html>";
+    
+    @Test
+    void testDecodesGzip() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(HTML.getBytes(StandardCharsets.UTF_8));
+        }
+        assertEquals(HTML, decode(out.toByteArray(), "gzip"));
+        assertEquals(HTML, decode(out.toByteArray(), "X-GZIP"));
+    }
+    
+    @Test
+    void testDecodesZlibAndRawDeflate() throws IOException {
+        assertEquals(HTML, decode(deflate(HTML, false), "deflate"));
+        assertEquals(HTML, decode(deflate(HTML, true), "deflate"));
+    }
+    
+    @Test
+    void testDecodesBrotli() throws IOException {
+        assertEquals("hello, brotli", decode(uncompressedBrotli("hello, brotli"), "br"));
+    }
+    
+    @Test
+    void testPassesThroughIdentityAndEmptyBodies() throws IOException {
+        assertEquals(HTML, decode(HTML.getBytes(StandardCharsets.UTF_8), null));
+        assertEquals(HTML, decode(HTML.getBytes(StandardCharsets.UTF_8), "identity"));
+        // A 304 response may carry Content-Encoding without a body
+        assertEquals("", decode(new byte[0], "gzip"));
+    }
+    
+    @Test
+    void testRejectsUnknownEncoding() {
+        assertThrows(IOException.class, () -> decode(new byte[] {1, 2, 3}, "compress"));
+    }
+    
+    @Test
+    void testRecordsWireAndDecodedBytes() throws IOException {
+        byte[] compressed = deflate(HTML, false);
+        TransferStats stats = new TransferStats();
+        try (InputStream in = new DecodedInputStream(new ByteArrayInputStream(compressed), "deflate",
+                                                     "https://example.com/", stats)) {
+            assertEquals(HTML, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        
+        assertEquals(1, stats.getResponseCount());
+        assertEquals(compressed.length, stats.getWireBytes());
+        assertEquals(HTML.length(), stats.getDecodedBytes());
+        assertTrue(stats.getSavings() > 0.9);
+    }
+    
+    private static String decode(byte[] body, String encoding) throws IOException {
+        try (InputStream in = ContentDecoding.decode(new ByteArrayInputStream(body), encoding)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+    
+    private static byte[] deflate(String text, boolean raw) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (DeflaterOutputStream deflater = new DeflaterOutputStream(out, new Deflater(Deflater.DEFAULT_COMPRESSION, raw))) {
+            deflater.write(text.getBytes(StandardCharsets.UTF_8));
+        }
+        return out.toByteArray();
+    }
+    
+    /**
+     * Builds a brotli stream holding the text in one uncompressed meta-block (RFC 7932 section 9.2),
+     * since the JDK has no brotli encoder.
+     */
+    private static byte[] uncompressedBrotli(String text) {
+        byte[] data = text.getBytes(StandardCharsets.UTF_8);
+        // WBITS=16 (1 bit), ISLAST=0, MNIBBLES=4 (2 bits), MLEN-1 (16 bits), ISUNCOMPRESSED=1, then byte-aligned data
+        int header = ((data.length - 1) << 4) | (1 << 20);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(header & 0xff);
+        out.write((header >>> 8) & 0xff);
+        out.write((header >>> 16) & 0xff);
+        out.writeBytes(data);
+        // Final empty meta-block: ISLAST=1, ISLASTEMPTY=1
+        out.write(0x03);
+        return out.toByteArray();
+    }
+}
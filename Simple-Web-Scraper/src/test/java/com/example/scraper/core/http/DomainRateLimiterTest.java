@@ -0,0 +1,145 @@
+package com.example.scraper.core.http;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DomainRateLimiterTest {
+    
+    private DomainRateLimiter rateLimiter;
+    
+    @BeforeEach
+    void setUp() {
+        rateLimiter = new DomainRateLimiter(2);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        rateLimiter.close();
+    }
+    
+    @Test
+    void testSpacingUnderConcurrency() throws Exception {
+        rateLimiter.setDomainLimits("example.com", new DomainRateLimiter.DomainLimits(-1, 10));
+        List<Long> grantTimes = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        
+        for (int i = 0; i < 5; i++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                    rateLimiter.acquire("example.com", 50).thenAccept(permit -> {
+                        grantTimes.add(System.nanoTime());
+                        permit.release();
+                    }).get(5, TimeUnit.SECONDS);
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        
+        assertEquals(5, grantTimes.size());
+        List<Long> sorted = new ArrayList<>(grantTimes);
+        Collections.sort(sorted);
+        for (int i = 1; i < sorted.size(); i++) {
+            long gapMs = TimeUnit.NANOSECONDS.toMillis(sorted.get(i) - sorted.get(i - 1));
+            assertTrue(gapMs >= 45, "Requests were only " + gapMs + "ms apart");
+        }
+    }
+    
+    @Test
+    void testConcurrencyLimit() throws Exception {
+        DomainRateLimiter.Permit first = rateLimiter.acquire("example.com", 0).get(1, TimeUnit.SECONDS);
+        DomainRateLimiter.Permit second = rateLimiter.acquire("example.com", 0).get(1, TimeUnit.SECONDS);
+        CompletableFuture<DomainRateLimiter.Permit> third = rateLimiter.acquire("example.com", 0);
+        
+        assertFalse(third.isDone());
+        assertEquals(1, rateLimiter.getQueuedCount("example.com"));
+        
+        first.release();
+        first.release(); // Releasing twice must not free a second slot
+        assertNotNull(third.get(1, TimeUnit.SECONDS));
+        assertEquals(2, rateLimiter.getActiveCount("example.com"));
+        
+        second.release();
+        third.get().release();
+        assertEquals(0, rateLimiter.getActiveCount("example.com"));
+    }
+    
+    @Test
+    void testDomainsAreIndependent() throws Exception {
+        rateLimiter.acquire("slow.example.com", 10_000).get(1, TimeUnit.SECONDS).release();
+        CompletableFuture<DomainRateLimiter.Permit> slow = rateLimiter.acquire("slow.example.com", 10_000);
+        CompletableFuture<DomainRateLimiter.Permit> fast = rateLimiter.acquire("fast.example.com", 10_000);
+        
+        assertNotNull(fast.get(1, TimeUnit.SECONDS));
+        assertFalse(slow.isDone());
+        slow.cancel(false);
+    }
+    
+    @Test
+    void testPauseHoldsBackNewRequests() throws Exception {
+        rateLimiter.pause("example.com", 300);
+        long start = System.nanoTime();
+        rateLimiter.acquire("example.com", 0).get(5, TimeUnit.SECONDS).release();
+        long waitedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        
+        assertTrue(waitedMs >= 250, "request started after " + waitedMs + "ms");
+        assertNotNull(rateLimiter.acquire("other.example.com", 0).get(1, TimeUnit.SECONDS));
+    }
+    
+    @Test
+    void testIdleDomainsAreDropped() throws Exception {
+        for (int i = 0; i < 100; i++) {
+            rateLimiter.acquire("host" + i + ".example.com", 0).get(1, TimeUnit.SECONDS).release();
+        }
+        DomainRateLimiter.Permit held = rateLimiter.acquire("busy.example.com", 0).get(1, TimeUnit.SECONDS);
+        rateLimiter.acquire("Spaced.example.com", 200).get(1, TimeUnit.SECONDS).release();
+        
+        // A domain whose next slot is still ahead keeps its spacing until then
+        assertEquals(2, rateLimiter.getTrackedDomainCount());
+        long start = System.nanoTime();
+        rateLimiter.acquire("spaced.example.com", 200).get(1, TimeUnit.SECONDS).release();
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 150);
+        
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (rateLimiter.getTrackedDomainCount() > 1 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, rateLimiter.getTrackedDomainCount());
+        assertEquals(1, rateLimiter.getActiveCount("busy.example.com"));
+        held.release();
+        assertEquals(0, rateLimiter.getTrackedDomainCount());
+    }
+    
+    @Test
+    void testParseDomainLimits() {
+        DomainRateLimiter.DomainLimits limits = DomainRateLimiter.DomainLimits.parse("250:4");
+        assertEquals(250, limits.getDelayMs());
+        assertEquals(4, limits.getMaxConcurrent());
+        
+        DomainRateLimiter.DomainLimits delayOnly = DomainRateLimiter.DomainLimits.parse("500");
+        assertEquals(500, delayOnly.getDelayMs());
+        assertEquals(0, delayOnly.getMaxConcurrent());
+    }
+}
@@ -0,0 +1,231 @@
+package com.example.scraper.core.http;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+import com.example.scraper.StubHttpServer;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HttpFetcherTest {
+    
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger failuresLeft = new AtomicInteger();
+    private HttpServer server;
+    private String origin;
+    private HttpTransport transport;
+    private DomainRateLimiter rateLimiter;
+    private ExecutorService executor;
+    
+    @BeforeEach
+    void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            requests.incrementAndGet();
+            boolean fail = failuresLeft.getAndDecrement() > 0;
+            byte[] body = (fail ? "busy" : "<html></html>").getBytes(StandardCharsets.UTF_8);
+            if (fail) {
+                exchange.getResponseHeaders().add("Retry-After", "0");
+            }
+            exchange.sendResponseHeaders(fail ? 503 : 200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        origin = "http://127.0.0.1:" + server.getAddress().getPort();
+        transport = new HttpTransport(new TransportOptions());
+        rateLimiter = new DomainRateLimiter(4);
+        executor = Executors.newFixedThreadPool(2);
+    }
+    
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        transport.close();
+        rateLimiter.close();
+        executor.shutdownNow();
+    }
+    
+    private HttpFetcher fetcher(RetryPolicy policy) {
+        return new HttpFetcher("test-agent", Duration.ofSeconds(5), HttpFetcher.DEFAULT_MAX_BODY_BYTES, rateLimiter,
+                               executor, transport, AdaptiveDelayController.fixed(), policy);
+    }
+    
+    private static RetryPolicy fastPolicy() {
+        RetryPolicy policy = new RetryPolicy();
+        policy.setBaseDelayMs(10);
+        policy.setMaxDelayMs(50);
+        return policy;
+    }
+    
+    @Test
+    void testRetriesServerErrors() {
+        failuresLeft.set(2);
+        HttpFetcher fetcher = fetcher(fastPolicy());
+        
+        HttpResponse<String> response = fetcher.fetch(origin + "/page", 0);
+        
+        assertEquals(200, response.statusCode());
+        assertEquals(3, requests.get());
+        assertEquals(2, fetcher.getRetryBudget().getRetryCount());
+    }
+    
+    @Test
+    void testBufferedBodyIsDecodedUpToMaxBodyBytes() throws Exception {
+        // A megabyte of zeros compresses to about a kilobyte
+        server.createContext("/bomb", exchange -> {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                gzip.write(new byte[1 << 20]);
+            }
+            exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+            exchange.sendResponseHeaders(200, compressed.size());
+            try (OutputStream out = exchange.getResponseBody()) {
+                compressed.writeTo(out);
+            }
+        });
+        HttpFetcher fetcher = new HttpFetcher("test-agent", Duration.ofSeconds(5), 4096, rateLimiter, executor,
+                                              transport, AdaptiveDelayController.fixed(), fastPolicy());
+        
+        assertEquals(4096, fetcher.fetch(origin + "/bomb", 0).body().length());
+    }
+    
+    @Test
+    void testLongRetryAfterDoesNotBlockTheHost() throws Exception {
+        server.createContext("/overloaded", exchange -> {
+            exchange.getResponseHeaders().add("Retry-After", "86400");
+            exchange.sendResponseHeaders(503, -1);
+            exchange.close();
+        });
+        HttpFetcher fetcher = fetcher(fastPolicy());
+        
+        assertEquals(503, fetcher.fetch(origin + "/overloaded", 0).statusCode());
+        // The host is paused for at most the maximum retry delay
+        assertEquals(200, fetcher.fetchAsync(origin + "/page", 0).get(5, TimeUnit.SECONDS).statusCode());
+    }
+    
+    @Test
+    void testStreamedBodiesHoldTheDomainSlot() throws Exception {
+        AtomicInteger sending = new AtomicInteger();
+        AtomicInteger maxSending = new AtomicInteger();
+        try (StubHttpServer site = StubHttpServer.start().handle("/slow/", exchange -> {
+            maxSending.accumulateAndGet(sending.incrementAndGet(), Math::max);
+            exchange.sendResponseHeaders(200, 0);
+            OutputStream out = exchange.getResponseBody();
+            try {
+                // The headers go out at once and the body trickles in after them
+                for (int i = 0; i < 5; i++) {
+                    out.write("<p>chunk</p>".getBytes(StandardCharsets.UTF_8));
+                    out.flush();
+                    Thread.sleep(20);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                // Counted out before the end of the body, which lets the client take the next slot
+                sending.decrementAndGet();
+                out.close();
+            }
+        })) {
+            rateLimiter.setDomainLimits("127.0.0.1", new DomainRateLimiter.DomainLimits(0, 2));
+            HttpFetcher fetcher = fetcher(fastPolicy());
+            ExecutorService readers = Executors.newCachedThreadPool();
+            List<CompletableFuture<Integer>> bodies = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                bodies.add(fetcher.fetchStreamAsync(site.url("/slow/" + i), 0).thenApplyAsync(response -> {
+                    try (InputStream body = response.body()) {
+                        return body.readAllBytes().length;
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }, readers));
+            }
+            
+            for (CompletableFuture<Integer> body : bodies) {
+                assertEquals(60, body.get(10, TimeUnit.SECONDS));
+            }
+            readers.shutdown();
+            assertEquals(2, maxSending.get());
+            assertEquals(0, rateLimiter.getActiveCount("127.0.0.1"));
+        }
+    }
+    
+    @Test
+    void testRecordsTimingsPerHost() throws Exception {
+        HttpFetcher fetcher = fetcher(fastPolicy());
+        
+        assertEquals(200, fetcher.fetch(origin + "/buffered", 0).statusCode());
+        try (InputStream body = fetcher.fetchStream(origin + "/streamed", 0).body()) {
+            body.readAllBytes();
+        }
+        
+        FetchTimings timings = fetcher.getTimings();
+        assertEquals(2, timings.getRateLimitWait().get("127.0.0.1").getCount());
+        assertEquals(2, timings.getTimeToHeaders().get("127.0.0.1").getCount());
+        assertEquals(2, timings.getBodyTime().get("127.0.0.1").getCount());
+        assertTrue(timings.getTimeToHeaders().get("127.0.0.1").getMax() > 0);
+    }
+    
+    @Test
+    void testGivesUpWhenBudgetIsSpent() {
+        failuresLeft.set(Integer.MAX_VALUE);
+        RetryPolicy policy = fastPolicy();
+        policy.setBudgetRatio(0);
+        policy.setBreakerMinimumCalls(1000);
+        HttpFetcher fetcher = fetcher(policy);
+        
+        for (int i = 0; i < 6; i++) {
+            assertEquals(503, fetcher.fetch(origin + "/page" + i, 0).statusCode());
+        }
+        
+        // The initial reserve of 10 retries is shared by all URLs
+        assertEquals(6 + RetryBudget.DEFAULT_INITIAL_TOKENS, requests.get());
+        assertTrue(fetcher.getRetryBudget().getDeniedCount() > 0);
+    }
+    
+    @Test
+    void testOpenCircuitFailsFastWithoutRequests() throws Exception {
+        failuresLeft.set(Integer.MAX_VALUE);
+        RetryPolicy policy = fastPolicy();
+        policy.setMaxRetries(0);
+        policy.setBreakerMinimumCalls(3);
+        policy.setBreakerOpenMs(60_000);
+        HttpFetcher fetcher = fetcher(policy);
+        
+        for (int i = 0; i < 3; i++) {
+            assertEquals(503, fetcher.fetch(origin + "/page" + i, 0).statusCode());
+        }
+        assertEquals(CircuitBreaker.State.OPEN, fetcher.getCircuitState("127.0.0.1"));
+        
+        long start = System.nanoTime();
+        CompletionException error = assertThrows(CompletionException.class,
+                () -> fetcher.fetchAsync(origin + "/next", 0).join());
+        assertInstanceOf(CircuitOpenException.class, error.getCause());
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000);
+        assertEquals(3, requests.get());
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.scraper.core.http;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.example.scraper.core.robots.RobotsCache;
+import com.example.scraper.core.robots.RobotsTxtCompliance;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HttpTransportTest {
+    
+    @Test
+    void testHttp2OnlyForHttpsOriginsNotPinnedToHttp1() {
+        TransportOptions options = new TransportOptions();
+        options.addHttp1Host("Legacy.Example.com");
+        try (HttpTransport transport = new HttpTransport(options)) {
+            assertTrue(transport.useHttp2(URI.create("https://example.com/")));
+            assertFalse(transport.useHttp2(URI.create("http://example.com/")));
+            assertFalse(transport.useHttp2(URI.create("https://legacy.example.com/page")));
+            
+            assertEquals(Optional.empty(), transport.newRequest(URI.create("https://example.com/")).build().version());
+            assertEquals(Optional.of(HttpClient.Version.HTTP_1_1),
+                         transport.newRequest(URI.create("http://example.com/")).build().version());
+        }
+    }
+    
+    @Test
+    void testHttp2CanBeDisabled() {
+        TransportOptions options = new TransportOptions();
+        options.setHttp2(false);
+        try (HttpTransport transport = new HttpTransport(options)) {
+            assertFalse(transport.useHttp2(URI.create("https://example.com/")));
+            assertEquals(HttpClient.Version.HTTP_1_1, transport.getClient().version());
+        }
+    }
+    
+    @Test
+    void testRobotsAndPageFetchesReuseOneConnection() throws Exception {
+        Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            clientPorts.add(exchange.getRemoteAddress().getPort());
+            String path = exchange.getRequestURI().getPath();
+            byte[] body = (path.equals("/robots.txt") ? "User-agent: *\nDisallow: /private\n" : "<html></html>")
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        
+        try (HttpTransport transport = new HttpTransport(new TransportOptions());
+             DomainRateLimiter rateLimiter = new DomainRateLimiter()) {
+            String origin = "http://127.0.0.1:" + server.getAddress().getPort();
+            RobotsTxtCompliance robots = new RobotsTxtCompliance(transport, new RobotsCache(10));
+            HttpFetcher fetcher = new HttpFetcher("test-agent", Duration.ofSeconds(5),
+                                                  HttpFetcher.DEFAULT_MAX_BODY_BYTES, rateLimiter,
+                                                  Runnable::run, transport);
+            
+            assertFalse(robots.isUrlAllowed(origin + "/private/page"));
+            HttpResponse<String> first = fetcher.fetch(origin + "/a", 0);
+            HttpResponse<String> second = fetcher.fetch(origin + "/b", 0);
+            
+            assertEquals(200, first.statusCode());
+            assertEquals(200, second.statusCode());
+            assertEquals(1, clientPorts.size(), "all requests should share one keep-alive connection");
+        } finally {
+            server.stop(0);
+        }
+    }
+    
+    @Test
+    void testWrappedClientIsNotOwned() {
+        HttpClient client = HttpClient.newHttpClient();
+        HttpTransport transport = new HttpTransport(client);
+        transport.close();
+        
+        assertEquals(client, transport.getClient());
+        assertTrue(transport.useHttp2(URI.create("https://example.com/")));
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.scraper.core.http;
+
+import java.net.http.HttpHeaders;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RetryAfterTest {
+    
+    private static final long NOW = 1_700_000_000_000L; // Tue, 14 Nov 2023 22:13:20 GMT
+    
+    @Test
+    void testParsesDelaySeconds() {
+        assertEquals(120_000, RetryAfter.parse("120", NOW));
+        assertEquals(0, RetryAfter.parse(" 0 ", NOW));
+    }
+    
+    @Test
+    void testParsesHttpDate() {
+        assertEquals(30_000, RetryAfter.parse("Tue, 14 Nov 2023 22:13:50 GMT", NOW));
+        assertEquals(0, RetryAfter.parse("Tue, 14 Nov 2023 22:00:00 GMT", NOW));
+    }
+    
+    @Test
+    void testInvalidOrMissingValues() {
+        assertEquals(-1, RetryAfter.parse("", NOW));
+        assertEquals(-1, RetryAfter.parse("soon", NOW));
+        assertEquals(-1, RetryAfter.parse("1.5", NOW));
+        assertEquals(-1, RetryAfter.parse(HttpHeaders.of(Map.of(), (name, value) -> true), NOW));
+        assertEquals(5_000, RetryAfter.parse(HttpHeaders.of(Map.of("Retry-After", List.of("5")),
+                                                            (name, value) -> true), NOW));
+    }
+}
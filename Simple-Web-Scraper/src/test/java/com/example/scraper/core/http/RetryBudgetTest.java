@@ -0,0 +1,39 @@
+package com.example.scraper.core.http;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RetryBudgetTest {
+    
+    @Test
+    void testInitialReserveIsSpentThenEarnedBack() {
+        RetryBudget budget = new RetryBudget(0.5, 2, 10);
+        assertTrue(budget.tryAcquire());
+        assertTrue(budget.tryAcquire());
+        assertFalse(budget.tryAcquire());
+        
+        budget.recordRequest();
+        assertFalse(budget.tryAcquire());
+        budget.recordRequest();
+        assertTrue(budget.tryAcquire());
+        
+        assertEquals(3, budget.getRetryCount());
+        assertEquals(2, budget.getDeniedCount());
+    }
+    
+    @Test
+    void testSavingsAreCapped() {
+        RetryBudget budget = new RetryBudget(1.0, 0, 3);
+        for (int i = 0; i < 100; i++) {
+            budget.recordRequest();
+        }
+        int granted = 0;
+        while (budget.tryAcquire()) {
+            granted++;
+        }
+        assertEquals(3, granted);
+    }
+}
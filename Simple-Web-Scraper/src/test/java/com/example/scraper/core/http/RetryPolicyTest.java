@@ -0,0 +1,47 @@
+package com.example.scraper.core.http;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RetryPolicyTest {
+    
+    @Test
+    void testDecorrelatedJitterStaysWithinBounds() {
+        RetryPolicy policy = new RetryPolicy();
+        policy.setBaseDelayMs(100);
+        policy.setMaxDelayMs(2000);
+        
+        long previous = 0;
+        for (int i = 0; i < 1000; i++) {
+            long delay = policy.nextDelayMs(previous);
+            assertTrue(delay >= 100, "delay " + delay + " below base");
+            assertTrue(delay <= Math.min(2000, Math.max(100, previous) * 3), "delay " + delay + " above bound");
+            previous = delay;
+        }
+    }
+    
+    @Test
+    void testDelaysAreSpreadOut() {
+        RetryPolicy policy = new RetryPolicy();
+        policy.setBaseDelayMs(100);
+        long first = policy.nextDelayMs(1000);
+        boolean differs = false;
+        for (int i = 0; i < 20 && !differs; i++) {
+            differs = policy.nextDelayMs(1000) != first;
+        }
+        assertTrue(differs, "retries after the same failure should not all wait the same time");
+    }
+    
+    @Test
+    void testRetryableStatuses() {
+        RetryPolicy policy = new RetryPolicy();
+        assertTrue(policy.isRetryable(429));
+        assertTrue(policy.isRetryable(500));
+        assertTrue(policy.isRetryable(503));
+        assertFalse(policy.isRetryable(404));
+        assertFalse(policy.isRetryable(200));
+        assertFalse(policy.isRetryable(304));
+    }
+}
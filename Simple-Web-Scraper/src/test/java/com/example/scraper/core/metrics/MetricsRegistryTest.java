@@ -0,0 +1,85 @@
+package com.example.scraper.core.metrics;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MetricsRegistryTest {
+    
+    @Test
+    void testHistogramQuantilesStayWithinThreePercent() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long millis = 1; millis <= 1000; millis++) {
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(millis));
+        }
+        
+        assertEquals(1000, histogram.getCount());
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(1000), histogram.getMax());
+        long[] quantiles = histogram.getValuesAtQuantiles(0.5, 0.99, 1.0);
+        long[] expected = {TimeUnit.MILLISECONDS.toNanos(500), TimeUnit.MILLISECONDS.toNanos(990),
+            TimeUnit.MILLISECONDS.toNanos(1000)};
+        for (int i = 0; i < quantiles.length; i++) {
+            // Never below the exact value, and at most one bucket width above it
+            assertTrue(quantiles[i] >= expected[i], "quantile " + i + " = " + quantiles[i]);
+            assertTrue(quantiles[i] <= expected[i] * 1.032, "quantile " + i + " = " + quantiles[i]);
+        }
+        assertEquals(0, new LatencyHistogram().getValueAtQuantile(0.5));
+    }
+    
+    @Test
+    void testBucketsCoverTheirValues() {
+        for (long value : new long[] {0, 1, 63, 64, 65, 127, 128, 1_000_000, 123_456_789_012L}) {
+            int bucket = LatencyHistogram.bucketOf(value);
+            assertTrue(LatencyHistogram.highestValueIn(bucket) >= value);
+            assertTrue(bucket == 0 || LatencyHistogram.highestValueIn(bucket - 1) < value);
+        }
+    }
+    
+    @Test
+    void testRendersPrometheusText() {
+        AtomicLong records = new AtomicLong(42);
+        LabeledHistograms fetchTimes = new LabeledHistograms();
+        fetchTimes.record("shop.example.com", TimeUnit.MILLISECONDS.toNanos(250));
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("scraper_records_total", "Records extracted", records::get);
+        registry.gauge("scraper_queue_depth", "Pages queued", () -> 3);
+        registry.histograms("scraper_fetch_seconds", "Fetch time", "host", fetchTimes);
+        
+        String text = registry.toPrometheus();
+        
+        assertTrue(text.contains("# TYPE scraper_records_total counter\nscraper_records_total 42\n"), text);
+        assertTrue(text.contains("scraper_queue_depth 3\n"), text);
+        assertTrue(text.contains("# TYPE scraper_fetch_seconds summary\n"), text);
+        assertTrue(text.contains("scraper_fetch_seconds{host=\"shop.example.com\",quantile=\"0.5\"} 0.25"), text);
+        assertTrue(text.contains("scraper_fetch_seconds_count{host=\"shop.example.com\"} 1\n"), text);
+        assertTrue(registry.formatSummary().contains("Records extracted: 42"));
+        
+        assertThrows(IllegalArgumentException.class, () -> registry.counter("scraper_records_total", "Again", records::get));
+        assertThrows(IllegalArgumentException.class, () -> registry.gauge("not a name", "Invalid", () -> 0));
+    }
+    
+    @Test
+    void testServesMetricsOverHttp() throws Exception {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("scraper_requests_total", "Requests", () -> 7);
+        
+        try (MetricsServer server = MetricsServer.start(registry, 0)) {
+            HttpResponse<String> response = HttpClient.newHttpClient().send(
+                    HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + "/metrics")).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            
+            assertEquals(200, response.statusCode());
+            assertTrue(response.headers().firstValue("Content-Type").orElse("").startsWith("text/plain; version=0.0.4"));
+            assertTrue(response.body().contains("scraper_requests_total 7\n"));
+        }
+    }
+}
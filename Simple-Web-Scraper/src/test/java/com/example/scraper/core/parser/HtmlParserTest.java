@@ -1,14 +1,21 @@
 package com.example.scraper.core.parser;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.List;
 
 import com.example.scraper.model.DataSelectors;
+import com.example.scraper.model.ExtractionSchema;
+import com.example.scraper.model.FieldSpec;
 import com.example.scraper.model.ScrapedData;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -106,6 +113,41 @@ class HtmlParserTest {
         assertNull(first.getImageUrl());
     }
     
+    @Test
+    void testParseStream() throws IOException {
+        selectors.setContainerSelector("div.product");
+        selectors.setTitleSelector("h1.product-title");
+        selectors.setDescriptionSelector("p.product-description");
+        selectors.setUrlSelector("a.product-link");
+        selectors.setPriceSelector("span.product-price");
+        selectors.setImageSelector("img.product-image");
+        
+        try (InputStream input = Files.newInputStream(Paths.get("src/test/resources/fixtures/ecommerce-site.html"))) {
+            List<ScrapedData> results = parser.parseHtml(input, "UTF-8", "https://shop.example.com", selectors);
+            
+            assertEquals(3, results.size());
+            assertEquals("Wireless Bluetooth Headphones", results.get(0).getTitle());
+            assertEquals("$99.99", results.get(0).getPrice());
+        }
+    }
+    
+    @Test
+    void testParseStreamDetectsMetaCharset() {
+        String html = "<html><head><meta charset=\"ISO-8859-1\"></head><body>"
+                + "<article><h2>Caf\u00e9 cr\u00e8me</h2><a href=\"https://example.com/cafe\">link</a></article>"
+                + "</body></html>";
+        InputStream input = new ByteArrayInputStream(html.getBytes(StandardCharsets.ISO_8859_1));
+        
+        selectors.setContainerSelector("article");
+        selectors.setTitleSelector("h2");
+        selectors.setUrlSelector("a");
+        
+        List<ScrapedData> results = parser.parseHtml(input, null, "https://example.com", selectors);
+        
+        assertEquals(1, results.size());
+        assertEquals("Caf\u00e9 cr\u00e8me", results.get(0).getTitle());
+    }
+    
     @Test
     void testParseEmptyHtml() {
         String html = "<html><body></body></html>";
@@ -118,6 +160,103 @@ class HtmlParserTest {
         assertTrue(results.isEmpty());
     }
     
+    @Test
+    void testCompiledPlanMatchesFirstElementPerField() {
+        String html = "<html><body>"
+                + "<div class=\"item\"><span class=\"name\">Outer</span>"
+                + "<div class=\"body\"><h3>First heading</h3><p>Only text</p></div>"
+                + "<div class=\"links\"><a href=\"https://example.com/a\">A</a></div>"
+                + "<a href=\"https://example.com/b\">B</a><img src=\"https://example.com/b.png\"></div>"
+                + "<div class=\"item\"><h3>Second</h3><div class=\"links\"><a href=\"https://example.com/c\">C</a></div></div>"
+                + "</body></html>";
+        
+        selectors.setContainerSelector("div.item");
+        selectors.setTitleSelector("h3, .name");
+        selectors.setDescriptionSelector("div:has(> h3) p");
+        selectors.setUrlSelector("div.links > a");
+        selectors.setImageSelector("img");
+        SelectorPlan plan = SelectorPlan.compile(selectors);
+        
+        // The same plan serves several pages
+        for (int page = 0; page < 2; page++) {
+            List<ScrapedData> results = parser.parsePage(html, "https://example.com", plan, false).getRecords();
+            
+            assertEquals(2, results.size());
+            assertEquals("Outer", results.get(0).getTitle());
+            assertEquals("Only text", results.get(0).getDescription());
+            assertEquals("https://example.com/a", results.get(0).getUrl());
+            assertEquals("https://example.com/b.png", results.get(0).getImageUrl());
+            assertEquals("Second", results.get(1).getTitle());
+            assertNull(results.get(1).getDescription());
+            assertEquals("https://example.com/c", results.get(1).getUrl());
+        }
+    }
+    
+    @Test
+    void testInvalidFieldSelectorLeavesFieldEmpty() {
+        String html = "<article><h2>Title</h2><span class=\"price\">$5</span></article>";
+        
+        selectors.setContainerSelector("article");
+        selectors.setTitleSelector("h2");
+        selectors.setPriceSelector("span[");
+        
+        List<ScrapedData> results = parser.parseHtml(html, "https://example.com", selectors);
+        
+        assertEquals(1, results.size());
+        assertEquals("Title", results.get(0).getTitle());
+        assertNull(results.get(0).getPrice());
+    }
+    
+    @Test
+    void testSchemaFieldsWithAttributesRegexAndTypes(@TempDir Path tempDir) throws IOException {
+        Path schemaFile = tempDir.resolve("schema.json");
+        Files.writeString(schemaFile, "{\"container_selector\": \"div.product\", \"fields\": ["
+                + "{\"name\": \"sku\", \"selector\": \"[data-sku]\", \"source\": \"attr\", \"attribute\": \"data-sku\", \"key\": true},"
+                + "{\"name\": \"link\", \"selector\": \"a\", \"source\": \"attr\", \"attribute\": \"abs:href\"},"
+                + "{\"name\": \"price\", \"selector\": \".price\", \"regex\": \"([0-9,.]+)\", \"type\": \"number\"},"
+                + "{\"name\": \"reviews\", \"selector\": \".reviews\", \"type\": \"integer\"},"
+                + "{\"name\": \"in_stock\", \"selector\": \".stock\", \"regex\": \"(?i)in stock\", \"type\": \"boolean\"}]}");
+        ExtractionSchema schema = ExtractionSchema.load(schemaFile.toFile());
+        
+        String html = "<div class=\"product\"><span data-sku=\"A-1\"></span><a href=\"/a\">A</a>"
+                + "<span class=\"price\">USD 1,299.50</span><span class=\"reviews\">1,024 reviews</span>"
+                + "<span class=\"stock\">In stock</span></div>"
+                + "<div class=\"product\"><span data-sku=\"B-2\"></span><span class=\"price\">call us</span>"
+                + "<span class=\"stock\">Sold out</span></div>"
+                + "<div class=\"product\"><a href=\"/c\">No SKU</a></div>";
+        
+        List<ScrapedData> results = parser.parsePage(html, "https://shop.example.com/list",
+                                                     SelectorPlan.compile(schema), false).getRecords();
+        
+        // The third container has no value in the key field
+        assertEquals(2, results.size());
+        ScrapedData first = results.get(0);
+        assertEquals("A-1", first.get("sku"));
+        assertEquals("https://shop.example.com/a", first.get("link"));
+        assertEquals(1299.5, first.get("price"));
+        assertEquals(1024L, first.get("reviews"));
+        assertEquals(Boolean.TRUE, first.get("in_stock"));
+        assertNull(first.getTitle());
+        
+        ScrapedData second = results.get(1);
+        assertNull(second.get("link"));
+        assertNull(second.get("price"));
+        assertEquals(Boolean.FALSE, second.get("in_stock"));
+    }
+    
+    @Test
+    void testNumericTypesUseTheFirstNumber() {
+        assertEquals(10L, FieldSpec.Type.INTEGER.coerce("$10 - $20"));
+        assertEquals(3L, FieldSpec.Type.INTEGER.coerce("Item 3 of 12"));
+        assertEquals(1299L, FieldSpec.Type.INTEGER.coerce("$1,299.99"));
+        assertEquals(-5L, FieldSpec.Type.INTEGER.coerce("-5 points"));
+        assertEquals(4.5, FieldSpec.Type.NUMBER.coerce("Rated 4.5 out of 5"));
+        assertEquals(1299.5, FieldSpec.Type.NUMBER.coerce("USD 1,299.50, was 1,499.00"));
+        assertEquals(0.75, FieldSpec.Type.NUMBER.coerce("only .75 left"));
+        assertEquals(12.0, FieldSpec.Type.NUMBER.coerce("12. Next item"));
+        assertNull(FieldSpec.Type.INTEGER.coerce("call us"));
+    }
+    
     @Test
     void testIsValidSelector() {
         assertTrue(parser.isValidSelector("h1"));
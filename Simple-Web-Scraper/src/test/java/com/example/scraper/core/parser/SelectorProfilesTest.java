@@ -0,0 +1,55 @@
+package com.example.scraper.core.parser;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+import com.example.scraper.model.DataSelectors;
+import com.example.scraper.model.ExtractionSchema;
+import com.example.scraper.model.FieldSpec;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SelectorProfilesTest {
+    
+    private static final ExtractionSchema DEFAULT = ExtractionSchema.fromSelectors(
+            new DataSelectors("article", "h2", "p", "a"));
+    
+    @Test
+    void testPicksFirstMatchingProfile() {
+        ExtractionSchema products = ExtractionSchema.fromSelectors(
+                new DataSelectors("div.product-card", ".product-title", ".product-description", "a.product-link"));
+        ExtractionSchema blog = ExtractionSchema.fromSelectors(new DataSelectors("div.post", "h1", ".lead", "a"));
+        SelectorProfiles profiles = new SelectorProfiles(DEFAULT, List.of(
+                new SelectorProfiles.Profile("products", List.of("Shop.example.com"), Pattern.compile("/products/"), products),
+                new SelectorProfiles.Profile("blog", List.of("*.example.com"), null, blog)));
+        
+        assertEquals("div.product-card",
+                profiles.planFor("https://shop.example.com/products/1").getSchema().getContainerSelector());
+        // Same host, but the URL pattern does not match, so the wildcard profile applies
+        assertEquals("div.post", profiles.planFor("https://shop.example.com/about").getSchema().getContainerSelector());
+        assertEquals("div.post", profiles.planFor("https://news.example.com/").getSchema().getContainerSelector());
+        // The wildcard does not cover the bare domain
+        assertEquals(DEFAULT, profiles.planFor("https://example.com/").getSchema());
+        assertEquals(DEFAULT, profiles.planFor("not a url").getSchema());
+    }
+    
+    @Test
+    void testProfilesMustShareTheDefaultLayout() {
+        ExtractionSchema other = new ExtractionSchema("div", List.of(new FieldSpec("sku", "span", FieldSpec.Source.TEXT, true)));
+        List<SelectorProfiles.Profile> profiles = List.of(
+                new SelectorProfiles.Profile("other", List.of("example.com"), null, other));
+        
+        assertThrows(IllegalArgumentException.class, () -> new SelectorProfiles(DEFAULT, profiles));
+    }
+    
+    @Test
+    void testEqualSchemasShareOneCompiledPlan() {
+        ExtractionSchema copy = ExtractionSchema.fromSelectors(new DataSelectors("article", "h2", "p", "a"));
+        
+        assertSame(SelectorPlan.cached(DEFAULT), SelectorPlan.cached(copy));
+        assertSame(SelectorPlan.cached(DEFAULT), SelectorProfiles.of(copy).planFor("https://example.com/"));
+    }
+}
@@ -0,0 +1,236 @@
+package com.example.scraper.core.persistence;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.example.scraper.model.ExtractionSchema;
+import com.example.scraper.model.FieldSpec;
+import com.example.scraper.model.ScrapedData;
+import org.apache.parquet.column.page.PageReadStore;
+import org.apache.parquet.column.values.rle.RunLengthBitPackingHybridDecoder;
+import org.apache.parquet.example.data.Group;
+import org.apache.parquet.example.data.simple.convert.GroupRecordConverter;
+import org.apache.parquet.hadoop.ParquetFileReader;
+import org.apache.parquet.io.ColumnIOFactory;
+import org.apache.parquet.io.LocalInputFile;
+import org.apache.parquet.io.MessageColumnIO;
+import org.apache.parquet.io.RecordReader;
+import org.apache.parquet.schema.MessageType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParquetWriterTest {
+    
+    @TempDir
+    Path tempDir;
+    
+    @Test
+    void testFileLayout() throws IOException {
+        Path file = tempDir.resolve("out.parquet");
+        ParquetWriter writer = new ParquetWriter(file.toString());
+        for (int i = 0; i < 100; i++) {
+            ScrapedData data = new ScrapedData("Title " + (i % 3), null, "https://example.com/" + i);
+            data.setPrice("$9.99");
+            writer.writeData(data);
+        }
+        writer.close();
+        
+        byte[] bytes = Files.readAllBytes(file);
+        assertEquals("PAR1", new String(bytes, 0, 4, StandardCharsets.US_ASCII));
+        assertEquals("PAR1", new String(bytes, bytes.length - 4, 4, StandardCharsets.US_ASCII));
+        
+        int footerLength = ByteBuffer.wrap(bytes, bytes.length - 8, 4).order(ByteOrder.LITTLE_ENDIAN).getInt();
+        assertTrue(footerLength > 0 && footerLength < bytes.length - 12);
+        String footer = new String(bytes, bytes.length - 8 - footerLength, footerLength, StandardCharsets.ISO_8859_1);
+        assertTrue(footer.contains("image_url"));
+        assertTrue(footer.contains("simple-web-scraper"));
+    }
+    
+    @Test
+    void testTypedColumnsArePlainEncoded() throws IOException {
+        ExtractionSchema schema = new ExtractionSchema("div", List.of(
+                new FieldSpec("sku", "span", FieldSpec.Source.TEXT, true),
+                new FieldSpec("stock", ".stock", FieldSpec.Source.TEXT, null, null, FieldSpec.Type.INTEGER, false),
+                new FieldSpec("price", ".price", FieldSpec.Source.TEXT, null, null, FieldSpec.Type.NUMBER, false)));
+        WriterOptions options = new WriterOptions();
+        options.setSchema(schema);
+        Path file = tempDir.resolve("typed.parquet");
+        ParquetWriter writer = new ParquetWriter(file.toString(), options);
+        long[] stock = {3, -7, 1L << 40};
+        for (long value : stock) {
+            ScrapedData data = new ScrapedData(schema);
+            data.set("sku", "A" + value);
+            data.set("stock", value);
+            data.set("price", value / 2.0);
+            writer.writeData(data);
+        }
+        writer.writeData(new ScrapedData(schema));
+        writer.close();
+        
+        // Non-null values follow the definition levels as little-endian INT64 and DOUBLE
+        byte[] bytes = Files.readAllBytes(file);
+        ByteBuffer longs = ByteBuffer.allocate(24).order(ByteOrder.LITTLE_ENDIAN);
+        ByteBuffer doubles = ByteBuffer.allocate(24).order(ByteOrder.LITTLE_ENDIAN);
+        for (long value : stock) {
+            longs.putLong(value);
+            doubles.putDouble(value / 2.0);
+        }
+        assertTrue(indexOf(bytes, longs.array()) > 0);
+        assertTrue(indexOf(bytes, doubles.array()) > 0);
+    }
+    
+    @Test
+    void testParquetJavaReadsBackValuesAndNulls() throws IOException {
+        ExtractionSchema schema = new ExtractionSchema("div", List.of(
+                new FieldSpec("category", "span", FieldSpec.Source.TEXT, false),
+                new FieldSpec("sku", ".sku", FieldSpec.Source.TEXT, true),
+                new FieldSpec("stock", ".stock", FieldSpec.Source.TEXT, null, null, FieldSpec.Type.INTEGER, false),
+                new FieldSpec("price", ".price", FieldSpec.Source.TEXT, null, null, FieldSpec.Type.NUMBER, false),
+                new FieldSpec("sale", ".sale", FieldSpec.Source.TEXT, null, null, FieldSpec.Type.BOOLEAN, false)));
+        List<ScrapedData> rows = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            ScrapedData data = new ScrapedData(schema);
+            // Few distinct categories are dictionary-encoded; unique SKUs stay plain
+            data.set("category", i % 7 == 0 ? null : "Category " + (i % 3));
+            data.set("sku", i % 11 == 0 ? null : "SKU-" + i + "-é");
+            data.set("stock", i % 5 == 0 ? null : (long) i * (i % 2 == 0 ? 1 : -1) << 33);
+            data.set("price", i % 4 == 0 ? null : i / 4.0);
+            data.set("sale", i % 3 == 0 ? null : i % 2 == 0);
+            rows.add(data);
+        }
+        
+        for (OutputCompression compression : OutputCompression.values()) {
+            WriterOptions options = new WriterOptions();
+            options.setSchema(schema);
+            options.setRowGroupRows(40);
+            options.setCompression(compression);
+            Path file = tempDir.resolve("roundtrip-" + compression + ".parquet");
+            ParquetWriter writer = new ParquetWriter(file.toString(), options);
+            writer.writeData(rows);
+            writer.close();
+            
+            List<Group> groups = readAll(file);
+            assertEquals(rows.size(), groups.size(), compression.toString());
+            for (int row = 0; row < rows.size(); row++) {
+                for (int field = 0; field < schema.size(); field++) {
+                    Object expected = rows.get(row).get(field);
+                    assertEquals(expected, valueOf(groups.get(row), schema.getName(field), schema.getType(field)),
+                                 compression + " row " + row + " " + schema.getName(field));
+                }
+            }
+        }
+    }
+    
+    @Test
+    void testRotationLeavesNoEmptyTrailingFile() throws IOException {
+        WriterOptions options = new WriterOptions();
+        options.setRowGroupRows(50);
+        options.setMaxFileBytes(1);
+        ParquetWriter writer = new ParquetWriter(tempDir.resolve("even.parquet").toString(), options);
+        for (int i = 0; i < 100; i++) {
+            writer.writeData(new ScrapedData("Title " + i, "Description " + i, "https://example.com/" + i));
+        }
+        writer.close();
+        
+        // The last row completed a row group that triggered a rotation, so no third file is opened
+        assertEquals(2, writer.getFileCount());
+        assertFalse(Files.exists(tempDir.resolve("even_2.parquet")));
+        assertEquals(50, readAll(tempDir.resolve("even_1.parquet")).size());
+        assertEquals(Files.size(tempDir.resolve("even.parquet")) + Files.size(tempDir.resolve("even_1.parquet")),
+                     writer.getBytesWritten());
+    }
+    
+    @Test
+    void testRotatesAtRowGroupBoundaries() {
+        WriterOptions options = new WriterOptions();
+        options.setRowGroupRows(50);
+        options.setMaxFileBytes(1);
+        options.setCompression(OutputCompression.ZSTD);
+        ParquetWriter writer = new ParquetWriter(tempDir.resolve("out.parquet").toString(), options);
+        for (int i = 0; i < 120; i++) {
+            writer.writeData(new ScrapedData("Title " + i, "Description " + i, "https://example.com/" + i));
+        }
+        writer.close();
+        
+        // Two full row groups each trigger a rotation; the remaining 20 rows land in the third file
+        assertEquals(3, writer.getFileCount());
+        assertTrue(Files.exists(tempDir.resolve("out_2.parquet")));
+    }
+    
+    @Test
+    void testRleHybridRoundTrip() throws IOException {
+        int[] values = new int[1000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i < 300 ? 5 : (i * 7) % 13;
+        }
+        values[999] = 12;
+        
+        int bitWidth = RleHybridEncoder.bitWidth(12);
+        byte[] encoded = RleHybridEncoder.encode(values, values.length, bitWidth);
+        RunLengthBitPackingHybridDecoder decoder =
+                new RunLengthBitPackingHybridDecoder(bitWidth, new ByteArrayInputStream(encoded));
+        int[] decoded = new int[values.length];
+        for (int i = 0; i < decoded.length; i++) {
+            decoded[i] = decoder.readInt();
+        }
+        assertArrayEquals(values, decoded);
+        assertTrue(encoded.length < values.length, "Expected the run of 5s to be RLE-encoded");
+    }
+    
+    /**
+     * Reads every row of a file with parquet-java's own reader.
+     */
+    private static List<Group> readAll(Path file) throws IOException {
+        List<Group> groups = new ArrayList<>();
+        try (ParquetFileReader reader = ParquetFileReader.open(new LocalInputFile(file))) {
+            MessageType fileSchema = reader.getFooter().getFileMetaData().getSchema();
+            MessageColumnIO columnIO = new ColumnIOFactory().getColumnIO(fileSchema);
+            PageReadStore rowGroup;
+            while ((rowGroup = reader.readNextRowGroup()) != null) {
+                RecordReader<Group> records = columnIO.getRecordReader(rowGroup, new GroupRecordConverter(fileSchema));
+                for (long i = 0; i < rowGroup.getRowCount(); i++) {
+                    groups.add(records.read());
+                }
+            }
+        }
+        return groups;
+    }
+    
+    private static Object valueOf(Group group, String name, FieldSpec.Type type) {
+        if (group.getFieldRepetitionCount(name) == 0) {
+            return null;
+        }
+        switch (type) {
+            case INTEGER:
+                return group.getLong(name, 0);
+            case NUMBER:
+                return group.getDouble(name, 0);
+            case BOOLEAN:
+                return group.getBoolean(name, 0);
+            default:
+                return group.getString(name, 0);
+        }
+    }
+    
+    private static int indexOf(byte[] haystack, byte[] needle) {
+        for (int i = 0; i + needle.length <= haystack.length; i++) {
+            if (Arrays.equals(haystack, i, i + needle.length, needle, 0, needle.length)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,213 @@
+package com.example.scraper.core.persistence;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+
+import com.example.scraper.model.ExtractionSchema;
+import com.example.scraper.model.FieldSpec;
+import com.example.scraper.model.ScrapedData;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.luben.zstd.ZstdInputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RecordWriterTest {
+    
+    @TempDir
+    Path tempDir;
+    
+    @Test
+    void testCsvWritesHeaderOnce() throws IOException {
+        Path file = tempDir.resolve("out.csv");
+        CSVWriter writer = new CSVWriter(file.toString());
+        writer.writeData(List.of(record("First", "https://example.com/1"), record("Second, with comma", null)));
+        writer.writeData(record("Third", "https://example.com/3"));
+        writer.close();
+        
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        assertEquals(4, lines.size());
+        assertEquals("title,description,url,price,image_url", lines.get(0));
+        assertEquals("First,,https://example.com/1,,", lines.get(1));
+        assertEquals("\"Second, with comma\",,,,", lines.get(2));
+    }
+    
+    @Test
+    void testJsonlGroupCommit() throws IOException, InterruptedException {
+        Path file = tempDir.resolve("out.jsonl");
+        JSONLWriter writer = new JSONLWriter(file.toString(), false, 3, 50);
+        
+        writer.writeData(record("One", "https://example.com/1"));
+        assertEquals(0, Files.size(file), "A single record should stay buffered");
+        
+        // The interval flush writes it out without further records
+        long deadline = System.currentTimeMillis() + 5000;
+        while (Files.size(file) == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertEquals(1, Files.readAllLines(file).size());
+        writer.close();
+        
+        JsonNode node = new ObjectMapper().readTree(Files.readAllLines(file).get(0));
+        assertEquals("One", node.get("title").asText());
+        assertTrue(node.get("price").isNull());
+    }
+    
+    @Test
+    void testWritesSchemaFieldsWithTheirTypes() throws IOException {
+        ExtractionSchema schema = new ExtractionSchema("div", List.of(
+                new FieldSpec("sku", "span", FieldSpec.Source.TEXT, true),
+                new FieldSpec("price", ".price", FieldSpec.Source.TEXT, null, null, FieldSpec.Type.NUMBER, false),
+                new FieldSpec("stock", ".stock", FieldSpec.Source.TEXT, null, null, FieldSpec.Type.INTEGER, false),
+                new FieldSpec("sale", ".sale", FieldSpec.Source.TEXT, null, null, FieldSpec.Type.BOOLEAN, false)));
+        WriterOptions options = new WriterOptions();
+        options.setSchema(schema);
+        ScrapedData record = new ScrapedData(schema);
+        record.set("sku", "A-1");
+        record.set("price", 12.5);
+        record.set("stock", 3L);
+        
+        Path jsonl = tempDir.resolve("typed.jsonl");
+        JSONLWriter jsonlWriter = new JSONLWriter(jsonl.toString(), false, options);
+        jsonlWriter.writeData(record);
+        // Records must have the writer's fields
+        assertThrows(IllegalArgumentException.class, () -> jsonlWriter.writeData(record("Title", null)));
+        jsonlWriter.close();
+        assertEquals("{\"sku\":\"A-1\",\"price\":12.5,\"stock\":3,\"sale\":null}",
+                     Files.readAllLines(jsonl).get(0));
+        
+        Path csv = tempDir.resolve("typed.csv");
+        CSVWriter csvWriter = new CSVWriter(csv.toString(), false, options);
+        csvWriter.writeData(record);
+        csvWriter.close();
+        assertEquals(List.of("sku,price,stock,sale", "A-1,12.5,3,"), Files.readAllLines(csv));
+    }
+    
+    @Test
+    void testConcurrentWritesProduceWholeLines() throws Exception {
+        Path file = tempDir.resolve("concurrent.jsonl");
+        JSONLWriter writer = new JSONLWriter(file.toString(), false, 100, 0);
+        List<Thread> threads = new ArrayList<>();
+        
+        for (int t = 0; t < 8; t++) {
+            int threadId = t;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 500; i++) {
+                    writer.writeData(record("t" + threadId + "-" + i, "https://example.com/" + i));
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        writer.close();
+        
+        ObjectMapper mapper = new ObjectMapper();
+        Set<String> titles = new HashSet<>();
+        for (String line : Files.readAllLines(file)) {
+            titles.add(mapper.readTree(line).get("title").asText());
+        }
+        assertEquals(4000, titles.size());
+    }
+    
+    @Test
+    void testGzipSegmentsAreIndependent() throws IOException {
+        WriterOptions options = new WriterOptions();
+        options.setCompression(OutputCompression.GZIP);
+        options.setMaxFileBytes(4096);
+        JSONLWriter writer = new JSONLWriter(tempDir.resolve("out.jsonl").toString(), false, options);
+        for (int i = 0; i < 200; i++) {
+            writer.writeData(record("Record " + i, "https://example.com/" + i));
+        }
+        int fileCount = writer.getFileCount();
+        writer.close();
+        
+        assertTrue(fileCount > 1, "Expected the output to rotate");
+        assertTrue(Files.exists(tempDir.resolve("out.jsonl.gz")));
+        int total = 0;
+        for (int i = 0; i < fileCount; i++) {
+            Path segment = tempDir.resolve(i == 0 ? "out.jsonl.gz" : "out_" + i + ".jsonl.gz");
+            try (InputStream in = new GZIPInputStream(Files.newInputStream(segment))) {
+                String text = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+                total += text.split("\n").length;
+                assertTrue(text.length() <= 4096 + 200, "Segment too large: " + text.length());
+            }
+        }
+        assertEquals(200, total);
+    }
+    
+    @Test
+    void testZstdRoundTrip() throws IOException {
+        WriterOptions options = new WriterOptions();
+        options.setCompression(OutputCompression.ZSTD);
+        CSVWriter writer = new CSVWriter(tempDir.resolve("out.csv").toString(), false, options);
+        writer.writeData(record("Compressed", "https://example.com/z"));
+        writer.close();
+        
+        try (InputStream in = new ZstdInputStream(Files.newInputStream(tempDir.resolve("out.csv.zst")))) {
+            String text = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            assertEquals("title,description,url,price,image_url\nCompressed,,https://example.com/z,,\n", text);
+        }
+    }
+    
+    @Test
+    void testResumeCutsOutputBackToPosition() throws IOException {
+        Path file = tempDir.resolve("out.jsonl");
+        WriterOptions options = new WriterOptions();
+        options.setMaxFileBytes(200);
+        JSONLWriter writer = new JSONLWriter(file.toString(), false, options);
+        List<WriterPosition> positions = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            writer.writeData(record("Record " + i, "https://example.com/" + i));
+            positions.add(writer.getPosition());
+        }
+        writer.close();
+        assertTrue(writer.getFileCount() > 2, "Expected the output to rotate");
+        
+        // Continue after record 9 as if records 10-19 had been lost with their pages
+        WriterPosition position = positions.get(9);
+        assertTrue(AbstractRecordWriter.reaches(file.toString(), position));
+        options.setResumePosition(position);
+        JSONLWriter resumed = new JSONLWriter(file.toString(), false, options);
+        assertEquals(position, resumed.getPosition());
+        for (int i = 10; i < 20; i++) {
+            resumed.writeData(record("Record " + i, "https://example.com/" + i));
+        }
+        resumed.close();
+        
+        ObjectMapper mapper = new ObjectMapper();
+        List<String> titles = new ArrayList<>();
+        for (int i = 0; Files.exists(tempDir.resolve(i == 0 ? "out.jsonl" : "out_" + i + ".jsonl")); i++) {
+            for (String line : Files.readAllLines(tempDir.resolve(i == 0 ? "out.jsonl" : "out_" + i + ".jsonl"))) {
+                titles.add(mapper.readTree(line).get("title").asText());
+            }
+        }
+        assertEquals(20, titles.size());
+        for (int i = 0; i < 20; i++) {
+            assertEquals("Record " + i, titles.get(i));
+        }
+        assertFalse(AbstractRecordWriter.reaches(file.toString(), new WriterPosition(0, 1 << 20)));
+        
+        options.setCompression(OutputCompression.GZIP);
+        assertThrows(IllegalArgumentException.class, () -> new JSONLWriter(file.toString(), false, options));
+    }
+    
+    private static ScrapedData record(String title, String url) {
+        return new ScrapedData(title, null, url);
+    }
+}
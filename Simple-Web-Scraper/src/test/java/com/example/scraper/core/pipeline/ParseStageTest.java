@@ -0,0 +1,157 @@
+package com.example.scraper.core.pipeline;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParseStageTest {
+    
+    @Test
+    void testRunsTasksOnParseThreads() throws Exception {
+        try (ParseStage stage = new ParseStage(2, 4)) {
+            String thread = stage.submit(() -> Thread.currentThread().getName()).get(5, TimeUnit.SECONDS);
+            
+            assertTrue(thread.startsWith("parse-worker-"), thread);
+            assertEquals(1, stage.getCompletedCount());
+        }
+    }
+    
+    @Test
+    void testBlocksHandoffWhenQueueIsFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        ParseStage stage = new ParseStage(1, 1);
+        
+        // One task is running and one waits in the queue; the third handoff must block
+        CountDownLatch running = new CountDownLatch(1);
+        stage.submit(() -> {
+            running.countDown();
+            return await(release);
+        });
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        stage.submit(() -> await(release));
+        CountDownLatch handedOff = new CountDownLatch(1);
+        Thread fetcher = new Thread(() -> {
+            stage.submit(() -> await(release));
+            handedOff.countDown();
+        });
+        fetcher.start();
+        
+        assertFalse(handedOff.await(200, TimeUnit.MILLISECONDS), "Handoff should wait for a parse thread");
+        release.countDown();
+        assertTrue(handedOff.await(5, TimeUnit.SECONDS));
+        stage.close();
+        
+        assertEquals(3, stage.getCompletedCount());
+        assertEquals(1, stage.getBlockedHandoffCount());
+        assertEquals(1, stage.getMaxQueueDepth());
+    }
+    
+    @Test
+    void testBlocksHandoffWhenQueuedBodiesFillTheByteLimit() throws Exception {
+        CountDownLatch startReading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try (ParseStage stage = new ParseStage(1, 8, 40_000)) {
+            CompletableFuture<Integer> first = stage.submit(body(32_768), input -> {
+                await(startReading);
+                try {
+                    int read = input.readNBytes(BufferedBody.CHUNK_BYTES).length;
+                    await(release);
+                    return read + input.readAllBytes().length;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            assertEquals(32_768, stage.getQueuedBytes());
+            
+            CompletableFuture<CompletableFuture<Integer>> second = CompletableFuture.supplyAsync(
+                    () -> stage.submit(body(20_000), ParseStageTest::readAll));
+            assertThrows(TimeoutException.class, () -> second.get(200, TimeUnit.MILLISECONDS),
+                         "Handoff should wait for room in the byte limit");
+            
+            // The first chunk read gives back enough room while the first body is still being parsed
+            startReading.countDown();
+            CompletableFuture<Integer> handedOff = second.get(5, TimeUnit.SECONDS);
+            assertFalse(first.isDone());
+            release.countDown();
+            
+            assertEquals(32_768, first.get(5, TimeUnit.SECONDS));
+            assertEquals(20_000, handedOff.get(5, TimeUnit.SECONDS));
+            assertEquals(0, stage.getQueuedBytes());
+            assertEquals(1, stage.getBlockedHandoffCount());
+        }
+    }
+    
+    @Test
+    void testBufferedBodyReadsBackItsBytes() throws Exception {
+        byte[] bytes = new byte[BufferedBody.CHUNK_BYTES * 2 + 5];
+        new Random(7).nextBytes(bytes);
+        BufferedBody body = BufferedBody.read(new ByteArrayInputStream(bytes));
+        
+        assertEquals(bytes.length, body.size());
+        assertEquals(bytes[0] & 0xff, body.read());
+        assertArrayEquals(Arrays.copyOfRange(bytes, 1, bytes.length), body.readAllBytes());
+        assertEquals(-1, body.read());
+        assertEquals(0, BufferedBody.read(new ByteArrayInputStream(new byte[0])).size());
+    }
+    
+    @Test
+    void testTaskFailureCompletesFutureExceptionally() {
+        try (ParseStage stage = new ParseStage(1, 1)) {
+            CompletableFuture<Object> result = stage.submit(() -> {
+                throw new IllegalStateException("bad page");
+            });
+            
+            ExecutionException e = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+            assertEquals("bad page", e.getCause().getMessage());
+        }
+    }
+    
+    @Test
+    void testRejectsTasksAfterClose() {
+        ParseStage stage = new ParseStage(1, 1);
+        stage.close();
+        
+        assertTrue(stage.submit(() -> "late").isCompletedExceptionally());
+    }
+    
+    private static BufferedBody body(int size) {
+        try {
+            return BufferedBody.read(new ByteArrayInputStream(new byte[size]));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    private static int readAll(InputStream input) {
+        try {
+            return input.readAllBytes().length;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    private static boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
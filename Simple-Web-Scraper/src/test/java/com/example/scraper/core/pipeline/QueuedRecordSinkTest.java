@@ -0,0 +1,81 @@
+package com.example.scraper.core.pipeline;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import com.example.scraper.model.ScrapedData;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QueuedRecordSinkTest {
+    
+    @Test
+    void testWritesRecordsInOrder() {
+        List<String> written = Collections.synchronizedList(new ArrayList<>());
+        QueuedRecordSink sink = new QueuedRecordSink(records -> records.forEach(r -> written.add(r.getTitle())), 2);
+        
+        for (int i = 0; i < 10; i++) {
+            sink.accept(List.of(record("page " + i)));
+        }
+        sink.accept(List.of());
+        sink.close();
+        
+        assertEquals(10, sink.getRecordsWritten());
+        assertEquals("page 0", written.get(0));
+        assertEquals("page 9", written.get(9));
+    }
+    
+    @Test
+    void testBlocksWhenWriterFallsBehind() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        QueuedRecordSink sink = new QueuedRecordSink(records -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, 1);
+        
+        // One page is being written and one waits in the queue; the third must block
+        sink.accept(List.of(record("a")));
+        sink.accept(List.of(record("b")));
+        CountDownLatch accepted = new CountDownLatch(1);
+        Thread producer = new Thread(() -> {
+            sink.accept(List.of(record("c")));
+            accepted.countDown();
+        });
+        producer.start();
+        
+        assertFalse(accepted.await(200, TimeUnit.MILLISECONDS), "Producer should wait for the writer");
+        release.countDown();
+        assertTrue(accepted.await(5, TimeUnit.SECONDS));
+        sink.close();
+        
+        assertEquals(3, sink.getRecordsWritten());
+        assertTrue(sink.getBlockedAcceptCount() >= 1);
+    }
+    
+    @Test
+    void testWriterFailureIsReported() {
+        QueuedRecordSink sink = new QueuedRecordSink(records -> {
+            throw new IllegalStateException("disk full");
+        }, 4);
+        sink.accept(List.of(record("a")));
+        
+        RuntimeException e = assertThrows(RuntimeException.class, sink::close);
+        assertEquals("disk full", e.getCause().getMessage());
+    }
+    
+    private static ScrapedData record(String title) {
+        ScrapedData data = new ScrapedData();
+        data.setTitle(title);
+        return data;
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.scraper.core.robots;
+
+import java.net.http.HttpHeaders;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RobotsCacheTest {
+    
+    private static final long HOUR = Duration.ofHours(1).toMillis();
+    
+    @TempDir
+    Path tempDir;
+    
+    @Test
+    void testEvictsLeastRecentlyUsed() {
+        RobotsCache cache = new RobotsCache(2);
+        long now = System.currentTimeMillis();
+        cache.put("https://a.example.com", new RobotsCache.Entry("", now, now + HOUR));
+        cache.put("https://b.example.com", new RobotsCache.Entry("", now, now + HOUR));
+        
+        // Touch a so that b becomes the eldest
+        assertNotNull(cache.get("https://a.example.com"));
+        cache.put("https://c.example.com", new RobotsCache.Entry("", now, now + HOUR));
+        
+        assertEquals(2, cache.size());
+        assertNotNull(cache.get("https://a.example.com"));
+        assertNull(cache.get("https://b.example.com"));
+    }
+    
+    @Test
+    void testPersistsAcrossInstances() {
+        Path file = tempDir.resolve("cache").resolve(RobotsCache.FILE_NAME);
+        long now = System.currentTimeMillis();
+        
+        RobotsCache cache = new RobotsCache(10, file);
+        cache.put("https://fresh.example.com", new RobotsCache.Entry("User-agent: *\nDisallow: /private\n", now, now + HOUR));
+        cache.put("https://stale.example.com", new RobotsCache.Entry("", now - 2 * HOUR, now - HOUR));
+        cache.put("https://dead.example.com", new RobotsCache.Entry("", now - 50 * HOUR, now - 26 * HOUR));
+        cache.save();
+        assertTrue(Files.exists(file));
+        
+        RobotsCache reloaded = new RobotsCache(10, file);
+        assertEquals(2, reloaded.size());
+        assertEquals("User-agent: *\nDisallow: /private\n", reloaded.get("https://fresh.example.com").getContent());
+        
+        RobotsCache.Entry stale = reloaded.get("https://stale.example.com");
+        assertTrue(stale.isExpired(now));
+        assertTrue(stale.isUsable(now));
+        assertNull(reloaded.get("https://dead.example.com"));
+    }
+    
+    @Test
+    void testCacheLifetimeFromHeaders() {
+        long now = System.currentTimeMillis();
+        
+        assertEquals(RobotsCache.DEFAULT_TTL, RobotsTxtCompliance.cacheLifetime(headers(Map.of()), now));
+        assertEquals(Duration.ofHours(2),
+                RobotsTxtCompliance.cacheLifetime(headers(Map.of("Cache-Control", "public, max-age=7200")), now));
+        assertEquals(RobotsCache.DEFAULT_TTL,
+                RobotsTxtCompliance.cacheLifetime(headers(Map.of("Cache-Control", "max-age=31536000")), now));
+        assertEquals(RobotsTxtCompliance.MIN_TTL,
+                RobotsTxtCompliance.cacheLifetime(headers(Map.of("Cache-Control", "no-cache")), now));
+        assertEquals(Duration.ofHours(3), RobotsTxtCompliance.cacheLifetime(headers(Map.of(
+                "Date", "Tue, 15 Nov 1994 08:12:31 GMT",
+                "Expires", "Tue, 15 Nov 1994 11:12:31 GMT")), now));
+        assertEquals(RobotsTxtCompliance.MIN_TTL,
+                RobotsTxtCompliance.cacheLifetime(headers(Map.of("Expires", "0")), now));
+    }
+    
+    @Test
+    void testMissingFileStartsEmpty() {
+        RobotsCache cache = new RobotsCache(10, tempDir.resolve(RobotsCache.FILE_NAME));
+        assertEquals(0, cache.size());
+        assertFalse(Files.exists(cache.getFile()));
+    }
+    
+    private static HttpHeaders headers(Map<String, String> values) {
+        Map<String, List<String>> map = new HashMap<>();
+        values.forEach((name, value) -> map.put(name, List.of(value)));
+        return HttpHeaders.of(map, (name, value) -> true);
+    }
+}
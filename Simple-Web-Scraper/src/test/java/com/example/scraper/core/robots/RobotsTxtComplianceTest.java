@@ -1,18 +1,34 @@
 package com.example.scraper.core.robots;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
 import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import com.example.scraper.StubHttpServer;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class RobotsTxtComplianceTest {
     
-    private static final String TEST_DOMAIN = "https://example.com";
+    private static final String ROBOTS_TXT = "User-agent: *\nDisallow: /private\n";
     
+    private StubHttpServer server;
+    private String testDomain;
     private RobotsTxtCompliance robotsCompliance;
     
     RobotsTxtComplianceTest() {
@@ -20,31 +36,40 @@ class RobotsTxtComplianceTest {
     }
     
     @BeforeEach
-    void setUp() {
+    void setUp() throws IOException {
+        // A local robots.txt keeps these tests independent of the network
+        server = StubHttpServer.start().serve("/robots.txt", "text/plain", ROBOTS_TXT);
+        testDomain = server.getOrigin();
         HttpClient httpClient = HttpClient.newBuilder().build();
         robotsCompliance = new RobotsTxtCompliance(httpClient);
     }
     
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+    
     @Test
     void testGetCrawlDelay() {
-        // Test with a domain that should have default delay
-        long delay = robotsCompliance.getCrawlDelay(TEST_DOMAIN);
+        // robots.txt has no Crawl-delay, so the default delay applies
+        long delay = robotsCompliance.getCrawlDelay(testDomain);
         
-        // Should return default delay (1000ms) or actual delay from robots.txt
-        assertTrue(delay >= 1000);
+        assertEquals(1000, delay);
     }
     
     @Test
     void testIsUrlAllowed() {
-        // Test with a URL that should be allowed
-        boolean allowed = robotsCompliance.isUrlAllowed(TEST_DOMAIN + "/page");
+        assertTrue(robotsCompliance.isUrlAllowed(testDomain + "/page"));
+        assertFalse(robotsCompliance.isUrlAllowed(testDomain + "/private/page"));
         
-        // Should be allowed by default or based on robots.txt
-        assertTrue(allowed);
+        // Both lookups were answered from one fetch of robots.txt
+        assertEquals(1, server.getRequestCount());
     }
     
     @Test
     void testClearCache() {
+        robotsCompliance.isUrlAllowed(testDomain + "/page");
+        
         // Clear cache should not throw exception
         assertDoesNotThrow(() -> robotsCompliance.clearCache());
         
@@ -57,11 +82,92 @@ class RobotsTxtComplianceTest {
         int initialSize = robotsCompliance.getCacheSize();
         
         // Try to get rules for a domain to populate cache
-        robotsCompliance.getCrawlDelay(TEST_DOMAIN);
+        robotsCompliance.getCrawlDelay(testDomain);
         
         int newSize = robotsCompliance.getCacheSize();
         
         // Cache size should have increased
-        assertTrue(newSize >= initialSize);
+        assertEquals(initialSize + 1, newSize);
+    }
+    
+    @Test
+    void testExpiredEntryIsServedWhileRefreshing() throws IOException, InterruptedException {
+        AtomicInteger requests = new AtomicInteger();
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/robots.txt", exchange -> {
+            requests.incrementAndGet();
+            byte[] body = "User-agent: *\nDisallow: /private\nCrawl-delay: 2\n".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Cache-Control", "max-age=3600");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        
+        try {
+            String origin = "http://127.0.0.1:" + server.getAddress().getPort();
+            RobotsCache cache = new RobotsCache(10);
+            long now = System.currentTimeMillis();
+            cache.put(origin, new RobotsCache.Entry("", now - 7_200_000, now - 1000));
+            RobotsTxtCompliance compliance = new RobotsTxtCompliance(HttpClient.newHttpClient(), cache);
+            
+            // The stale copy allows everything and is answered without waiting for the server
+            assertTrue(compliance.isUrlAllowed(origin + "/private/page"));
+            
+            for (int i = 0; i < 100 && cache.get(origin).isExpired(System.currentTimeMillis()); i++) {
+                Thread.sleep(50);
+            }
+            assertFalse(compliance.isUrlAllowed(origin + "/private/page"));
+            assertTrue(compliance.isUrlAllowed(origin + "/public/page"));
+            assertEquals(2000, compliance.getCrawlDelay(origin + "/public/page"));
+            assertEquals(1, requests.get());
+        } finally {
+            server.stop(0);
+        }
+    }
+    
+    @Test
+    void testConcurrentLookupsShareOneFetch() throws IOException, InterruptedException {
+        AtomicInteger requests = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/robots.txt", exchange -> {
+            requests.incrementAndGet();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = "User-agent: *\nDisallow: /private\n".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        
+        try {
+            String origin = "http://127.0.0.1:" + server.getAddress().getPort();
+            RobotsTxtCompliance compliance = new RobotsTxtCompliance(HttpClient.newHttpClient());
+            
+            List<CompletableFuture<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 20; i++) {
+                String path = i % 2 == 0 ? "/private/" : "/public/";
+                results.add(compliance.isUrlAllowedAsync(origin + path + i));
+            }
+            
+            // Nothing blocks the caller while robots.txt is outstanding
+            assertFalse(results.get(0).isDone());
+            release.countDown();
+            
+            for (int i = 0; i < results.size(); i++) {
+                assertEquals(i % 2 != 0, results.get(i).join());
+            }
+            assertEquals(1, requests.get());
+            assertEquals(1, compliance.getCacheSize());
+        } finally {
+            server.stop(0);
+        }
     }
 }
@@ -0,0 +1,232 @@
+package com.example.scraper.server;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.example.scraper.StubHttpServer;
+import com.example.scraper.cli.ScrapeOptions;
+import com.example.scraper.cli.ScraperConfig;
+import com.example.scraper.cli.WebScraper;
+import com.example.scraper.core.parser.SelectorProfiles;
+import com.example.scraper.model.DataSelectors;
+import com.example.scraper.model.ExtractionSchema;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JobServerTest {
+    
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    
+    @TempDir
+    Path jobsDir;
+    
+    private StubHttpServer site;
+    private WebScraper scraper;
+    private JobServer jobServer;
+    private HttpClient client;
+    
+    @BeforeEach
+    void setUp() throws IOException {
+        site = StubHttpServer.start()
+                .serve("/robots.txt", "text/plain", "User-agent: *\nDisallow: /private\n")
+                .serveAll("/catalog/", "text/html", path -> "<html><body>"
+                        + "<div class=\"product\"><h2>First " + path + "</h2><span class=\"price\">$1</span></div>"
+                        + "<div class=\"product\"><h2>Second " + path + "</h2><span class=\"price\">$2</span></div>"
+                        + "</body></html>");
+        
+        ScraperConfig config = new ScraperConfig();
+        config.setDelayMs(0);
+        config.setCacheDir(null);
+        config.setServerPort(0);
+        config.setJobsDir(jobsDir.toString());
+        config.setMaxJobs(2);
+        DataSelectors selectors = new DataSelectors("article", "h1", "p", "a");
+        selectors.setPriceSelector(".price");
+        scraper = new WebScraper(config, SelectorProfiles.of(ExtractionSchema.fromSelectors(selectors)));
+        jobServer = JobServer.start(scraper, config, selectors);
+        client = HttpClient.newHttpClient();
+    }
+    
+    @AfterEach
+    void tearDown() {
+        jobServer.close();
+        scraper.close();
+        site.close();
+    }
+    
+    @Test
+    void testRunsJobAndExportsItsRecords() throws Exception {
+        JsonNode created = send("POST", "/api/jobs", "{\"urls\": [\"" + site.url("/catalog/1") + "\", \""
+                + site.url("/catalog/2") + "\", \"" + site.url("/catalog/3") + "\"],"
+                + " \"selectors\": {\"containerSelector\": \".product\", \"titleSelector\": \"h2\", \"urlSelector\": \"\"},"
+                + " \"config\": {\"rateLimitMs\": 0, \"maxPages\": 2}}");
+        String id = created.path("job").path("id").asText();
+        
+        JsonNode job = awaitFinished(id);
+        assertEquals("COMPLETED", job.path("status").asText());
+        assertEquals(2, job.path("progress").path("pagesScraped").asInt());
+        assertEquals(100, job.path("progress").path("percentage").asInt());
+        assertEquals(".product", job.path("selectors").path("containerSelector").asText());
+        assertEquals(4, job.path("recordCount").asInt());
+        assertEquals(4, job.path("results").size());
+        
+        JsonNode page = send("GET", "/api/jobs/" + id + "/results?page=2&pageSize=3", null);
+        assertEquals(1, page.path("results").size());
+        assertEquals("$2", page.path("results").get(0).path("price").asText());
+        
+        HttpResponse<String> csv = client.send(request("GET", "/api/jobs/" + id + "/export?format=csv", null),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, csv.statusCode());
+        assertTrue(csv.headers().firstValue("Content-Disposition").orElse("").contains("job-" + id + ".csv"));
+        assertEquals(5, csv.body().split("\n").length);
+        assertTrue(csv.body().startsWith("title,description,url,price,image_url\n"));
+    }
+    
+    @Test
+    void testListsJobsAndRejectsBadRequests() throws Exception {
+        String id = send("POST", "/api/jobs", "{\"urls\": [\"" + site.url("/catalog/1") + "\"]}")
+                .path("job").path("id").asText();
+        awaitFinished(id);
+        
+        JsonNode jobs = send("GET", "/api/jobs", null).path("jobs");
+        assertEquals(1, jobs.size());
+        assertEquals(id, jobs.get(0).path("id").asText());
+        
+        HttpResponse<String> noUrls = client.send(request("POST", "/api/jobs", "{\"urls\": []}"),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(400, noUrls.statusCode());
+        assertEquals("At least one URL is required", objectMapper.readTree(noUrls.body()).path("message").asText());
+        
+        HttpResponse<String> missing = client.send(request("GET", "/api/jobs/unknown/status", null),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(404, missing.statusCode());
+        
+        HttpResponse<String> cancelFinished = client.send(request("POST", "/api/jobs/" + id + "/cancel", ""),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(409, cancelFinished.statusCode());
+    }
+    
+    @Test
+    void testTestsSelectorsAndChecksRobots() throws Exception {
+        JsonNode result = send("POST", "/api/test-selectors", "{\"url\": \"" + site.url("/catalog/9") + "\","
+                + " \"selectors\": {\"containerSelector\": \".product\", \"titleSelector\": \"h2\"}}");
+        assertEquals(2, result.path("matches").asInt());
+        assertTrue(result.path("validation").path("titleSelector").path("valid").asBoolean());
+        assertEquals(2, result.path("validation").path("titleSelector").path("matches").asInt());
+        assertEquals("First /catalog/9", result.path("sampleResults").get(0).path("title").asText());
+        
+        JsonNode invalid = send("POST", "/api/test-selectors", "{\"url\": \"" + site.url("/catalog/9") + "\","
+                + " \"selectors\": {\"containerSelector\": \"div[\", \"titleSelector\": \"h2\"}}");
+        assertEquals(0, invalid.path("matches").asInt());
+        assertFalse(invalid.path("validation").path("containerSelector").path("valid").asBoolean());
+        
+        JsonNode robots = send("GET", "/api/robots/" + URLEncoder.encode(site.getOrigin(), StandardCharsets.UTF_8), null);
+        assertTrue(robots.path("allowed").asBoolean());
+        assertEquals(site.getOrigin() + "/robots.txt", robots.path("robotsUrl").asText());
+    }
+    
+    @Test
+    void testRejectsCrossSiteRequests() throws Exception {
+        String body = "{\"urls\": [\"" + site.url("/catalog/1") + "\"]}";
+        URI jobs = URI.create("http://localhost:" + jobServer.getPort() + "/api/jobs");
+        HttpResponse<String> form = client.send(HttpRequest.newBuilder(jobs)
+                .header("Content-Type", "text/plain")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(415, form.statusCode());
+        
+        HttpResponse<String> foreignOrigin = client.send(HttpRequest.newBuilder(jobs)
+                .header("Origin", "https://attacker.example")
+                .build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(403, foreignOrigin.statusCode());
+        
+        // A DNS name rebound to 127.0.0.1 still carries its own name in the Host header
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), jobServer.getPort())) {
+            socket.getOutputStream().write(("GET /api/jobs HTTP/1.1\r\nHost: attacker.example:" + jobServer.getPort()
+                    + "\r\nConnection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+            String statusLine = new String(socket.getInputStream().readAllBytes(), StandardCharsets.US_ASCII).split("\r\n")[0];
+            assertTrue(statusLine.contains(" 403 "), statusLine);
+        }
+        
+        assertEquals(0, send("GET", "/api/jobs", null).path("jobs").size());
+    }
+    
+    @Test
+    void testForgetsTheOldestFinishedJobs() throws Exception {
+        ScraperConfig config = new ScraperConfig();
+        config.setDelayMs(0);
+        try (JobScheduler scheduler = new JobScheduler(scraper, jobsDir.resolve("retained"), 1, 4, 2)) {
+            List<ScrapeJob> submitted = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                submitted.add(scheduler.submit(List.of(site.url("/catalog/" + i)), null,
+                                               ScrapeOptions.from(config, null), false));
+            }
+            ScrapeJob pending = scheduler.submit(List.of(site.url("/catalog/3")), null,
+                                                 ScrapeOptions.from(config, null), false);
+            assertTrue(scheduler.getQueuedCount() >= 1);
+            assertTrue(scheduler.cancel(pending.getId()));
+            
+            // The cancelled job finished first, then one runner finishes the others in turn
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (scheduler.get(submitted.get(0).getId()) != null) {
+                assertTrue(System.currentTimeMillis() < deadline, "Jobs did not finish");
+                Thread.sleep(20);
+            }
+            
+            assertEquals(0, scheduler.getQueuedCount());
+            assertEquals(2, scheduler.list().size());
+            assertNull(scheduler.get(pending.getId()));
+            assertEquals(ScrapeJob.Status.COMPLETED, scheduler.get(submitted.get(1).getId()).getStatus());
+            assertEquals(ScrapeJob.Status.COMPLETED, scheduler.get(submitted.get(2).getId()).getStatus());
+            assertTrue(Files.exists(submitted.get(0).getJsonlFile()));
+        }
+    }
+    
+    private JsonNode awaitFinished(String id) throws Exception {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (true) {
+            JsonNode job = send("GET", "/api/jobs/" + id, null);
+            String status = job.path("status").asText();
+            if (!status.equals("PENDING") && !status.equals("RUNNING")) {
+                return job;
+            }
+            assertTrue(System.currentTimeMillis() < deadline, "Job did not finish: " + job);
+            Thread.sleep(20);
+        }
+    }
+    
+    private JsonNode send(String method, String path, String body) throws Exception {
+        HttpResponse<String> response = client.send(request(method, path, body), HttpResponse.BodyHandlers.ofString());
+        assertTrue(response.statusCode() < 300, method + " " + path + ": " + response.body());
+        return objectMapper.readTree(response.body());
+    }
+    
+    private HttpRequest request(String method, String path, String body) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + jobServer.getPort() + path))
+                .header("Content-Type", "application/json")
+                .method(method, body != null
+                        ? HttpRequest.BodyPublishers.ofString(body)
+                        : HttpRequest.BodyPublishers.noBody())
+                .build();
+    }
+}